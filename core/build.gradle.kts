@@ -1,6 +1,7 @@
 plugins {
     java
     jacoco
+    id("me.champeau.jmh") version "0.7.3"
 }
 
 group = "me.sunstorm"
@@ -22,10 +23,11 @@ dependencies {
     implementation(group = "org.apache.logging.log4j", name = "log4j-core",              version = "2.24.3")
     implementation(group = "org.apache.logging.log4j", name = "log4j-api",               version = "2.24.3")
     implementation(group = "org.apache.logging.log4j", name = "log4j-slf4j2-impl",       version = "2.24.3")
-    implementation(group = "org.ow2.asm",              name = "asm",                     version = "9.7.1")
     implementation(group = "org.slf4j",                name = "slf4j-api",               version = "2.0.17")
     implementation(group = "redis.clients",            name = "jedis",                   version = "5.2.0")
 
+    jmh(group = "org.ow2.asm", name = "asm", version = "9.7.1")
+
     testImplementation(platform("org.junit:junit-bom:5.12.0"))
     testImplementation("org.junit.jupiter:junit-jupiter")
     testRuntimeOnly("org.junit.platform:junit-platform-launcher")
@@ -0,0 +1,137 @@
+package me.sunstorm.showmanager.artnet;
+
+import ch.bildspur.artnet.ArtNetBuffer;
+import ch.bildspur.artnet.ArtNetCapture;
+import ch.bildspur.artnet.ArtNetReplay;
+import ch.bildspur.artnet.ArtNetServer;
+import ch.bildspur.artnet.events.ArtNetServerEventAdapter;
+import ch.bildspur.artnet.packets.*;
+import me.sunstorm.showmanager.dmx.DmxMergeEngine;
+import me.sunstorm.showmanager.dmx.DmxUniverseStore;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.InetAddress;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Replays a capture through the receive path of the server, one operation is the whole capture. <br>
+ * Pass an {@link ArtNetCapture} with {@code -Dartnet.capture=<file>}, otherwise one second of a busy network is
+ * generated: 200 universes at 44Hz from two consoles, with timecode and polls.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ArtNetReceiveBenchmark {
+    private final byte[] receiveBuffer = new byte[2048];
+    private final ArtNetPacketParser parser = new ArtNetPacketParser(PacketType.ART_OUTPUT, PacketType.ART_TIMECODE);
+    private final DmxUniverseStore store = new DmxUniverseStore();
+    private final DmxMergeEngine engine = new DmxMergeEngine(new DmxUniverseStore());
+    private final ArtNetBuffer buffer = new ArtNetBuffer();
+    // not started, fed by the replay
+    private final ArtNetServer server = new ArtNetServer();
+    private ArtNetReplay replay;
+
+    @Setup
+    public void setup() throws IOException {
+        String file = System.getProperty("artnet.capture");
+        replay = new ArtNetReplay(file != null ? Path.of(file) : generate());
+        server.addListener(new ArtNetServerEventAdapter() {
+            @Override
+            public void artNetPacketReceived(ArtNetPacket packet) {
+                if (packet instanceof ArtDmxPacket dmx)
+                    engine.submit(dmx.getPortAddress(), 0, DmxMergeEngine.sourceOf(dmx.getSource()), DmxMergeEngine.DEFAULT_PRIORITY,
+                            -1, dmx.getData(), ArtDmxPacket.DMX_OFFSET, dmx.getNumChannels(), System.nanoTime());
+            }
+        });
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        replay.close();
+    }
+
+    private static Path generate() throws IOException {
+        Path path = Files.createTempFile("artnet", ".capture");
+        path.toFile().deleteOnExit();
+        InetAddress[] consoles = {InetAddress.getByName("2.0.0.1"), InetAddress.getByName("2.0.0.2")};
+        try (ArtNetCapture capture = new ArtNetCapture(path)) {
+            byte[] levels = new byte[512];
+            for (int frame = 0; frame < 44; frame++) {
+                long nanos = frame * 1_000_000_000L / 44;
+                for (int universe = 0; universe < 200; universe++) {
+                    ArtDmxPacket packet = new ArtDmxPacket();
+                    packet.setUniverse(universe >> 4, universe & 0xF);
+                    levels[universe] = (byte) frame;
+                    packet.setDMX(levels, levels.length);
+                    write(capture, nanos, packet, consoles[universe % 2]);
+                    // the backup console on the first universes, so they are merged
+                    if (universe < 20)
+                        write(capture, nanos, packet, consoles[(universe + 1) % 2]);
+                }
+                ArtTimePacket time = new ArtTimePacket();
+                time.setTime(0, 0, frame / 25, frame % 25);
+                write(capture, nanos, time, consoles[0]);
+                if (frame % 11 == 0)
+                    write(capture, nanos, new ArtPollPacket(), consoles[0]);
+            }
+        }
+        return path;
+    }
+
+    private static void write(ArtNetCapture capture, long nanos, ArtNetPacket packet, InetAddress source) {
+        capture.write(nanos, packet.getData(), 0, packet.getLength(), source);
+    }
+
+    @Benchmark
+    public void legacy(Blackhole blackhole) throws IOException {
+        replay.rewind();
+        while (replay.next()) {
+            // copies the datagram into the receive buffer, like the channel does
+            int length = replay.read(receiveBuffer);
+            ArtNetPacket packet = ArtNetPacketParser.parse(new DatagramPacket(receiveBuffer, length));
+            if (packet instanceof ArtDmxPacket dmx)
+                store.write(dmx.getPortAddress(), dmx.getDmxData(), 0, dmx.getNumChannels());
+            blackhole.consume(packet);
+        }
+    }
+
+    @Benchmark
+    public void legacyBuffer(Blackhole blackhole) throws IOException {
+        replay.rewind();
+        while (replay.next()) {
+            int length = replay.read(receiveBuffer);
+            ArtNetPacket packet = ArtNetPacketParser.parse(new DatagramPacket(receiveBuffer, length));
+            if (packet instanceof ArtDmxPacket dmx)
+                buffer.setDmxData((short) dmx.getSubnetID(), (short) dmx.getUniverseID(), dmx.getDmxData());
+            blackhole.consume(packet);
+        }
+    }
+
+    @Benchmark
+    public void pooled(Blackhole blackhole) throws IOException {
+        replay.rewind();
+        while (replay.next()) {
+            int length = replay.read(receiveBuffer);
+            ArtNetPacket packet = parser.parsePooled(receiveBuffer, length);
+            if (packet instanceof ArtDmxPacket dmx)
+                store.write(dmx.getPortAddress(), dmx.getData(), ArtDmxPacket.DMX_OFFSET, dmx.getNumChannels());
+            blackhole.consume(packet);
+        }
+    }
+
+    /**
+     * The whole pipeline: the server parses, the merge engine merges the backup console and writes the store.
+     */
+    @Benchmark
+    public long merged() throws IOException {
+        return replay.replay(server, ArtNetReplay.AS_FAST_AS_POSSIBLE);
+    }
+}
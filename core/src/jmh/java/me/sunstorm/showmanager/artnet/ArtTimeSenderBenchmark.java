@@ -0,0 +1,65 @@
+package me.sunstorm.showmanager.artnet;
+
+import ch.bildspur.artnet.packets.ArtTimePacket;
+import me.sunstorm.showmanager.modules.artnet.ArtTimeSender;
+import me.sunstorm.showmanager.util.Framerate;
+import me.sunstorm.showmanager.util.Frames;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sends one ArtTimeCode frame to loopback per operation, the way the module used to (a new packet and
+ * {@link DatagramPacket} per frame) and with the {@link ArtTimeSender}. Run with {@code -prof gc} to compare allocations.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ArtTimeSenderBenchmark {
+    private DatagramSocket receiver;
+    private DatagramSocket socket;
+    private ArtTimeSender sender;
+    private InetAddress loopback;
+    private int port;
+    private long frames = 0;
+
+    @Setup
+    public void setup() throws IOException {
+        loopback = InetAddress.getLoopbackAddress();
+        receiver = new DatagramSocket(new InetSocketAddress(loopback, 0));
+        port = receiver.getLocalPort();
+        socket = new DatagramSocket(new InetSocketAddress(loopback, 0));
+        sender = new ArtTimeSender(loopback, new InetSocketAddress(loopback, port));
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        sender.close();
+        socket.close();
+        receiver.close();
+    }
+
+    @Benchmark
+    public void legacy() throws IOException {
+        long f = frames++;
+        ArtTimePacket packet = new ArtTimePacket();
+        packet.setTime(Frames.hour(f, Framerate.EBU), Frames.min(f, Framerate.EBU), Frames.sec(f, Framerate.EBU), Frames.frame(f, Framerate.EBU));
+        packet.setFrameType(Framerate.EBU.getArtNetType());
+        byte[] data = packet.getData();
+        socket.send(new DatagramPacket(data, data.length, loopback, port));
+    }
+
+    @Benchmark
+    public void channel() {
+        sender.setTime(frames++, Framerate.EBU);
+        sender.send();
+    }
+}
@@ -0,0 +1,83 @@
+package me.sunstorm.showmanager.event;
+
+import me.sunstorm.showmanager.eventsystem.EventBus;
+import me.sunstorm.showmanager.eventsystem.EventCall;
+import me.sunstorm.showmanager.eventsystem.EventExecutor;
+import me.sunstorm.showmanager.eventsystem.ExecutorFactory;
+import me.sunstorm.showmanager.eventsystem.Listener;
+import me.sunstorm.showmanager.eventsystem.events.Event;
+import me.sunstorm.showmanager.eventsystem.events.time.TimecodeChangeEvent;
+import me.sunstorm.showmanager.util.Framerate;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Calls a {@link TimecodeChangeEvent}, like the worker every frame, to 1, 10 and 100 listeners. One operation is one
+ * event, so the score is events per second. {@code lookup} is the dispatch the bus used to do: a map of lists by the
+ * exact event class, iterated with a lambda.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class EventBusBenchmark {
+    @Param({"1", "10", "100"})
+    private int listeners;
+
+    private final EventBus bus = new EventBus();
+    private final TimecodeChangeEvent event = new TimecodeChangeEvent(Framerate.EBU);
+    private final Map<Class<?>, List<Container>> lookup = new HashMap<>();
+    private long frames = 0;
+
+    @Setup
+    public void setup() throws Exception {
+        ExecutorFactory factory = new ExecutorFactory();
+        for (int i = 0; i < listeners; i++) {
+            FrameListener listener = new FrameListener();
+            bus.register(listener);
+            EventExecutor executor = factory.create(listener, FrameListener.class.getMethod("onTimecodeChange", TimecodeChangeEvent.class));
+            lookup.computeIfAbsent(TimecodeChangeEvent.class, type -> new CopyOnWriteArrayList<>()).add(new Container(executor));
+        }
+    }
+
+    @Benchmark
+    public void dispatch() {
+        event.setFrames(frames++);
+        bus.call(event);
+    }
+
+    @Benchmark
+    public void lookup() {
+        event.setFrames(frames++);
+        Event called = event;
+        List<Container> containers = lookup.get(called.getClass());
+        if (containers == null)
+            return;
+        containers.forEach(container -> {
+            try {
+                container.executor.execute(called);
+            } catch (Throwable e) {
+                throw new IllegalStateException(e);
+            }
+        });
+    }
+
+    private record Container(EventExecutor executor) {
+    }
+
+    public static class FrameListener implements Listener {
+        private long frames;
+
+        @EventCall
+        public void onTimecodeChange(TimecodeChangeEvent e) {
+            frames += e.getFrames();
+        }
+    }
+}
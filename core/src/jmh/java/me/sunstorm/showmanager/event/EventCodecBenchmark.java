@@ -0,0 +1,73 @@
+package me.sunstorm.showmanager.event;
+
+import me.sunstorm.showmanager.eventsystem.events.audio.AudioVolumeChangeEvent;
+import me.sunstorm.showmanager.eventsystem.events.marker.MarkerCreateEvent;
+import me.sunstorm.showmanager.eventsystem.events.time.TimecodeChangeEvent;
+import me.sunstorm.showmanager.eventsystem.registry.BinaryEventConverter;
+import me.sunstorm.showmanager.eventsystem.registry.EventConverter;
+import me.sunstorm.showmanager.eventsystem.registry.EventWrapper;
+import me.sunstorm.showmanager.modules.audio.marker.Marker;
+import me.sunstorm.showmanager.redis.converter.Converter;
+import me.sunstorm.showmanager.redis.converter.GzipConverter;
+import me.sunstorm.showmanager.util.Framerate;
+import me.sunstorm.showmanager.util.Timecode;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encodes and decodes an event for Redis, with the {@link BinaryEventConverter} and the JSON in GZIP Redis used to
+ * send: a timecode change (fixed layout), a volume change (varint) and a marker (JSON body). The sizes are compared
+ * in BinaryEventConverterTests.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class EventCodecBenchmark {
+    @Param({"timecode", "volume", "marker"})
+    private String event;
+
+    private final Converter<EventWrapper> binary = new BinaryEventConverter();
+    private final Converter<EventWrapper> json = new GzipConverter<>(new EventConverter());
+    private EventWrapper wrapper;
+    private byte[] binaryMessage;
+    private byte[] jsonMessage;
+
+    @Setup
+    public void setup() {
+        wrapper = switch (event) {
+            case "timecode" -> {
+                TimecodeChangeEvent change = new TimecodeChangeEvent(Framerate.EBU);
+                change.setFrames(90_000);
+                yield new EventWrapper(11, false, change);
+            }
+            case "volume" -> new EventWrapper(5, false, new AudioVolumeChangeEvent(80));
+            default -> new EventWrapper(16, false, new MarkerCreateEvent(new Marker("Chorus", new Timecode(0, 1, 0, 0, Framerate.EBU))));
+        };
+        binaryMessage = binary.encode(wrapper);
+        jsonMessage = json.encode(wrapper);
+    }
+
+    @Benchmark
+    public byte[] encodeBinary() {
+        return binary.encode(wrapper);
+    }
+
+    @Benchmark
+    public byte[] encodeJson() {
+        return json.encode(wrapper);
+    }
+
+    @Benchmark
+    public EventWrapper decodeBinary() {
+        return binary.decode(binaryMessage);
+    }
+
+    @Benchmark
+    public EventWrapper decodeJson() {
+        return json.decode(jsonMessage);
+    }
+}
@@ -0,0 +1,70 @@
+package me.sunstorm.showmanager.event;
+
+import me.sunstorm.showmanager.eventsystem.EventCall;
+import me.sunstorm.showmanager.eventsystem.EventExecutor;
+import me.sunstorm.showmanager.eventsystem.ExecutorFactory;
+import me.sunstorm.showmanager.eventsystem.Listener;
+import me.sunstorm.showmanager.eventsystem.events.time.TimecodeChangeEvent;
+import me.sunstorm.showmanager.util.Framerate;
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Calls one listener method per operation: through the {@link ExecutorFactory} lambda bound to the listener, the
+ * ASM executor the bus used before, reflection, and directly as the floor.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ExecutorBenchmark {
+    private final CountingListener listener = new CountingListener();
+    private final TimecodeChangeEvent event = new TimecodeChangeEvent(Framerate.EBU);
+    private EventExecutor lambda;
+    private AsmExecutorFactory.AsmExecutor asm;
+    private Method method;
+
+    @Setup
+    public void setup() throws Exception {
+        method = CountingListener.class.getMethod("onTimecodeChange", TimecodeChangeEvent.class);
+        lambda = new ExecutorFactory().create(listener, method);
+        asm = new AsmExecutorFactory().create(listener, method);
+    }
+
+    @Benchmark
+    public long lambda() {
+        lambda.execute(event);
+        return listener.calls;
+    }
+
+    @Benchmark
+    public long asm() {
+        asm.execute(event, listener);
+        return listener.calls;
+    }
+
+    @Benchmark
+    public long reflection() throws Exception {
+        method.invoke(listener, event);
+        return listener.calls;
+    }
+
+    @Benchmark
+    public long direct() {
+        listener.onTimecodeChange(event);
+        return listener.calls;
+    }
+
+    public static class CountingListener implements Listener {
+        private long calls;
+
+        @EventCall
+        public void onTimecodeChange(TimecodeChangeEvent e) {
+            calls++;
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package me.sunstorm.showmanager.ltc;
+
+import me.sunstorm.showmanager.modules.ltc.LtcDecoder;
+import me.sunstorm.showmanager.modules.ltc.LtcEncoder;
+import me.sunstorm.showmanager.util.Framerate;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import javax.sound.sampled.AudioFormat;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decodes one hour of 48kHz LTC per operation, anything above 1 op/hour is faster than realtime.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class LtcDecoderBenchmark {
+    private static final AudioFormat FORMAT = new AudioFormat(48000, 16, 1, true, false);
+
+    @Param({"EBU", "DF"})
+    private Framerate framerate;
+    private byte[] minute;
+
+    @Setup
+    public void setup() {
+        LtcEncoder encoder = new LtcEncoder(framerate, 48000, (short) 16384);
+        int count = framerate.getNominal() * 60;
+        minute = new byte[encoder.getMaxFrameBytes() * count];
+        int length = 0;
+        for (int i = 0; i < count; i++) {
+            length += encoder.encode(i, minute, length);
+        }
+        minute = Arrays.copyOf(minute, length);
+    }
+
+    @Benchmark
+    public void decodeHour(Blackhole blackhole) {
+        LtcDecoder decoder = new LtcDecoder(FORMAT, (d, sample) -> blackhole.consume(d.getFrames()));
+        for (int i = 0; i < 60; i++) {
+            decoder.decode(minute, 0, minute.length);
+        }
+        blackhole.consume(decoder.getDecoded());
+    }
+}
@@ -0,0 +1,131 @@
+package ch.bildspur.artnet;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Records the datagrams received by an {@link ArtNetServer} into a memory-mapped file, see
+ * {@link ArtNetServer#setCapture(ArtNetCapture)}. <br>
+ * The file starts with {@code [long magic][long end]}, followed by
+ * {@code [long nanos][byte address length][address][short length][datagram]} records, the nanos counted from the
+ * first record. The file is mapped in windows, so recording doesn't touch the file system until a window is full,
+ * and the end is updated after every record, so a capture is readable even if the application is killed.
+ */
+public class ArtNetCapture implements Closeable {
+    private static final Logger log = LoggerFactory.getLogger(ArtNetCapture.class);
+    // "ARTNCAP1"
+    public static final long MAGIC = 0x4152544E43415031L;
+    public static final int HEADER = 16;
+    public static final int DEFAULT_WINDOW = 64 << 20;
+    // the largest record: a datagram with an IPv6 source
+    static final int MAX_RECORD = 8 + 1 + 16 + 2 + 0xFFFF;
+    private static final byte[] NO_ADDRESS = new byte[0];
+
+    private final FileChannel channel;
+    private final MappedByteBuffer header;
+    private final int window;
+    private MappedByteBuffer buffer;
+    private long mapped;
+    private long start = -1;
+    private long records = 0;
+    private boolean closed = false;
+
+    public ArtNetCapture(Path path) throws IOException {
+        this(path, DEFAULT_WINDOW);
+    }
+
+    /**
+     * Creates the file, an existing one is overwritten.
+     *
+     * @param window the size of the mapped windows the file grows by
+     */
+    public ArtNetCapture(Path path, int window) throws IOException {
+        this.window = Math.max(window, MAX_RECORD);
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            header = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER);
+            header.putLong(0, MAGIC);
+            header.putLong(8, HEADER);
+            map(HEADER);
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    private void map(long position) throws IOException {
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, position, window);
+        mapped = position;
+    }
+
+    /**
+     * Appends a datagram, a full window maps the next one.
+     *
+     * @param nanos the nanoTime of the arrival
+     * @param source the sender, or null if unknown
+     */
+    public synchronized void write(long nanos, byte[] data, int offset, int length, InetAddress source) {
+        if (closed)
+            return;
+        byte[] address = source == null ? NO_ADDRESS : source.getAddress();
+        int size = 8 + 1 + address.length + 2 + length;
+        try {
+            if (buffer.remaining() < size)
+                map(mapped + buffer.position());
+        } catch (IOException e) {
+            log.error("Failed to grow the capture, stopped recording", e);
+            closed = true;
+            return;
+        }
+        if (start < 0)
+            start = nanos;
+        buffer.putLong(nanos - start)
+                .put((byte) address.length)
+                .put(address)
+                .putShort((short) length)
+                .put(data, offset, length);
+        header.putLong(8, mapped + buffer.position());
+        records++;
+    }
+
+    public synchronized long getRecords() {
+        return records;
+    }
+
+    /**
+     * @return the bytes recorded, with the header
+     */
+    public synchronized long getSize() {
+        return mapped + buffer.position();
+    }
+
+    /**
+     * Stops recording and cuts the unused part of the last window, where the OS lets a mapped file be truncated.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (!closed) {
+            closed = true;
+            buffer.force();
+            header.force();
+        }
+        if (!channel.isOpen())
+            return;
+        try {
+            channel.truncate(mapped + buffer.position());
+        } catch (IOException e) {
+            // still mapped, readers go by the end in the header
+            log.debug("Couldn't truncate the capture", e);
+        }
+        channel.close();
+    }
+}
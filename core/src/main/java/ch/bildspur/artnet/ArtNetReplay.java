@@ -0,0 +1,182 @@
+package ch.bildspur.artnet;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Reads an {@link ArtNetCapture} and feeds it to an {@link ArtNetServer}, so the receive path can be driven without
+ * a network. The file is mapped in windows, reading a record doesn't allocate.
+ * <pre>
+ * try (ArtNetReplay replay = new ArtNetReplay(path)) {
+ *     replay.replay(server, 1);
+ * }
+ * </pre>
+ */
+public class ArtNetReplay implements Closeable {
+    public static final double AS_FAST_AS_POSSIBLE = 0;
+
+    private final FileChannel channel;
+    private final long end;
+    private final int window;
+    private final byte[] address = new byte[16];
+    private final Map<Integer, InetAddress> sources = new HashMap<>();
+    private MappedByteBuffer buffer;
+    private long mapped;
+    private long position = ArtNetCapture.HEADER;
+    private long nanos;
+    private int length;
+    private int data;
+    private InetAddress source;
+
+    public ArtNetReplay(Path path) throws IOException {
+        this(path, ArtNetCapture.DEFAULT_WINDOW);
+    }
+
+    /**
+     * @param window the size of the mapped windows
+     * @throws IOException if the file isn't a capture
+     */
+    public ArtNetReplay(Path path, int window) throws IOException {
+        this.window = Math.max(window, ArtNetCapture.MAX_RECORD);
+        channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            if (channel.size() < ArtNetCapture.HEADER)
+                throw new IOException("Not an Art-Net capture: " + path);
+            MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, ArtNetCapture.HEADER);
+            if (header.getLong(0) != ArtNetCapture.MAGIC)
+                throw new IOException("Not an Art-Net capture: " + path);
+            end = Math.min(header.getLong(8), channel.size());
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Moves to the next record.
+     *
+     * @return false at the end of the capture
+     */
+    public boolean next() throws IOException {
+        if (position + 11 > end)
+            return false;
+        ensure(position, 9);
+        int offset = (int) (position - mapped);
+        nanos = buffer.getLong(offset);
+        int addressLength = buffer.get(offset + 8);
+        if (position + 11 + addressLength > end)
+            return false;
+        ensure(position, 11 + addressLength);
+        offset = (int) (position - mapped);
+        buffer.get(offset + 9, address, 0, addressLength);
+        length = buffer.getShort(offset + 9 + addressLength) & 0xFFFF;
+        int size = 11 + addressLength + length;
+        if (position + size > end)
+            return false;
+        ensure(position, size);
+        offset = (int) (position - mapped);
+        data = offset + 11 + addressLength;
+        source = source(addressLength);
+        position += size;
+        return true;
+    }
+
+    // maps the window the next bytes are in
+    private void ensure(long from, int size) throws IOException {
+        if (buffer != null && from >= mapped && from + size <= mapped + buffer.capacity())
+            return;
+        buffer = channel.map(FileChannel.MapMode.READ_ONLY, from, Math.min(window, end - from));
+        mapped = from;
+    }
+
+    private InetAddress source(int addressLength) throws UnknownHostException {
+        if (addressLength == 0)
+            return null;
+        if (addressLength != 4)
+            return InetAddress.getByAddress(Arrays.copyOf(address, addressLength));
+        int key = (address[0] & 0xFF) << 24 | (address[1] & 0xFF) << 16 | (address[2] & 0xFF) << 8 | address[3] & 0xFF;
+        InetAddress cached = sources.get(key);
+        if (cached == null) {
+            cached = InetAddress.getByAddress(Arrays.copyOf(address, 4));
+            sources.put(key, cached);
+        }
+        return cached;
+    }
+
+    /**
+     * Copies the datagram of the current record.
+     *
+     * @return the length of the datagram
+     */
+    public int read(byte[] target) {
+        buffer.get(data, target, 0, length);
+        return length;
+    }
+
+    public void rewind() {
+        position = ArtNetCapture.HEADER;
+    }
+
+    /**
+     * Feeds the capture from the start to the server on the calling thread, see {@link ArtNetServer#dispatch}.
+     * The server shouldn't be receiving meanwhile.
+     *
+     * @param speed 1 for the pace of the capture, 2 for twice as fast, {@link #AS_FAST_AS_POSSIBLE} for no waiting
+     * @return the number of datagrams fed
+     */
+    public long replay(ArtNetServer server, double speed) throws IOException {
+        rewind();
+        byte[] datagram = new byte[0xFFFF];
+        long begin = System.nanoTime();
+        long count = 0;
+        while (next()) {
+            if (speed > 0) {
+                long wait = begin + (long) (nanos / speed) - System.nanoTime();
+                if (wait > 0)
+                    LockSupport.parkNanos(wait);
+                if (Thread.interrupted()) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+            server.dispatch(datagram, read(datagram), source);
+            count++;
+        }
+        return count;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    // generated
+
+    /**
+     * @return the time of the current record from the start of the capture, in nanoseconds
+     */
+    public long getNanos() {
+        return nanos;
+    }
+
+    public int getLength() {
+        return length;
+    }
+
+    /**
+     * @return the sender of the current record, null if unknown
+     */
+    public InetAddress getSource() {
+        return source;
+    }
+}
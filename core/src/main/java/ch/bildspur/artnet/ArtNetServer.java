@@ -22,22 +22,31 @@ package ch.bildspur.artnet;
 import ch.bildspur.artnet.events.ArtNetServerListener;
 import ch.bildspur.artnet.packets.ArtNetPacket;
 import ch.bildspur.artnet.packets.ArtNetPacketParser;
-import ch.bildspur.artnet.packets.ArtPollPacket;
 import ch.bildspur.artnet.packets.ArtPollReplyPacket;
 import ch.bildspur.artnet.packets.PacketType;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
-import java.net.DatagramPacket;
-import java.net.DatagramSocket;
 import java.net.InetAddress;
 import java.net.InetSocketAddress;
+import java.net.SocketAddress;
 import java.net.SocketException;
+import java.net.StandardSocketOptions;
 import java.net.UnknownHostException;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
 
+/**
+ * Receives on a non-blocking {@link DatagramChannel}: every time the selector wakes up, the queued datagrams are
+ * drained in a batch into one buffer. DMX and timecode packets are reused between datagrams, so the listeners must
+ * not keep them.
+ */
 public class ArtNetServer extends ArtNetNode implements Runnable {
     private static final Logger log = LoggerFactory.getLogger(ArtNetServer.class);
 
@@ -49,12 +58,33 @@ public class ArtNetServer extends ArtNetNode implements Runnable {
     protected final int port;
     protected final int sendPort;
 
-    protected DatagramSocket socket;
+    public static final int DEFAULT_BATCH_SIZE = 64;
+    public static final long DEFAULT_REPLY_INTERVAL = 1_000_000_000L;
+
+    protected DatagramChannel channel;
+    protected Selector selector;
     protected InetAddress broadCastAddress;
     protected Thread serverThread;
 
     protected int receiveBufferSize;
-    protected boolean isRunning;
+    protected int socketReceiveBufferSize;
+    protected int socketSendBufferSize;
+    protected int threadPriority = Thread.MAX_PRIORITY;
+    protected Runnable threadHook;
+    protected int batchSize = DEFAULT_BATCH_SIZE;
+    protected long replyInterval = DEFAULT_REPLY_INTERVAL;
+    protected long lastReply;
+    protected boolean replyPending;
+    protected long coalescedReplies;
+    protected volatile long received;
+    protected volatile long parseFailures;
+    // the clock, the discovery and the receiving thread all send
+    protected final LongAdder sendDrops = new LongAdder();
+    protected volatile long fullBatches;
+    protected volatile int maxBatch;
+    protected volatile boolean isRunning;
+    protected volatile ArtNetCapture capture;
+    protected final ArtNetPacketParser parser = new ArtNetPacketParser(PacketType.ART_OUTPUT, PacketType.ART_TIMECODE);
 
     protected final List<ArtNetServerListener> listeners;
 
@@ -80,9 +110,7 @@ public class ArtNetServer extends ArtNetNode implements Runnable {
 
     public void broadcastPacket(ArtNetPacket ap) {
         try {
-            DatagramPacket packet = new DatagramPacket(ap.getData(), ap
-                    .getLength(), broadCastAddress, sendPort);
-            socket.send(packet);
+            send(ap, broadCastAddress);
             for (ArtNetServerListener l : listeners) {
                 l.artNetPacketBroadcasted(ap);
             }
@@ -97,39 +125,128 @@ public class ArtNetServer extends ArtNetNode implements Runnable {
         }
     }
 
+    private void send(ArtNetPacket ap, InetAddress target) throws IOException {
+        int sent = channel.send(ByteBuffer.wrap(ap.getData(), 0, ap.getLength()), new InetSocketAddress(target, sendPort));
+        if (sent == 0) {
+            boolean first = sendDrops.sum() == 0;
+            sendDrops.increment();
+            if (first)
+                log.warn("send buffer full, dropped packet to: " + target);
+        }
+    }
+
     @Override
     public void run() {
-        byte[] receiveBuffer = new byte[receiveBufferSize];
-        DatagramPacket receivedPacket = new DatagramPacket(receiveBuffer,
-                receiveBuffer.length);
+        ByteBuffer receiveBuffer = ByteBuffer.allocate(receiveBufferSize);
+        byte[] raw = receiveBuffer.array();
+        if (threadHook != null) {
+            try {
+                threadHook.run();
+            } catch (Exception e) {
+                log.warn("Art-Net thread hook failed", e);
+            }
+        }
         try {
             while (isRunning) {
-                socket.receive(receivedPacket);
-                log.debug("received new packet");
-                ArtNetPacket packet = ArtNetPacketParser.parse(receivedPacket);
-                if (packet != null) {
-                    if (packet.getType() == PacketType.ART_POLL) {
-                        sendArtPollReply(receivedPacket.getAddress(),
-                                (ArtPollPacket) packet);
-                    }
-                    for (ArtNetServerListener l : listeners) {
-                        l.artNetPacketReceived(packet);
-                    }
+                if (replyPending) {
+                    long wait = replyInterval - (System.nanoTime() - lastReply);
+                    if (wait <= 0 || selector.select(Math.max(1, wait / 1_000_000)) == 0)
+                        sendArtPollReply();
+                } else {
+                    selector.select();
+                }
+                selector.selectedKeys().clear();
+                int batch = 0;
+                while (batch < batchSize && isRunning) {
+                    receiveBuffer.clear();
+                    SocketAddress sender = channel.receive(receiveBuffer);
+                    if (sender == null)
+                        break;
+                    batch++;
+                    InetAddress source = ((InetSocketAddress) sender).getAddress();
+                    ArtNetCapture capture = this.capture;
+                    if (capture != null)
+                        capture.write(System.nanoTime(), raw, 0, receiveBuffer.position(), source);
+                    if (!dispatch(raw, receiveBuffer.position(), source))
+                        parseFailures++;
                 }
+                // only the receive thread writes the counters
+                received += batch;
+                if (batch > maxBatch)
+                    maxBatch = batch;
+                // more datagrams are waiting, the next select returns right away
+                if (batch == batchSize)
+                    fullBatches++;
             }
-            socket.close();
+        } catch (IOException e) {
+            // if is not running it is in shutdown mode
+            if (isRunning)
+                log.error("Art-Net receive failed", e);
+        } finally {
+            close();
             log.info("server thread terminated.");
             for (ArtNetServerListener l : listeners) {
                 l.artNetServerStopped(this);
             }
+        }
+    }
+
+    /**
+     * Parses a datagram and passes it to the listeners, like it was received. Called by the receive thread,
+     * or by an {@link ArtNetReplay} while the server isn't receiving, as the packets are pooled.
+     *
+     * @param source the sender, or null if unknown
+     * @return false if it isn't a supported packet
+     */
+    public boolean dispatch(byte[] data, int length, InetAddress source) {
+        ArtNetPacket packet = parser.parsePooled(data, length);
+        if (packet == null)
+            return false;
+        packet.setSource(source);
+        // replayed polls aren't answered without a channel
+        if (packet.getType() == PacketType.ART_POLL && channel != null) {
+            onArtPoll();
+        }
+        for (int l = 0; l < listeners.size(); l++) {
+            listeners.get(l).artNetPacketReceived(packet);
+        }
+        return true;
+    }
+
+    /**
+     * Records the received datagrams, null to stop. The capture isn't closed by the server.
+     */
+    public void setCapture(ArtNetCapture capture) {
+        this.capture = capture;
+    }
+
+    public ArtNetCapture getCapture() {
+        return capture;
+    }
+
+    private void close() {
+        try {
+            if (selector != null)
+                selector.close();
+            if (channel != null)
+                channel.close();
         } catch (IOException e) {
-            // if is not running it is in shutdown mode
-            if(isRunning)
-                e.printStackTrace();
+            log.warn(e.getMessage());
+        }
+    }
+
+    // replies at most once per interval, a reply is broadcast so one answers every poll meanwhile
+    private void onArtPoll() {
+        if (lastReply != 0 && System.nanoTime() - lastReply < replyInterval) {
+            if (replyPending)
+                coalescedReplies++;
+            replyPending = true;
+            return;
         }
+        sendArtPollReply();
     }
 
-    private void sendArtPollReply(InetAddress inetAddress, ArtPollPacket packet) {
+    private void sendArtPollReply() {
         /*
         ArtPollReplyPacket reply = new ArtPollReplyPacket();
 
@@ -149,7 +266,9 @@ public class ArtNetServer extends ArtNetNode implements Runnable {
         reply.translateData();
         */
 
-        if(defaultReplyPacket != null)
+        replyPending = false;
+        lastReply = System.nanoTime();
+        if (defaultReplyPacket != null)
             broadcastPacket(defaultReplyPacket);
     }
 
@@ -162,12 +281,114 @@ public class ArtNetServer extends ArtNetNode implements Runnable {
         }
     }
 
-    private void setBufferSize(int size) {
+    /**
+     * @param size the size of the buffer a datagram is received into, larger datagrams are truncated
+     */
+    public void setBufferSize(int size) {
         if (!isRunning) {
             receiveBufferSize = size;
         }
     }
 
+    /**
+     * Sets SO_RCVBUF, applied on start. A larger kernel buffer survives longer packet storms.
+     *
+     * @param size the size in bytes, 0 for the default of the OS
+     */
+    public void setSocketReceiveBufferSize(int size) {
+        this.socketReceiveBufferSize = size;
+    }
+
+    /**
+     * Sets SO_SNDBUF, applied on start.
+     *
+     * @param size the size in bytes, 0 for the default of the OS
+     */
+    public void setSocketSendBufferSize(int size) {
+        this.socketSendBufferSize = size;
+    }
+
+    /**
+     * @param threadPriority the priority of the receive thread, applied on start
+     */
+    public void setThreadPriority(int threadPriority) {
+        this.threadPriority = threadPriority;
+    }
+
+    /**
+     * @param threadHook run on the receive thread before it starts receiving, like pinning it to a CPU
+     */
+    public void setThreadHook(Runnable threadHook) {
+        this.threadHook = threadHook;
+    }
+
+    /**
+     * @return the number of received datagrams
+     */
+    public long getReceived() {
+        return received;
+    }
+
+    /**
+     * @return the number of received datagrams that weren't Art-Net or not supported
+     */
+    public long getParseFailures() {
+        return parseFailures;
+    }
+
+    /**
+     * @return the number of packets dropped on a full send buffer
+     */
+    public long getSendDrops() {
+        return sendDrops.sum();
+    }
+
+    /**
+     * @return the number of wakeups that drained a full batch, so more datagrams were queued
+     */
+    public long getFullBatches() {
+        return fullBatches;
+    }
+
+    /**
+     * @return the most datagrams drained in one wakeup
+     */
+    public int getMaxBatch() {
+        return maxBatch;
+    }
+
+    /**
+     * @return the bound port, -1 if not started
+     */
+    public int getLocalPort() {
+        try {
+            return channel == null ? -1 : ((InetSocketAddress) channel.getLocalAddress()).getPort();
+        } catch (IOException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * @param replyInterval the minimum time between two replies to polls, in nanoseconds
+     */
+    public void setReplyInterval(long replyInterval) {
+        this.replyInterval = replyInterval;
+    }
+
+    /**
+     * @return the number of polls answered by a reply sent for an earlier poll
+     */
+    public long getCoalescedReplies() {
+        return coalescedReplies;
+    }
+
+    /**
+     * @param batchSize the maximum number of datagrams handled per selector wakeup
+     */
+    public void setBatchSize(int batchSize) {
+        this.batchSize = Math.max(1, batchSize);
+    }
+
     public void start() throws SocketException, ArtNetException {
         start(null);
     }
@@ -177,15 +398,27 @@ public class ArtNetServer extends ArtNetNode implements Runnable {
         if (broadCastAddress == null) {
             setBroadcastAddress(DEFAULT_BROADCAST_IP);
         }
-        if (socket == null) {
-            socket = new DatagramSocket(null);
-            socket.setReuseAddress(true);
-            socket.setBroadcast(true);
-
-            if (address == null)
-                address = socket.getLocalAddress();
-
-            socket.bind(new InetSocketAddress(address, port));
+        if (channel == null) {
+            try {
+                channel = DatagramChannel.open();
+                channel.setOption(StandardSocketOptions.SO_REUSEADDR, true);
+                channel.setOption(StandardSocketOptions.SO_BROADCAST, true);
+                if (socketReceiveBufferSize > 0)
+                    channel.setOption(StandardSocketOptions.SO_RCVBUF, socketReceiveBufferSize);
+                if (socketSendBufferSize > 0)
+                    channel.setOption(StandardSocketOptions.SO_SNDBUF, socketSendBufferSize);
+                channel.bind(address == null ? new InetSocketAddress(port) : new InetSocketAddress(address, port));
+                channel.configureBlocking(false);
+                selector = Selector.open();
+                channel.register(selector, SelectionKey.OP_READ);
+                address = ((InetSocketAddress) channel.getLocalAddress()).getAddress();
+            } catch (IOException e) {
+                close();
+                channel = null;
+                if (e instanceof SocketException socketException)
+                    throw socketException;
+                throw new ArtNetException("Couldn't open server channel", e);
+            }
 
             log.info("Art-Net server started at: " + address.getHostAddress() + ":" + port);
             for (ArtNetServerListener l : listeners) {
@@ -194,6 +427,7 @@ public class ArtNetServer extends ArtNetNode implements Runnable {
             isRunning = true;
             serverThread = new Thread(this);
             serverThread.setName("Artnet Server");
+            serverThread.setPriority(threadPriority);
             serverThread.start();
         } else {
             throw new ArtNetException(
@@ -204,8 +438,9 @@ public class ArtNetServer extends ArtNetNode implements Runnable {
     public void stop() {
         isRunning = false;
 
-        // kill socket and release datagram
-        socket.close();
+        // the server thread closes the channel
+        if (selector != null)
+            selector.wakeup();
     }
 
     /**
@@ -216,9 +451,7 @@ public class ArtNetServer extends ArtNetNode implements Runnable {
      */
     public void unicastPacket(ArtNetPacket ap, InetAddress targetAdress) {
         try {
-            DatagramPacket packet = new DatagramPacket(ap.getData(), ap
-                    .getLength(), targetAdress, sendPort);
-            socket.send(packet);
+            send(ap, targetAdress);
             log.debug("sent packet to: " + targetAdress);
             for (ArtNetServerListener l : listeners) {
                 l.artNetPacketUnicasted(ap);
@@ -235,4 +468,4 @@ public class ArtNetServer extends ArtNetNode implements Runnable {
     public void setDefaultReplyPacket(ArtPollReplyPacket defaultReplyPacket) {
         this.defaultReplyPacket = defaultReplyPacket;
     }
-}
\ No newline at end of file
+}
\ No newline at end of file
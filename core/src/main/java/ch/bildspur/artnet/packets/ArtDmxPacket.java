@@ -8,8 +8,11 @@ import java.util.Arrays;
 public class ArtDmxPacket extends ArtNetPacket {
     private static final Logger log = LoggerFactory.getLogger(ArtDmxPacket.class);
 
+    public static final int DMX_OFFSET = 18;
+
     private int numChannels;
     private int sequenceID;
+    private int netID;
     private int subnetID;
     private int universeID;
     private byte[] dmxData;
@@ -22,7 +25,13 @@ public class ArtDmxPacket extends ArtNetPacket {
         data.setInt8(0x02, 13);
     }
 
+    /**
+     * The data is copied from the received packet on the first call, call it before the receive buffer is reused.
+     * Use {@link #getData()} from {@link #DMX_OFFSET} to read it without a copy.
+     */
     public byte[] getDmxData() {
+        if (dmxData == null)
+            dmxData = data.getByteChunk(null, DMX_OFFSET, numChannels);
         return dmxData;
     }
 
@@ -49,6 +58,20 @@ public class ArtDmxPacket extends ArtNetPacket {
         return sequenceID;
     }
 
+    /**
+     * @return the netID
+     */
+    public int getNetID() {
+        return netID;
+    }
+
+    /**
+     * @return the 15 bit Port-Address (net, subnet, universe)
+     */
+    public int getPortAddress() {
+        return netID << 8 | subnetID << 4 | universeID;
+    }
+
     /**
      * @return the subnetID
      */
@@ -65,13 +88,22 @@ public class ArtDmxPacket extends ArtNetPacket {
 
     @Override
     public boolean parse(byte[] raw) {
+        return parse(raw, raw.length);
+    }
+
+    @Override
+    public boolean parse(byte[] raw, int length) {
+        if (length < DMX_OFFSET)
+            return false;
         setData(raw);
         sequenceID = data.getInt8(12);
         int subnetUniverse = data.getInt8(14);
         subnetID = subnetUniverse >> 4;
         universeID = subnetUniverse & 0x0f;
-        numChannels = data.getInt16(16);
-        dmxData = data.getByteChunk(dmxData, 18, numChannels);
+        netID = data.getInt8(15) & 0x7f;
+        // the length field may claim more than the datagram carries
+        numChannels = Math.min(data.getInt16(16), Math.min(512, length - DMX_OFFSET));
+        dmxData = null;
         return true;
     }
 
@@ -121,4 +153,4 @@ public class ArtDmxPacket extends ArtNetPacket {
     public void setUniverseID(int universeID) {
         this.universeID = universeID & 0x0f;
     }
-}
\ No newline at end of file
+}
\ No newline at end of file
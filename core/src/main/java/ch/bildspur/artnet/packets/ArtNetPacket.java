@@ -19,6 +19,8 @@
 
 package ch.bildspur.artnet.packets;
 
+import java.net.InetAddress;
+
 public abstract class ArtNetPacket {
 
     public static final byte[] HEADER = "Art-Net\0".getBytes();
@@ -28,6 +30,7 @@ public abstract class ArtNetPacket {
 
     protected ByteUtils data;
     protected final PacketType type;
+    protected InetAddress source;
 
     public ArtNetPacket(PacketType type) {
         this.type = type;
@@ -49,6 +52,17 @@ public abstract class ArtNetPacket {
         return data.length;
     }
 
+    /**
+     * @return the address the packet was received from, null if it wasn't received
+     */
+    public InetAddress getSource() {
+        return source;
+    }
+
+    public void setSource(InetAddress source) {
+        this.source = source;
+    }
+
     /**
      * Returns the type of this packet.
      *
@@ -69,12 +83,25 @@ public abstract class ArtNetPacket {
      */
     public abstract boolean parse(byte[] raw);
 
+    /**
+     * Parses a datagram at the start of a larger buffer, like a pooled receive buffer, so nothing past the length
+     * is left from an earlier datagram. The packets reading a variable or optional part override it.
+     *
+     * @param length the length of the datagram
+     * @return true, if there were no parse errors
+     */
+    public boolean parse(byte[] raw, int length) {
+        return parse(raw);
+    }
+
     /**
      * @param data
      *            the data to set
      */
     public void setData(byte[] data) {
-        this.data = new ByteUtils(data);
+        // reused packets parse the same receive buffer over and over
+        if (this.data == null || this.data.getBytes() != data)
+            this.data = new ByteUtils(data);
     }
 
     public void setData(final byte[] raw, int maxLength) {
@@ -24,24 +24,63 @@ import org.slf4j.LoggerFactory;
 
 import java.net.DatagramPacket;
 
+/**
+ * The static methods create a new packet for every call. An instance keeps one packet per pooled type and reuses it,
+ * those packets are only valid until the next call, and the instance must be used by one thread.
+ */
 public class ArtNetPacketParser {
     private static final Logger log = LoggerFactory.getLogger(ArtNetPacketParser.class);
+    private static final int MIN_LENGTH = 12;
+
+    private final ArtNetPacket[] pool = new ArtNetPacket[PacketType.values().length];
+
+    /**
+     * @param pooled the packet types to reuse, the packets must not be kept by the listeners
+     */
+    public ArtNetPacketParser(PacketType... pooled) {
+        for (PacketType type : pooled) {
+            pool[type.ordinal()] = type.createPacket();
+        }
+    }
+
+    /**
+     * Parses a received packet, reusing the pooled packets.
+     *
+     * @param raw the receive buffer, the packet starts at 0
+     * @param length the length of the datagram
+     * @return the packet, or null if it's invalid or not supported
+     */
+    public ArtNetPacket parsePooled(byte[] raw, int length) {
+        if (length < MIN_LENGTH || !(startsWith(raw, ArtNetPacket.HEADER) || startsWith(raw, ArtNetPacket.ART_EXT_HEADER)))
+            return null;
+        PacketType type = PacketType.ofOpCode((raw[8] & 0xff) | (raw[9] & 0xff) << 8);
+        if (type == null)
+            return null;
+        ArtNetPacket packet = pool[type.ordinal()];
+        if (packet == null)
+            packet = type.createPacket();
+        if (packet == null || !packet.parse(raw, length))
+            return null;
+        return packet;
+    }
+
+    private static boolean startsWith(byte[] raw, byte[] header) {
+        for (int i = 0; i < header.length; i++) {
+            if (raw[i] != header[i])
+                return false;
+        }
+        return true;
+    }
 
     public static ArtNetPacket createPacketForOpCode(int opCode, byte[] data) {
-        log.debug("creating packet instance for opcode: 0x"
-                + ByteUtils.hex(opCode, 4));
-        ArtNetPacket packet = null;
-        for (PacketType type : PacketType.values()) {
-            if (opCode == type.getOpCode()) {
-                packet = type.createPacket();
-                if (packet != null) {
-                    packet.parse(data);
-                    break;
-                } else {
-                    log.debug("packet type valid, but not yet supported: "
-                            + type);
-                }
-            }
+        PacketType type = PacketType.ofOpCode(opCode);
+        if (type == null)
+            return null;
+        ArtNetPacket packet = type.createPacket();
+        if (packet != null) {
+            packet.parse(data);
+        } else if (log.isDebugEnabled()) {
+            log.debug("packet type valid, but not yet supported: " + type);
         }
         return packet;
     }
@@ -32,6 +32,9 @@ import java.net.UnknownHostException;
 public class ArtPollReplyPacket extends ArtNetPacket {
     private static final Logger log = LoggerFactory.getLogger(ArtPollReplyPacket.class);
 
+    // the spec has consumers accept replies of 207 bytes or more
+    public static final int MIN_LENGTH = 207;
+
     private InetAddress ip;
 
     private int versionInfo;
@@ -49,6 +52,7 @@ public class ArtPollReplyPacket extends ArtNetPacket {
 
     private NodeStyle nodeStyle = NodeStyle.ST_NODE;
     private NodeReportCode reportCode = NodeReportCode.RcDefault;
+    private int bindIndex;
 
     private byte[] dmxIns = new byte[4];
     private byte[] dmxOuts = new byte[4];
@@ -125,6 +129,17 @@ public class ArtPollReplyPacket extends ArtNetPacket {
 
     @Override
     public boolean parse(byte[] raw) {
+        return parse(raw, raw.length);
+    }
+
+    /**
+     * The receive buffer is longer than the reply, the fields after the ones every node sends are read only if the
+     * datagram has them.
+     */
+    @Override
+    public boolean parse(byte[] raw, int length) {
+        if (length < MIN_LENGTH)
+            return false;
         setData(raw);
 
         setIPAddress(data.getByteChunk(null, 10, 4));
@@ -154,6 +169,7 @@ public class ArtPollReplyPacket extends ArtNetPacket {
                 nodeStyle = s;
             }
         }
+        bindIndex = length > 211 ? data.getInt8(211) : 0;
         return true;
     }
 
@@ -218,10 +234,13 @@ public class ArtPollReplyPacket extends ArtNetPacket {
         data.setByteChunk(dmxIns, 186, dmxIns.length);
 
         // dmx outs
-        data.setByteChunk(dmxIns, 190, dmxIns.length);
+        data.setByteChunk(dmxOuts, 190, dmxOuts.length);
 
         // style
         data.setInt8(nodeStyle.getStyleID(), 200);
+
+        // bind index
+        data.setInt8(bindIndex, 211);
     }
 
     /**
@@ -328,4 +347,15 @@ public class ArtPollReplyPacket extends ArtNetPacket {
     public void setNodeStyle(NodeStyle nodeStyle) {
         this.nodeStyle = nodeStyle;
     }
+
+    /**
+     * @return the bind index, the position of this reply's ports in a node with more than 4 ports (0 if not set)
+     */
+    public int getBindIndex() {
+        return bindIndex;
+    }
+
+    public void setBindIndex(int bindIndex) {
+        this.bindIndex = bindIndex;
+    }
 }
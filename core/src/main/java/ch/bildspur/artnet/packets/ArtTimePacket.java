@@ -24,6 +24,13 @@ public class ArtTimePacket extends ArtNetPacket {
 
     @Override
     public boolean parse(byte[] raw) {
+        return parse(raw, raw.length);
+    }
+
+    @Override
+    public boolean parse(byte[] raw, int length) {
+        if (length < 19)
+            return false;
         setData(raw);
         frames = data.getInt8(14);
         seconds = data.getInt8(15);
@@ -46,6 +46,16 @@ public enum PacketType {
     ART_IP_PROG(0xf800, null),
     ART_IP_PROG_REPLY(0xf900, null);
 
+    private static final PacketType[] VALUES = values();
+    // indexed by the high byte of the opcode, only the video types share one
+    private static final PacketType[] LOOKUP = new PacketType[256];
+
+    static {
+        for (int i = VALUES.length - 1; i >= 0; i--) {
+            LOOKUP[VALUES[i].opCode >>> 8] = VALUES[i];
+        }
+    }
+
     private final int opCode;
     private final Class<? extends ArtNetPacket> packetClass;
 
@@ -66,6 +76,21 @@ public enum PacketType {
         return p;
     }
 
+    /**
+     * @param opCode the opcode
+     * @return the packet type of the opcode, or null if unknown
+     */
+    public static PacketType ofOpCode(int opCode) {
+        PacketType type = LOOKUP[(opCode >>> 8) & 0xff];
+        if (type != null && type.opCode == opCode)
+            return type;
+        for (PacketType value : VALUES) {
+            if (value.opCode == opCode)
+                return value;
+        }
+        return null;
+    }
+
     /**
      * Returns the opcode for this packet type.
      *
@@ -74,4 +99,4 @@ public enum PacketType {
     public int getOpCode() {
         return opCode;
     }
-}
\ No newline at end of file
+}
\ No newline at end of file
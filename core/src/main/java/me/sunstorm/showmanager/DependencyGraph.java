@@ -2,11 +2,16 @@ package me.sunstorm.showmanager;
 
 import me.sunstorm.showmanager.eventsystem.EventBus;
 import me.sunstorm.showmanager.settings.SettingsStore;
+import me.sunstorm.showmanager.settings.config.ArtNetConfig;
+import me.sunstorm.showmanager.settings.config.ChaseConfig;
+import me.sunstorm.showmanager.settings.config.ClockConfig;
 import me.sunstorm.showmanager.settings.config.Config;
+import me.sunstorm.showmanager.settings.config.LatencyConfig;
+import me.sunstorm.showmanager.settings.config.LtcConfig;
+import me.sunstorm.showmanager.settings.config.MergeConfig;
+import me.sunstorm.showmanager.util.Framerate;
 import org.codejargon.feather.Provides;
 
-import javax.inject.Named;
-
 public class DependencyGraph {
     private final ShowManager sm;
     private final EventBus eventBus;
@@ -41,8 +46,37 @@ public class DependencyGraph {
     }
 
     @Provides
-    @Named("framerate")
-    int framerate() {
-        return this.config.getFramerate();
+    ClockConfig clockConfig() {
+        return this.config.getClockConfig();
+    }
+
+    @Provides
+    ChaseConfig chaseConfig() {
+        return this.config.getChaseConfig();
+    }
+
+    @Provides
+    LatencyConfig latencyConfig() {
+        return this.config.getLatencyConfig();
+    }
+
+    @Provides
+    LtcConfig ltcConfig() {
+        return this.config.getLtcConfig();
+    }
+
+    @Provides
+    MergeConfig mergeConfig() {
+        return this.config.getMergeConfig();
+    }
+
+    @Provides
+    ArtNetConfig artNetConfig() {
+        return this.config.getArtNetConfig();
+    }
+
+    @Provides
+    Framerate framerate() {
+        return Framerate.of(this.config.getFramerate());
     }
 }
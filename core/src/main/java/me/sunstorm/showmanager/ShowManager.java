@@ -1,6 +1,7 @@
 package me.sunstorm.showmanager;
 
 import me.sunstorm.showmanager.eventsystem.EventBus;
+import me.sunstorm.showmanager.eventsystem.EventTracer;
 import me.sunstorm.showmanager.modules.ModuleManager;
 import me.sunstorm.showmanager.redis.Redis;
 import me.sunstorm.showmanager.redis.impl.DummyRedisImpl;
@@ -10,6 +11,7 @@ import me.sunstorm.showmanager.settings.config.Config;
 import me.sunstorm.showmanager.settings.project.Project;
 import me.sunstorm.showmanager.settings.project.ProjectManager;
 import me.sunstorm.showmanager.terminable.Terminables;
+import me.sunstorm.showmanager.util.Framerate;
 import me.sunstorm.showmanager.util.JsonLoader;
 import org.codejargon.feather.Feather;
 import org.slf4j.Logger;
@@ -38,7 +40,12 @@ public class ShowManager {
         settingsStore = new SettingsStore();
         settingsStore.load();
         config = JsonLoader.loadOrDefault("config.json", Config.class);
-        eventBus = new EventBus();
+        eventBus = new EventBus(config.getEventLanes());
+        EventTracer tracer = eventBus.getTracer();
+        tracer.setFramerate(Framerate.of(config.getFramerate()));
+        tracer.setBudget(config.getTraceConfig().getBudget());
+        tracer.setHistory(config.getTraceConfig().getHistory());
+        tracer.setEnabled(config.getTraceConfig().isEnabled());
         projectManager = new ProjectManager();
 
         if (config.getRedisConfig().isEnabled()) {
@@ -1,147 +1,285 @@
 package me.sunstorm.showmanager;
 
+import me.sunstorm.showmanager.clock.ChaseSource;
+import me.sunstorm.showmanager.clock.ChaseState;
+import me.sunstorm.showmanager.clock.LatencyCompensator;
+import me.sunstorm.showmanager.clock.MasterClock;
+import me.sunstorm.showmanager.clock.Output;
+import me.sunstorm.showmanager.clock.TimecodeChaser;
 import me.sunstorm.showmanager.modules.artnet.ArtNetModule;
+import me.sunstorm.showmanager.modules.sacn.SacnModule;
 import me.sunstorm.showmanager.eventsystem.EventBus;
 import me.sunstorm.showmanager.eventsystem.events.time.*;
 import me.sunstorm.showmanager.modules.ltc.LtcModule;
-import me.sunstorm.showmanager.modules.remote.DmxRemoteModule;
+import me.sunstorm.showmanager.settings.config.ChaseConfig;
+import me.sunstorm.showmanager.settings.config.ClockConfig;
 import me.sunstorm.showmanager.terminable.Terminable;
-import me.sunstorm.showmanager.util.Exceptions;
+import me.sunstorm.showmanager.transport.TransportCommand;
+import me.sunstorm.showmanager.transport.TransportSnapshot;
+import me.sunstorm.showmanager.transport.TransportState;
+import me.sunstorm.showmanager.util.Framerate;
+import me.sunstorm.showmanager.util.Frames;
 import me.sunstorm.showmanager.util.Timecode;
+import org.jetbrains.annotations.NotNull;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.inject.Inject;
-import javax.inject.Named;
 import javax.inject.Singleton;
-import java.util.concurrent.TimeUnit;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
+/**
+ * Drives the show. The transport state is owned by the clock thread: the control methods only queue
+ * a {@link TransportCommand}, and the state is published to other threads as an immutable {@link TransportSnapshot}.
+ */
 @Singleton
 public class Worker implements Runnable, Terminable {
     private static final Logger log = LoggerFactory.getLogger(Worker.class);
 
     private final EventBus eventBus;
     private final LtcModule ltcModule;
-    private final DmxRemoteModule dmxRemote;
     private final ArtNetModule artNetModule;
-    private final int framerate;
-    private boolean running = true;
-    private boolean playing = false;
+    private final SacnModule sacnModule;
+    private final MasterClock clock;
+    private final TimecodeChaser chaser;
+    private final LatencyCompensator latency;
+    private final boolean chasing;
+    private final TimecodeChangeEvent changeEvent;
+    private final Framerate framerate;
+    private final Queue<TransportCommand> commands = new ConcurrentLinkedQueue<>();
+    private volatile TransportSnapshot snapshot;
+    // only accessed by the clock thread
+    private TransportState state = TransportState.STOPPED;
+    // nanoTime of the (virtual) show start, so elapsed = now - start
     private long start = 0;
-    private long elapsed = 0;
-    private Timecode currentTime = new Timecode(0);
+    private long frames = 0;
+    private long seenRelocks = 0;
 
     @Inject
-    public Worker(EventBus bus, LtcModule ltcModule, ArtNetModule artNetModule, DmxRemoteModule dmxRemoteModule, @Named("framerate") int framerate) {
+    public Worker(EventBus bus, LtcModule ltcModule, ArtNetModule artNetModule, SacnModule sacnModule, ClockConfig clockConfig, ChaseConfig chaseConfig, TimecodeChaser chaser, LatencyCompensator latency, Framerate framerate) {
         this.eventBus = bus;
         this.ltcModule = ltcModule;
-        this.framerate = framerate;
         this.artNetModule = artNetModule;
-        this.dmxRemote = dmxRemoteModule;
+        this.sacnModule = sacnModule;
+        this.framerate = framerate;
+        this.chaser = chaser;
+        this.latency = latency;
+        this.chasing = chaseConfig.getSource() != ChaseSource.NONE;
+        this.changeEvent = new TimecodeChangeEvent(framerate);
+        this.snapshot = TransportSnapshot.initial(framerate);
+        this.clock = new MasterClock(framerate, clockConfig.getWaitStrategy().create(clockConfig), this::onFrame);
         register();
     }
 
     @Override
     public void run() {
         log.info("Starting...");
-        running = true;
-        start = 0;
-        long time = start;
-        while (running) {
-            final long current = System.currentTimeMillis();
-            if (current >= time + (1000 / framerate)) {
-                time = current;
-                if (playing) {
-                    elapsed = time - start;
-                }
-                dmxRemote.handleData(artNetModule.getData(dmxRemote.getAddress().subnet(), dmxRemote.getAddress().universe()));
-                
-                if (playing) {
-                    currentTime.set(elapsed);
-                    artNetModule.setTime(currentTime);
-                    TimecodeChangeEvent changeEvent = new TimecodeChangeEvent(currentTime);
-                    changeEvent.call(eventBus);
-                }
-
-                artNetModule.broadcast();
-            }
+        clock.run();
+    }
 
-            //slowing down the loop
-            try {
-                if (playing)
-                    TimeUnit.MILLISECONDS.sleep(1);
-                else
-                    TimeUnit.MILLISECONDS.sleep(10);
-            } catch (InterruptedException e) {
-                Exceptions.sneaky(e);
-            }
+    // runs on the clock thread every frame, must not allocate unless a command is applied
+    void onFrame(long frame, long now) {
+        TransportCommand command;
+        while ((command = commands.poll()) != null) {
+            apply(command, now);
         }
+        if (chasing) {
+            chase(now);
+        }
+
+        if (state == TransportState.PLAYING) {
+            long elapsed = now - start;
+            long current = Frames.fromNanos(elapsed, framerate);
+            frames = current;
+            // sent early by the network latency, so the nodes show the frame on time
+            artNetModule.setTime(Frames.fromNanos(elapsed + latency.getDelay(Output.ARTNET), framerate), framerate);
+            ltcModule.update(start);
+            changeEvent.setPosition(current, elapsed);
+            changeEvent.call(eventBus);
+        }
+
+        artNetModule.broadcast();
+        artNetModule.sendDmx(now);
+        sacnModule.sendDmx(now);
     }
-    
+
+    /**
+     * Queues a command for the clock thread, it will be applied at the start of the next frame.
+     */
+    public void submit(@NotNull TransportCommand command) {
+        commands.add(command);
+    }
+
     public void setTime(Timecode time) {
-        TimecodeSetEvent event = new TimecodeSetEvent(time);
-        event.call(eventBus);
-        if (event.isCancelled())
-            return;
+        submit(new TransportCommand.Locate(time));
+    }
 
-        artNetModule.setTime(time);
-        ltcModule.setTime(time);
-        elapsed = time.millis();
-        start = System.currentTimeMillis() - elapsed;
-        this.currentTime = time;
+    public void skip(long frames) {
+        submit(new TransportCommand.Skip(frames));
     }
     
     public void play() {
+        submit(TransportCommand.PLAY);
+    }
+    
+    public void pause() {
+        submit(TransportCommand.PAUSE);
+    }
+    
+    public void stop() {
+        submit(TransportCommand.STOP);
+    }
+
+    private void apply(TransportCommand command, long now) {
+        try {
+            switch (command) {
+                case TransportCommand.Play ignored -> applyPlay(now);
+                case TransportCommand.Pause ignored -> applyPause(now);
+                case TransportCommand.Stop ignored -> applyStop(now);
+                case TransportCommand.Locate locate -> applyLocate(locate.time(), now);
+                case TransportCommand.Skip skip -> applyLocate(Timecode.ofFrames(Math.max(0, position(now) + skip.frames()), framerate), now);
+                case TransportCommand.Cue cue -> cue.event().execute();
+            }
+        } catch (Throwable t) {
+            log.error("Failed to apply transport command: {}", command, t);
+        }
+    }
+
+    private void applyPlay(long now) {
+        if (state == TransportState.PLAYING)
+            return;
         log.info("Play");
-        TimecodeStartEvent event = new TimecodeStartEvent(currentTime);
+        TimecodeStartEvent event = new TimecodeStartEvent(Timecode.ofFrames(frames, framerate));
         event.call(eventBus);
         if (event.isCancelled())
             return;
 
-        if (start == 0)
-            start = System.currentTimeMillis();
-        else
-            start = System.currentTimeMillis() - elapsed;
+        start = now - Frames.toNanos(frames, framerate);
         ltcModule.start();
-        this.playing = true;
+        state = TransportState.PLAYING;
+        publish();
     }
-    
-    public void pause() {
+
+    private void applyPause(long now) {
+        if (state != TransportState.PLAYING)
+            return;
         log.info("Pause");
         TimecodePauseEvent event = new TimecodePauseEvent();
         event.call(eventBus);
         if (event.isCancelled())
             return;
-        this.playing = false;
+        frames = position(now);
+        state = TransportState.PAUSED;
         ltcModule.stop();
+        publish();
     }
-    
-    public void stop() {
+
+    private void applyStop(long now) {
         log.info("Stop");
-        TimecodeStopEvent event = new TimecodeStopEvent(currentTime);
+        TimecodeStopEvent event = new TimecodeStopEvent(Timecode.ofFrames(position(now), framerate));
         event.call(eventBus);
         if (event.isCancelled())
             return;
-        this.playing = false;
+        state = TransportState.STOPPED;
         ltcModule.setTime(Timecode.ZERO);
         ltcModule.stop();
-        currentTime = new Timecode(0);
-        start = 0;
+        frames = 0;
+        publish();
+    }
+
+    private void applyLocate(Timecode time, long now) {
+        TimecodeSetEvent event = new TimecodeSetEvent(time);
+        event.call(eventBus);
+        if (event.isCancelled())
+            return;
+
+        long target = time.framesIn(framerate);
+        artNetModule.setTime(target, framerate);
+        ltcModule.setTime(time);
+        frames = target;
+        start = now - Frames.toNanos(target, framerate);
+        publish();
+    }
+
+    /**
+     * Follows the chased source: locates on relocks, plays/pauses with the source, and otherwise
+     * only moves the start, so the PLL corrections don't produce events.
+     */
+    private void chase(long now) {
+        ChaseState chaseState = chaser.getState(now);
+        if (chaseState == ChaseState.UNLOCKED) {
+            //lost the source, stop where we are
+            if (state == TransportState.PLAYING)
+                applyPause(now);
+            return;
+        }
+        long source = chaser.sourceAt(now);
+        long relocks = chaser.getRelocks();
+        if (relocks != seenRelocks) {
+            seenRelocks = relocks;
+            applyLocate(Timecode.ofFrames(Frames.fromNanos(source, framerate), framerate), now);
+        }
+        if (chaseState == ChaseState.HELD) {
+            if (state == TransportState.PLAYING)
+                applyPause(now);
+            long held = Frames.fromNanos(source, framerate);
+            if (state != TransportState.PLAYING && held != frames) {
+                frames = held;
+                publish();
+            }
+            return;
+        }
+        if (state != TransportState.PLAYING) {
+            frames = Frames.fromNanos(source, framerate);
+            applyPlay(now);
+        }
+        start = now - source;
+        // the snapshot extrapolates from start, only republish if it drifted by a noticeable amount
+        if (Math.abs(start - snapshot.start()) > 1_000_000)
+            publish();
+    }
+
+    private long position(long now) {
+        return state == TransportState.PLAYING ? Frames.fromNanos(now - start, framerate) : frames;
+    }
+
+    private void publish() {
+        if (state == TransportState.PLAYING) {
+            // tick on the ArtNet frame boundaries
+            clock.align(start - latency.getDelay(Output.ARTNET));
+        }
+        snapshot = new TransportSnapshot(state, framerate, frames, start, snapshot.version() + 1);
     }
 
     @Override
     public void shutdown() {
-        running = false;
+        clock.stop();
     }
 
     // generated
 
+    public TransportSnapshot getSnapshot() {
+        return snapshot;
+    }
+
     public Timecode getCurrentTime() {
-        return currentTime;
+        return snapshot.currentTime();
+    }
+
+    public Framerate getFramerate() {
+        return framerate;
     }
 
     public boolean isPlaying() {
-        return playing;
+        return snapshot.isPlaying();
+    }
+
+    public MasterClock getClock() {
+        return clock;
     }
 
-}
\ No newline at end of file
+    public TimecodeChaser getChaser() {
+        return chaser;
+    }
+}
@@ -0,0 +1,13 @@
+package me.sunstorm.showmanager.clock;
+
+/**
+ * The external timecode source the {@link TimecodeChaser} follows. <br><br>
+ * NONE - the internal clock is the master <br>
+ * ARTNET - incoming ArtNet timecode <br>
+ * LTC - linear timecode on an audio input
+ */
+public enum ChaseSource {
+    NONE,
+    ARTNET,
+    LTC
+}
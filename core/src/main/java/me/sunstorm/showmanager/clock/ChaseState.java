@@ -0,0 +1,16 @@
+package me.sunstorm.showmanager.clock;
+
+/**
+ * UNLOCKED - no source, or it has been silent for longer than the freewheel timeout <br>
+ * LOCKING - following the source, but the error is still above the lock threshold <br>
+ * LOCKED - following the source within the lock threshold <br>
+ * FREEWHEEL - the source went silent, running on the last estimate <br>
+ * HELD - the source keeps sending the same frame (it's paused)
+ */
+public enum ChaseState {
+    UNLOCKED,
+    LOCKING,
+    LOCKED,
+    FREEWHEEL,
+    HELD
+}
@@ -0,0 +1,13 @@
+package me.sunstorm.showmanager.clock;
+
+@FunctionalInterface
+public interface FrameCallback {
+
+    /**
+     * Called by the clock thread at the start of every frame.
+     *
+     * @param frame the frame counter since the clock started
+     * @param now the {@link System#nanoTime()} value the frame actually started at
+     */
+    void onFrame(long frame, long now);
+}
@@ -0,0 +1,96 @@
+package me.sunstorm.showmanager.clock;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Collects the measured frame start lateness (actual start - deadline) of the {@link MasterClock}.
+ * Values are bucketed into a log2 histogram of microseconds, so percentiles can be estimated without storing samples.
+ */
+public class JitterStats {
+    private static final int BUCKETS = 32;
+
+    private final long[] histogram = new long[BUCKETS];
+    private long count = 0;
+    private long missed = 0;
+    private long min = Long.MAX_VALUE;
+    private long max = 0;
+    private long sum = 0;
+
+    public synchronized void record(long lateness) {
+        long value = Math.max(0, lateness);
+        count++;
+        sum += value;
+        if (value < min) min = value;
+        if (value > max) max = value;
+        long micros = value / 1000;
+        int bucket = micros == 0 ? 0 : Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(micros));
+        histogram[bucket]++;
+    }
+
+    public synchronized void recordMissed(long frames) {
+        missed += frames;
+    }
+
+    public synchronized void reset() {
+        java.util.Arrays.fill(histogram, 0);
+        count = 0;
+        missed = 0;
+        min = Long.MAX_VALUE;
+        max = 0;
+        sum = 0;
+    }
+
+    /**
+     * Estimates the given percentile from the histogram. The result is the upper bound of the matching bucket.
+     *
+     * @param percentile the percentile between 0 and 100
+     * @return the estimated lateness in microseconds
+     */
+    public synchronized long percentileMicros(double percentile) {
+        if (count == 0)
+            return 0;
+        long target = (long) Math.ceil(count * percentile / 100);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += histogram[i];
+            if (seen >= target)
+                return i == 0 ? 1 : 1L << i;
+        }
+        return max / 1000;
+    }
+
+    @NotNull
+    public synchronized JsonObject toJson() {
+        JsonObject data = new JsonObject();
+        data.addProperty("frames", count);
+        data.addProperty("missedFrames", missed);
+        data.addProperty("minMicros", count == 0 ? 0 : min / 1000);
+        data.addProperty("maxMicros", max / 1000);
+        data.addProperty("meanMicros", count == 0 ? 0 : sum / count / 1000);
+        data.addProperty("p50Micros", percentileMicros(50));
+        data.addProperty("p99Micros", percentileMicros(99));
+        data.addProperty("p999Micros", percentileMicros(99.9));
+        JsonArray buckets = new JsonArray();
+        for (long bucket : histogram) {
+            buckets.add(bucket);
+        }
+        data.add("log2Histogram", buckets);
+        return data;
+    }
+
+    // generated
+
+    public synchronized long getCount() {
+        return count;
+    }
+
+    public synchronized long getMissed() {
+        return missed;
+    }
+
+    public synchronized long getMax() {
+        return max;
+    }
+}
@@ -0,0 +1,62 @@
+package me.sunstorm.showmanager.clock;
+
+import com.google.gson.JsonObject;
+import me.sunstorm.showmanager.settings.config.LatencyConfig;
+import org.jetbrains.annotations.NotNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+/**
+ * Holds the latency of every {@link Output}: the time between the show handing over a frame and the frame
+ * being seen or heard on stage. Every output is scheduled early by its own latency, so they line up even though
+ * the devices and the network paths differ. <br>
+ * The delays are configured, or measured with the loopback calibration. Reading a delay doesn't allocate,
+ * so it is safe on the clock thread.
+ */
+@Singleton
+public class LatencyCompensator {
+    private static final Logger log = LoggerFactory.getLogger(LatencyCompensator.class);
+    private static final Output[] OUTPUTS = Output.values();
+
+    private volatile long[] delays;
+
+    @Inject
+    public LatencyCompensator(@NotNull LatencyConfig config) {
+        long[] initial = new long[OUTPUTS.length];
+        initial[Output.LTC.ordinal()] = config.getLtcMicros() * 1000L;
+        initial[Output.ARTNET.ordinal()] = config.getArtNetMicros() * 1000L;
+        initial[Output.AUDIO.ordinal()] = config.getAudioMicros() * 1000L;
+        initial[Output.OSC.ordinal()] = config.getOscMicros() * 1000L;
+        this.delays = initial;
+    }
+
+    /**
+     * @return the delay of the output in nanoseconds
+     */
+    public long getDelay(@NotNull Output output) {
+        return delays[output.ordinal()];
+    }
+
+    /**
+     * @param nanos the delay of the output in nanoseconds, negative values are clamped to 0
+     */
+    public synchronized void setDelay(@NotNull Output output, long nanos) {
+        long[] updated = delays.clone();
+        updated[output.ordinal()] = Math.max(0, nanos);
+        delays = updated;
+        log.info("{} latency set to {} us", output, updated[output.ordinal()] / 1000);
+    }
+
+    @NotNull
+    public JsonObject toJson() {
+        long[] current = delays;
+        JsonObject data = new JsonObject();
+        for (Output output : OUTPUTS) {
+            data.addProperty(output.name().toLowerCase(), current[output.ordinal()] / 1000);
+        }
+        return data;
+    }
+}
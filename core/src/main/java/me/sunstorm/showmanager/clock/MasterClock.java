@@ -0,0 +1,114 @@
+package me.sunstorm.showmanager.clock;
+
+import me.sunstorm.showmanager.util.Framerate;
+import me.sunstorm.showmanager.util.Frames;
+import org.jetbrains.annotations.NotNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Deadline based frame clock built on {@link System#nanoTime()}. <br>
+ * Every deadline is computed from the clock origin and the frame counter (not by adding the period to the previous
+ * start), so rounding errors and late wakeups never accumulate. Wall clock adjustments (NTP) have no effect.
+ * If the thread falls behind by whole frames, those frames are skipped instead of being executed in a burst.
+ */
+public class MasterClock implements Runnable {
+    private static final Logger log = LoggerFactory.getLogger(MasterClock.class);
+
+    private final long rateNum;
+    private final long rateDen;
+    private final WaitStrategy waitStrategy;
+    private final FrameCallback callback;
+    private final JitterStats jitter = new JitterStats();
+    private volatile boolean running = false;
+    private long origin;
+    private long frame;
+
+    public MasterClock(int framerate, @NotNull WaitStrategy waitStrategy, @NotNull FrameCallback callback) {
+        this(framerate, 1, waitStrategy, callback);
+    }
+
+    public MasterClock(@NotNull Framerate framerate, @NotNull WaitStrategy waitStrategy, @NotNull FrameCallback callback) {
+        this(framerate.getRateNum(), framerate.getRateDen(), waitStrategy, callback);
+    }
+
+    /**
+     * @param rateNum numerator of the rate in frames per second
+     * @param rateDen denominator of the rate in frames per second
+     */
+    public MasterClock(long rateNum, long rateDen, @NotNull WaitStrategy waitStrategy, @NotNull FrameCallback callback) {
+        this.rateNum = rateNum;
+        this.rateDen = rateDen;
+        this.waitStrategy = waitStrategy;
+        this.callback = callback;
+    }
+
+    @Override
+    public void run() {
+        log.info("Starting clock at {} fps using {}", getFramerate(), waitStrategy.getClass().getSimpleName());
+        running = true;
+        origin = System.nanoTime();
+        frame = 0;
+        while (running) {
+            long deadline = deadline(frame);
+            waitStrategy.await(deadline);
+            long now = System.nanoTime();
+            long late = now - deadline;
+            jitter.record(late);
+            long behind = frameOf(now) - frame;
+            if (behind > 0) {
+                jitter.recordMissed(behind);
+                frame += behind;
+            }
+            try {
+                callback.onFrame(frame, now);
+            } catch (Throwable t) {
+                log.error("Frame callback failed", t);
+            }
+            frame++;
+        }
+        log.info("Clock stopped, jitter: {}", jitter.toJson());
+    }
+
+    /**
+     * Moves the phase of the clock, so the next frames start at {@code phase} plus whole frames.
+     * Must be called from the frame callback, the current frame isn't affected.
+     *
+     * @param phase a nanoTime in the past
+     */
+    public void align(long phase) {
+        long now = System.nanoTime();
+        long next = Frames.fromNanos(now - phase, rateNum, rateDen) + 1;
+        origin = phase + Frames.toNanos(next, rateNum, rateDen) - Frames.toNanos(frame + 1, rateNum, rateDen);
+    }
+
+    public void stop() {
+        running = false;
+    }
+
+    /**
+     * @param frame the frame counter
+     * @return the nanoTime deadline of the frame
+     */
+    public long deadline(long frame) {
+        return origin + Frames.toNanos(frame, rateNum, rateDen);
+    }
+
+    private long frameOf(long nanos) {
+        return Frames.fromNanos(nanos - origin, rateNum, rateDen);
+    }
+
+    // generated
+
+    public JitterStats getJitter() {
+        return jitter;
+    }
+
+    public double getFramerate() {
+        return (double) rateNum / rateDen;
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+}
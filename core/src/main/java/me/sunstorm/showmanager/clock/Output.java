@@ -0,0 +1,15 @@
+package me.sunstorm.showmanager.clock;
+
+/**
+ * The outputs the {@link LatencyCompensator} schedules early. <br><br>
+ * LTC - the generated LTC audio line <br>
+ * ARTNET - the ArtNet timecode broadcast <br>
+ * AUDIO - the audio track player, on top of the per track latency <br>
+ * OSC - scheduled OSC messages
+ */
+public enum Output {
+    LTC,
+    ARTNET,
+    AUDIO,
+    OSC
+}
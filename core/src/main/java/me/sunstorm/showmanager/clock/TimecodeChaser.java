@@ -0,0 +1,183 @@
+package me.sunstorm.showmanager.clock;
+
+import com.google.gson.JsonObject;
+import me.sunstorm.showmanager.settings.config.ChaseConfig;
+import org.jetbrains.annotations.NotNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+/**
+ * Locks to an external timecode source with a phase-locked loop. <br>
+ * Every received timecode is compared to the local estimate of the source time at the arrival of the packet.
+ * Small errors are corrected gradually (a proportional phase step and an integrated rate correction), so network
+ * jitter never makes the chased time jump. Errors above the relock threshold (the source was located) relock
+ * immediately. If the source goes silent, the estimate keeps running until the freewheel timeout.
+ * <br><br>
+ * Source times are nanoseconds since 00:00:00/00 of the source, so the source and the show framerate can differ.
+ * {@link #onTimecode(long, long)} must be called from a single thread, the other methods can be called from any thread.
+ */
+@Singleton
+public class TimecodeChaser {
+    private static final Logger log = LoggerFactory.getLogger(TimecodeChaser.class);
+    // the rate correction is limited to +-0.5%
+    private static final double MAX_RATE_ERROR = 0.005;
+    // consecutive good packets needed to report LOCKED
+    private static final int LOCK_COUNT = 8;
+    private static final long FREEWHEEL_AFTER = 100_000_000L;
+
+    private final long freewheelTimeout;
+    private final long relockThreshold;
+    private final long lockThreshold;
+    private final double phaseGain;
+    private final double frequencyGain;
+    private volatile Estimate estimate = null;
+    // only accessed by the receiving thread
+    private double rate = 1;
+    private long lastSource = Long.MIN_VALUE;
+    private int repeats = 0;
+    private int good = 0;
+    // metrics, single writer
+    private volatile long offset = 0;
+    private volatile double averageOffset = 0;
+    private volatile long packets = 0;
+    private volatile long relocks = 0;
+
+    @Inject
+    public TimecodeChaser(@NotNull ChaseConfig config) {
+        this.freewheelTimeout = config.getFreewheelMillis() * 1_000_000L;
+        this.relockThreshold = config.getRelockMillis() * 1_000_000L;
+        this.lockThreshold = config.getLockThresholdMicros() * 1000L;
+        this.phaseGain = config.getPhaseGain();
+        this.frequencyGain = config.getFrequencyGain();
+    }
+
+    /**
+     * @param source the received time in source nanoseconds
+     * @param arrival the nanoTime the packet was received
+     */
+    public void onTimecode(long source, long arrival) {
+        packets++;
+        Estimate current = estimate;
+        if (current != null && source == lastSource) {
+            // the same frame again, after a few repeats the source is considered paused
+            if (++repeats >= 2)
+                estimate = new Estimate(arrival, source, rate, arrival, current.locked(), true);
+            else
+                estimate = new Estimate(current.local(), current.source(), current.rate(), arrival, current.locked(), current.held());
+            return;
+        }
+        repeats = 0;
+        lastSource = source;
+
+        if (current == null) {
+            relock(source, arrival, 0);
+            return;
+        }
+        double predicted = current.held() ? current.source() : current.at(arrival);
+        long error = (long) (source - predicted);
+        offset = error;
+        averageOffset += (Math.abs(error) - averageOffset) / 16;
+        if (Math.abs(error) > relockThreshold) {
+            relock(source, arrival, error);
+            return;
+        }
+        if (current.held()) {
+            // resumed right where it was held
+            good = 0;
+            estimate = new Estimate(arrival, source, rate, arrival, false, false);
+            return;
+        }
+
+        long interval = arrival - current.arrival();
+        if (interval > 0) {
+            rate += frequencyGain * error / interval;
+            rate = Math.max(1 - MAX_RATE_ERROR, Math.min(1 + MAX_RATE_ERROR, rate));
+        }
+        good = Math.abs(error) < lockThreshold ? good + 1 : 0;
+        estimate = new Estimate(arrival, predicted + phaseGain * error, rate, arrival, good >= LOCK_COUNT, false);
+    }
+
+    private void relock(long source, long arrival, long error) {
+        if (estimate != null)
+            log.info("Relocking to source, error: {} ms", error / 1_000_000);
+        relocks++;
+        good = 0;
+        estimate = new Estimate(arrival, source, rate, arrival, false, false);
+    }
+
+    @NotNull
+    public ChaseState getState(long now) {
+        Estimate current = estimate;
+        if (current == null || now - current.arrival() > freewheelTimeout)
+            return ChaseState.UNLOCKED;
+        if (current.held())
+            return ChaseState.HELD;
+        if (now - current.arrival() > FREEWHEEL_AFTER)
+            return ChaseState.FREEWHEEL;
+        return current.locked() ? ChaseState.LOCKED : ChaseState.LOCKING;
+    }
+
+    /**
+     * @param now a {@link System#nanoTime()} value
+     * @return the estimated source time in nanoseconds, or -1 if there is no source
+     */
+    public long sourceAt(long now) {
+        Estimate current = estimate;
+        if (current == null)
+            return -1;
+        return current.held() ? (long) current.source() : (long) current.at(now);
+    }
+
+    /**
+     * Drops the current estimate, the next packet relocks.
+     */
+    public void reset() {
+        estimate = null;
+    }
+
+    @NotNull
+    public JsonObject toJson() {
+        long now = System.nanoTime();
+        Estimate current = estimate;
+        JsonObject data = new JsonObject();
+        data.addProperty("state", getState(now).name());
+        data.addProperty("offsetMicros", offset / 1000);
+        data.addProperty("averageOffsetMicros", (long) averageOffset / 1000);
+        data.addProperty("driftPpm", current == null ? 0 : (current.rate() - 1) * 1_000_000);
+        data.addProperty("packets", packets);
+        data.addProperty("relocks", relocks);
+        data.addProperty("sinceLastPacketMillis", current == null ? -1 : (now - current.arrival()) / 1_000_000);
+        return data;
+    }
+
+    // generated
+
+    public long getOffset() {
+        return offset;
+    }
+
+    public double getAverageOffset() {
+        return averageOffset;
+    }
+
+    public long getPackets() {
+        return packets;
+    }
+
+    public long getRelocks() {
+        return relocks;
+    }
+
+    /**
+     * Maps local nanoTime to source time: {@code source + (now - local) * rate}.
+     */
+    private record Estimate(long local, double source, double rate, long arrival, boolean locked, boolean held) {
+
+        double at(long now) {
+            return source + (now - local) * rate;
+        }
+    }
+}
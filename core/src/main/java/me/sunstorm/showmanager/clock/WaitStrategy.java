@@ -0,0 +1,16 @@
+package me.sunstorm.showmanager.clock;
+
+/**
+ * Decides how the clock thread waits for the next frame deadline.
+ * Deadlines are always expressed in {@link System#nanoTime()} units.
+ */
+@FunctionalInterface
+public interface WaitStrategy {
+
+    /**
+     * Blocks the calling thread until {@link System#nanoTime()} reaches the deadline.
+     *
+     * @param deadline the deadline in nanoTime units
+     */
+    void await(long deadline);
+}
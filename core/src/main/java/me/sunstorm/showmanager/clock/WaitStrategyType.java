@@ -0,0 +1,28 @@
+package me.sunstorm.showmanager.clock;
+
+import me.sunstorm.showmanager.clock.impl.ParkWaitStrategy;
+import me.sunstorm.showmanager.clock.impl.SpinParkWaitStrategy;
+import me.sunstorm.showmanager.clock.impl.SpinWaitStrategy;
+import me.sunstorm.showmanager.settings.config.ClockConfig;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * The selectable {@link WaitStrategy} implementations. <br><br>
+ * PARK - lowest CPU usage, jitter depends on the OS timer slack <br>
+ * SPIN_PARK - parks until shortly before the deadline, then spins <br>
+ * SPIN - burns a core, lowest jitter
+ */
+public enum WaitStrategyType {
+    PARK,
+    SPIN_PARK,
+    SPIN;
+
+    @NotNull
+    public WaitStrategy create(@NotNull ClockConfig config) {
+        return switch (this) {
+            case PARK -> new ParkWaitStrategy();
+            case SPIN_PARK -> new SpinParkWaitStrategy(config.getSpinThresholdMicros() * 1000L);
+            case SPIN -> new SpinWaitStrategy();
+        };
+    }
+}
@@ -0,0 +1,16 @@
+package me.sunstorm.showmanager.clock.impl;
+
+import me.sunstorm.showmanager.clock.WaitStrategy;
+
+import java.util.concurrent.locks.LockSupport;
+
+public class ParkWaitStrategy implements WaitStrategy {
+
+    @Override
+    public void await(long deadline) {
+        long remaining;
+        while ((remaining = deadline - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(remaining);
+        }
+    }
+}
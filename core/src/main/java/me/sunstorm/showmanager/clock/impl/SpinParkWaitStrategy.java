@@ -0,0 +1,27 @@
+package me.sunstorm.showmanager.clock.impl;
+
+import me.sunstorm.showmanager.clock.WaitStrategy;
+
+import java.util.concurrent.locks.LockSupport;
+
+public class SpinParkWaitStrategy implements WaitStrategy {
+    private final long spinThreshold;
+
+    /**
+     * @param spinThreshold the time before the deadline (in nanos) where parking stops and spinning starts
+     */
+    public SpinParkWaitStrategy(long spinThreshold) {
+        this.spinThreshold = spinThreshold;
+    }
+
+    @Override
+    public void await(long deadline) {
+        long remaining;
+        while ((remaining = deadline - System.nanoTime()) > spinThreshold) {
+            LockSupport.parkNanos(remaining - spinThreshold);
+        }
+        while (deadline - System.nanoTime() > 0) {
+            Thread.onSpinWait();
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package me.sunstorm.showmanager.clock.impl;
+
+import me.sunstorm.showmanager.clock.WaitStrategy;
+
+public class SpinWaitStrategy implements WaitStrategy {
+
+    @Override
+    public void await(long deadline) {
+        while (deadline - System.nanoTime() > 0) {
+            Thread.onSpinWait();
+        }
+    }
+}
@@ -0,0 +1,378 @@
+package me.sunstorm.showmanager.dmx;
+
+import me.sunstorm.showmanager.settings.config.MergeConfig;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.net.InetAddress;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Merges the sources sending the same universe before the data reaches the {@link DmxUniverseStore}. <br>
+ * A source is an Art-Net node by IP or an sACN sender by CID. Only the sources with the highest priority are merged,
+ * by the {@link MergeMode} of the universe, the others are kept to take over. A source is dropped when it doesn't
+ * send for the timeout.
+ * <br><br>
+ * A packet of the only source of a universe is written to the store straight away. With more sources the merge is only
+ * recomputed when a packet changes a level or the set of sources changes: repeated and keep-alive packets don't
+ * touch the store, packets older than the last of their source by the sequence number are discarded.
+ * The levels are compared and merged 8 channels at a time as longs, so the loops have no per-byte branches.
+ */
+@Singleton
+public class DmxMergeEngine {
+    public static final int DEFAULT_PRIORITY = 100;
+    public static final int MAX_SOURCES = 8;
+    public static final long DEFAULT_TIMEOUT = 2_500_000_000L;
+    private static final VarHandle LONGS = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.nativeOrder());
+    private static final long HIGH = 0x8080808080808080L;
+
+    private final DmxUniverseStore store;
+    private final AtomicReferenceArray<MergeUniverse> universes = new AtomicReferenceArray<>(DmxUniverseStore.UNIVERSES);
+    private final Map<Integer, MergeMode> modes = new ConcurrentHashMap<>();
+    private volatile MergeMode defaultMode;
+    private volatile long timeout;
+    private final LongAdder packets = new LongAdder();
+    private final LongAdder merges = new LongAdder();
+    private final LongAdder outOfOrder = new LongAdder();
+    private final LongAdder rejectedSources = new LongAdder();
+
+    @Inject
+    public DmxMergeEngine(DmxUniverseStore store, MergeConfig config) {
+        this.store = store;
+        this.defaultMode = config.getMode();
+        this.timeout = config.getTimeoutMillis() * 1_000_000L;
+        modes.putAll(config.getUniverses());
+    }
+
+    public DmxMergeEngine(DmxUniverseStore store) {
+        this(store, new MergeConfig());
+    }
+
+    /**
+     * Merges the data of a source into a universe.
+     *
+     * @param sourceHigh the high bits of the source, 0 for an Art-Net IP
+     * @param sourceLow the low bits of the source
+     * @param priority the priority of the source, higher wins
+     * @param sequence the sequence number of the packet, 0 to 255, or -1 if not sequenced
+     * @param length the number of channels, starting from channel 1
+     * @param now the nanoTime of the packet
+     * @return whether the packet was accepted
+     */
+    public boolean submit(int portAddress, long sourceHigh, long sourceLow, int priority, int sequence, byte[] data, int offset, int length, long now) {
+        MergeUniverse universe = universe(portAddress);
+        synchronized (universe) {
+            Source source = accept(universe, sourceHigh, sourceLow, priority, sequence, now);
+            if (source == null)
+                return false;
+            length = Math.min(length, DmxUniverseStore.CHANNELS);
+            if (universe.count == 1) {
+                store.write(portAddress, data, offset, length);
+                return true;
+            }
+            System.arraycopy(source.levels, 0, universe.incoming, 0, DmxUniverseStore.CHANNELS);
+            System.arraycopy(data, offset, universe.incoming, 0, length);
+            merge(universe, source);
+            return true;
+        }
+    }
+
+    /**
+     * @see #submit(int, long, long, int, int, byte[], int, int, long)
+     */
+    public boolean submit(int portAddress, long sourceHigh, long sourceLow, int priority, int sequence, @NotNull ByteBuffer data, int offset, int length, long now) {
+        MergeUniverse universe = universe(portAddress);
+        synchronized (universe) {
+            Source source = accept(universe, sourceHigh, sourceLow, priority, sequence, now);
+            if (source == null)
+                return false;
+            length = Math.min(length, DmxUniverseStore.CHANNELS);
+            if (universe.count == 1) {
+                store.write(portAddress, data, offset, length);
+                return true;
+            }
+            System.arraycopy(source.levels, 0, universe.incoming, 0, DmxUniverseStore.CHANNELS);
+            data.get(offset, universe.incoming, 0, length);
+            merge(universe, source);
+            return true;
+        }
+    }
+
+    private MergeUniverse universe(int portAddress) {
+        MergeUniverse universe = universes.get(portAddress);
+        if (universe == null) {
+            universes.compareAndSet(portAddress, null, new MergeUniverse(portAddress));
+            universe = universes.get(portAddress);
+        }
+        return universe;
+    }
+
+    // finds or adds the source and checks the sequence, null if the packet is dropped
+    private Source accept(MergeUniverse universe, long high, long low, int priority, int sequence, long now) {
+        packets.increment();
+        universe.expire(now, timeout);
+        Source source = universe.find(high, low);
+        if (source == null) {
+            source = universe.add(high, low);
+            if (source == null) {
+                rejectedSources.increment();
+                return null;
+            }
+            // the first source was written to the store directly
+            if (universe.count == 2)
+                store.read(universe.portAddress, universe.sources[0].levels);
+        } else if (sequence >= 0 && source.sequence >= 0) {
+            int diff = (byte) (sequence - source.sequence);
+            if (diff <= 0 && diff > -20) {
+                outOfOrder.increment();
+                return null;
+            }
+        }
+        if (source.priority != priority)
+            universe.stale = true;
+        source.priority = priority;
+        source.sequence = sequence;
+        source.lastSeen = now;
+        return source;
+    }
+
+    // the new levels of the source are in incoming
+    private void merge(MergeUniverse universe, Source source) {
+        byte[] previous = source.levels;
+        byte[] incoming = universe.incoming;
+        boolean ltp = mode(universe.portAddress) == MergeMode.LTP;
+        boolean top = source.priority >= universe.highest();
+        long changed = 0;
+        for (int i = 0; i < DmxUniverseStore.CHANNELS; i += 8) {
+            long next = (long) LONGS.get(incoming, i);
+            long diff = next ^ (long) LONGS.get(previous, i);
+            changed |= diff;
+            if (ltp && top && diff != 0) {
+                long mask = nonZero(diff);
+                LONGS.set(universe.merged, i, (long) LONGS.get(universe.merged, i) & ~mask | next & mask);
+            }
+        }
+        // the previous levels are reused for the next packet
+        source.levels = incoming;
+        universe.incoming = previous;
+        if (universe.stale) {
+            universe.recompute(ltp, top ? source : null);
+        } else if (changed == 0 || !top) {
+            return;
+        } else if (!ltp) {
+            universe.recompute(false, null);
+        }
+        merges.increment();
+        store.write(universe.portAddress, universe.merged, 0, DmxUniverseStore.CHANNELS);
+    }
+
+    /**
+     * Removes a source from a universe, like an sACN source terminating its stream.
+     */
+    public void removeSource(int portAddress, long sourceHigh, long sourceLow) {
+        MergeUniverse universe = universes.get(portAddress);
+        if (universe == null)
+            return;
+        synchronized (universe) {
+            Source source = universe.find(sourceHigh, sourceLow);
+            if (source == null)
+                return;
+            universe.remove(source);
+            if (universe.count > 0) {
+                universe.recompute(mode(portAddress) == MergeMode.LTP, null);
+                store.write(portAddress, universe.merged, 0, DmxUniverseStore.CHANNELS);
+            }
+        }
+    }
+
+    private MergeMode mode(int portAddress) {
+        return modes.getOrDefault(portAddress, defaultMode);
+    }
+
+    public void setMode(int portAddress, @NotNull MergeMode mode) {
+        modes.put(portAddress, mode);
+    }
+
+    public void setDefaultMode(@NotNull MergeMode defaultMode) {
+        this.defaultMode = defaultMode;
+    }
+
+    /**
+     * @param timeout the time after a silent source is dropped, in nanoseconds
+     */
+    public void setTimeout(long timeout) {
+        this.timeout = timeout;
+    }
+
+    /**
+     * @return the number of sources sending the universe
+     */
+    public int getSources(int portAddress) {
+        MergeUniverse universe = universes.get(portAddress);
+        if (universe == null)
+            return 0;
+        synchronized (universe) {
+            return universe.count;
+        }
+    }
+
+    /**
+     * The key of an Art-Net source.
+     *
+     * @return the IPv4 address as an int, or the hash of an IPv6 address
+     */
+    public static long sourceOf(@NotNull InetAddress address) {
+        byte[] bytes = address.getAddress();
+        return bytes.length == 4 ? ByteBuffer.wrap(bytes).getInt() & 0xFFFFFFFFL : address.hashCode();
+    }
+
+    /**
+     * @return the high bit of every byte of x that isn't 0, spread to the whole byte
+     */
+    static long nonZero(long x) {
+        long high = ((x & ~HIGH) + ~HIGH | x) & HIGH;
+        return (high >>> 7) * 0xFF;
+    }
+
+    /**
+     * @return the unsigned maximum of every byte of x and y
+     */
+    static long max(long x, long y) {
+        // the high bit of every byte of t tells if the low 7 bits of x are at least the ones of y
+        long t = (x | HIGH) - (y & ~HIGH);
+        long greater = (x & ~y | ~(x ^ y) & t) & HIGH;
+        long mask = (greater >>> 7) * 0xFF;
+        return x & mask | y & ~mask;
+    }
+
+    // generated
+
+    public MergeMode getDefaultMode() {
+        return defaultMode;
+    }
+
+    public long getTimeout() {
+        return timeout;
+    }
+
+    public long getPackets() {
+        return packets.sum();
+    }
+
+    public long getMerges() {
+        return merges.sum();
+    }
+
+    public long getOutOfOrder() {
+        return outOfOrder.sum();
+    }
+
+    public long getRejectedSources() {
+        return rejectedSources.sum();
+    }
+
+    private static class MergeUniverse {
+        private final int portAddress;
+        private final Source[] sources = new Source[MAX_SOURCES];
+        private final byte[] merged = new byte[DmxUniverseStore.CHANNELS];
+        private byte[] incoming = new byte[DmxUniverseStore.CHANNELS];
+        private int count = 0;
+        // the sources or their priorities changed since the last merge
+        private boolean stale = false;
+
+        private MergeUniverse(int portAddress) {
+            this.portAddress = portAddress;
+        }
+
+        private Source find(long high, long low) {
+            for (int i = 0; i < count; i++) {
+                if (sources[i].high == high && sources[i].low == low)
+                    return sources[i];
+            }
+            return null;
+        }
+
+        private Source add(long high, long low) {
+            if (count == sources.length)
+                return null;
+            Source source = new Source(high, low);
+            sources[count++] = source;
+            stale = true;
+            return source;
+        }
+
+        private void remove(Source source) {
+            for (int i = 0; i < count; i++) {
+                if (sources[i] == source) {
+                    sources[i] = sources[--count];
+                    sources[count] = null;
+                    stale = true;
+                    return;
+                }
+            }
+        }
+
+        private void expire(long now, long timeout) {
+            for (int i = count - 1; i >= 0; i--) {
+                if (now - sources[i].lastSeen > timeout)
+                    remove(sources[i]);
+            }
+        }
+
+        private int highest() {
+            int highest = Integer.MIN_VALUE;
+            for (int i = 0; i < count; i++) {
+                highest = Math.max(highest, sources[i].priority);
+            }
+            return highest;
+        }
+
+        // HTP of the sources with the highest priority, or the levels of the latest one of them for LTP
+        private void recompute(boolean ltp, @Nullable Source latest) {
+            stale = false;
+            int highest = highest();
+            boolean first = true;
+            for (int s = 0; s < count; s++) {
+                Source source = sources[s];
+                if (source.priority != highest)
+                    continue;
+                if (ltp) {
+                    if (latest == null || latest.priority != highest || source.lastSeen - latest.lastSeen > 0)
+                        latest = source;
+                } else if (first) {
+                    System.arraycopy(source.levels, 0, merged, 0, merged.length);
+                    first = false;
+                } else {
+                    for (int i = 0; i < merged.length; i += 8) {
+                        LONGS.set(merged, i, max((long) LONGS.get(merged, i), (long) LONGS.get(source.levels, i)));
+                    }
+                }
+            }
+            if (ltp && latest != null)
+                System.arraycopy(latest.levels, 0, merged, 0, merged.length);
+        }
+    }
+
+    private static class Source {
+        private final long high;
+        private final long low;
+        private byte[] levels = new byte[DmxUniverseStore.CHANNELS];
+        private int priority;
+        private int sequence = -1;
+        private long lastSeen;
+
+        private Source(long high, long low) {
+            this.high = high;
+            this.low = low;
+        }
+    }
+}
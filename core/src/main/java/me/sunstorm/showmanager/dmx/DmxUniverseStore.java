@@ -0,0 +1,158 @@
+package me.sunstorm.showmanager.dmx;
+
+import org.jetbrains.annotations.NotNull;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * The received DMX data of all 32768 ArtNet Port-Addresses (net, subnet, universe). <br>
+ * The universes are 512 byte slots of one preallocated off-heap slab, so there are no maps or per-packet arrays.
+ * Every slot has a sequence number, odd while it's written: readers copy the slot and retry if the sequence changed
+ * meanwhile (seqlock), so a copy is never torn and readers never block the receive thread.
+ * The sequence also tells if the slot changed since the last read. Writes copy straight from the receive buffer.
+ * <br><br>
+ * Any thread can read or write, writers of the same universe are serialized.
+ * {@link UniverseListener}s are notified after every write.
+ */
+@Singleton
+public class DmxUniverseStore {
+    public static final int UNIVERSES = 1 << 15;
+    public static final int CHANNELS = 512;
+    private static final VarHandle SEQUENCE = MethodHandles.arrayElementVarHandle(long[].class);
+
+    private final ByteBuffer slab;
+    private final long[] sequences = new long[UNIVERSES];
+    private final long[] updated = new long[UNIVERSES];
+    private volatile UniverseListener[] listeners = new UniverseListener[0];
+
+    @Inject
+    public DmxUniverseStore() {
+        this(true);
+    }
+
+    /**
+     * @param direct whether the slab is allocated off-heap
+     */
+    public DmxUniverseStore(boolean direct) {
+        slab = direct ? ByteBuffer.allocateDirect(UNIVERSES * CHANNELS) : ByteBuffer.allocate(UNIVERSES * CHANNELS);
+    }
+
+    /**
+     * Copies the data of one universe into the store, starting at channel 1.
+     * Channels over the length keep their value.
+     *
+     * @param portAddress the 15 bit Port-Address
+     * @param length the number of channels, at most 512
+     */
+    public void write(int portAddress, byte[] src, int offset, int length) {
+        long sequence = lock(portAddress);
+        slab.put(portAddress * CHANNELS, src, offset, Math.min(length, CHANNELS));
+        unlock(portAddress, sequence);
+        notify(portAddress);
+    }
+
+    /**
+     * @see #write(int, byte[], int, int)
+     */
+    public void write(int portAddress, @NotNull ByteBuffer src, int offset, int length) {
+        long sequence = lock(portAddress);
+        slab.put(portAddress * CHANNELS, src, offset, Math.min(length, CHANNELS));
+        unlock(portAddress, sequence);
+        notify(portAddress);
+    }
+
+    private void notify(int portAddress) {
+        for (UniverseListener listener : listeners) {
+            listener.onUpdate(portAddress);
+        }
+    }
+
+    public synchronized void addListener(@NotNull UniverseListener listener) {
+        UniverseListener[] current = listeners;
+        UniverseListener[] updated = Arrays.copyOf(current, current.length + 1);
+        updated[current.length] = listener;
+        listeners = updated;
+    }
+
+    public synchronized void removeListener(@NotNull UniverseListener listener) {
+        listeners = Arrays.stream(listeners).filter(l -> l != listener).toArray(UniverseListener[]::new);
+    }
+
+    private long lock(int portAddress) {
+        checkAddress(portAddress);
+        long sequence;
+        do {
+            while (((sequence = (long) SEQUENCE.getVolatile(sequences, portAddress)) & 1) == 1) {
+                Thread.onSpinWait();
+            }
+        } while (!SEQUENCE.compareAndSet(sequences, portAddress, sequence, sequence + 1));
+        return sequence;
+    }
+
+    private void unlock(int portAddress, long sequence) {
+        updated[portAddress] = System.nanoTime();
+        SEQUENCE.setRelease(sequences, portAddress, sequence + 2);
+    }
+
+    /**
+     * Copies a consistent snapshot of one universe.
+     *
+     * @param dst at least 512 bytes
+     * @return the sequence of the copied data, see {@link #getSequence(int)}
+     */
+    public long read(int portAddress, byte[] dst) {
+        checkAddress(portAddress);
+        while (true) {
+            long sequence = (long) SEQUENCE.getAcquire(sequences, portAddress);
+            if ((sequence & 1) == 0) {
+                slab.get(portAddress * CHANNELS, dst, 0, CHANNELS);
+                VarHandle.loadLoadFence();
+                if ((long) SEQUENCE.getOpaque(sequences, portAddress) == sequence)
+                    return sequence;
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    /**
+     * Reads one channel, single bytes can't tear.
+     *
+     * @param channel the channel, starting from 0
+     * @return the unsigned value
+     */
+    public int get(int portAddress, int channel) {
+        checkAddress(portAddress);
+        return slab.get(portAddress * CHANNELS + channel) & 0xFF;
+    }
+
+    /**
+     * The sequence of a universe grows by 2 with every write, and is odd during one.
+     * 0 means the universe was never received.
+     */
+    public long getSequence(int portAddress) {
+        checkAddress(portAddress);
+        return (long) SEQUENCE.getAcquire(sequences, portAddress);
+    }
+
+    /**
+     * @return the nanoTime of the last write, 0 if never written
+     */
+    public long getUpdated(int portAddress) {
+        checkAddress(portAddress);
+        return updated[portAddress];
+    }
+
+    public static int portAddress(int net, int subnet, int universe) {
+        return (net & 0x7F) << 8 | (subnet & 0x0F) << 4 | universe & 0x0F;
+    }
+
+    private static void checkAddress(int portAddress) {
+        if (portAddress < 0 || portAddress >= UNIVERSES)
+            throw new IndexOutOfBoundsException("Invalid Port-Address: " + portAddress);
+    }
+}
@@ -0,0 +1,15 @@
+package me.sunstorm.showmanager.dmx;
+
+/**
+ * How the sources of a universe with the same priority are merged.
+ */
+public enum MergeMode {
+    /**
+     * Highest takes precedence, every channel is the highest level of the sources.
+     */
+    HTP,
+    /**
+     * Latest takes precedence, every channel is the level of the source that changed it last.
+     */
+    LTP
+}
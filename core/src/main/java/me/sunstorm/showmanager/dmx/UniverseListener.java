@@ -0,0 +1,11 @@
+package me.sunstorm.showmanager.dmx;
+
+/**
+ * Notified when a universe of the {@link DmxUniverseStore} is written. <br>
+ * Called on the receiving thread for every write, so it has to return quickly and not allocate.
+ */
+@FunctionalInterface
+public interface UniverseListener {
+
+    void onUpdate(int portAddress);
+}
@@ -1,33 +1,64 @@
 package me.sunstorm.showmanager.eventsystem;
 
+import me.sunstorm.showmanager.eventsystem.events.Cancellable;
 import me.sunstorm.showmanager.eventsystem.events.CancellableEvent;
 import me.sunstorm.showmanager.eventsystem.events.Event;
-import me.sunstorm.showmanager.eventsystem.registry.EventConverter;
+import me.sunstorm.showmanager.eventsystem.registry.BinaryEventConverter;
 import me.sunstorm.showmanager.eventsystem.registry.EventWrapper;
 import me.sunstorm.showmanager.redis.AbstractMessageHandler;
 import me.sunstorm.showmanager.redis.converter.Converter;
+import me.sunstorm.showmanager.settings.config.LaneConfig;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.lang.reflect.Method;
 import java.util.*;
-import java.util.concurrent.CopyOnWriteArrayList;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Predicate;
 
+/**
+ * Dispatches events to the {@link EventCall} methods of the registered listeners. <br>
+ * A method receives the events of its parameter type and of its subtypes. Dispatching goes through a
+ * {@link DispatchTable}: a frozen, priority sorted array of executors per event class, resolved once per class and
+ * replaced as a whole on register and unregister, so calling an event is a class lookup and a loop over an array.
+ * <br><br>
+ * A method with a {@link EventCall#lane()} is always called on the thread of that {@link EventLane}, other methods
+ * on the calling thread, or on the {@value #ASYNC_LANE} lane for an asynchronous call. A method with
+ * {@link EventCall#coalesce()} or {@link EventCall#maxRate()} only gets the latest event, on its lane or the
+ * {@value #ASYNC_LANE} lane, at most as often as its rate.
+ * <br><br>
+ * The {@link EventTracer} measures the dispatches while enabled, it costs a volatile read per call while it isn't.
+ */
 public class EventBus extends AbstractMessageHandler<EventWrapper> {
     private static final Logger log = LoggerFactory.getLogger(EventBus.class);
 
-    private final Map<Class<?>, List<ListenerContainer>> listeners = new HashMap<>();
+    // every registered method, in order of registration
+    private final List<ListenerContainer> registered = new ArrayList<>();
+    private volatile DispatchTable table = new DispatchTable(new ListenerContainer[0]);
+    public static final String ASYNC_LANE = "async";
+    private static final int DEFAULT_CAPACITY = 1024;
+
     private final Predicate<Method> methodPredicate = method -> method.isAnnotationPresent(EventCall.class) && method.getParameterCount() == 1 && Event.class.isAssignableFrom(method.getParameterTypes()[0]);
-    private final ExecutorService executor = Executors.newSingleThreadExecutor();
     private final ExecutorFactory executorFactory = new ExecutorFactory();
+    private final Map<String, EventLane> lanes = new ConcurrentHashMap<>();
+    private final EventLane asyncLane;
+    private final EventTracer tracer = new EventTracer();
+    private final BinaryEventConverter converter = new BinaryEventConverter();
 
     public EventBus() {
+        this(LaneConfig.defaults());
+    }
+
+    /**
+     * @param lanes the lanes by name, the {@value #ASYNC_LANE} lane is added if missing
+     */
+    public EventBus(@NotNull Map<String, LaneConfig> lanes) {
         super("eventbus");
         log.info("Loading EventBus...");
+        lanes.forEach((name, config) -> this.lanes.put(name, new EventLane(name, this, config.getCapacity(), config.getPolicy())));
+        asyncLane = this.lanes.computeIfAbsent(ASYNC_LANE, name -> new EventLane(name, this, DEFAULT_CAPACITY, LanePolicy.BLOCK));
     }
 
     public void call(Event event) {
@@ -39,47 +70,119 @@ public class EventBus extends AbstractMessageHandler<EventWrapper> {
             if (event instanceof CancellableEvent) {
                 log.error("[EventHandler] Called cancellable event ({}) asynchronously", event.getClass().getSimpleName());
             } else {
-                executor.execute(() -> executeEvent(event));
+                asyncLane.offer(event, null);
             }
         } else {
-            executeEvent(event);
+            executeEvent(event, null);
         }
         //todo send redis
     }
 
-    private void executeEvent(@NotNull Event event) {
-        List<ListenerContainer> eventListeners = listeners.get(event.getClass());
-        if (eventListeners == null)
-            return;
+    /**
+     * Calls the listeners of the event, the ones on another lane than the current are queued on their lane.
+     *
+     * @param current the lane calling, null for any other thread
+     */
+    void executeEvent(@NotNull Event event, @Nullable EventLane current) {
+        boolean traced = tracer.isEnabled();
+        long start = traced ? System.nanoTime() : 0;
+        ListenerContainer[] eventListeners = table.get(event.getClass());
+        for (int i = 0; i < eventListeners.length; i++) {
+            ListenerContainer container = eventListeners[i];
+            EventLane lane = container.lane();
+            if (container.slot() != null)
+                lane.coalesce(container.slot(), event);
+            else if (lane == null || lane == current)
+                execute(container, event);
+            else
+                lane.offer(event, container);
+        }
+        if (traced)
+            tracer.recordEvent(event, System.nanoTime() - start);
+    }
 
-        eventListeners.forEach(eventContainer -> {
-            try {
-                eventContainer.execute(event);
-            } catch (Throwable e) {
-                log.error("Failed to invoke event: {}", event.getClass().getSimpleName(), e);
-            }
-        });
+    void execute(@NotNull ListenerContainer container, @NotNull Event event) {
+        boolean traced = tracer.isEnabled();
+        long start = traced ? System.nanoTime() : 0;
+        boolean failed = false;
+        // a failing listener mustn't stop the others, the handler costs nothing until it catches
+        try {
+            container.execute(event);
+        } catch (Throwable e) {
+            failed = true;
+            log.error("Failed to invoke event: {}", event.getClass().getSimpleName(), e);
+        }
+        if (traced)
+            tracer.recordCall(container, event, System.nanoTime() - start, failed);
     }
 
-    public void register(@NotNull Listener listener) {
+    public synchronized void register(@NotNull Listener listener) {
         log.debug("Registering listener: {}", listener.getClass().getSimpleName());
         for (Method method : Arrays.stream(listener.getClass().getDeclaredMethods()).filter(methodPredicate).toList()) {
             try {
                 Class<?> eventType = method.getParameterTypes()[0];
-                EventPriority priority = method.getAnnotation(EventCall.class).value();
-                method.setAccessible(true);
+                EventCall annotation = method.getAnnotation(EventCall.class);
+                EventPriority priority = annotation.value();
+                EventLane lane = lane(annotation, method);
                 EventExecutor executor = executorFactory.create(listener, method);
-                listeners.computeIfAbsent(eventType, typeList -> new CopyOnWriteArrayList<>()).add(new ListenerContainer(executor, listener, priority));
-                listeners.get(eventType).sort(Comparator.comparingInt(o -> o.priority().getPriority()));
+                EventLane.Slot slot = lane != null && isCoalesced(annotation) ? new EventLane.Slot(annotation.maxRate()) : null;
+                String name = listener.getClass().getSimpleName() + "#" + method.getName();
+                ListenerContainer container = new ListenerContainer(executor, listener, name, eventType, priority, lane, slot);
+                if (slot != null)
+                    lane.addSlot(slot, container);
+                registered.add(container);
                 log.debug("Registering method: {} type: {}", method.getName(), eventType.getSimpleName());
-            } catch (InstantiationException | IllegalAccessException e) {
+            } catch (ReflectiveOperationException | IllegalArgumentException e) {
                 log.error("Failed to create executor for '{}' method", method.getName(), e);
             }
         }
+        rebuild();
+    }
+
+    private static boolean isCoalesced(EventCall annotation) {
+        return annotation.coalesce() || annotation.maxRate() > 0;
+    }
+
+    @Nullable
+    private EventLane lane(EventCall annotation, Method method) {
+        String name = annotation.lane();
+        if (name.isEmpty() && !isCoalesced(annotation))
+            return null;
+        if (Cancellable.class.isAssignableFrom(method.getParameterTypes()[0])) {
+            log.warn("[EventHandler] Cancellable event of '{}' can't be called off the calling thread, calling it synchronously", method.getName());
+            return null;
+        }
+        if (name.isEmpty())
+            return asyncLane;
+        return lanes.computeIfAbsent(name, missing -> {
+            log.warn("[EventHandler] Unknown lane {} of '{}', created with a capacity of {}", missing, method.getName(), DEFAULT_CAPACITY);
+            return new EventLane(missing, this, DEFAULT_CAPACITY, LanePolicy.BLOCK);
+        });
+    }
+
+    public synchronized void unregister(Listener listener) {
+        registered.removeIf(container -> {
+            if (!container.instance().equals(listener))
+                return false;
+            if (container.slot() != null)
+                container.lane().removeSlot(container.slot());
+            return true;
+        });
+        rebuild();
+    }
+
+    // the sort is stable, so listeners of the same priority are called in the order of registration
+    private void rebuild() {
+        table = new DispatchTable(registered.stream()
+                .sorted(Comparator.comparingInt(o -> o.priority().getPriority()))
+                .toArray(ListenerContainer[]::new));
     }
 
-    public void unregister(Listener listener) {
-        listeners.values().forEach(list -> list.removeIf(container -> container.instance().equals(listener)));
+    /**
+     * @return the number of methods the event class is dispatched to
+     */
+    public int getListenerCount(@NotNull Class<? extends Event> eventType) {
+        return table.get(eventType).length;
     }
 
     @Override
@@ -88,22 +191,63 @@ public class EventBus extends AbstractMessageHandler<EventWrapper> {
             if (message.event() instanceof CancellableEvent) {
                 log.error("[EventHandler] Called cancellable event ({}) asynchronously", message.event().getClass().getSimpleName());
             } else {
-                executor.execute(() -> executeEvent(message.event()));
+                asyncLane.offer(message.event(), null);
             }
         } else {
-            executeEvent(message.event());
+            executeEvent(message.event(), null);
         }
     }
 
     @Override
     public Converter<EventWrapper> getConverter() {
-        return new EventConverter();
+        return converter;
+    }
+
+    /**
+     * @return the lanes with their queue and latency metrics
+     */
+    public Collection<EventLane> getLanes() {
+        return lanes.values();
+    }
+
+    @Nullable
+    public EventLane getLane(String name) {
+        return lanes.get(name);
     }
 
-    record ListenerContainer(EventExecutor executor, Listener instance, EventPriority priority) {
+    public EventTracer getTracer() {
+        return tracer;
+    }
+
+    /**
+     * @param name the listener class and method, like {@code WebSocketHandler#onTimeChange}
+     * @param lane the lane the method is always called on, null for the calling thread
+     * @param slot the latest event of a coalesced method, on its lane
+     */
+    record ListenerContainer(EventExecutor executor, Listener instance, String name, Class<?> eventType, EventPriority priority,
+                             @Nullable EventLane lane, @Nullable EventLane.Slot slot) {
 
         public void execute(Event event) {
-            executor.execute(event, instance);
+            executor.execute(event);
+        }
+    }
+
+    /**
+     * The sorted containers of an event class are computed on its first dispatch, by filtering the sorted
+     * containers of every type. Never changes, a register or unregister replaces the whole table.
+     */
+    private static final class DispatchTable extends ClassValue<ListenerContainer[]> {
+        private final ListenerContainer[] sorted;
+
+        private DispatchTable(ListenerContainer[] sorted) {
+            this.sorted = sorted;
+        }
+
+        @Override
+        protected ListenerContainer[] computeValue(@NotNull Class<?> type) {
+            return Arrays.stream(sorted)
+                    .filter(container -> container.eventType().isAssignableFrom(type))
+                    .toArray(ListenerContainer[]::new);
         }
     }
 }
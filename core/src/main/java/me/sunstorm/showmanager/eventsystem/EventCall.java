@@ -9,4 +9,21 @@ import java.lang.annotation.Target;
 @Retention(RetentionPolicy.RUNTIME)
 public @interface EventCall {
     EventPriority value() default EventPriority.NORMAL;
+
+    /**
+     * @return the {@link EventLane} the method is called on, empty for the calling thread.
+     * Ignored for cancellable events, as the caller has to see the result
+     */
+    String lane() default "";
+
+    /**
+     * @return whether the method only gets the latest event, off the calling thread. Events called while the last is
+     * still queued replace it. For listeners that only care about the current state, like a display of the time
+     */
+    boolean coalesce() default false;
+
+    /**
+     * @return the most calls per second of a coalesced method, 0 for no limit. Setting it implies {@link #coalesce()}
+     */
+    double maxRate() default 0;
 }
@@ -2,8 +2,11 @@ package me.sunstorm.showmanager.eventsystem;
 
 import me.sunstorm.showmanager.eventsystem.events.Event;
 
+/**
+ * Calls a listener method, bound to the listener instance.
+ */
 @FunctionalInterface
 public interface EventExecutor {
 
-    void execute(Event event, Object listener);
+    void execute(Event event);
 }
@@ -0,0 +1,347 @@
+package me.sunstorm.showmanager.eventsystem;
+
+import com.google.gson.JsonObject;
+import me.sunstorm.showmanager.eventsystem.events.Event;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Arrays;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A named dispatch thread of the {@link EventBus} with a bounded ring of queued events, so a slow listener only
+ * delays its own lane. What happens on a full ring is up to the {@link LanePolicy}. <br>
+ * An entry is an event and the listener method to call, or no method to dispatch the event to every listener.
+ * Coalesced methods don't queue, they have a {@link Slot} holding their latest event, delivered once the rate of
+ * the method allows. The thread starts on the first event.
+ */
+public class EventLane implements Runnable {
+    private static final Logger log = LoggerFactory.getLogger(EventLane.class);
+
+    private final String name;
+    private final EventBus bus;
+    private final LanePolicy policy;
+    private final int capacity;
+    private final Event[] events;
+    private final EventBus.ListenerContainer[] containers;
+    private final long[] enqueued;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private final Condition notFull = lock.newCondition();
+    private volatile Slot[] slots = new Slot[0];
+    private volatile Thread thread;
+    private volatile boolean running = true;
+    // guarded by the lock
+    private int head = 0;
+    private int size = 0;
+    private volatile int maxDepth = 0;
+    private volatile long offered = 0;
+    private volatile long dropped = 0;
+    private volatile long coalesced = 0;
+    // written by the lane thread
+    private volatile long processed = 0;
+    private volatile long totalLatency = 0;
+    private volatile long maxLatency = 0;
+
+    EventLane(@NotNull String name, @NotNull EventBus bus, int capacity, @NotNull LanePolicy policy) {
+        this.name = name;
+        this.bus = bus;
+        this.policy = policy;
+        this.capacity = Math.max(1, capacity);
+        events = new Event[this.capacity];
+        containers = new EventBus.ListenerContainer[this.capacity];
+        enqueued = new long[this.capacity];
+    }
+
+    /**
+     * Queues an event.
+     *
+     * @param container the listener method, or null for every listener
+     */
+    void offer(@NotNull Event event, @Nullable EventBus.ListenerContainer container) {
+        long now = System.nanoTime();
+        lock.lock();
+        try {
+            if (!running)
+                return;
+            start();
+            offered++;
+            if (policy == LanePolicy.COALESCE) {
+                int slot = find(event.getClass(), container);
+                if (slot >= 0) {
+                    // the slot keeps its place and time, the latency counts from the first
+                    events[slot] = event;
+                    coalesced++;
+                    return;
+                }
+            }
+            while (size == capacity) {
+                // the lane can't wait for itself
+                if (policy == LanePolicy.BLOCK && Thread.currentThread() != thread) {
+                    notFull.awaitUninterruptibly();
+                    if (!running)
+                        return;
+                } else {
+                    poll();
+                    dropped++;
+                }
+            }
+            int tail = (head + size) % capacity;
+            events[tail] = event;
+            containers[tail] = container;
+            enqueued[tail] = now;
+            size++;
+            if (size > maxDepth)
+                maxDepth = size;
+            notEmpty.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Replaces the latest event of a coalesced method, it's delivered when the rate of the method allows.
+     */
+    void coalesce(@NotNull Slot slot, @NotNull Event event) {
+        long now = System.nanoTime();
+        lock.lock();
+        try {
+            if (!running)
+                return;
+            start();
+            offered++;
+            if (slot.pending != null) {
+                coalesced++;
+            } else {
+                slot.since = now;
+            }
+            slot.pending = event;
+            notEmpty.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    void addSlot(@NotNull Slot slot, @NotNull EventBus.ListenerContainer container) {
+        lock.lock();
+        try {
+            slot.container = container;
+            Slot[] updated = Arrays.copyOf(slots, slots.length + 1);
+            updated[slots.length] = slot;
+            slots = updated;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    void removeSlot(@NotNull Slot slot) {
+        lock.lock();
+        try {
+            slots = Arrays.stream(slots).filter(s -> s != slot).toArray(Slot[]::new);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // newest first, the newest is the likeliest to match; the ring is small
+    private int find(Class<?> type, EventBus.ListenerContainer container) {
+        for (int i = size - 1; i >= 0; i--) {
+            int slot = (head + i) % capacity;
+            if (containers[slot] == container && events[slot].getClass() == type)
+                return slot;
+        }
+        return -1;
+    }
+
+    private void poll() {
+        events[head] = null;
+        containers[head] = null;
+        head = (head + 1) % capacity;
+        size--;
+    }
+
+    private void start() {
+        if (thread != null)
+            return;
+        Thread thread = new Thread(this, "EventBus " + name);
+        thread.setDaemon(true);
+        this.thread = thread;
+        thread.start();
+    }
+
+    @Override
+    public void run() {
+        while (true) {
+            Event event;
+            EventBus.ListenerContainer container;
+            long since;
+            lock.lock();
+            try {
+                while (true) {
+                    if (!running)
+                        return;
+                    long now = System.nanoTime();
+                    Slot due = null;
+                    long wait = Long.MAX_VALUE;
+                    for (Slot slot : slots) {
+                        if (slot.pending == null)
+                            continue;
+                        long left = slot.due - now;
+                        if (left > 0)
+                            wait = Math.min(wait, left);
+                        else if (due == null || slot.due - due.due < 0)
+                            due = slot;
+                    }
+                    if (due != null) {
+                        event = due.pending;
+                        container = due.container;
+                        since = due.since;
+                        due.pending = null;
+                        due.due = now + due.period;
+                        break;
+                    }
+                    if (size > 0) {
+                        event = events[head];
+                        container = containers[head];
+                        since = enqueued[head];
+                        poll();
+                        notFull.signal();
+                        break;
+                    }
+                    if (wait == Long.MAX_VALUE)
+                        notEmpty.awaitUninterruptibly();
+                    else
+                        awaitNanos(wait);
+                }
+            } finally {
+                lock.unlock();
+            }
+            long latency = System.nanoTime() - since;
+            totalLatency += latency;
+            if (latency > maxLatency)
+                maxLatency = latency;
+            processed++;
+            if (container == null)
+                bus.executeEvent(event, this);
+            else
+                bus.execute(container, event);
+        }
+    }
+
+    private void awaitNanos(long nanos) {
+        try {
+            notEmpty.awaitNanos(nanos);
+        } catch (InterruptedException e) {
+            // only stop() ends the lane
+        }
+    }
+
+    /**
+     * Stops the thread, the queued events are discarded.
+     */
+    public void stop() {
+        lock.lock();
+        try {
+            running = false;
+            notEmpty.signalAll();
+            notFull.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getDepth() {
+        lock.lock();
+        try {
+            return size;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return the average time from queueing to dispatch, in nanoseconds
+     */
+    public long getAverageLatency() {
+        long processed = this.processed;
+        return processed == 0 ? 0 : totalLatency / processed;
+    }
+
+    public JsonObject toJson() {
+        JsonObject data = new JsonObject();
+        data.addProperty("name", name);
+        data.addProperty("policy", policy.name());
+        data.addProperty("capacity", capacity);
+        data.addProperty("depth", getDepth());
+        data.addProperty("maxDepth", maxDepth);
+        data.addProperty("offered", offered);
+        data.addProperty("processed", processed);
+        data.addProperty("dropped", dropped);
+        data.addProperty("coalesced", coalesced);
+        data.addProperty("averageLatency", getAverageLatency() / 1_000);
+        data.addProperty("maxLatency", maxLatency / 1_000);
+        return data;
+    }
+
+    // generated
+
+    public String getName() {
+        return name;
+    }
+
+    public LanePolicy getPolicy() {
+        return policy;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public int getMaxDepth() {
+        return maxDepth;
+    }
+
+    public long getOffered() {
+        return offered;
+    }
+
+    public long getDropped() {
+        return dropped;
+    }
+
+    public long getCoalesced() {
+        return coalesced;
+    }
+
+    public long getProcessed() {
+        return processed;
+    }
+
+    /**
+     * @return the longest time from queueing to dispatch, in nanoseconds
+     */
+    public long getMaxLatency() {
+        return maxLatency;
+    }
+
+    /**
+     * The latest event of a coalesced method. The fields are guarded by the lock of the lane.
+     */
+    static final class Slot {
+        private final long period;
+        private EventBus.ListenerContainer container;
+        private Event pending;
+        private long since;
+        private long due = System.nanoTime();
+
+        /**
+         * @param maxRate the most deliveries per second, 0 for no limit
+         */
+        Slot(double maxRate) {
+            this.period = maxRate > 0 ? (long) (1_000_000_000L / maxRate) : 0;
+        }
+    }
+}
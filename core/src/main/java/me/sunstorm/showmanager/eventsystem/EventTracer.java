@@ -0,0 +1,229 @@
+package me.sunstorm.showmanager.eventsystem;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import me.sunstorm.showmanager.eventsystem.events.Event;
+import me.sunstorm.showmanager.util.Framerate;
+import me.sunstorm.showmanager.util.Frames;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Measures the dispatches of the {@link EventBus}, off until enabled, and can be switched at any time. <br>
+ * Every event type gets a {@link LatencyHistogram} of its synchronous dispatch, every listener method one of its
+ * calls. A call longer than the budget, a fraction of the frame period, is counted as an overrun, the first one of
+ * a method is logged. The last dispatches are kept in a ring for post-mortem.
+ */
+public class EventTracer {
+    private static final Logger log = LoggerFactory.getLogger(EventTracer.class);
+    public static final double DEFAULT_BUDGET = 0.25;
+    public static final int DEFAULT_HISTORY = 1024;
+
+    private final Map<Class<?>, LatencyHistogram> events = new ConcurrentHashMap<>();
+    private final Map<String, MethodStats> methods = new ConcurrentHashMap<>();
+    private volatile boolean enabled = false;
+    private volatile long framePeriod = Frames.toNanos(1, Framerate.DEFAULT);
+    private volatile double budget = DEFAULT_BUDGET;
+    private volatile long budgetNanos = (long) (framePeriod * budget);
+    private volatile History history = new History(DEFAULT_HISTORY);
+
+    /**
+     * Records the synchronous dispatch of an event, with the calls of the listeners on the calling thread.
+     */
+    void recordEvent(@NotNull Event event, long nanos) {
+        events.computeIfAbsent(event.getClass(), type -> new LatencyHistogram()).record(nanos);
+    }
+
+    /**
+     * Records a call of a listener method.
+     */
+    void recordCall(@NotNull EventBus.ListenerContainer container, @NotNull Event event, long nanos, boolean failed) {
+        MethodStats stats = methods.computeIfAbsent(container.name(), MethodStats::new);
+        stats.histogram.record(nanos);
+        boolean overrun = nanos > budgetNanos;
+        if (overrun) {
+            stats.overruns.increment();
+            if (stats.overruns.sum() == 1)
+                log.warn("[EventHandler] {} took {} us handling {}, over the budget of {} us", container.name(), nanos / 1000, event.getClass().getSimpleName(), budgetNanos / 1000);
+        }
+        if (failed)
+            stats.failures.increment();
+        EventLane lane = container.lane();
+        history.add(new Dispatch(System.currentTimeMillis(), event.getClass().getSimpleName(), container.name(),
+                lane == null ? null : lane.getName(), Thread.currentThread().getName(), nanos, overrun, failed));
+    }
+
+    /**
+     * Clears the histograms and the history.
+     */
+    public void reset() {
+        events.clear();
+        methods.clear();
+        history = new History(history.entries.length());
+    }
+
+    public void setFramerate(@NotNull Framerate framerate) {
+        framePeriod = Frames.toNanos(1, framerate);
+        budgetNanos = (long) (framePeriod * budget);
+    }
+
+    /**
+     * @param budget the fraction of the frame period a listener call may take
+     */
+    public void setBudget(double budget) {
+        if (budget <= 0)
+            throw new IllegalArgumentException("Budget must be positive: " + budget);
+        this.budget = budget;
+        budgetNanos = (long) (framePeriod * budget);
+    }
+
+    /**
+     * Resizes the history, the recorded dispatches are cleared.
+     */
+    public void setHistory(int size) {
+        if (size <= 0)
+            throw new IllegalArgumentException("History must be positive: " + size);
+        history = new History(size);
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * @return the recorded dispatches, oldest first
+     */
+    public List<Dispatch> getHistory() {
+        return history.snapshot();
+    }
+
+    @Nullable
+    public LatencyHistogram getEventHistogram(@NotNull Class<? extends Event> type) {
+        return events.get(type);
+    }
+
+    @Nullable
+    public LatencyHistogram getMethodHistogram(@NotNull String method) {
+        MethodStats stats = methods.get(method);
+        return stats == null ? null : stats.histogram;
+    }
+
+    public long getOverruns(@NotNull String method) {
+        MethodStats stats = methods.get(method);
+        return stats == null ? 0 : stats.overruns.sum();
+    }
+
+    @NotNull
+    public JsonObject toJson() {
+        JsonObject data = new JsonObject();
+        data.addProperty("enabled", enabled);
+        data.addProperty("framePeriodMicros", framePeriod / 1000.0);
+        data.addProperty("budget", budget);
+        data.addProperty("budgetMicros", budgetNanos / 1000.0);
+        JsonArray eventArray = new JsonArray();
+        events.forEach((type, histogram) -> {
+            JsonObject event = histogram.toJson();
+            event.addProperty("type", type.getSimpleName());
+            eventArray.add(event);
+        });
+        data.add("events", eventArray);
+        JsonArray methodArray = new JsonArray();
+        methods.values().forEach(stats -> {
+            JsonObject method = stats.histogram.toJson();
+            method.addProperty("method", stats.name);
+            method.addProperty("overruns", stats.overruns.sum());
+            method.addProperty("failures", stats.failures.sum());
+            methodArray.add(method);
+        });
+        data.add("methods", methodArray);
+        return data;
+    }
+
+    // generated
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public long getFramePeriod() {
+        return framePeriod;
+    }
+
+    public double getBudget() {
+        return budget;
+    }
+
+    public long getBudgetNanos() {
+        return budgetNanos;
+    }
+
+    /**
+     * A call of a listener method.
+     *
+     * @param time the wall clock time of the end of the call, in milliseconds
+     * @param lane the lane of the method, null if called on the calling thread
+     */
+    public record Dispatch(long time, String event, String method, @Nullable String lane, String thread, long nanos,
+                           boolean overrun, boolean failed) {
+
+        public JsonObject toJson() {
+            JsonObject data = new JsonObject();
+            data.addProperty("time", time);
+            data.addProperty("event", event);
+            data.addProperty("method", method);
+            data.addProperty("lane", lane);
+            data.addProperty("thread", thread);
+            data.addProperty("micros", nanos / 1000.0);
+            data.addProperty("overrun", overrun);
+            data.addProperty("failed", failed);
+            return data;
+        }
+    }
+
+    private static class MethodStats {
+        private final String name;
+        private final LatencyHistogram histogram = new LatencyHistogram();
+        private final LongAdder overruns = new LongAdder();
+        private final LongAdder failures = new LongAdder();
+
+        private MethodStats(String name) {
+            this.name = name;
+        }
+    }
+
+    // writers claim a slot without locking, a reader may miss the dispatches written during the snapshot
+    private static class History {
+        private final AtomicReferenceArray<Dispatch> entries;
+        private final AtomicLong next = new AtomicLong();
+
+        private History(int size) {
+            entries = new AtomicReferenceArray<>(size);
+        }
+
+        private void add(Dispatch dispatch) {
+            entries.set((int) (next.getAndIncrement() % entries.length()), dispatch);
+        }
+
+        private List<Dispatch> snapshot() {
+            long end = next.get();
+            long start = Math.max(0, end - entries.length());
+            List<Dispatch> list = new ArrayList<>((int) (end - start));
+            for (long i = start; i < end; i++) {
+                Dispatch dispatch = entries.get((int) (i % entries.length()));
+                if (dispatch != null)
+                    list.add(dispatch);
+            }
+            return list;
+        }
+    }
+}
@@ -1,78 +1,73 @@
 package me.sunstorm.showmanager.eventsystem;
 
-import com.google.common.cache.CacheBuilder;
-import com.google.common.cache.CacheLoader;
-import com.google.common.cache.LoadingCache;
+import me.sunstorm.showmanager.eventsystem.events.Event;
 import org.jetbrains.annotations.NotNull;
-import org.objectweb.asm.ClassWriter;
-import org.objectweb.asm.MethodVisitor;
-import org.objectweb.asm.Opcodes;
-import org.objectweb.asm.Type;
 
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaConversionException;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
-import java.util.UUID;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
-public class ExecutorFactory implements Opcodes {
-    private final String PACKAGE = "me.sunstorm.showmanager.eventsystem.generated";
-    private final String SUPER_NAME = "java/lang/Object";
-    private final String EXECUTE_DESC = "(Lme/sunstorm/showmanager/eventsystem/events/Event;Ljava/lang/Object;)V";
-    private final String[] INTERFACE_NAME = new String[] {Type.getInternalName(EventExecutor.class)};
-    private final String session = UUID.randomUUID().toString().substring(26);
-    private final EventClassLoader classLoader;
-    private final LoadingCache<Method, Class<? extends EventExecutor>> cache;
-
-    public ExecutorFactory() {
-        classLoader = new EventClassLoader(ExecutorFactory.class.getClassLoader());
-        cache = CacheBuilder.newBuilder().weakValues().build(CacheLoader.from(method -> {
-            String listenerName = Type.getInternalName(method.getDeclaringClass());
-            Class<?> parameter = method.getParameterTypes()[0];
-            ClassWriter cw = new ClassWriter(ClassWriter.COMPUTE_FRAMES | ClassWriter.COMPUTE_MAXS);
-            String className = String.format("%s.%s.%s-%s-%s", PACKAGE, session, method.getDeclaringClass().getSimpleName(), method.getName(), parameter.getSimpleName());
-            cw.visit(V11, ACC_PUBLIC | ACC_FINAL, className.replace('.', '/'), null, SUPER_NAME, INTERFACE_NAME);
-            MethodVisitor mv;
-            {
-                mv = cw.visitMethod(ACC_PUBLIC, "<init>", "()V", null, null);
-                mv.visitCode();
-                mv.visitVarInsn(ALOAD, 0);
-                mv.visitMethodInsn(INVOKESPECIAL, SUPER_NAME, "<init>", "()V", false);
-                mv.visitInsn(RETURN);
-                mv.visitMaxs(0, 0);
-                mv.visitEnd();
-            }
-            {
-                mv = cw.visitMethod(ACC_PUBLIC, "execute", EXECUTE_DESC, null, null);
-                mv.visitCode();
-                mv.visitVarInsn(ALOAD, 2);
-                mv.visitTypeInsn(CHECKCAST, listenerName);
-                mv.visitVarInsn(ALOAD, 1);
-                mv.visitTypeInsn(CHECKCAST, Type.getInternalName(parameter));
-                mv.visitMethodInsn(INVOKEVIRTUAL, listenerName, method.getName(), Type.getMethodDescriptor(method), false);
-                mv.visitInsn(RETURN);
-                mv.visitMaxs(0, 0);
-                mv.visitEnd();
-            }
-            cw.visitEnd();
-            return classLoader.defineClass(className, cw.toByteArray());
-        }));
-    }
+/**
+ * Creates the {@link EventExecutor}s of listener methods with {@link LambdaMetafactory}, like the HTTP routes. <br>
+ * An executor is a lambda bound to the listener instance that calls the method directly, so the JIT can inline it
+ * into the dispatch loop. The lambda class is a hidden class of the listener, so the listener and its methods don't
+ * have to be public. The factories are cached per listener class, an executor for another instance of the same
+ * class is just an allocation.
+ */
+public class ExecutorFactory {
+    private static final MethodType EXECUTE = MethodType.methodType(void.class, Event.class);
+    private final ClassValue<Map<Method, MethodHandle>> factories = new ClassValue<>() {
+        @Override
+        protected Map<Method, MethodHandle> computeValue(@NotNull Class<?> type) {
+            return new ConcurrentHashMap<>();
+        }
+    };
 
-    public EventExecutor create(@NotNull Listener listener, Method method) throws InstantiationException, IllegalAccessException {
-        if (!Modifier.isPublic(listener.getClass().getModifiers()))
-            throw new IllegalArgumentException("Listener class must be public");
-        if (!Modifier.isPublic(method.getModifiers()))
-            throw new IllegalArgumentException("Event call method must be public");
+    public EventExecutor create(@NotNull Listener listener, @NotNull Method method) throws ReflectiveOperationException {
+        if (Modifier.isStatic(method.getModifiers()))
+            throw new IllegalArgumentException("Event call method must not be static");
+        if (!method.getDeclaringClass().isInstance(listener))
+            throw new IllegalArgumentException("Method isn't of the listener: " + method);
 
-        return cache.getUnchecked(method).newInstance();
-    }
-
-    private static final class EventClassLoader extends ClassLoader {
-        public EventClassLoader(ClassLoader parent) {
-            super(parent);
+        Map<Method, MethodHandle> classFactories = factories.get(method.getDeclaringClass());
+        MethodHandle factory = classFactories.get(method);
+        if (factory == null) {
+            factory = factory(method);
+            classFactories.put(method, factory);
+        }
+        try {
+            return (EventExecutor) factory.invoke(listener);
+        } catch (Error | RuntimeException e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new ReflectiveOperationException("Failed to bind executor of " + method, e);
         }
+    }
 
-        public <T> Class<T> defineClass(String name, byte[] bytes) {
-            return (Class<T>) this.defineClass(name, bytes, 0, bytes.length);
+    // (listener) -> event -> listener.method((EventType) event)
+    private static MethodHandle factory(Method method) throws ReflectiveOperationException {
+        Class<?> listenerClass = method.getDeclaringClass();
+        MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(listenerClass, MethodHandles.lookup());
+        MethodHandle target = lookup.unreflect(method);
+        try {
+            CallSite site = LambdaMetafactory.metafactory(
+                    lookup,
+                    "execute",
+                    MethodType.methodType(EventExecutor.class, listenerClass),
+                    EXECUTE,
+                    target,
+                    MethodType.methodType(void.class, method.getParameterTypes()[0])
+            );
+            return site.getTarget();
+        } catch (LambdaConversionException e) {
+            throw new ReflectiveOperationException("Failed to create executor of " + method, e);
         }
     }
 }
@@ -0,0 +1,20 @@
+package me.sunstorm.showmanager.eventsystem;
+
+/**
+ * What an {@link EventLane} does with an event when its queue is full.
+ */
+public enum LanePolicy {
+    /**
+     * The caller waits for a free slot, nothing is lost.
+     */
+    BLOCK,
+    /**
+     * The oldest queued event is dropped.
+     */
+    DROP_OLDEST,
+    /**
+     * A queued event of the same class for the same listener is replaced by the new one, even when the queue isn't
+     * full, so a listener only sees the latest state. If there's none, the oldest queued event is dropped.
+     */
+    COALESCE
+}
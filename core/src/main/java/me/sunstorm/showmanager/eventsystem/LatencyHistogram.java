@@ -0,0 +1,104 @@
+package me.sunstorm.showmanager.eventsystem;
+
+import com.google.gson.JsonObject;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Records durations in nanoseconds into log-linear buckets, like HdrHistogram with one significant digit: every
+ * power of two is split into 8 buckets, so a percentile is within 12.5% of the recorded value. Recording doesn't
+ * lock or allocate and can be called from any thread.
+ */
+public class LatencyHistogram {
+    private static final int SUB_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BITS;
+    private static final int BUCKETS = (64 - SUB_BITS + 1) * SUB_BUCKETS;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    public void record(long nanos) {
+        long value = Math.max(0, nanos);
+        buckets.incrementAndGet(bucket(value));
+        count.increment();
+        sum.add(value);
+        max.accumulate(value);
+    }
+
+    static int bucket(long value) {
+        if (value < SUB_BUCKETS)
+            return (int) value;
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int sub = (int) (value >>> (exponent - SUB_BITS)) & (SUB_BUCKETS - 1);
+        return (exponent - SUB_BITS + 1) * SUB_BUCKETS + sub;
+    }
+
+    // the highest value of the bucket
+    static long upperBound(int bucket) {
+        if (bucket < SUB_BUCKETS)
+            return bucket;
+        int shift = bucket / SUB_BUCKETS - 1;
+        long lower = (long) (SUB_BUCKETS + bucket % SUB_BUCKETS) << shift;
+        return lower + (1L << shift) - 1;
+    }
+
+    /**
+     * Estimates the given percentile. The result is the upper bound of the matching bucket, at most the maximum.
+     *
+     * @param percentile the percentile between 0 and 100
+     * @return the estimated duration in nanoseconds
+     */
+    public long percentile(double percentile) {
+        long total = count.sum();
+        if (total == 0)
+            return 0;
+        long target = Math.max(1, (long) Math.ceil(total * percentile / 100));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += buckets.get(i);
+            if (seen >= target)
+                return Math.min(upperBound(i), getMax());
+        }
+        return getMax();
+    }
+
+    /**
+     * Clears the histogram, values recorded during the reset may be partially kept.
+     */
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            buckets.set(i, 0);
+        }
+        count.reset();
+        sum.reset();
+        max.reset();
+    }
+
+    @NotNull
+    public JsonObject toJson() {
+        long total = count.sum();
+        JsonObject data = new JsonObject();
+        data.addProperty("count", total);
+        data.addProperty("meanMicros", total == 0 ? 0 : sum.sum() / total / 1000.0);
+        data.addProperty("p50Micros", percentile(50) / 1000.0);
+        data.addProperty("p99Micros", percentile(99) / 1000.0);
+        data.addProperty("p999Micros", percentile(99.9) / 1000.0);
+        data.addProperty("maxMicros", getMax() / 1000.0);
+        return data;
+    }
+
+    // generated
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    public long getMax() {
+        return max.get();
+    }
+}
@@ -0,0 +1,19 @@
+package me.sunstorm.showmanager.eventsystem.events.artnet;
+
+import me.sunstorm.showmanager.eventsystem.events.Event;
+import me.sunstorm.showmanager.modules.artnet.ArtNetNodeInfo;
+
+/**
+ * A node replied to a poll for the first time.
+ */
+public class ArtNetNodeAppearEvent extends Event {
+    private final ArtNetNodeInfo node;
+
+    public ArtNetNodeAppearEvent(ArtNetNodeInfo node) {
+        this.node = node;
+    }
+
+    public ArtNetNodeInfo getNode() {
+        return node;
+    }
+}
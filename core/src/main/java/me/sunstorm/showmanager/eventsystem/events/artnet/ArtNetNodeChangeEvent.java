@@ -0,0 +1,25 @@
+package me.sunstorm.showmanager.eventsystem.events.artnet;
+
+import me.sunstorm.showmanager.eventsystem.events.Event;
+import me.sunstorm.showmanager.modules.artnet.ArtNetNodeInfo;
+
+/**
+ * A node replied with a different configuration.
+ */
+public class ArtNetNodeChangeEvent extends Event {
+    private final ArtNetNodeInfo node;
+    private final ArtNetNodeInfo previous;
+
+    public ArtNetNodeChangeEvent(ArtNetNodeInfo node, ArtNetNodeInfo previous) {
+        this.node = node;
+        this.previous = previous;
+    }
+
+    public ArtNetNodeInfo getNode() {
+        return node;
+    }
+
+    public ArtNetNodeInfo getPrevious() {
+        return previous;
+    }
+}
@@ -0,0 +1,19 @@
+package me.sunstorm.showmanager.eventsystem.events.artnet;
+
+import me.sunstorm.showmanager.eventsystem.events.Event;
+import me.sunstorm.showmanager.modules.artnet.ArtNetNodeInfo;
+
+/**
+ * A node didn't reply for longer than the TTL.
+ */
+public class ArtNetNodeLostEvent extends Event {
+    private final ArtNetNodeInfo node;
+
+    public ArtNetNodeLostEvent(ArtNetNodeInfo node) {
+        this.node = node;
+    }
+
+    public ArtNetNodeInfo getNode() {
+        return node;
+    }
+}
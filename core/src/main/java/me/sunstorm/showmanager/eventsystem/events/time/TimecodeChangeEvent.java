@@ -1,16 +1,70 @@
 package me.sunstorm.showmanager.eventsystem.events.time;
 
 import me.sunstorm.showmanager.eventsystem.events.Event;
+import me.sunstorm.showmanager.util.Framerate;
+import me.sunstorm.showmanager.util.Frames;
 import me.sunstorm.showmanager.util.Timecode;
 
+/**
+ * Called every frame while playing. <br>
+ * The {@link me.sunstorm.showmanager.Worker} reuses a single instance, so listeners should read the primitive
+ * {@link #getFrames()} and must not keep a reference to the event itself.
+ */
 public class TimecodeChangeEvent extends Event {
-    private final Timecode time;
+    private final Framerate framerate;
+    private volatile long frames;
+    private volatile long nanos;
+    private transient volatile Timecode time;
+
+    public TimecodeChangeEvent(Framerate framerate) {
+        this.framerate = framerate;
+    }
 
     public TimecodeChangeEvent(Timecode time) {
+        this.framerate = time.getFramerate();
+        this.frames = time.getTotalFrames();
+        this.nanos = Frames.toNanos(frames, framerate);
         this.time = time;
     }
 
+    public void setFrames(long frames) {
+        setPosition(frames, Frames.toNanos(frames, framerate));
+    }
+
+    /**
+     * @param frames the current frame
+     * @param nanos the exact show time of this tick, within the frame
+     */
+    public void setPosition(long frames, long nanos) {
+        this.frames = frames;
+        this.nanos = nanos;
+        this.time = null;
+    }
+
+    public long getFrames() {
+        return frames;
+    }
+
+    /**
+     * @return the show time of this tick in nanoseconds, for sub-frame scheduling
+     */
+    public long getNanos() {
+        return nanos;
+    }
+
+    public Framerate getFramerate() {
+        return framerate;
+    }
+
+    /**
+     * Lazily creates the {@link Timecode} value of the current frame, prefer {@link #getFrames()} on hot paths.
+     */
     public Timecode getTime() {
+        Timecode time = this.time;
+        if (time == null || time.getTotalFrames() != frames) {
+            time = Timecode.ofFrames(frames, framerate);
+            this.time = time;
+        }
         return time;
     }
 }
@@ -0,0 +1,304 @@
+package me.sunstorm.showmanager.eventsystem.registry;
+
+import me.sunstorm.showmanager.Constants;
+import me.sunstorm.showmanager.eventsystem.events.Event;
+import me.sunstorm.showmanager.eventsystem.events.audio.AudioVolumeChangeEvent;
+import me.sunstorm.showmanager.eventsystem.events.marker.MarkerDeleteEvent;
+import me.sunstorm.showmanager.eventsystem.events.osc.OscRecordStartEvent;
+import me.sunstorm.showmanager.eventsystem.events.osc.OscRecordStopEvent;
+import me.sunstorm.showmanager.eventsystem.events.remote.DmxRemoteStateEvent;
+import me.sunstorm.showmanager.eventsystem.events.scheduler.EventDeleteEvent;
+import me.sunstorm.showmanager.eventsystem.events.time.*;
+import me.sunstorm.showmanager.modules.remote.DmxRemoteState;
+import me.sunstorm.showmanager.redis.converter.Converter;
+import me.sunstorm.showmanager.util.Framerate;
+import me.sunstorm.showmanager.util.Timecode;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Encodes events into a compact binary message keyed by the {@link EventRegistry} id: <br>
+ * {@code [varint id][flags][varint length, if deflated][body]}
+ * <br><br>
+ * The body has a fixed layout for the timecode events (the framerate code, then the frames and nanos as longs),
+ * varints for the other small events, and the JSON of the event for the ones carrying tracks, markers or OSC
+ * packets. A body longer than the threshold is deflated. Messages are built in per-thread buffers, so encoding only
+ * allocates the returned array.
+ */
+public class BinaryEventConverter implements Converter<EventWrapper> {
+    public static final int DEFAULT_THRESHOLD = 256;
+    // guards the inflated buffer against a corrupt length
+    public static final int MAX_LENGTH = 1 << 24;
+    private static final int ASYNC = 1;
+    private static final int DEFLATED = 2;
+    private static final Codec<?>[] CODECS = codecs();
+    private static final ThreadLocal<Buffers> BUFFERS = ThreadLocal.withInitial(Buffers::new);
+
+    private final int threshold;
+
+    public BinaryEventConverter() {
+        this(DEFAULT_THRESHOLD);
+    }
+
+    /**
+     * @param threshold the body length above which it's deflated, -1 to never deflate
+     */
+    public BinaryEventConverter(int threshold) {
+        this.threshold = threshold;
+    }
+
+    private static Codec<?>[] codecs() {
+        Map<Class<?>, Codec<?>> schemas = new HashMap<>();
+        add(schemas, TimecodeChangeEvent.class, (event, out) -> {
+            out.writeByte(event.getFramerate().getCode());
+            out.writeLong(event.getFrames());
+            out.writeLong(event.getNanos());
+        }, in -> {
+            TimecodeChangeEvent event = new TimecodeChangeEvent(Framerate.of(in.get()));
+            long frames = in.getLong();
+            event.setPosition(frames, in.getLong());
+            return event;
+        });
+        add(schemas, TimecodeSetEvent.class, (event, out) -> writeTimecode(event.getTime(), out), in -> new TimecodeSetEvent(readTimecode(in)));
+        add(schemas, TimecodeStartEvent.class, (event, out) -> writeTimecode(event.getTime(), out), in -> new TimecodeStartEvent(readTimecode(in)));
+        add(schemas, TimecodeStopEvent.class, (event, out) -> writeTimecode(event.getTime(), out), in -> new TimecodeStopEvent(readTimecode(in)));
+        add(schemas, AudioVolumeChangeEvent.class, (event, out) -> out.writeSignedVarInt(event.getVolume()), in -> new AudioVolumeChangeEvent(readSignedVarInt(in)));
+        add(schemas, DmxRemoteStateEvent.class, (event, out) -> {
+            writeState(event.getState(), out);
+            writeState(event.getPrevious(), out);
+        }, in -> new DmxRemoteStateEvent(readState(in), readState(in)));
+        empty(schemas, TimecodePauseEvent.class, TimecodePauseEvent::new);
+        empty(schemas, OscRecordStartEvent.class, OscRecordStartEvent::new);
+        empty(schemas, OscRecordStopEvent.class, OscRecordStopEvent::new);
+        empty(schemas, MarkerDeleteEvent.class, MarkerDeleteEvent::new);
+        empty(schemas, EventDeleteEvent.class, EventDeleteEvent::new);
+
+        int max = Collections.max(EventRegistry.REGISTRY.keySet());
+        Codec<?>[] codecs = new Codec<?>[max + 1];
+        EventRegistry.REGISTRY.forEach((id, type) -> codecs[id] = schemas.getOrDefault(type, json(type)));
+        return codecs;
+    }
+
+    private static <T extends Event> void add(Map<Class<?>, Codec<?>> schemas, Class<T> type, BiConsumer<T, Writer> writer, Function<ByteBuffer, T> reader) {
+        schemas.put(type, new Codec<>(type, writer, reader));
+    }
+
+    private static <T extends Event> void empty(Map<Class<?>, Codec<?>> schemas, Class<T> type, Supplier<T> constructor) {
+        add(schemas, type, (event, out) -> {}, in -> constructor.get());
+    }
+
+    private static <T extends Event> Codec<T> json(Class<T> type) {
+        return new Codec<>(type, (event, out) -> out.write(Constants.GSON.toJson(event).getBytes(StandardCharsets.UTF_8)),
+                in -> Constants.GSON.fromJson(new String(in.array(), in.arrayOffset() + in.position(), in.remaining(), StandardCharsets.UTF_8), type));
+    }
+
+    @Override
+    public byte[] encode(@NotNull EventWrapper message) {
+        Buffers buffers = BUFFERS.get();
+        Writer body = buffers.body.reset();
+        codec(message.id()).encode(message.event(), body);
+        byte[] data = body.array;
+        int length = body.size;
+        int flags = message.async() ? ASYNC : 0;
+        if (threshold >= 0 && length > threshold) {
+            int deflated = buffers.deflate(data, length);
+            if (deflated < length) {
+                flags |= DEFLATED;
+                data = buffers.deflated;
+            }
+        }
+        Writer out = buffers.message.reset();
+        out.writeVarInt(message.id());
+        out.writeByte(flags);
+        if ((flags & DEFLATED) != 0) {
+            out.writeVarInt(length);
+            length = buffers.deflatedSize;
+        }
+        out.write(data, 0, length);
+        return Arrays.copyOf(out.array, out.size);
+    }
+
+    @Override
+    public EventWrapper decode(byte[] message) {
+        try {
+            ByteBuffer in = ByteBuffer.wrap(message);
+            int id = readVarInt(in);
+            int flags = in.get();
+            if ((flags & DEFLATED) != 0) {
+                int length = readVarInt(in);
+                if (length > MAX_LENGTH)
+                    throw new IllegalArgumentException("Message too long: " + length);
+                in = BUFFERS.get().inflate(message, in.position(), in.remaining(), length);
+            }
+            return new EventWrapper(id, (flags & ASYNC) != 0, codec(id).reader().apply(in));
+        } catch (BufferUnderflowException | DataFormatException e) {
+            throw new IllegalArgumentException("Corrupt event message", e);
+        }
+    }
+
+    private static Codec<?> codec(int id) {
+        if (id <= 0 || id >= CODECS.length || CODECS[id] == null)
+            throw new IllegalArgumentException("Unknown event id: " + id);
+        return CODECS[id];
+    }
+
+    private static void writeTimecode(@Nullable Timecode time, Writer out) {
+        if (time == null) {
+            out.writeByte(0);
+            return;
+        }
+        out.writeByte(time.getFramerate().getCode());
+        out.writeLong(time.getTotalFrames());
+    }
+
+    @Nullable
+    private static Timecode readTimecode(ByteBuffer in) {
+        int code = in.get();
+        return code == 0 ? null : Timecode.ofFrames(in.getLong(), Framerate.of(code));
+    }
+
+    // the ordinal + 1, 0 for null
+    private static void writeState(@Nullable DmxRemoteState state, Writer out) {
+        out.writeVarInt(state == null ? 0 : state.ordinal() + 1);
+    }
+
+    @Nullable
+    private static DmxRemoteState readState(ByteBuffer in) {
+        int value = readVarInt(in);
+        return value == 0 ? null : DmxRemoteState.values()[value - 1];
+    }
+
+    private static int readVarInt(ByteBuffer in) {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            byte b = in.get();
+            value |= (b & 0x7F) << shift;
+            if (b >= 0)
+                return value;
+        }
+        throw new IllegalArgumentException("Malformed varint");
+    }
+
+    private static int readSignedVarInt(ByteBuffer in) {
+        int value = readVarInt(in);
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    /**
+     * @param reader reads the body, the buffer holds exactly the body
+     */
+    private record Codec<T extends Event>(Class<T> type, BiConsumer<T, Writer> writer, Function<ByteBuffer, T> reader) {
+
+        private void encode(Event event, Writer out) {
+            writer.accept(type.cast(event), out);
+        }
+    }
+
+    /**
+     * A growable big-endian byte array, reused by {@link #reset()}.
+     */
+    private static class Writer {
+        private byte[] array = new byte[256];
+        private int size = 0;
+
+        private Writer reset() {
+            size = 0;
+            return this;
+        }
+
+        private void ensure(int extra) {
+            if (size + extra > array.length)
+                array = Arrays.copyOf(array, Math.max(array.length * 2, size + extra));
+        }
+
+        private void writeByte(int value) {
+            ensure(1);
+            array[size++] = (byte) value;
+        }
+
+        private void writeLong(long value) {
+            ensure(8);
+            for (int shift = 56; shift >= 0; shift -= 8) {
+                array[size++] = (byte) (value >>> shift);
+            }
+        }
+
+        private void writeVarInt(int value) {
+            ensure(5);
+            while ((value & ~0x7F) != 0) {
+                array[size++] = (byte) (value & 0x7F | 0x80);
+                value >>>= 7;
+            }
+            array[size++] = (byte) value;
+        }
+
+        // zigzag, so small negative values stay short
+        private void writeSignedVarInt(int value) {
+            writeVarInt(value << 1 ^ value >> 31);
+        }
+
+        private void write(byte[] data) {
+            write(data, 0, data.length);
+        }
+
+        private void write(byte[] data, int offset, int length) {
+            ensure(length);
+            System.arraycopy(data, offset, array, size, length);
+            size += length;
+        }
+    }
+
+    private static class Buffers {
+        private final Writer body = new Writer();
+        private final Writer message = new Writer();
+        private final Deflater deflater = new Deflater(Deflater.BEST_SPEED, true);
+        private final Inflater inflater = new Inflater(true);
+        private byte[] deflated = new byte[256];
+        private int deflatedSize = 0;
+        private byte[] inflated = new byte[256];
+
+        private int deflate(byte[] data, int length) {
+            deflater.reset();
+            deflater.setInput(data, 0, length);
+            deflater.finish();
+            deflatedSize = 0;
+            while (!deflater.finished()) {
+                if (deflatedSize == deflated.length)
+                    deflated = Arrays.copyOf(deflated, deflated.length * 2);
+                deflatedSize += deflater.deflate(deflated, deflatedSize, deflated.length - deflatedSize);
+            }
+            return deflatedSize;
+        }
+
+        private ByteBuffer inflate(byte[] data, int offset, int length, int inflatedLength) throws DataFormatException {
+            if (inflated.length < inflatedLength)
+                inflated = new byte[Math.max(inflated.length * 2, inflatedLength)];
+            inflater.reset();
+            inflater.setInput(data, offset, length);
+            int size = 0;
+            while (size < inflatedLength && !inflater.finished()) {
+                int read = inflater.inflate(inflated, size, inflatedLength - size);
+                if (read == 0 && (inflater.needsInput() || inflater.needsDictionary()))
+                    throw new DataFormatException("Truncated deflated body");
+                size += read;
+            }
+            if (size != inflatedLength)
+                throw new DataFormatException("Inflated " + size + " bytes instead of " + inflatedLength);
+            return ByteBuffer.wrap(inflated, 0, size);
+        }
+    }
+}
@@ -6,7 +6,9 @@ import me.sunstorm.showmanager.modules.http.HttpModule;
 import me.sunstorm.showmanager.modules.ltc.LtcModule;
 import me.sunstorm.showmanager.modules.osc.OscModule;
 import me.sunstorm.showmanager.modules.remote.DmxRemoteModule;
+import me.sunstorm.showmanager.modules.remote.DmxTriggerModule;
 import me.sunstorm.showmanager.modules.remote.OscRemoteModule;
+import me.sunstorm.showmanager.modules.sacn.SacnModule;
 import me.sunstorm.showmanager.modules.scheduler.SchedulerModule;
 import org.codejargon.feather.Feather;
 
@@ -22,7 +24,9 @@ public class ModuleManager {
             LtcModule.class,
             OscModule.class,
             DmxRemoteModule.class,
+            DmxTriggerModule.class,
             OscRemoteModule.class,
+            SacnModule.class,
             SchedulerModule.class
     );
 
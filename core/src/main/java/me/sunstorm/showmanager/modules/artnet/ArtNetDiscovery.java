@@ -0,0 +1,139 @@
+package me.sunstorm.showmanager.modules.artnet;
+
+import ch.bildspur.artnet.packets.ArtPollReplyPacket;
+import com.google.gson.JsonArray;
+import me.sunstorm.showmanager.eventsystem.EventBus;
+import me.sunstorm.showmanager.eventsystem.events.artnet.ArtNetNodeAppearEvent;
+import me.sunstorm.showmanager.eventsystem.events.artnet.ArtNetNodeChangeEvent;
+import me.sunstorm.showmanager.eventsystem.events.artnet.ArtNetNodeLostEvent;
+import org.jetbrains.annotations.NotNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Keeps a table of the nodes on the network. <br>
+ * The discovery thread polls the network every 3 seconds and removes the nodes that didn't reply within the TTL.
+ * The table is updated by the replies as they arrive, only a new, changed or lost node calls an event:
+ * {@link ArtNetNodeAppearEvent}, {@link ArtNetNodeChangeEvent}, {@link ArtNetNodeLostEvent}.
+ */
+public class ArtNetDiscovery implements Runnable {
+    private static final Logger log = LoggerFactory.getLogger(ArtNetDiscovery.class);
+    // the spec requires ArtPoll at most every 2.5 to 3 seconds
+    public static final long POLL_PERIOD = 3_000_000_000L;
+    // three missed polls
+    public static final long DEFAULT_TTL = 3 * POLL_PERIOD + 1_000_000_000L;
+
+    private final Map<ArtNetNodeInfo.Key, Entry> nodes = new ConcurrentHashMap<>();
+    private final EventBus eventBus;
+    private final Runnable poll;
+    private volatile long ttl = DEFAULT_TTL;
+    private volatile boolean running = true;
+    private volatile Thread thread;
+
+    /**
+     * @param poll broadcasts an ArtPoll
+     */
+    public ArtNetDiscovery(@NotNull EventBus eventBus, @NotNull Runnable poll) {
+        this.eventBus = eventBus;
+        this.poll = poll;
+    }
+
+    @Override
+    public void run() {
+        thread = Thread.currentThread();
+        while (running) {
+            try {
+                poll.run();
+            } catch (Exception e) {
+                log.warn("Failed to poll ArtNet nodes", e);
+            }
+            LockSupport.parkNanos(this, POLL_PERIOD);
+            evict(System.nanoTime());
+        }
+    }
+
+    /**
+     * Updates the table with a reply.
+     *
+     * @param now the nanoTime of the reply
+     */
+    public void onReply(@NotNull ArtPollReplyPacket reply, long now) {
+        if (reply.getIPAddress() == null)
+            return;
+        ArtNetNodeInfo info = ArtNetNodeInfo.of(reply);
+        Entry entry = nodes.get(info.key());
+        if (entry == null) {
+            Entry created = new Entry(info, now);
+            if (nodes.putIfAbsent(info.key(), created) == null) {
+                log.info("Discovered ArtNet node {} ({})", info.ip().getHostAddress(), info.longName());
+                new ArtNetNodeAppearEvent(info).call(eventBus);
+                return;
+            }
+            entry = nodes.get(info.key());
+        }
+        entry.lastSeen = now;
+        ArtNetNodeInfo previous = entry.info;
+        if (!previous.equals(info)) {
+            entry.info = info;
+            new ArtNetNodeChangeEvent(info, previous).call(eventBus);
+        }
+    }
+
+    /**
+     * Removes the nodes that didn't reply for longer than the TTL.
+     */
+    public void evict(long now) {
+        for (Map.Entry<ArtNetNodeInfo.Key, Entry> node : nodes.entrySet()) {
+            Entry entry = node.getValue();
+            if (now - entry.lastSeen > ttl && nodes.remove(node.getKey(), entry)) {
+                log.info("Lost ArtNet node {} ({})", entry.info.ip().getHostAddress(), entry.info.longName());
+                new ArtNetNodeLostEvent(entry.info).call(eventBus);
+            }
+        }
+    }
+
+    public Collection<ArtNetNodeInfo> getNodes() {
+        return nodes.values().stream().map(e -> e.info).toList();
+    }
+
+    public JsonArray toJson() {
+        long now = System.nanoTime();
+        JsonArray array = new JsonArray();
+        for (Entry entry : nodes.values()) {
+            var data = entry.info.toJson();
+            data.addProperty("lastSeen", (now - entry.lastSeen) / 1_000_000);
+            array.add(data);
+        }
+        return array;
+    }
+
+    public void stop() {
+        running = false;
+        LockSupport.unpark(thread);
+    }
+
+    public void setTtl(long ttl) {
+        this.ttl = ttl;
+    }
+
+    // generated
+
+    public long getTtl() {
+        return ttl;
+    }
+
+    private static class Entry {
+        private volatile ArtNetNodeInfo info;
+        private volatile long lastSeen;
+
+        private Entry(ArtNetNodeInfo info, long lastSeen) {
+            this.info = info;
+            this.lastSeen = lastSeen;
+        }
+    }
+}
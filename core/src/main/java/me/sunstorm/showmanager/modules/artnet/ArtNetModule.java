@@ -1,84 +1,346 @@
 package me.sunstorm.showmanager.modules.artnet;
 
-import ch.bildspur.artnet.ArtNetBuffer;
+import ch.bildspur.artnet.ArtNetCapture;
 import ch.bildspur.artnet.ArtNetException;
 import ch.bildspur.artnet.ArtNetServer;
 import ch.bildspur.artnet.PortDescriptor;
 import ch.bildspur.artnet.events.ArtNetServerEventAdapter;
 import ch.bildspur.artnet.packets.*;
+import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
+import me.sunstorm.showmanager.Constants;
+import me.sunstorm.showmanager.clock.ChaseSource;
+import me.sunstorm.showmanager.clock.TimecodeChaser;
+import me.sunstorm.showmanager.dmx.DmxMergeEngine;
 import me.sunstorm.showmanager.eventsystem.EventBus;
+import me.sunstorm.showmanager.eventsystem.EventCall;
+import me.sunstorm.showmanager.eventsystem.events.artnet.ArtNetNodeAppearEvent;
+import me.sunstorm.showmanager.eventsystem.events.artnet.ArtNetNodeChangeEvent;
+import me.sunstorm.showmanager.eventsystem.events.artnet.ArtNetNodeLostEvent;
 import me.sunstorm.showmanager.modules.ToggleableModule;
+import me.sunstorm.showmanager.settings.config.ArtNetConfig;
+import me.sunstorm.showmanager.settings.config.ChaseConfig;
+import me.sunstorm.showmanager.util.Framerate;
+import me.sunstorm.showmanager.util.Frames;
+import me.sunstorm.showmanager.util.ThreadAffinity;
 import me.sunstorm.showmanager.util.Timecode;
+import me.sunstorm.showmanager.util.UdpSocketStats;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.inject.Inject;
 import javax.inject.Singleton;
+import java.io.File;
+import java.io.IOException;
 import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.InterfaceAddress;
+import java.net.NetworkInterface;
 import java.net.SocketException;
 import java.net.UnknownHostException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
 
 @Singleton
 public class ArtNetModule extends ToggleableModule {
     private static final Logger log = LoggerFactory.getLogger(ArtNetModule.class);
+    private static final File CAPTURES = new File(Constants.BASE_DIRECTORY, "captures");
 
     private InetAddress address;
+    private DeliveryMode delivery = DeliveryMode.BROADCAST;
+    private InetAddress directedBroadcast;
+    private final Set<InetAddress> subscribers = ConcurrentHashMap.newKeySet();
+    private final Map<InetAddress, Boolean> localSources = new ConcurrentHashMap<>();
 
     private final ArtNetServer server;
-    private final ArtTimePacket packet;
-    private final ArtNetBuffer buffer;
+    private ArtTimeSender sender;
+    private final DmxOutputEngine output = new DmxOutputEngine();
+    private final ArtNetDiscovery discovery;
+    private final DmxMergeEngine engine;
+    private final TimecodeChaser chaser;
+    private final boolean chasing;
 
     @Inject
-    public ArtNetModule(EventBus eventBus) {
+    public ArtNetModule(EventBus eventBus, ChaseConfig chaseConfig, ArtNetConfig config, TimecodeChaser chaser, DmxMergeEngine engine) {
         super(eventBus);
         init();
+        this.chaser = chaser;
+        this.engine = engine;
+        this.chasing = chaseConfig.getSource() == ChaseSource.ARTNET;
 
         server = new ArtNetServer();
-        packet = new ArtTimePacket();
-        buffer = new ArtNetBuffer();
+        server.setSocketReceiveBufferSize(config.getReceiveBufferSize());
+        server.setSocketSendBufferSize(config.getSendBufferSize());
+        server.setThreadPriority(config.getReceiveThreadPriority());
+        server.setThreadHook(ThreadAffinity.hook(config.getAffinityCommand()));
+        discovery = new ArtNetDiscovery(eventBus, () -> server.broadcastPacket(new ArtPollPacket()));
 
         server.addListener(new ArtNetServerEventAdapter() {
             @Override
             public void artNetPacketReceived(ArtNetPacket packet) {
+                if (packet.getType() == PacketType.ART_TIMECODE) {
+                    if (chasing)
+                        onTimecode((ArtTimePacket) packet, System.nanoTime());
+                    return;
+                }
+                if (packet.getType() == PacketType.ART_POLL_REPLY) {
+                    discovery.onReply((ArtPollReplyPacket) packet, System.nanoTime());
+                    return;
+                }
                 if (packet.getType() != PacketType.ART_OUTPUT)
                     return;
 
                 ArtDmxPacket dmxPacket = (ArtDmxPacket) packet;
-                int subnet = dmxPacket.getSubnetID();
-                int universe = dmxPacket.getUniverseID();
-
-                buffer.setDmxData((short) subnet, (short) universe, dmxPacket.getDmxData());
+                // our own output comes back when broadcasting, don't merge it as input
+                if (isOwnOutput(dmxPacket))
+                    return;
+                // sequence 0 means the node doesn't sequence
+                int sequence = dmxPacket.getSequenceID() == 0 ? -1 : dmxPacket.getSequenceID();
+                engine.submit(dmxPacket.getPortAddress(), 0, DmxMergeEngine.sourceOf(dmxPacket.getSource()), DmxMergeEngine.DEFAULT_PRIORITY,
+                        sequence, dmxPacket.getData(), ArtDmxPacket.DMX_OFFSET, dmxPacket.getNumChannels(), System.nanoTime());
             }
         });
         setReplyPacket();
         try {
             server.start(address);
+            Thread thread = new Thread(discovery, "ArtNet Discovery");
+            thread.setDaemon(true);
+            thread.start();
         } catch (SocketException | ArtNetException e) {
             log.error("Failed to start ArtNet server", e);
         }
+        try {
+            sender = new ArtTimeSender(address);
+            sender.setSendBufferSize(config.getSendBufferSize());
+            sender.setDscp(config.getTimecodeDscp());
+            updateTimecodeTargets();
+        } catch (IOException e) {
+            log.error("Failed to open ArtNet timecode channel", e);
+        }
+        try {
+            output.open(address);
+            output.setSendBufferSize(config.getSendBufferSize());
+        } catch (IOException e) {
+            log.error("Failed to open ArtNet DMX output channel", e);
+        }
+    }
+
+    private boolean isOwnOutput(ArtDmxPacket packet) {
+        InetAddress source = packet.getSource();
+        if (source == null || !output.isOutput(packet.getPortAddress()))
+            return false;
+        // looking up the interfaces is too slow for every packet
+        return localSources.computeIfAbsent(source, ArtNetNodeInfo::isLocal);
     }
 
     public void setTime(@NotNull Timecode time) {
-        packet.setTime(time.getHour(), time.getMin(), time.getSec(), time.getFrame());
+        if (sender != null)
+            sender.setTime(time.getHour(), time.getMin(), time.getSec(), time.getFrame(), time.getFramerate().getArtNetType());
     }
 
-    public byte[] getData(int subnet, int universe) {
-        return buffer.getDmxData((short) subnet, (short) universe);
+    public void setTime(long frames, Framerate framerate) {
+        if (sender != null)
+            sender.setTime(frames, framerate);
+    }
+
+    private void onTimecode(ArtTimePacket timePacket, long arrival) {
+        if (timePacket.getFrameType() < 0 || timePacket.getFrameType() > 3) {
+            log.debug("Invalid ArtNet timecode type: {}", timePacket.getFrameType());
+            return;
+        }
+        Framerate framerate = Framerate.ofArtNetType(timePacket.getFrameType());
+        long frames = Frames.of(timePacket.getHours(), timePacket.getMinutes(), timePacket.getSeconds(), timePacket.getFrames(), framerate);
+        chaser.onTimecode(Frames.toNanos(frames, framerate), arrival);
     }
 
     public void broadcast() {
-        if (isEnabled()) {
-            server.broadcastPacket(packet);
+        //don't echo the timecode we're chasing
+        if (isEnabled() && !chasing && sender != null) {
+            sender.send();
         }
     }
 
+    /**
+     * Sends the DMX output, called by the clock every frame.
+     */
+    public void sendDmx(long now) {
+        if (isEnabled())
+            output.send(now);
+    }
+
     @Override
     public void shutdown() {
         log.info("Shutting down ArtNet...");
+        stopCapture();
+        discovery.stop();
         server.stop();
+        if (sender != null) {
+            try {
+                sender.close();
+            } catch (IOException e) {
+                log.error("Failed to close ArtNet timecode channel", e);
+            }
+        }
+        try {
+            output.close();
+        } catch (IOException e) {
+            log.error("Failed to close ArtNet DMX output channel", e);
+        }
+    }
+
+    @EventCall
+    public void onNodeAppear(ArtNetNodeAppearEvent e) {
+        output.updateTargets(discovery.getNodes());
+        updateTimecodeTargets();
+    }
+
+    @EventCall
+    public void onNodeChange(ArtNetNodeChangeEvent e) {
+        output.updateTargets(discovery.getNodes());
+        updateTimecodeTargets();
+    }
+
+    @EventCall
+    public void onNodeLost(ArtNetNodeLostEvent e) {
+        output.updateTargets(discovery.getNodes());
+        updateTimecodeTargets();
+    }
+
+    /**
+     * Points the timecode at the targets of the delivery mode. In unicast mode nothing is sent
+     * while there are no subscribers or discovered nodes.
+     */
+    private void updateTimecodeTargets() {
+        if (sender == null)
+            return;
+        int port = ArtNetServer.DEFAULT_PORT;
+        sender.setTargets(switch (delivery) {
+            case BROADCAST -> new InetSocketAddress[] {new InetSocketAddress(ArtNetServer.DEFAULT_BROADCAST_IP, port)};
+            case DIRECTED -> new InetSocketAddress[] {directedBroadcast(port)};
+            case UNICAST -> Stream.concat(subscribers.stream(), discovery.getNodes().stream()
+                            .filter(node -> !node.isLocal())
+                            .map(ArtNetNodeInfo::ip))
+                    .map(ip -> new InetSocketAddress(ip, port))
+                    .toArray(InetSocketAddress[]::new);
+        });
+    }
+
+    // the configured one, or the one of the subnet of the interface
+    private InetSocketAddress directedBroadcast(int port) {
+        if (directedBroadcast != null)
+            return new InetSocketAddress(directedBroadcast, port);
+        try {
+            NetworkInterface networkInterface = address == null ? null : NetworkInterface.getByInetAddress(address);
+            if (networkInterface != null) {
+                for (InterfaceAddress interfaceAddress : networkInterface.getInterfaceAddresses()) {
+                    if (interfaceAddress.getAddress().equals(address) && interfaceAddress.getBroadcast() != null)
+                        return new InetSocketAddress(interfaceAddress.getBroadcast(), port);
+                }
+            }
+        } catch (SocketException e) {
+            log.warn("Failed to look up the broadcast address of the ArtNet interface", e);
+        }
+        log.warn("No directed broadcast address for ArtNet interface, falling back to {}", ArtNetServer.DEFAULT_BROADCAST_IP);
+        return new InetSocketAddress(ArtNetServer.DEFAULT_BROADCAST_IP, port);
+    }
+
+    public void setDelivery(@NotNull DeliveryMode delivery) {
+        this.delivery = delivery;
+        updateTimecodeTargets();
+    }
+
+    /**
+     * @param directedBroadcast the broadcast address of the directed mode, like 2.255.255.255,
+     *                          or null for the subnet of the interface
+     */
+    public void setDirectedBroadcast(InetAddress directedBroadcast) {
+        this.directedBroadcast = directedBroadcast;
+        updateTimecodeTargets();
+    }
+
+    /**
+     * Adds a receiver of the unicast timecode, besides the discovered nodes.
+     */
+    public void subscribe(@NotNull InetAddress subscriber) {
+        subscribers.add(subscriber);
+        updateTimecodeTargets();
+    }
+
+    public void unsubscribe(@NotNull InetAddress subscriber) {
+        subscribers.remove(subscriber);
+        updateTimecodeTargets();
+    }
+
+    /**
+     * @return the targets of the timecode with their statistics
+     */
+    public List<ArtTimeSender.Target> getTimecodeTargets() {
+        return sender == null ? List.of() : List.of(sender.getTargets());
+    }
+
+    /**
+     * @return how long the last timecode frame took to send to all targets, in nanoseconds
+     */
+    public long getTimecodeFanOut() {
+        return sender == null ? 0 : sender.getFanOut();
+    }
+
+    /**
+     * Starts recording the received datagrams into a file of the capture directory, replacing a running capture.
+     *
+     * @param name the name of the file, without directories
+     * @throws IllegalArgumentException if the name isn't a plain file name
+     * @see ch.bildspur.artnet.ArtNetReplay
+     */
+    public synchronized void startCapture(@NotNull String name) throws IOException {
+        Path file = capturePath(CAPTURES.toPath(), name);
+        Files.createDirectories(file.getParent());
+        stopCapture();
+        server.setCapture(new ArtNetCapture(file));
+        log.info("Capturing ArtNet to {}", file);
+    }
+
+    /**
+     * Resolves a capture file name, which can't leave the directory.
+     *
+     * @throws IllegalArgumentException if the name isn't a plain file name
+     */
+    public static Path capturePath(@NotNull Path directory, @NotNull String name) {
+        Path base = directory.toAbsolutePath().normalize();
+        // InvalidPathException is an IllegalArgumentException too
+        Path file = base.resolve(name).normalize();
+        if (!base.equals(file.getParent()))
+            throw new IllegalArgumentException("Not a file name: " + name);
+        return file;
+    }
+
+    public synchronized void stopCapture() {
+        ArtNetCapture capture = server.getCapture();
+        if (capture == null)
+            return;
+        server.setCapture(null);
+        try {
+            capture.close();
+            log.info("Captured {} ArtNet datagrams", capture.getRecords());
+        } catch (IOException e) {
+            log.error("Failed to close ArtNet capture", e);
+        }
+    }
+
+    /**
+     * @return the kernel side of the receiving socket, null if unavailable
+     */
+    @Nullable
+    public UdpSocketStats getSocketStats() {
+        return UdpSocketStats.of(server.getLocalPort());
     }
 
     private void setReplyPacket() {
@@ -104,6 +366,18 @@ public class ArtNetModule extends ToggleableModule {
         JsonObject data = new JsonObject();
         data.addProperty("enabled", isEnabled());
         data.addProperty("interface", address == null ? "127.0.0.1" : address.getHostAddress());
+        JsonArray outputs = new JsonArray();
+        for (int universe : output.getUniverses()) {
+            outputs.add(universe);
+        }
+        data.add("outputs", outputs);
+        data.addProperty("keepAlive", output.getKeepAlive() / 1_000_000);
+        data.addProperty("delivery", delivery.name());
+        if (directedBroadcast != null)
+            data.addProperty("directedBroadcast", directedBroadcast.getHostAddress());
+        JsonArray subscriberArray = new JsonArray();
+        subscribers.forEach(s -> subscriberArray.add(s.getHostAddress()));
+        data.add("subscribers", subscriberArray);
         return data;
     }
 
@@ -116,6 +390,23 @@ public class ArtNetModule extends ToggleableModule {
         } catch (UnknownHostException e) {
             log.error("Failed to load ArtNet net interface", e);
         }
+        if (object.has("outputs"))
+            object.get("outputs").getAsJsonArray().forEach(e -> output.addUniverse(e.getAsInt()));
+        if (object.has("keepAlive"))
+            output.setKeepAlive(object.get("keepAlive").getAsLong() * 1_000_000);
+        if (object.has("delivery"))
+            delivery = DeliveryMode.valueOf(object.get("delivery").getAsString());
+        try {
+            if (object.has("directedBroadcast"))
+                directedBroadcast = InetAddress.getByName(object.get("directedBroadcast").getAsString());
+            if (object.has("subscribers")) {
+                for (JsonElement subscriber : object.get("subscribers").getAsJsonArray()) {
+                    subscribers.add(InetAddress.getByName(subscriber.getAsString()));
+                }
+            }
+        } catch (UnknownHostException e) {
+            log.error("Failed to load ArtNet timecode targets", e);
+        }
     }
 
     @Override
@@ -125,6 +416,30 @@ public class ArtNetModule extends ToggleableModule {
 
     // generated
 
+    public ArtNetServer getServer() {
+        return server;
+    }
+
+    public DmxOutputEngine getOutput() {
+        return output;
+    }
+
+    public ArtNetDiscovery getDiscovery() {
+        return discovery;
+    }
+
+    public DeliveryMode getDelivery() {
+        return delivery;
+    }
+
+    public InetAddress getDirectedBroadcast() {
+        return directedBroadcast;
+    }
+
+    public Set<InetAddress> getSubscribers() {
+        return Set.copyOf(subscribers);
+    }
+
     public void setAddress(InetAddress address) {
         this.address = address;
     }
@@ -0,0 +1,114 @@
+package me.sunstorm.showmanager.modules.artnet;
+
+import ch.bildspur.artnet.PortDescriptor;
+import ch.bildspur.artnet.packets.ArtPollReplyPacket;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import me.sunstorm.showmanager.dmx.DmxUniverseStore;
+import org.jetbrains.annotations.NotNull;
+
+import java.net.InetAddress;
+import java.net.NetworkInterface;
+import java.net.SocketException;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * The configuration of a node (or one bind index of a node with more than 4 ports), as in its last ArtPollReply.
+ *
+ * @param outputs the Port-Addresses the node outputs
+ * @param inputs the Port-Addresses the node inputs
+ */
+public record ArtNetNodeInfo(InetAddress ip, int bindIndex, String shortName, String longName, int[] outputs, int[] inputs) {
+
+    public static ArtNetNodeInfo of(@NotNull ArtPollReplyPacket reply) {
+        int net = (reply.getSubSwitch() >> 8) & 0x7F;
+        int subnet = reply.getSubSwitch() & 0x0F;
+        PortDescriptor[] ports = reply.getPorts();
+        int count = Math.min(ports.length, 4);
+        int[] outputs = new int[count];
+        int[] inputs = new int[count];
+        int outs = 0;
+        int ins = 0;
+        for (int i = 0; i < count; i++) {
+            if (ports[i].canOutput())
+                outputs[outs++] = DmxUniverseStore.portAddress(net, subnet, reply.getDmxOuts()[i]);
+            if (ports[i].canInput())
+                inputs[ins++] = DmxUniverseStore.portAddress(net, subnet, reply.getDmxIns()[i]);
+        }
+        return new ArtNetNodeInfo(reply.getIPAddress(), reply.getBindIndex(), name(reply.getShortName()), name(reply.getLongName()),
+                Arrays.copyOf(outputs, outs), Arrays.copyOf(inputs, ins));
+    }
+
+    // the names are null padded
+    private static String name(String name) {
+        int end = name.indexOf('\0');
+        return end < 0 ? name : name.substring(0, end);
+    }
+
+    public Key key() {
+        return new Key(ip, bindIndex);
+    }
+
+    /**
+     * @return whether the node is this machine, like our own reply to the poll
+     */
+    public boolean isLocal() {
+        return isLocal(ip);
+    }
+
+    /**
+     * @return whether the address is one of this machine
+     */
+    public static boolean isLocal(InetAddress ip) {
+        if (ip == null)
+            return false;
+        try {
+            return ip.isAnyLocalAddress() || ip.isLoopbackAddress() || NetworkInterface.getByInetAddress(ip) != null;
+        } catch (SocketException e) {
+            return false;
+        }
+    }
+
+    public boolean outputs(int portAddress) {
+        for (int output : outputs) {
+            if (output == portAddress)
+                return true;
+        }
+        return false;
+    }
+
+    public JsonObject toJson() {
+        JsonObject data = new JsonObject();
+        data.addProperty("ip", ip.getHostAddress());
+        data.addProperty("bindIndex", bindIndex);
+        data.addProperty("shortName", shortName);
+        data.addProperty("longName", longName);
+        JsonArray outputArray = new JsonArray();
+        Arrays.stream(outputs).forEach(outputArray::add);
+        data.add("outputs", outputArray);
+        JsonArray inputArray = new JsonArray();
+        Arrays.stream(inputs).forEach(inputArray::add);
+        data.add("inputs", inputArray);
+        return data;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof ArtNetNodeInfo that)) return false;
+        return bindIndex == that.bindIndex && ip.equals(that.ip) && shortName.equals(that.shortName) && longName.equals(that.longName)
+                && Arrays.equals(outputs, that.outputs) && Arrays.equals(inputs, that.inputs);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(ip, bindIndex, shortName, longName, Arrays.hashCode(outputs), Arrays.hashCode(inputs));
+    }
+
+    /**
+     * Identifies a node in the table.
+     */
+    public record Key(InetAddress ip, int bindIndex) {
+    }
+}
@@ -0,0 +1,203 @@
+package me.sunstorm.showmanager.modules.artnet;
+
+import ch.bildspur.artnet.packets.ArtNetPacket;
+import ch.bildspur.artnet.packets.PacketType;
+import me.sunstorm.showmanager.util.Framerate;
+import me.sunstorm.showmanager.util.Frames;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.util.Arrays;
+
+/**
+ * Sends ArtTimeCode packets to a set of targets on a {@link DatagramChannel}. <br>
+ * The packet lives in a direct buffer, the header is written once and only the time bytes are patched, and the
+ * same buffer is sent to every target in one tight loop, so sending a frame doesn't allocate however many targets
+ * there are. The channel doesn't block, a full send buffer drops the packet instead of delaying the clock.
+ * The channel is bound to an ephemeral port of the ArtNet interface, the receiving port stays with the
+ * {@link ch.bildspur.artnet.ArtNetServer}.
+ */
+public class ArtTimeSender implements Closeable {
+    private static final Logger log = LoggerFactory.getLogger(ArtTimeSender.class);
+    private static final int LENGTH = 19;
+    private static final int FRAMES = 14;
+    private static final int SECONDS = 15;
+    private static final int MINUTES = 16;
+    private static final int HOURS = 17;
+    private static final int TYPE = 18;
+    // expedited forwarding
+    public static final int DSCP_EF = 46;
+
+    private final DatagramChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(LENGTH);
+    private volatile Target[] targets = new Target[0];
+    private long sent = 0;
+    private long errors = 0;
+    private long fanOut = 0;
+
+    /**
+     * @param address the local interface, or null for any
+     * @param target the broadcast (or node) address and port
+     */
+    public ArtTimeSender(@Nullable InetAddress address, @NotNull InetSocketAddress target) throws IOException {
+        this(address);
+        setTargets(target);
+    }
+
+    /**
+     * Opens the channel with no targets.
+     *
+     * @param address the local interface, or null for any
+     */
+    public ArtTimeSender(@Nullable InetAddress address) throws IOException {
+        channel = DatagramChannel.open();
+        try {
+            channel.setOption(StandardSocketOptions.SO_BROADCAST, true);
+            channel.bind(new InetSocketAddress(address, 0));
+            channel.configureBlocking(false);
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+        buffer.put(ArtNetPacket.HEADER);
+        buffer.put((byte) PacketType.ART_TIMECODE.getOpCode());
+        buffer.put((byte) (PacketType.ART_TIMECODE.getOpCode() >> 8));
+        buffer.put((byte) (ArtNetPacket.PROTOCOL_VERSION >> 8));
+        buffer.put((byte) ArtNetPacket.PROTOCOL_VERSION);
+    }
+
+    /**
+     * Sets SO_SNDBUF of the channel.
+     *
+     * @param size the size in bytes, 0 keeps the default of the OS
+     */
+    public void setSendBufferSize(int size) throws IOException {
+        if (size > 0)
+            channel.setOption(StandardSocketOptions.SO_SNDBUF, size);
+    }
+
+    /**
+     * Marks the timecode packets with a DSCP, so switches with QoS forward them ahead of the DMX traffic.
+     * Not every OS honours it.
+     *
+     * @param dscp the code point, like {@link #DSCP_EF}, or -1 to leave the packets unmarked
+     */
+    public void setDscp(int dscp) throws IOException {
+        if (dscp >= 0)
+            channel.setOption(StandardSocketOptions.IP_TOS, (dscp & 0x3F) << 2);
+    }
+
+    public void setTime(int hour, int min, int sec, int frame, int type) {
+        buffer.put(FRAMES, (byte) frame);
+        buffer.put(SECONDS, (byte) sec);
+        buffer.put(MINUTES, (byte) min);
+        buffer.put(HOURS, (byte) hour);
+        buffer.put(TYPE, (byte) type);
+    }
+
+    public void setTime(long frames, @NotNull Framerate framerate) {
+        setTime(Frames.hour(frames, framerate), Frames.min(frames, framerate), Frames.sec(frames, framerate), Frames.frame(frames, framerate), framerate.getArtNetType());
+    }
+
+    /**
+     * Sends the current time to every target. Errors are counted, only the first one per target is logged.
+     */
+    public void send() {
+        long start = System.nanoTime();
+        for (Target target : targets) {
+            buffer.clear();
+            try {
+                if (channel.send(buffer, target.address) == 0) {
+                    target.dropped++;
+                } else {
+                    target.sent++;
+                    sent++;
+                }
+            } catch (IOException e) {
+                errors++;
+                if (target.errors++ == 0)
+                    log.warn("Failed to send ArtNet timecode to {}", target.address, e);
+            }
+        }
+        fanOut = System.nanoTime() - start;
+    }
+
+    /**
+     * Replaces the targets, the statistics of the targets that stay are kept.
+     */
+    public synchronized void setTargets(@NotNull InetSocketAddress... addresses) {
+        Target[] current = targets;
+        targets = Arrays.stream(addresses).distinct().map(address -> Arrays.stream(current)
+                .filter(t -> t.address.equals(address))
+                .findFirst()
+                .orElseGet(() -> new Target(address)))
+                .toArray(Target[]::new);
+    }
+
+    public Target[] getTargets() {
+        return targets.clone();
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    // generated
+
+    public long getSent() {
+        return sent;
+    }
+
+    public long getErrors() {
+        return errors;
+    }
+
+    /**
+     * @return how long the last frame took to send to all targets, in nanoseconds
+     */
+    public long getFanOut() {
+        return fanOut;
+    }
+
+    /**
+     * A destination of the timecode with its send statistics.
+     */
+    public static class Target {
+        private final InetSocketAddress address;
+        private long sent = 0;
+        private long dropped = 0;
+        private long errors = 0;
+
+        private Target(InetSocketAddress address) {
+            this.address = address;
+        }
+
+        // generated
+
+        public InetSocketAddress getAddress() {
+            return address;
+        }
+
+        public long getSent() {
+            return sent;
+        }
+
+        public long getDropped() {
+            return dropped;
+        }
+
+        public long getErrors() {
+            return errors;
+        }
+    }
+}
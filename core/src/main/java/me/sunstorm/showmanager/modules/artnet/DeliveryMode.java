@@ -0,0 +1,19 @@
+package me.sunstorm.showmanager.modules.artnet;
+
+/**
+ * Where the ArtNet timecode is sent.
+ */
+public enum DeliveryMode {
+    /**
+     * To 255.255.255.255, every device of the broadcast domain.
+     */
+    BROADCAST,
+    /**
+     * To the broadcast address of a subnet, like 2.255.255.255, or the subnet of the ArtNet interface.
+     */
+    DIRECTED,
+    /**
+     * To each subscriber and each discovered node, nobody else is woken up.
+     */
+    UNICAST
+}
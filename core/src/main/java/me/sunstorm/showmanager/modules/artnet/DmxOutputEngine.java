@@ -0,0 +1,272 @@
+package me.sunstorm.showmanager.modules.artnet;
+
+import ch.bildspur.artnet.ArtNetServer;
+import ch.bildspur.artnet.packets.ArtDmxPacket;
+import me.sunstorm.showmanager.dmx.DmxUniverseStore;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Sends DMX universes on the show clock. <br>
+ * Levels can be set from any thread, {@link #send(long)} runs on the clock thread every frame and sends the universes
+ * that changed since the last frame, and the unchanged ones once per keep-alive period. Every universe owns a
+ * preallocated {@link ArtDmxPacket}, so sending doesn't allocate.
+ * <br><br>
+ * A universe is unicast to the discovered nodes that output it, and broadcast while there are none.
+ */
+public class DmxOutputEngine implements Closeable {
+    private static final Logger log = LoggerFactory.getLogger(DmxOutputEngine.class);
+    public static final long DEFAULT_KEEP_ALIVE = 1_000_000_000L;
+
+    private final InetSocketAddress broadcast;
+    private volatile OutputUniverse[] universes = new OutputUniverse[0];
+    private volatile Collection<ArtNetNodeInfo> nodes = List.of();
+    private volatile long keepAlive = DEFAULT_KEEP_ALIVE;
+    private DatagramChannel channel;
+    private long sent = 0;
+    private long dropped = 0;
+    private long errors = 0;
+
+    public DmxOutputEngine() {
+        this(new InetSocketAddress(ArtNetServer.DEFAULT_BROADCAST_IP, ArtNetServer.DEFAULT_PORT));
+    }
+
+    /**
+     * @param broadcast where the universes without nodes are sent
+     */
+    public DmxOutputEngine(@NotNull InetSocketAddress broadcast) {
+        this.broadcast = broadcast;
+    }
+
+    /**
+     * Opens the sending channel on an ephemeral port.
+     *
+     * @param address the local interface, or null for any
+     */
+    public void open(@Nullable InetAddress address) throws IOException {
+        DatagramChannel channel = DatagramChannel.open();
+        try {
+            channel.setOption(StandardSocketOptions.SO_BROADCAST, true);
+            channel.bind(new InetSocketAddress(address, 0));
+            // never stall the clock on a full send buffer
+            channel.configureBlocking(false);
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+        this.channel = channel;
+    }
+
+    /**
+     * Sets SO_SNDBUF of the channel, call after {@link #open(InetAddress)}.
+     *
+     * @param size the size in bytes, 0 keeps the default of the OS
+     */
+    public void setSendBufferSize(int size) throws IOException {
+        if (channel != null && size > 0)
+            channel.setOption(StandardSocketOptions.SO_SNDBUF, size);
+    }
+
+    /**
+     * Sends the changed universes and the ones due for a keep-alive.
+     *
+     * @param now the current nanoTime
+     */
+    public void send(long now) {
+        if (channel == null)
+            return;
+        for (OutputUniverse universe : universes) {
+            boolean changed = universe.dirty.getAndSet(false);
+            if (!changed && now - universe.lastSent < keepAlive)
+                continue;
+            universe.prepare(changed);
+            universe.lastSent = now;
+            InetSocketAddress[] targets = universe.targets;
+            if (targets.length == 0) {
+                write(universe.buffer.clear(), broadcast);
+            } else {
+                for (InetSocketAddress target : targets) {
+                    write(universe.buffer.clear(), target);
+                }
+            }
+        }
+    }
+
+    private void write(ByteBuffer buffer, InetSocketAddress target) {
+        try {
+            if (channel.send(buffer, target) == 0)
+                dropped++;
+            else
+                sent++;
+        } catch (IOException e) {
+            if (errors++ == 0)
+                log.warn("Failed to send DMX to {}", target, e);
+        }
+    }
+
+    /**
+     * Unicasts every universe to the nodes that output it, called when the node table changes.
+     */
+    public synchronized void updateTargets(@NotNull Collection<ArtNetNodeInfo> nodes) {
+        this.nodes = nodes;
+        for (OutputUniverse universe : universes) {
+            universe.targets = targets(universe.portAddress);
+        }
+    }
+
+    private InetSocketAddress[] targets(int portAddress) {
+        return nodes.stream()
+                .filter(node -> node.outputs(portAddress) && !node.isLocal())
+                .map(node -> new InetSocketAddress(node.ip(), ArtNetServer.DEFAULT_PORT))
+                .distinct()
+                .toArray(InetSocketAddress[]::new);
+    }
+
+    /**
+     * Adds a universe to the output, all channels at 0.
+     */
+    public synchronized void addUniverse(int portAddress) {
+        if (find(portAddress) != null)
+            return;
+        OutputUniverse[] current = universes;
+        OutputUniverse[] updated = Arrays.copyOf(current, current.length + 1);
+        updated[current.length] = new OutputUniverse(portAddress);
+        updated[current.length].targets = targets(portAddress);
+        universes = updated;
+    }
+
+    public synchronized void removeUniverse(int portAddress) {
+        universes = Arrays.stream(universes).filter(u -> u.portAddress != portAddress).toArray(OutputUniverse[]::new);
+    }
+
+    /**
+     * Sets the levels of consecutive channels, they are sent on the next frame.
+     *
+     * @param channel the first channel, starting from 0
+     * @throws IllegalArgumentException if the universe isn't output
+     */
+    public void set(int portAddress, int channel, byte[] values, int offset, int length) {
+        OutputUniverse universe = find(portAddress);
+        if (universe == null)
+            throw new IllegalArgumentException("Universe isn't output: " + portAddress);
+        System.arraycopy(values, offset, universe.levels, channel, length);
+        universe.dirty.set(true);
+    }
+
+    /**
+     * @see #set(int, int, byte[], int, int)
+     */
+    public void set(int portAddress, int channel, int value) {
+        OutputUniverse universe = find(portAddress);
+        if (universe == null)
+            throw new IllegalArgumentException("Universe isn't output: " + portAddress);
+        universe.levels[channel] = (byte) value;
+        universe.dirty.set(true);
+    }
+
+    /**
+     * @return the level set for the channel, starting from 0
+     */
+    public int get(int portAddress, int channel) {
+        OutputUniverse universe = find(portAddress);
+        if (universe == null)
+            throw new IllegalArgumentException("Universe isn't output: " + portAddress);
+        return universe.levels[channel] & 0xFF;
+    }
+
+    public boolean isOutput(int portAddress) {
+        return find(portAddress) != null;
+    }
+
+    @Nullable
+    private OutputUniverse find(int portAddress) {
+        for (OutputUniverse universe : universes) {
+            if (universe.portAddress == portAddress)
+                return universe;
+        }
+        return null;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (channel != null)
+            channel.close();
+    }
+
+    public void setKeepAlive(long keepAlive) {
+        this.keepAlive = keepAlive;
+    }
+
+    public int[] getUniverses() {
+        return Arrays.stream(universes).mapToInt(u -> u.portAddress).toArray();
+    }
+
+    /**
+     * @return the nodes the universe is unicast to, empty if it's broadcast
+     */
+    public InetSocketAddress[] getTargets(int portAddress) {
+        OutputUniverse universe = find(portAddress);
+        return universe == null ? new InetSocketAddress[0] : universe.targets.clone();
+    }
+
+    // generated
+
+    public long getKeepAlive() {
+        return keepAlive;
+    }
+
+    public long getSent() {
+        return sent;
+    }
+
+    public long getDropped() {
+        return dropped;
+    }
+
+    public long getErrors() {
+        return errors;
+    }
+
+    private static class OutputUniverse {
+        private final int portAddress;
+        private final ArtDmxPacket packet = new ArtDmxPacket();
+        private final ByteBuffer buffer;
+        // written by the setters, copied into the packet by the clock thread
+        private final byte[] levels = new byte[DmxUniverseStore.CHANNELS];
+        private final AtomicBoolean dirty = new AtomicBoolean(true);
+        private volatile InetSocketAddress[] targets = new InetSocketAddress[0];
+        private long lastSent = 0;
+        private int sequence = 0;
+
+        private OutputUniverse(int portAddress) {
+            this.portAddress = portAddress;
+            packet.setUniverse(portAddress >> 4 & 0x0F, portAddress & 0x0F);
+            packet.setDMX(levels, levels.length);
+            packet.getData()[15] = (byte) (portAddress >> 8);
+            buffer = ByteBuffer.wrap(packet.getData(), 0, packet.getLength());
+        }
+
+        private void prepare(boolean changed) {
+            byte[] data = packet.getData();
+            if (changed)
+                System.arraycopy(levels, 0, data, ArtDmxPacket.DMX_OFFSET, levels.length);
+            // 0 disables sequencing
+            sequence = sequence % 255 + 1;
+            data[12] = (byte) sequence;
+        }
+    }
+}
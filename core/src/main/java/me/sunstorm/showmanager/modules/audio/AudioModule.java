@@ -4,12 +4,15 @@ import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import me.sunstorm.showmanager.Constants;
+import me.sunstorm.showmanager.clock.LatencyCompensator;
+import me.sunstorm.showmanager.clock.Output;
 import me.sunstorm.showmanager.eventsystem.EventBus;
 import me.sunstorm.showmanager.eventsystem.EventCall;
 import me.sunstorm.showmanager.eventsystem.events.audio.AudioStopEvent;
 import me.sunstorm.showmanager.eventsystem.events.time.*;
 import me.sunstorm.showmanager.modules.ToggleableModule;
 import me.sunstorm.showmanager.settings.SettingsStore;
+import me.sunstorm.showmanager.util.Frames;
 import me.sunstorm.showmanager.util.Timecode;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
@@ -28,14 +31,16 @@ public class AudioModule extends ToggleableModule {
 
     private final List<AudioTrack> tracks = new ArrayList<>();
     private final SettingsStore store;
+    private final LatencyCompensator latency;
     private Mixer mixer;
     private int index = 0;
     @Nullable private AudioTrack current;
 
     @Inject
-    public AudioModule(EventBus eventBus, SettingsStore store) {
+    public AudioModule(EventBus eventBus, SettingsStore store, LatencyCompensator latency) {
         super(eventBus);
         this.store = store;
+        this.latency = latency;
         init();
         if (!tracks.isEmpty()) {
             current = tracks.get(index).loadTrack(mixer);
@@ -45,8 +50,12 @@ public class AudioModule extends ToggleableModule {
     @EventCall
     public void onTimeChange(TimecodeChangeEvent e) {
         if (!isEnabled()) return;
-        if (current != null && current.getStartTime().equals(e.getTime())) {
+        if (current == null || !current.isLoaded()) return;
+        // started early by the latency, from the exact position
+        long ahead = e.getNanos() + lookahead(current);
+        if (current.getStartTime().framesIn(e.getFramerate()) == Frames.fromNanos(ahead, e.getFramerate())) {
             log.info("play1");
+            current.getClip().setMicrosecondPosition(position(current, ahead));
             current.play();
         }
     }
@@ -54,8 +63,9 @@ public class AudioModule extends ToggleableModule {
     @EventCall
     public void onTimeStart(TimecodeStartEvent e) {
         if (!isEnabled()) return;
-        if (current != null && e.getTime().isBetween(current.getStartTime(), current.getEndTime())) {
+        if (current != null && current.isLoaded() && e.getTime().isBetween(current.getStartTime(), current.getEndTime())) {
             log.info("play2");
+            current.getClip().setMicrosecondPosition(position(current, e.getTime().nanos() + lookahead(current)));
             current.play();
         }
     }
@@ -85,7 +95,7 @@ public class AudioModule extends ToggleableModule {
         if (!isEnabled()) return;
         Timecode time = e.getTime();
         if (current != null && current.isLoaded() && time.isBetween(current.getStartTime(), current.getEndTime())) {
-            current.getClip().setMicrosecondPosition(time.subtract(current.getStartTime()).millis() * 1000);
+            current.getClip().setMicrosecondPosition(position(current, time.nanos() + lookahead(current)));
         } else {
             for (int i = 0; i < tracks.size(); i++) {
                 Timecode start = tracks.get(i).getStartTime();
@@ -93,7 +103,7 @@ public class AudioModule extends ToggleableModule {
                 if (time.isBetween(start, end)) {
                     index = i;
                     current = tracks.get(index).loadTrack(mixer);
-                    current.getClip().setMicrosecondPosition(time.subtract(current.getStartTime()).millis() * 1000);
+                    current.getClip().setMicrosecondPosition(position(current, time.nanos() + lookahead(current)));
                     break;
                 }
             }
@@ -107,6 +117,15 @@ public class AudioModule extends ToggleableModule {
         }
     }
 
+    private long lookahead(AudioTrack track) {
+        return latency.getDelay(Output.AUDIO) + track.getLatencyMicros() * 1000;
+    }
+
+    // clip position in microseconds at the given show time
+    private static long position(AudioTrack track, long nanos) {
+        return Math.max(0, (nanos - track.getStartTime().nanos()) / 1000);
+    }
+
     @Override
     public void shutdown() {
         tracks.forEach(AudioTrack::discard);
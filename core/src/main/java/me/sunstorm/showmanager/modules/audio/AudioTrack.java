@@ -28,6 +28,8 @@ public class AudioTrack {
     private transient boolean loaded = false;
     private transient boolean paused = false;
     private float volume = 1.0f;
+    // latency of this track on top of the audio output latency
+    private long latencyMicros = 0;
     @Nullable private Timecode endTime;
     private final List<Marker> markers = new ArrayList<>();
     @Nullable private transient Clip clip;
@@ -66,7 +68,7 @@ public class AudioTrack {
                     event.call(eventBus);
                 }
             });
-            endTime = startTime.add(new Timecode(clip.getMicrosecondLength() / 1000));
+            endTime = startTime.add(Timecode.ofMillis(clip.getMicrosecondLength() / 1000, startTime.getFramerate()));
             loaded = true;
             AudioLoadEvent event = new AudioLoadEvent(this);
             event.call(eventBus);
@@ -137,7 +139,7 @@ public class AudioTrack {
             return;
         }
         startTime = time;
-        endTime = startTime.add(new Timecode(clip.getMicrosecondLength() / 1000));
+        endTime = startTime.add(Timecode.ofMillis(clip.getMicrosecondLength() / 1000, startTime.getFramerate()));
     }
 
     public void setVolume(int volume) {
@@ -175,6 +177,14 @@ public class AudioTrack {
         return volume;
     }
 
+    public long getLatencyMicros() {
+        return latencyMicros;
+    }
+
+    public void setLatencyMicros(long latencyMicros) {
+        this.latencyMicros = latencyMicros;
+    }
+
     public List<Marker> getMarkers() {
         return markers;
     }
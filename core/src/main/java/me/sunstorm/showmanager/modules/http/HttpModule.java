@@ -9,10 +9,12 @@ import io.javalin.json.JsonMapper;
 import io.javalin.plugin.bundled.CorsPluginConfig;
 import me.sunstorm.showmanager.Constants;
 import me.sunstorm.showmanager.eventsystem.EventBus;
+import me.sunstorm.showmanager.modules.http.controller.ArtNetController;
 import me.sunstorm.showmanager.modules.http.controller.AudioController;
 import me.sunstorm.showmanager.modules.http.routing.RoutingManager;
 import me.sunstorm.showmanager.modules.Module;
 import me.sunstorm.showmanager.modules.http.controller.ControlController;
+import me.sunstorm.showmanager.modules.http.controller.EventController;
 import me.sunstorm.showmanager.modules.http.controller.OutputController;
 import me.sunstorm.showmanager.modules.http.controller.SchedulerController;
 import org.codejargon.feather.Feather;
@@ -87,8 +89,10 @@ public class HttpModule extends Module {
         javalin.before(ctx -> NaiveRateLimit.requestPerTimeUnit(ctx, 100, TimeUnit.MINUTES));
         RoutingManager.create(javalin,
                 feather::instance,
+                ArtNetController.class,
                 AudioController.class,
                 ControlController.class,
+                EventController.class,
                 OutputController.class,
                 SchedulerController.class
         );
@@ -8,6 +8,7 @@ import me.sunstorm.showmanager.Worker;
 import me.sunstorm.showmanager.modules.audio.AudioModule;
 import me.sunstorm.showmanager.eventsystem.EventBus;
 import me.sunstorm.showmanager.eventsystem.EventCall;
+import me.sunstorm.showmanager.eventsystem.EventPriority;
 import me.sunstorm.showmanager.eventsystem.Listener;
 import me.sunstorm.showmanager.eventsystem.events.audio.*;
 import me.sunstorm.showmanager.eventsystem.events.marker.MarkerCreateEvent;
@@ -19,6 +20,7 @@ import me.sunstorm.showmanager.eventsystem.events.scheduler.EventDeleteEvent;
 import me.sunstorm.showmanager.eventsystem.events.scheduler.SchedulerExecuteEvent;
 import me.sunstorm.showmanager.eventsystem.events.time.*;
 import me.sunstorm.showmanager.modules.scheduler.SchedulerModule;
+import me.sunstorm.showmanager.transport.TransportSnapshot;
 import me.sunstorm.showmanager.util.Timecode;
 import org.jetbrains.annotations.NotNull;
 import org.slf4j.Logger;
@@ -36,7 +38,9 @@ public class WebSocketHandler implements WsConnectHandler, WsMessageHandler, WsC
 
     public static WebSocketHandler INSTANCE;
     private final Set<WsContext> wsClients = ConcurrentHashMap.newKeySet();
-    private Timecode lastDispatchedTime = null;
+    // guarded by this, the time is shown from the ui lane and from the clock thread
+    private long lastDispatchedFrame = -1;
+    private long heldVersion = -1;
 
     private final EventBus eventBus;
     private final Worker worker;
@@ -91,18 +95,27 @@ public class WebSocketHandler implements WsConnectHandler, WsMessageHandler, WsC
         //log.debug("[WS] Received: {}", ctx.message());
     }
 
-    @EventCall
-    public void onTimeChange(TimecodeChangeEvent e) {
-        //slow down the ws dispatch
-        if (wsClients.isEmpty() || (lastDispatchedTime != null && e.getTime().millis() - lastDispatchedTime.millis() < 10)) return;
+    // only the latest frame matters to the UI, at most as often as a display refreshes
+    @EventCall(lane = "ui", maxRate = 30)
+    public synchronized void onTimeChange(TimecodeChangeEvent e) {
+        // a frame still waiting in the slot after a stop or a locate is stale, the transport is newer than it
+        TransportSnapshot snapshot = worker.getSnapshot();
+        if (!snapshot.isPlaying() || snapshot.version() == heldVersion) return;
+        showTime(e.getFrames(), e.getTime());
+    }
+
+    private void showTime(long frames, Timecode time) {
+        //don't dispatch the same frame twice
+        if (wsClients.isEmpty() || frames == lastDispatchedFrame) return;
+        lastDispatchedFrame = frames;
         JsonObject data = new JsonObject();
-        Timecode time = e.getTime();
         data.addProperty("type", "time");
         data.addProperty("action", "change");
         data.add("time", Constants.GSON.toJsonTree(time));
         broadcast(data);
     }
 
+    // the transport events are cancellable, so they're called on the clock thread
     @EventCall
     public void onTimeStart(TimecodeStartEvent e) {
         JsonObject data = new JsonObject();
@@ -119,26 +132,36 @@ public class WebSocketHandler implements WsConnectHandler, WsMessageHandler, WsC
         broadcast(data);
     }
 
-    @EventCall
+    // last, so a cancelled stop doesn't hold the time
+    @EventCall(EventPriority.HIGHEST)
     public void onTimeStop(TimecodeStopEvent e) {
+        if (e.isCancelled()) return;
         //notify UI about the time reset
-        onTimeChange(new TimecodeChangeEvent(Timecode.ZERO));
+        holdTime(Timecode.ZERO);
         JsonObject data = new JsonObject();
         data.addProperty("type", "time");
         data.addProperty("action", "stop");
         broadcast(data);
     }
 
-    @EventCall
+    @EventCall(EventPriority.HIGHEST)
     public void onTimeSet(TimecodeSetEvent e) {
+        if (e.isCancelled()) return;
         //I don't see any case where set event needs to be distinguished from change event on frontend (yet)
-        onTimeChange(new TimecodeChangeEvent(e.getTime()));
+        holdTime(e.getTime());
 //        JsonObject data = new JsonObject();
 //        data.addProperty("type", "time");
 //        data.addProperty("action", "set");
     }
 
-    @EventCall
+    // called before the clock publishes the new transport, the frames from before it are dropped until then
+    private synchronized void holdTime(Timecode time) {
+        heldVersion = worker.getSnapshot().version();
+        showTime(time.getTotalFrames(), time);
+    }
+
+    // notifications the UI needs every one of, not merged
+    @EventCall(lane = "io")
     public void onAudioLoad(AudioLoadEvent e) {
         JsonObject data = new JsonObject();
         data.addProperty("type", "audio");
@@ -147,7 +170,7 @@ public class WebSocketHandler implements WsConnectHandler, WsMessageHandler, WsC
         broadcast(data);
     }
 
-    @EventCall
+    @EventCall(lane = "io")
     public void onAudioStart(AudioStartEvent e) {
         JsonObject data = new JsonObject();
         data.addProperty("type", "audio");
@@ -156,7 +179,7 @@ public class WebSocketHandler implements WsConnectHandler, WsMessageHandler, WsC
         broadcast(data);
     }
 
-    @EventCall
+    @EventCall(lane = "io")
     public void onAudioPause(AudioPauseEvent e) {
         JsonObject data = new JsonObject();
         data.addProperty("type", "audio");
@@ -164,7 +187,7 @@ public class WebSocketHandler implements WsConnectHandler, WsMessageHandler, WsC
         broadcast(data);
     }
 
-    @EventCall
+    @EventCall(lane = "io")
     public void onAudioStop(AudioStopEvent e) {
         JsonObject data = new JsonObject();
         data.addProperty("type", "audio");
@@ -172,7 +195,8 @@ public class WebSocketHandler implements WsConnectHandler, WsMessageHandler, WsC
         broadcast(data);
     }
 
-    @EventCall
+    // only the latest volume matters too
+    @EventCall(lane = "ui")
     public void onAudioVolume(AudioVolumeChangeEvent e) {
         JsonObject data = new JsonObject();
         data.addProperty("type", "audio");
@@ -181,27 +205,27 @@ public class WebSocketHandler implements WsConnectHandler, WsMessageHandler, WsC
         broadcast(data);
     }
 
-    @EventCall
+    @EventCall(lane = "io")
     public void onOscRecordStart(OscRecordStartEvent e) {
         sendRecord(true);
     }
 
-    @EventCall
+    @EventCall(lane = "io")
     public void onOscRecordStop(OscRecordStopEvent e) {
         sendRecord(false);
     }
 
-    @EventCall
+    @EventCall(lane = "io")
     public void onMarkerCreate(MarkerCreateEvent e) {
         sendMarkerSync();
     }
 
-    @EventCall
+    @EventCall(lane = "io")
     public void onMarkerDelete(MarkerDeleteEvent e) {
         sendMarkerSync();
     }
 
-    @EventCall
+    @EventCall(lane = "io")
     public void onEventAdd(EventAddEvent e) {
         JsonObject data = new JsonObject();
         data.addProperty("type", "scheduler");
@@ -210,7 +234,7 @@ public class WebSocketHandler implements WsConnectHandler, WsMessageHandler, WsC
         broadcast(data);
     }
 
-    @EventCall
+    @EventCall(lane = "io")
     public void onEventDelete(EventDeleteEvent e) {
         JsonObject data = new JsonObject();
         data.addProperty("type", "scheduler");
@@ -218,7 +242,7 @@ public class WebSocketHandler implements WsConnectHandler, WsMessageHandler, WsC
         broadcast(data);
     }
 
-    @EventCall
+    @EventCall(lane = "io")
     public void onSchedulerExec(SchedulerExecuteEvent e) {
         JsonObject data = new JsonObject();
         data.addProperty("type", "scheduler");
@@ -0,0 +1,123 @@
+package me.sunstorm.showmanager.modules.http.controller;
+
+import ch.bildspur.artnet.ArtNetCapture;
+import ch.bildspur.artnet.ArtNetServer;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import io.javalin.http.BadRequestResponse;
+import io.javalin.http.Context;
+import me.sunstorm.showmanager.modules.artnet.ArtNetModule;
+import me.sunstorm.showmanager.modules.artnet.ArtTimeSender;
+import me.sunstorm.showmanager.modules.artnet.DeliveryMode;
+import me.sunstorm.showmanager.modules.http.routing.annotate.Get;
+import me.sunstorm.showmanager.modules.http.routing.annotate.PathPrefix;
+import me.sunstorm.showmanager.modules.http.routing.annotate.Post;
+import me.sunstorm.showmanager.util.JsonBuilder;
+import me.sunstorm.showmanager.util.UdpSocketStats;
+import org.jetbrains.annotations.NotNull;
+
+import javax.inject.Inject;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+
+@PathPrefix("/artnet")
+public class ArtNetController {
+    private final ArtNetModule artNetModule;
+
+    @Inject
+    public ArtNetController(ArtNetModule artNetModule) {
+        this.artNetModule = artNetModule;
+    }
+
+    @Get("/nodes")
+    public void getNodes(@NotNull Context ctx) {
+        ctx.json(new JsonBuilder()
+                .addArray("nodes", artNetModule.getDiscovery().toJson())
+                .addProperty("ttl", artNetModule.getDiscovery().getTtl() / 1_000_000)
+                .build());
+    }
+
+    @Get("/stats")
+    public void getStats(@NotNull Context ctx) {
+        ArtNetServer server = artNetModule.getServer();
+        UdpSocketStats socket = artNetModule.getSocketStats();
+        ctx.json(new JsonBuilder()
+                .addProperty("received", server.getReceived())
+                .addProperty("parseFailures", server.getParseFailures())
+                .addProperty("sendDrops", server.getSendDrops())
+                .addProperty("maxBatch", server.getMaxBatch())
+                .addProperty("fullBatches", server.getFullBatches())
+                // -1 where the OS doesn't tell
+                .addProperty("queued", socket == null ? -1 : socket.queued())
+                .addProperty("drops", socket == null ? -1 : socket.drops())
+                .addProperty("dmxDropped", artNetModule.getOutput().getDropped())
+                .build());
+    }
+
+    @Get("/capture")
+    public void getCapture(@NotNull Context ctx) {
+        ArtNetCapture capture = artNetModule.getServer().getCapture();
+        ctx.json(new JsonBuilder()
+                .addProperty("running", capture != null)
+                .addProperty("records", capture == null ? 0 : capture.getRecords())
+                .addProperty("size", capture == null ? 0 : capture.getSize())
+                .build());
+    }
+
+    @Post("/capture/start")
+    public void startCapture(@NotNull Context ctx) {
+        JsonObject data = JsonParser.parseString(ctx.body()).getAsJsonObject();
+        if (!data.has("file"))
+            throw new BadRequestResponse("Missing file");
+        try {
+            artNetModule.startCapture(data.get("file").getAsString());
+        } catch (IllegalArgumentException | IOException e) {
+            throw new BadRequestResponse(e.getMessage());
+        }
+    }
+
+    @Post("/capture/stop")
+    public void stopCapture(@NotNull Context ctx) {
+        artNetModule.stopCapture();
+    }
+
+    @Get("/timecode")
+    public void getTimecode(@NotNull Context ctx) {
+        JsonArray targets = new JsonArray();
+        for (ArtTimeSender.Target target : artNetModule.getTimecodeTargets()) {
+            targets.add(new JsonBuilder()
+                    .addProperty("address", target.getAddress().getAddress().getHostAddress())
+                    .addProperty("sent", target.getSent())
+                    .addProperty("dropped", target.getDropped())
+                    .addProperty("errors", target.getErrors())
+                    .build());
+        }
+        JsonArray subscribers = new JsonArray();
+        artNetModule.getSubscribers().forEach(s -> subscribers.add(s.getHostAddress()));
+        ctx.json(new JsonBuilder()
+                .addProperty("delivery", artNetModule.getDelivery().name())
+                .addArray("subscribers", subscribers)
+                .addArray("targets", targets)
+                .addProperty("fanOut", artNetModule.getTimecodeFanOut() / 1_000)
+                .build());
+    }
+
+    @Post("/timecode")
+    public void postTimecode(@NotNull Context ctx) {
+        JsonObject data = JsonParser.parseString(ctx.body()).getAsJsonObject();
+        try {
+            if (data.has("delivery"))
+                artNetModule.setDelivery(DeliveryMode.valueOf(data.get("delivery").getAsString()));
+            if (data.has("directedBroadcast"))
+                artNetModule.setDirectedBroadcast(data.get("directedBroadcast").isJsonNull() ? null : InetAddress.getByName(data.get("directedBroadcast").getAsString()));
+            if (data.has("subscribe"))
+                artNetModule.subscribe(InetAddress.getByName(data.get("subscribe").getAsString()));
+            if (data.has("unsubscribe"))
+                artNetModule.unsubscribe(InetAddress.getByName(data.get("unsubscribe").getAsString()));
+        } catch (IllegalArgumentException | UnknownHostException e) {
+            throw new BadRequestResponse(e.getMessage());
+        }
+    }
+}
@@ -105,7 +105,8 @@ public class AudioController {
                 data.get("hour").getAsInt(),
                 data.get("min").getAsInt(),
                 data.get("sec").getAsInt(),
-                data.get("frame").getAsInt()
+                data.get("frame").getAsInt(),
+                player.getCurrent().getStartTime().getFramerate()
         ));
         log.info("Adding marker {} - {}", marker.getLabel(), marker.getTime().guiFormatted(true));
         player.getCurrent().getMarkers().add(marker);
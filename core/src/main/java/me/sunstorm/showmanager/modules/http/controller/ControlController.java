@@ -3,10 +3,16 @@ package me.sunstorm.showmanager.modules.http.controller;
 import com.google.gson.JsonParser;
 import io.javalin.http.BadRequestResponse;
 import io.javalin.http.Context;
+import io.javalin.http.HttpStatus;
+import me.sunstorm.showmanager.Constants;
 import me.sunstorm.showmanager.Worker;
+import me.sunstorm.showmanager.clock.LatencyCompensator;
+import me.sunstorm.showmanager.clock.Output;
+import me.sunstorm.showmanager.modules.ltc.LatencyCalibrator;
 import me.sunstorm.showmanager.modules.http.routing.annotate.Get;
 import me.sunstorm.showmanager.modules.http.routing.annotate.PathPrefix;
 import me.sunstorm.showmanager.modules.http.routing.annotate.Post;
+import me.sunstorm.showmanager.transport.TransportSnapshot;
 import me.sunstorm.showmanager.util.JsonBuilder;
 import me.sunstorm.showmanager.util.Timecode;
 
@@ -15,10 +21,14 @@ import javax.inject.Inject;
 @PathPrefix("/control")
 public class ControlController {
     private final Worker worker;
+    private final LatencyCompensator latency;
+    private final LatencyCalibrator calibrator;
 
     @Inject
-    public ControlController(Worker worker) {
+    public ControlController(Worker worker, LatencyCompensator latency, LatencyCalibrator calibrator) {
         this.worker = worker;
+        this.latency = latency;
+        this.calibrator = calibrator;
     }
 
     @Get("/play")
@@ -26,6 +36,80 @@ public class ControlController {
         ctx.json(new JsonBuilder().addProperty("playing", worker.isPlaying()).build());
     }
 
+    @Get("/transport")
+    public void getTransport(Context ctx) {
+        TransportSnapshot snapshot = worker.getSnapshot();
+        ctx.json(new JsonBuilder()
+                .addProperty("state", snapshot.state().name())
+                .addProperty("version", snapshot.version())
+                .addElement("time", Constants.GSON.toJsonTree(snapshot.currentTime()))
+                .build());
+    }
+
+    @Get("/clock")
+    public void getClock(Context ctx) {
+        ctx.json(new JsonBuilder()
+                .addProperty("framerate", worker.getClock().getFramerate())
+                .addProperty("running", worker.getClock().isRunning())
+                .addElement("jitter", worker.getClock().getJitter().toJson())
+                .build());
+    }
+
+    @Get("/chase")
+    public void getChase(Context ctx) {
+        ctx.json(worker.getChaser().toJson());
+    }
+
+    @Get("/latency")
+    public void getLatency(Context ctx) {
+        var data = latency.toJson();
+        data.addProperty("calibrating", calibrator.isRunning());
+        LatencyCalibrator.Calibration last = calibrator.getLast();
+        if (last != null) {
+            data.add("lastCalibration", new JsonBuilder()
+                    .addProperty("output", last.output().name())
+                    .addProperty("micros", last.latency() / 1000)
+                    .addProperty("error", last.error())
+                    .build());
+        }
+        ctx.json(data);
+    }
+
+    @Post("/latency")
+    public void postLatency(Context ctx) {
+        var data = JsonParser.parseString(ctx.body()).getAsJsonObject();
+        if (!data.has("output") || !data.has("micros"))
+            throw new BadRequestResponse();
+        latency.setDelay(parseOutput(data.get("output").getAsString()), data.get("micros").getAsLong() * 1000);
+    }
+
+    @Post("/latency/calibrate")
+    public void calibrateLatency(Context ctx) {
+        var data = JsonParser.parseString(ctx.body()).getAsJsonObject();
+        if (!data.has("output"))
+            throw new BadRequestResponse();
+        // plays and records for a few seconds, the result is reported by GET /latency
+        try {
+            calibrator.start(parseOutput(data.get("output").getAsString()));
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            throw new BadRequestResponse(e.getMessage());
+        }
+        ctx.status(HttpStatus.ACCEPTED);
+    }
+
+    private static Output parseOutput(String name) {
+        try {
+            return Output.valueOf(name.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestResponse("Unknown output: " + name);
+        }
+    }
+
+    @Post("/clock/reset")
+    public void resetClockStats(Context ctx) {
+        worker.getClock().getJitter().reset();
+    }
+
     @Post("/play")
     public void postPlay(Context ctx) {
         worker.play();
@@ -46,7 +130,7 @@ public class ControlController {
         var data = JsonParser.parseString(ctx.body()).getAsJsonObject();
         if (!data.has("hour") || !data.has("min") || !data.has("sec") || !data.has("frame"))
             throw new BadRequestResponse();
-        worker.setTime(new Timecode(data.get("hour").getAsInt(), data.get("min").getAsInt(), data.get("sec").getAsInt(), data.get("frame").getAsInt()));
+        worker.setTime(new Timecode(data.get("hour").getAsInt(), data.get("min").getAsInt(), data.get("sec").getAsInt(), data.get("frame").getAsInt(), worker.getFramerate()));
     }
 
     @Post("/quickjump")
@@ -55,9 +139,6 @@ public class ControlController {
         if (!data.has("amount"))
             throw new BadRequestResponse();
         int amount = data.get("amount").getAsInt();
-        if (amount > 0)
-            worker.setTime(worker.getCurrentTime().add(new Timecode(0, 0, amount, 0)));
-        else
-            worker.setTime(worker.getCurrentTime().subtract(new Timecode(0, 0, Math.abs(amount), 0)));
+        worker.skip(new Timecode(0, 0, amount, 0, worker.getFramerate()).getTotalFrames());
     }
 }
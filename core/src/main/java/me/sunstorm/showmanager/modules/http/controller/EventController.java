@@ -0,0 +1,75 @@
+package me.sunstorm.showmanager.modules.http.controller;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import io.javalin.http.BadRequestResponse;
+import io.javalin.http.Context;
+import me.sunstorm.showmanager.eventsystem.EventBus;
+import me.sunstorm.showmanager.eventsystem.EventLane;
+import me.sunstorm.showmanager.eventsystem.EventTracer;
+import me.sunstorm.showmanager.modules.http.routing.annotate.Get;
+import me.sunstorm.showmanager.modules.http.routing.annotate.PathPrefix;
+import me.sunstorm.showmanager.modules.http.routing.annotate.Post;
+import me.sunstorm.showmanager.util.JsonBuilder;
+import org.jetbrains.annotations.NotNull;
+
+import javax.inject.Inject;
+
+@PathPrefix("/events")
+public class EventController {
+    private final EventBus eventBus;
+
+    @Inject
+    public EventController(EventBus eventBus) {
+        this.eventBus = eventBus;
+    }
+
+    @Get("/lanes")
+    public void getLanes(@NotNull Context ctx) {
+        JsonArray lanes = new JsonArray();
+        for (EventLane lane : eventBus.getLanes()) {
+            lanes.add(lane.toJson());
+        }
+        ctx.json(new JsonBuilder()
+                .addArray("lanes", lanes)
+                .build());
+    }
+
+    @Get("/trace")
+    public void getTrace(@NotNull Context ctx) {
+        ctx.json(eventBus.getTracer().toJson());
+    }
+
+    @Get("/trace/history")
+    public void getTraceHistory(@NotNull Context ctx) {
+        JsonArray history = new JsonArray();
+        for (EventTracer.Dispatch dispatch : eventBus.getTracer().getHistory()) {
+            history.add(dispatch.toJson());
+        }
+        ctx.json(new JsonBuilder()
+                .addArray("history", history)
+                .build());
+    }
+
+    @Post("/trace")
+    public void setTrace(@NotNull Context ctx) {
+        JsonObject data = JsonParser.parseString(ctx.body()).getAsJsonObject();
+        EventTracer tracer = eventBus.getTracer();
+        try {
+            if (data.has("budget"))
+                tracer.setBudget(data.get("budget").getAsDouble());
+            if (data.has("history"))
+                tracer.setHistory(data.get("history").getAsInt());
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestResponse(e.getMessage());
+        }
+        if (data.has("enabled"))
+            tracer.setEnabled(data.get("enabled").getAsBoolean());
+    }
+
+    @Post("/trace/reset")
+    public void resetTrace(@NotNull Context ctx) {
+        eventBus.getTracer().reset();
+    }
+}
@@ -0,0 +1,175 @@
+package me.sunstorm.showmanager.modules.ltc;
+
+import me.sunstorm.showmanager.clock.ChaseState;
+import me.sunstorm.showmanager.clock.LatencyCompensator;
+import me.sunstorm.showmanager.clock.Output;
+import me.sunstorm.showmanager.clock.TimecodeChaser;
+import me.sunstorm.showmanager.modules.audio.AudioModule;
+import me.sunstorm.showmanager.settings.SettingsStore;
+import me.sunstorm.showmanager.settings.config.ChaseConfig;
+import me.sunstorm.showmanager.settings.config.LtcConfig;
+import me.sunstorm.showmanager.util.Framerate;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import javax.sound.sampled.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Measures the latency of an audio output with a loopback cable from the output to the LTC input. <br>
+ * LTC is generated on the output with no compensation, read back and chased. Once the chaser is locked, the
+ * difference between the generated and the received time is the latency of the path. It includes the input
+ * latency too, so a low latency input should be used. The LTC input must not be in use by the show.
+ */
+@Singleton
+public class LatencyCalibrator {
+    private static final Logger log = LoggerFactory.getLogger(LatencyCalibrator.class);
+    private static final AudioFormat FORMAT = new AudioFormat(48000, 16, 1, true, false);
+    private static final long LOCK_TIMEOUT = 5_000_000_000L;
+    private static final int SAMPLES = 200;
+
+    private final SettingsStore store;
+    private final LtcConfig config;
+    private final ChaseConfig chaseConfig;
+    private final LatencyCompensator latency;
+    private final LtcModule ltcModule;
+    private final AudioModule audioModule;
+    private final AtomicBoolean running = new AtomicBoolean(false);
+    private volatile Calibration last = null;
+
+    @Inject
+    public LatencyCalibrator(SettingsStore store, LtcConfig config, ChaseConfig chaseConfig, LatencyCompensator latency, LtcModule ltcModule, AudioModule audioModule) {
+        this.store = store;
+        this.config = config;
+        this.chaseConfig = chaseConfig;
+        this.latency = latency;
+        this.ltcModule = ltcModule;
+        this.audioModule = audioModule;
+    }
+
+    /**
+     * Runs the calibration and stores the result, blocks for a few seconds.
+     *
+     * @param output {@link Output#LTC} or {@link Output#AUDIO}
+     * @return the measured latency in nanoseconds
+     * @throws IllegalArgumentException if the output isn't an audio output
+     * @throws IllegalStateException if a calibration is running already, or the loopback signal can't be locked to
+     */
+    public long calibrate(@NotNull Output output) throws LineUnavailableException, InterruptedException {
+        Mixer mixer = mixer(output);
+        if (!running.compareAndSet(false, true))
+            throw new IllegalStateException("Calibration is already running");
+        try {
+            return run(output, mixer);
+        } finally {
+            running.set(false);
+        }
+    }
+
+    /**
+     * Starts the calibration on a background thread and returns right away, the result is in {@link #getLast()}.
+     *
+     * @throws IllegalArgumentException if the output isn't an audio output
+     * @throws IllegalStateException if a calibration is running already
+     */
+    public void start(@NotNull Output output) {
+        Mixer mixer = mixer(output);
+        if (!running.compareAndSet(false, true))
+            throw new IllegalStateException("Calibration is already running");
+        Thread thread = new Thread(() -> {
+            try {
+                last = new Calibration(output, run(output, mixer), null);
+            } catch (Exception e) {
+                log.error("Failed to calibrate {} latency", output, e);
+                last = new Calibration(output, 0, e.getMessage() == null ? e.getClass().getSimpleName() : e.getMessage());
+            } finally {
+                running.set(false);
+            }
+        }, "Latency calibration");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private Mixer mixer(Output output) {
+        return switch (output) {
+            case LTC -> ltcModule.getMixer();
+            case AUDIO -> audioModule.getMixer();
+            default -> throw new IllegalArgumentException("Only audio outputs can be calibrated: " + output);
+        };
+    }
+
+    private long run(Output output, Mixer mixer) throws LineUnavailableException, InterruptedException {
+        LtcGenerator generator = null;
+        LtcReader reader = null;
+        try {
+            log.info("Calibrating {} latency on {}...", output, mixer.getMixerInfo().getName());
+            TargetDataLine in = (TargetDataLine) store.getMixerByName(config.getLtcInput()).getLine(new DataLine.Info(TargetDataLine.class, FORMAT));
+            in.open(FORMAT);
+            in.start();
+            TimecodeChaser chaser = new TimecodeChaser(chaseConfig);
+            reader = new LtcReader(new AudioInputStream(in), chaser);
+
+            LtcEncoder encoder = new LtcEncoder(Framerate.EBU, FORMAT.getSampleRate(), (short) 16384);
+            SourceDataLine out = (SourceDataLine) mixer.getLine(new DataLine.Info(SourceDataLine.class, FORMAT));
+            out.open(FORMAT, encoder.getMaxFrameBytes() * 4);
+            generator = new LtcGenerator(out, encoder, () -> 0);
+
+            startThread(reader, "LTC calibration reader");
+            startThread(generator, "LTC calibration generator");
+            long start = System.nanoTime();
+            generator.update(start);
+            generator.start();
+
+            while (chaser.getState(System.nanoTime()) != ChaseState.LOCKED) {
+                if (System.nanoTime() - start > LOCK_TIMEOUT)
+                    throw new IllegalStateException("No loopback signal on the LTC input");
+                Thread.sleep(10);
+            }
+            long sum = 0;
+            for (int i = 0; i < SAMPLES; i++) {
+                Thread.sleep(10);
+                long now = System.nanoTime();
+                sum += (now - start) - chaser.sourceAt(now);
+            }
+            long measured = sum / SAMPLES;
+            log.info("Measured {} latency: {} us", output, measured / 1000);
+            latency.setDelay(output, measured);
+            return measured;
+        } finally {
+            if (generator != null)
+                generator.shutdown();
+            if (reader != null)
+                reader.stop();
+        }
+    }
+
+    private static void startThread(Runnable runnable, String name) {
+        Thread thread = new Thread(runnable, name);
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MAX_PRIORITY);
+        thread.start();
+    }
+
+    public boolean isRunning() {
+        return running.get();
+    }
+
+    /**
+     * @return the result of the last calibration started by {@link #start(Output)}, null if there was none
+     */
+    @Nullable
+    public Calibration getLast() {
+        return last;
+    }
+
+    /**
+     * @param latency the measured latency in nanoseconds, 0 if it failed
+     * @param error why the calibration failed, null if it succeeded
+     */
+    public record Calibration(Output output, long latency, @Nullable String error) {
+    }
+}
@@ -0,0 +1,273 @@
+package me.sunstorm.showmanager.modules.ltc;
+
+import me.sunstorm.showmanager.util.Framerate;
+import me.sunstorm.showmanager.util.Frames;
+import org.jetbrains.annotations.NotNull;
+
+import javax.sound.sampled.AudioFormat;
+
+/**
+ * Streaming SMPTE linear timecode decoder. <br>
+ * LTC is biphase mark coded: every bit starts with a transition and a 1 has an extra transition in the middle.
+ * Transitions are found as zero crossings (with a small hysteresis), the distance between them is compared to
+ * the running estimate of the bit length, so the decoder follows varispeed. The bits are shifted into an 80 bit
+ * register, a frame is complete when the sync word is at its end (forward playback) or, bit reversed, at its start
+ * (reverse playback).
+ * <br><br>
+ * The decoder doesn't allocate, it is meant to be fed straight from the audio read loop. Not thread safe.
+ */
+public class LtcDecoder {
+    // sync word as it's shifted in, forward and backward
+    private static final int SYNC_FORWARD = 0x3FFD;
+    private static final int SYNC_REVERSE = 0xBFFC;
+    private static final int BITS = 80;
+    // ~1% of the 16 bit full scale
+    private static final int HYSTERESIS = 328;
+
+    private final double sampleRate;
+    private final FrameListener listener;
+    private final int channels;
+    private final int sampleBytes;
+    private final boolean bigEndian;
+    private final boolean signed;
+    // estimated bit length bounds, in samples (10-40 fps)
+    private final double minBitLength;
+    private final double maxBitLength;
+
+    private long position = 0;
+    private int previous = 0;
+    private boolean high = false;
+    private double lastZero = 0;
+    private double lastEdge = -1;
+    private double bitLength;
+    private boolean halfBit = false;
+    private long low = 0;
+    private int high16 = 0;
+    private int bitCount = 0;
+    // last decoded frame
+    private int hour;
+    private int min;
+    private int sec;
+    private int frame;
+    private boolean dropFrame;
+    private boolean reverse;
+    private int userBits;
+    private Framerate framerate = Framerate.DEFAULT;
+    // metrics
+    private long decoded = 0;
+    private long errors = 0;
+
+    /**
+     * @param format the PCM format, 8 or 16 bit, the first channel is decoded
+     * @param listener called on the decoding thread for every frame
+     */
+    public LtcDecoder(@NotNull AudioFormat format, @NotNull FrameListener listener) {
+        if (format.getSampleSizeInBits() != 8 && format.getSampleSizeInBits() != 16)
+            throw new IllegalArgumentException("Unsupported sample size: " + format.getSampleSizeInBits());
+        if (format.getEncoding() != AudioFormat.Encoding.PCM_SIGNED && format.getEncoding() != AudioFormat.Encoding.PCM_UNSIGNED)
+            throw new IllegalArgumentException("Unsupported encoding: " + format.getEncoding());
+        this.sampleRate = format.getSampleRate();
+        this.listener = listener;
+        this.channels = format.getChannels();
+        this.sampleBytes = format.getSampleSizeInBits() / 8;
+        this.bigEndian = format.isBigEndian();
+        this.signed = format.getEncoding() == AudioFormat.Encoding.PCM_SIGNED;
+        this.minBitLength = sampleRate / (BITS * 40);
+        this.maxBitLength = sampleRate / (BITS * 10);
+        this.bitLength = sampleRate / (BITS * Framerate.DEFAULT.getNominal());
+    }
+
+    /**
+     * Decodes interleaved PCM data, the length should be a multiple of the frame size.
+     */
+    public void decode(byte[] data, int offset, int length) {
+        int frameSize = channels * sampleBytes;
+        int end = offset + length - frameSize;
+        for (int i = offset; i <= end; i += frameSize) {
+            int sample;
+            if (sampleBytes == 1) {
+                sample = (signed ? data[i] : (data[i] & 0xFF) - 128) << 8;
+            } else {
+                int hi = bigEndian ? data[i] : data[i + 1];
+                int lo = bigEndian ? data[i + 1] : data[i];
+                sample = (hi << 8) | (lo & 0xFF);
+                if (!signed)
+                    sample -= 32768;
+            }
+            process(sample);
+        }
+    }
+
+    /**
+     * @param sample the next sample, scaled to 16 bit
+     */
+    public void process(int sample) {
+        if ((previous < 0) != (sample < 0)) {
+            // interpolated position of the crossing
+            lastZero = position - 1 + (double) previous / (previous - sample);
+        }
+        previous = sample;
+        position++;
+        if (high ? sample < -HYSTERESIS : sample > HYSTERESIS) {
+            high = !high;
+            onEdge(lastZero);
+        }
+    }
+
+    private void onEdge(double edge) {
+        if (lastEdge < 0) {
+            lastEdge = edge;
+            return;
+        }
+        double interval = edge - lastEdge;
+        lastEdge = edge;
+        if (interval < bitLength * 0.3 || interval > bitLength * 1.5) {
+            // noise or dropout, follow the new speed if it's plausible
+            desync();
+            if (interval >= minBitLength && interval <= maxBitLength)
+                bitLength += (interval - bitLength) / 4;
+            return;
+        }
+        if (interval < bitLength * 0.75) {
+            bitLength += (interval * 2 - bitLength) / 16;
+            if (halfBit) {
+                halfBit = false;
+                onBit(1, edge);
+            } else {
+                halfBit = true;
+            }
+        } else {
+            bitLength += (interval - bitLength) / 16;
+            if (halfBit) {
+                // the half bits were paired wrong
+                desync();
+            }
+            onBit(0, edge);
+        }
+    }
+
+    private void desync() {
+        if (bitCount > 0)
+            errors++;
+        halfBit = false;
+        bitCount = 0;
+    }
+
+    private void onBit(int bit, double edge) {
+        high16 = (int) (((high16 << 1) | (low >>> 63)) & 0xFFFF);
+        low = (low << 1) | bit;
+        if (++bitCount < BITS)
+            return;
+        if ((low & 0xFFFF) == SYNC_FORWARD) {
+            onFrame(false, edge);
+        } else if (high16 == SYNC_REVERSE) {
+            onFrame(true, edge);
+        }
+    }
+
+    private void onFrame(boolean reverse, double edge) {
+        this.reverse = reverse;
+        frame = field(0, 4) + field(8, 2) * 10;
+        dropFrame = field(10, 1) == 1;
+        sec = field(16, 4) + field(24, 3) * 10;
+        min = field(32, 4) + field(40, 3) * 10;
+        hour = field(48, 4) + field(56, 2) * 10;
+        userBits = 0;
+        for (int i = 0; i < 8; i++) {
+            userBits |= field(4 + i * 8, 4) << (i * 4);
+        }
+        framerate = detectFramerate();
+        bitCount = 0;
+        decoded++;
+        listener.onFrame(this, (long) edge);
+    }
+
+    private Framerate detectFramerate() {
+        if (dropFrame)
+            return Framerate.DF;
+        double fps = sampleRate / (BITS * bitLength);
+        Framerate detected = fps < 24.5 ? Framerate.FILM : fps < 27.5 ? Framerate.EBU : Framerate.SMPTE;
+        // trust the frame labels over a varispeed signal
+        if (frame >= detected.getNominal())
+            return frame >= Framerate.EBU.getNominal() ? Framerate.SMPTE : Framerate.EBU;
+        return detected;
+    }
+
+    // bit index as in the SMPTE 12M frame layout, LSB first
+    private int field(int index, int length) {
+        int value = 0;
+        for (int i = 0; i < length; i++) {
+            int pos = reverse ? index + i : BITS - 1 - index - i;
+            long bit = pos < 64 ? low >>> pos : high16 >>> (pos - 64);
+            value |= (int) (bit & 1) << i;
+        }
+        return value;
+    }
+
+    /**
+     * @return the last decoded frame in {@link #getFramerate()} frames
+     */
+    public long getFrames() {
+        return Frames.of(hour, min, sec, frame, framerate);
+    }
+
+    public double getFps() {
+        return sampleRate / (BITS * bitLength);
+    }
+
+    // generated
+
+    public int getHour() {
+        return hour;
+    }
+
+    public int getMin() {
+        return min;
+    }
+
+    public int getSec() {
+        return sec;
+    }
+
+    public int getFrame() {
+        return frame;
+    }
+
+    public boolean isDropFrame() {
+        return dropFrame;
+    }
+
+    public boolean isReverse() {
+        return reverse;
+    }
+
+    public int getUserBits() {
+        return userBits;
+    }
+
+    public Framerate getFramerate() {
+        return framerate;
+    }
+
+    public long getDecoded() {
+        return decoded;
+    }
+
+    public long getErrors() {
+        return errors;
+    }
+
+    public long getPosition() {
+        return position;
+    }
+
+    @FunctionalInterface
+    public interface FrameListener {
+
+        /**
+         * @param decoder the decoder, holding the decoded frame
+         * @param sample the position of the sample the frame ended at
+         */
+        void onFrame(LtcDecoder decoder, long sample);
+    }
+}
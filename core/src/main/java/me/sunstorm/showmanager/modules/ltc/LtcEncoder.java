@@ -0,0 +1,158 @@
+package me.sunstorm.showmanager.modules.ltc;
+
+import me.sunstorm.showmanager.util.Framerate;
+import me.sunstorm.showmanager.util.Frames;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Encodes SMPTE linear timecode into 16 bit little endian mono PCM, one frame at a time. <br>
+ * The bit boundaries are kept on a fractional sample clock, so rates that don't divide the sample rate
+ * (29.97 drop-frame at 48kHz) don't drift. The polarity correction bit is set, so every frame starts with
+ * the same polarity. A frame can be stretched by up to 1% to slew the output in time with a clock.
+ * The encoder doesn't allocate. Not thread safe.
+ */
+public class LtcEncoder {
+    private static final int BITS = 80;
+    // the SMPTE sync word, bits 64-79
+    private static final int SYNC = 0xBFFC;
+    private static final double MAX_STRETCH = 0.01;
+
+    private final double sampleRate;
+    private final short amplitude;
+    private Framerate framerate;
+    private double bitLength;
+    private int userBits = 0;
+    private boolean level = false;
+    // position of the next bit boundary relative to the next sample
+    private double phase = 0;
+    private double stretch = 0;
+    private long low;
+    private int high16;
+
+    /**
+     * @param sampleRate the output sample rate
+     * @param amplitude the peak level, at most {@link Short#MAX_VALUE}
+     */
+    public LtcEncoder(@NotNull Framerate framerate, float sampleRate, short amplitude) {
+        this.sampleRate = sampleRate;
+        this.amplitude = amplitude;
+        setFramerate(framerate);
+    }
+
+    /**
+     * @return the maximum number of bytes one frame encodes to
+     */
+    public int getMaxFrameBytes() {
+        return ((int) Math.ceil(bitLength * BITS * (1 + MAX_STRETCH)) + 1) * 2;
+    }
+
+    /**
+     * Encodes one frame.
+     *
+     * @param frames the frame to encode, in the framerate of the encoder
+     * @param buffer the output, with at least {@link #getMaxFrameBytes()} bytes after the offset
+     * @return the number of bytes written
+     */
+    public int encode(long frames, byte[] buffer, int offset) {
+        bits(frames);
+        double length = bitLength + stretch / BITS;
+        stretch = 0;
+        int pos = offset;
+        for (int b = 0; b < BITS; b++) {
+            boolean one = b < 64 ? ((low >>> b) & 1) == 1 : ((high16 >>> (b - 64)) & 1) == 1;
+            level = !level;
+            if (one) {
+                pos = fill(buffer, pos, length / 2);
+                level = !level;
+                pos = fill(buffer, pos, length / 2);
+            } else {
+                pos = fill(buffer, pos, length);
+            }
+        }
+        return pos - offset;
+    }
+
+    /**
+     * Holds the current level, to delay the next frame.
+     *
+     * @return the number of bytes written
+     */
+    public int pad(byte[] buffer, int offset, int samples) {
+        return fill(buffer, offset, samples) - offset;
+    }
+
+    /**
+     * Lengthens (or shortens, if negative) the next frame, spread over all of its bits.
+     *
+     * @param samples the change, limited to 1% of the frame
+     */
+    public void stretch(double samples) {
+        double max = bitLength * BITS * MAX_STRETCH;
+        stretch = Math.max(-max, Math.min(max, samples));
+    }
+
+    private int fill(byte[] buffer, int pos, double length) {
+        phase += length;
+        short value = level ? amplitude : (short) -amplitude;
+        byte lo = (byte) value;
+        byte hi = (byte) (value >> 8);
+        while (phase > 0.5) {
+            buffer[pos++] = lo;
+            buffer[pos++] = hi;
+            phase--;
+        }
+        return pos;
+    }
+
+    // bit i of the frame is bit i of low (0-63) or high16 (64-79)
+    private void bits(long frames) {
+        int frame = Frames.frame(frames, framerate);
+        int sec = Frames.sec(frames, framerate);
+        int min = Frames.min(frames, framerate);
+        int hour = Frames.hour(frames, framerate);
+        long bits = 0;
+        bits |= (long) (frame % 10) | (long) (frame / 10) << 8;
+        if (framerate.isDropFrame())
+            bits |= 1L << 10;
+        bits |= (long) (sec % 10) << 16 | (long) (sec / 10) << 24;
+        bits |= (long) (min % 10) << 32 | (long) (min / 10) << 40;
+        bits |= (long) (hour % 10) << 48 | (long) (hour / 10) << 56;
+        for (int i = 0; i < 8; i++) {
+            bits |= (long) ((userBits >>> (i * 4)) & 0xF) << (4 + i * 8);
+        }
+        // every zero flips the polarity once, keep their count even
+        int zeros = BITS - Long.bitCount(bits) - Integer.bitCount(SYNC);
+        if ((zeros & 1) == 1)
+            bits |= 1L << (framerate == Framerate.EBU ? 59 : 27);
+        low = bits;
+        high16 = SYNC;
+    }
+
+    /**
+     * Restarts the waveform, for a discontinuity (seek) in the output.
+     */
+    public void reset() {
+        level = false;
+        phase = 0;
+        stretch = 0;
+    }
+
+    public void setFramerate(@NotNull Framerate framerate) {
+        this.framerate = framerate;
+        this.bitLength = sampleRate * framerate.getRateDen() / ((double) BITS * framerate.getRateNum());
+    }
+
+    // generated
+
+    public Framerate getFramerate() {
+        return framerate;
+    }
+
+    public int getUserBits() {
+        return userBits;
+    }
+
+    public void setUserBits(int userBits) {
+        this.userBits = userBits;
+    }
+}
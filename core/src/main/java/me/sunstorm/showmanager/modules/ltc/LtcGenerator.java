@@ -0,0 +1,139 @@
+package me.sunstorm.showmanager.modules.ltc;
+
+import me.sunstorm.showmanager.util.Framerate;
+import me.sunstorm.showmanager.util.Frames;
+import org.jetbrains.annotations.NotNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sound.sampled.SourceDataLine;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.LongSupplier;
+
+/**
+ * Generates LTC on the fly into a {@link SourceDataLine}. <br>
+ * The line is opened with room for a few frames only and acts as the ring buffer: the blocking write paces the
+ * generator by the audio clock. Before every frame the generator computes when its first sample will be heard
+ * (the buffered audio plus the output latency) and slews the frame length, so the frame boundaries stay on the
+ * show clock at sample resolution. Locates and errors over a frame are corrected by jumping.
+ * Memory use is constant, however long the show runs.
+ * <br><br>
+ * The control methods can be called from any thread, the line is only touched by the generator thread.
+ */
+public class LtcGenerator implements Runnable {
+    private static final Logger log = LoggerFactory.getLogger(LtcGenerator.class);
+
+    private final SourceDataLine line;
+    private final LtcEncoder encoder;
+    private final LongSupplier latency;
+    private final Framerate framerate;
+    private final byte[] buffer;
+    private final double nanosPerSample;
+    private final long framePeriod;
+    private volatile Thread thread;
+    private volatile boolean running = true;
+    private volatile boolean playing = false;
+    private volatile boolean seeked = true;
+    private volatile long start = 0;
+    // only accessed by the generator thread
+    private long next = 0;
+
+    /**
+     * @param line an open line, 16 bit little endian mono
+     * @param latency the output latency in nanoseconds, called before every frame
+     */
+    public LtcGenerator(@NotNull SourceDataLine line, @NotNull LtcEncoder encoder, @NotNull LongSupplier latency) {
+        this.line = line;
+        this.encoder = encoder;
+        this.latency = latency;
+        this.framerate = encoder.getFramerate();
+        this.buffer = new byte[encoder.getMaxFrameBytes()];
+        this.nanosPerSample = 1_000_000_000.0 / line.getFormat().getSampleRate();
+        this.framePeriod = Frames.toNanos(1, framerate);
+    }
+
+    @Override
+    public void run() {
+        thread = Thread.currentThread();
+        try {
+            while (running) {
+                if (!playing) {
+                    if (line.isRunning()) {
+                        line.stop();
+                        line.flush();
+                        seeked = true;
+                    }
+                    LockSupport.park(this);
+                    continue;
+                }
+                if (!line.isRunning())
+                    line.start();
+                if (seeked) {
+                    seeked = false;
+                    line.flush();
+                    encoder.reset();
+                    jump();
+                } else {
+                    // show time of the next sample when it's heard
+                    long buffered = (line.getBufferSize() - line.available()) / 2;
+                    long expected = System.nanoTime() + (long) (buffered * nanosPerSample) + latency.getAsLong() - start;
+                    long error = expected - Frames.toNanos(next, framerate);
+                    if (Math.abs(error) > framePeriod)
+                        jump();
+                    else
+                        encoder.stretch(-error / nanosPerSample / 4);
+                }
+                int length = encoder.encode(next++, buffer, 0);
+                line.write(buffer, 0, length);
+            }
+        } catch (Exception e) {
+            log.error("LTC generator failed", e);
+        } finally {
+            line.close();
+        }
+    }
+
+    // starts the next whole frame at its exact time, holding the level until then
+    private void jump() {
+        long expected = System.nanoTime() + latency.getAsLong() - start;
+        next = Math.max(0, Frames.fromNanos(expected, framerate) + 1);
+        int samples = (int) ((Frames.toNanos(next, framerate) - expected) / nanosPerSample);
+        if (samples > 0)
+            line.write(buffer, 0, encoder.pad(buffer, 0, Math.min(samples, buffer.length / 2)));
+    }
+
+    public void start() {
+        playing = true;
+        LockSupport.unpark(thread);
+    }
+
+    public void stop() {
+        playing = false;
+    }
+
+    /**
+     * Drops the buffered audio and restarts at the current show time.
+     */
+    public void seek() {
+        seeked = true;
+    }
+
+    /**
+     * @param start the nanoTime the show started at, so the show time is {@code now - start}
+     */
+    public void update(long start) {
+        this.start = start;
+    }
+
+    public void shutdown() {
+        running = false;
+        playing = false;
+        LockSupport.unpark(thread);
+    }
+
+    // generated
+
+    public boolean isPlaying() {
+        return playing;
+    }
+}
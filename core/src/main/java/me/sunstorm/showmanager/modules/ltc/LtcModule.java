@@ -2,10 +2,16 @@ package me.sunstorm.showmanager.modules.ltc;
 
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
-import me.sunstorm.showmanager.Constants;
+import me.sunstorm.showmanager.clock.ChaseSource;
+import me.sunstorm.showmanager.clock.LatencyCompensator;
+import me.sunstorm.showmanager.clock.Output;
+import me.sunstorm.showmanager.clock.TimecodeChaser;
 import me.sunstorm.showmanager.eventsystem.EventBus;
 import me.sunstorm.showmanager.modules.ToggleableModule;
 import me.sunstorm.showmanager.settings.SettingsStore;
+import me.sunstorm.showmanager.settings.config.ChaseConfig;
+import me.sunstorm.showmanager.settings.config.LtcConfig;
+import me.sunstorm.showmanager.util.Framerate;
 import me.sunstorm.showmanager.util.Timecode;
 import org.jetbrains.annotations.NotNull;
 import org.slf4j.Logger;
@@ -14,80 +20,120 @@ import org.slf4j.LoggerFactory;
 import javax.inject.Inject;
 import javax.inject.Singleton;
 import javax.sound.sampled.*;
-import java.io.*;
 
 @Singleton
 public class LtcModule extends ToggleableModule {
     private static final Logger log = LoggerFactory.getLogger(LtcModule.class);
+    private static final AudioFormat INPUT_FORMAT = new AudioFormat(48000, 16, 1, true, false);
+    private static final AudioFormat OUTPUT_FORMAT = new AudioFormat(48000, 16, 1, true, false);
+    // frames buffered in the output line
+    private static final int OUTPUT_FRAMES = 4;
+    // -6 dBFS
+    private static final short AMPLITUDE = 16384;
 
-    private final File ltcFile = new File(Constants.BASE_DIRECTORY, "LTC_00000000_10mins_25fps_48000x8.wav");
     private final SettingsStore store;
+    private final TimecodeChaser chaser;
+    private final LatencyCompensator latency;
+    private final LtcEncoder encoder;
+    private LtcReader reader;
+    private LtcGenerator generator;
 
     private Mixer mixer;
-    private AudioInputStream stream;
-    private Clip clip;
     private boolean playing = false;
     private int offset = 0;
 
     @Inject
-    public LtcModule(EventBus bus, SettingsStore store) {
+    public LtcModule(EventBus bus, SettingsStore store, Framerate framerate, LtcConfig config, ChaseConfig chaseConfig, TimecodeChaser chaser, LatencyCompensator latency) {
         super(bus);
         this.store = store;
+        this.chaser = chaser;
+        this.latency = latency;
+        this.encoder = new LtcEncoder(framerate, OUTPUT_FORMAT.getSampleRate(), AMPLITUDE);
         super.init();
         init();
+        if (chaseConfig.getSource() == ChaseSource.LTC)
+            startInput(config.getLtcInput());
     }
 
     public void init() {
-        if (!ltcFile.exists()) {
-            try (var in = LtcModule.class.getResourceAsStream("/LTC_00000000_10mins_25fps_48000x8.wav"); var out = new FileOutputStream(ltcFile)) {
-                in.transferTo(out);
-            } catch (Exception e) {
-                log.error("Failed to extract LTC sound file", e);
-            }
+        if (mixer == null)
+            mixer = store.getMixerByName("");
+        try {
+            SourceDataLine line = (SourceDataLine) mixer.getLine(new DataLine.Info(SourceDataLine.class, OUTPUT_FORMAT));
+            line.open(OUTPUT_FORMAT, encoder.getMaxFrameBytes() * OUTPUT_FRAMES);
+            // the offset is on top of the measured latency
+            generator = new LtcGenerator(line, encoder, () -> latency.getDelay(Output.LTC) + offset * 1_000_000L);
+            Thread thread = new Thread(generator, "LTC generator");
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MAX_PRIORITY);
+            thread.start();
+        } catch (LineUnavailableException | IllegalArgumentException e) {
+            log.error("Failed to open LTC output", e);
         }
-        try (InputStream in = new BufferedInputStream(new FileInputStream(ltcFile))) {
-            stream = AudioSystem.getAudioInputStream(in);
-            AudioFormat format = stream.getFormat();
-            if (format.getEncoding() != AudioFormat.Encoding.PCM_SIGNED) {
-                format = new AudioFormat(AudioFormat.Encoding.PCM_SIGNED, format.getSampleRate(), format.getSampleSizeInBits() * 2, format.getChannels(), format.getFrameSize() * 2, format.getFrameRate(), true);
-                stream = AudioSystem.getAudioInputStream(format, stream);
-            }
-            var sourceInfo = new DataLine.Info(Clip.class, format, ((int) stream.getFrameLength() * format.getFrameSize()));
-            clip = (Clip) mixer.getLine(sourceInfo);
-            clip.flush();
-            clip.open(stream);
-        } catch (IOException | UnsupportedAudioFileException | LineUnavailableException e) {
-            log.error("Failed to open LTC sound file", e);
+    }
+
+    private void startInput(String input) {
+        Mixer inputMixer = store.getMixerByName(input);
+        try {
+            TargetDataLine line = (TargetDataLine) inputMixer.getLine(new DataLine.Info(TargetDataLine.class, INPUT_FORMAT));
+            line.open(INPUT_FORMAT);
+            line.start();
+            reader = new LtcReader(new AudioInputStream(line), chaser);
+            Thread thread = new Thread(reader, "LTC reader");
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MAX_PRIORITY);
+            thread.start();
+            log.info("Reading LTC from {}", inputMixer.getMixerInfo().getName());
+        } catch (LineUnavailableException | IllegalArgumentException e) {
+            log.error("Failed to open LTC input", e);
         }
     }
 
     public void start() {
         playing = true;
-        if (clip != null && isEnabled())
-            clip.start();
+        if (generator != null && isEnabled())
+            generator.start();
     }
 
     public void stop() {
-        if (clip != null && isEnabled())
-            clip.stop();
+        playing = false;
+        if (generator != null)
+            generator.stop();
     }
 
     public void setTime(Timecode time) {
-        clip.setMicrosecondPosition(time.getMillisecLength() * 1000 + offset * 1000L);
+        if (generator != null)
+            generator.seek();
+    }
+
+    /**
+     * Called by the clock every frame while playing.
+     *
+     * @param start the nanoTime the show started at
+     */
+    public void update(long start) {
+        if (generator != null)
+            generator.update(start);
     }
 
     @Override
     public void setEnabled(boolean value) {
-        if (isEnabled() && !value && clip != null)
-            clip.stop();
+        if (generator != null) {
+            if (value && playing)
+                generator.start();
+            else if (!value)
+                generator.stop();
+        }
         super.setEnabled(value);
     }
 
     @Override
-    public void shutdown() throws IOException {
+    public void shutdown() {
         log.info("Shutting down LTC...");
-        clip.close();
-        stream.close();
+        if (reader != null)
+            reader.stop();
+        if (generator != null)
+            generator.shutdown();
         mixer.close();
     }
 
@@ -97,6 +143,7 @@ public class LtcModule extends ToggleableModule {
         JsonObject data = new JsonObject();
         data.addProperty("enabled", isEnabled());
         data.addProperty("offset", offset);
+        data.addProperty("userBits", encoder.getUserBits());
         data.addProperty("mixer", mixer != null ? mixer.getMixerInfo().getName() : store.getMixerByName("").getMixerInfo().getName());
         return data;
     }
@@ -106,6 +153,8 @@ public class LtcModule extends ToggleableModule {
         var object = element.getAsJsonObject();
         setEnabled(object.get("enabled").getAsBoolean());
         offset = object.get("offset").getAsInt();
+        if (object.has("userBits"))
+            encoder.setUserBits(object.get("userBits").getAsInt());
         mixer = store.getMixerByName(object.get("mixer").getAsString());
     }
 
@@ -113,4 +162,10 @@ public class LtcModule extends ToggleableModule {
     public String getName() {
         return "ltc-timecode";
     }
+
+    // generated
+
+    public Mixer getMixer() {
+        return mixer;
+    }
 }
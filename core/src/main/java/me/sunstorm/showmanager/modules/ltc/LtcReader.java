@@ -0,0 +1,78 @@
+package me.sunstorm.showmanager.modules.ltc;
+
+import me.sunstorm.showmanager.clock.TimecodeChaser;
+import me.sunstorm.showmanager.util.Frames;
+import org.jetbrains.annotations.NotNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sound.sampled.AudioInputStream;
+import java.io.IOException;
+
+/**
+ * Reads PCM from an audio line (or a file) and feeds the decoded LTC to the {@link TimecodeChaser}. <br>
+ * The arrival time of a frame is computed from the position of its last sample in the read buffer, so the
+ * size of the buffer doesn't add jitter. Frames decoded from reverse playback aren't chased.
+ */
+public class LtcReader implements Runnable, LtcDecoder.FrameListener {
+    private static final Logger log = LoggerFactory.getLogger(LtcReader.class);
+    // ~10ms at 48kHz 16 bit mono
+    private static final int BUFFER_SIZE = 960;
+
+    private final AudioInputStream stream;
+    private final TimecodeChaser chaser;
+    private final LtcDecoder decoder;
+    private final byte[] buffer;
+    private final double nanosPerSample;
+    private volatile boolean running = true;
+    private long readTime;
+    private long readEnd;
+
+    public LtcReader(@NotNull AudioInputStream stream, @NotNull TimecodeChaser chaser) {
+        this.stream = stream;
+        this.chaser = chaser;
+        this.decoder = new LtcDecoder(stream.getFormat(), this);
+        int frameSize = stream.getFormat().getFrameSize();
+        this.buffer = new byte[BUFFER_SIZE / frameSize * frameSize];
+        this.nanosPerSample = 1_000_000_000.0 / stream.getFormat().getSampleRate();
+    }
+
+    @Override
+    public void run() {
+        try {
+            int read;
+            while (running && (read = stream.read(buffer, 0, buffer.length)) >= 0) {
+                readTime = System.nanoTime();
+                readEnd = decoder.getPosition() + read / stream.getFormat().getFrameSize();
+                decoder.decode(buffer, 0, read);
+            }
+        } catch (IOException e) {
+            if (running)
+                log.error("Failed to read LTC input", e);
+        }
+    }
+
+    @Override
+    public void onFrame(LtcDecoder decoder, long sample) {
+        if (decoder.isReverse())
+            return;
+        long arrival = readTime - (long) ((readEnd - sample) * nanosPerSample);
+        // the frame ended, the source is at the start of the next one
+        chaser.onTimecode(Frames.toNanos(decoder.getFrames() + 1, decoder.getFramerate()), arrival);
+    }
+
+    public void stop() {
+        running = false;
+        try {
+            stream.close();
+        } catch (IOException e) {
+            log.error("Failed to close LTC input", e);
+        }
+    }
+
+    // generated
+
+    public LtcDecoder getDecoder() {
+        return decoder;
+    }
+}
@@ -3,6 +3,7 @@ package me.sunstorm.showmanager.modules.remote;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import me.sunstorm.showmanager.Worker;
+import me.sunstorm.showmanager.dmx.DmxUniverseStore;
 import me.sunstorm.showmanager.eventsystem.EventBus;
 import me.sunstorm.showmanager.eventsystem.events.remote.DmxRemoteStateEvent;
 import me.sunstorm.showmanager.modules.Module;
@@ -29,19 +30,31 @@ public class DmxRemoteModule extends Module {
     @Nullable
     private Worker worker;
     private final Provider<Worker> workerProvider;
-    private DmxAddress address = new DmxAddress(0, 0, 0);
+    private final DmxUniverseStore store;
+    private DmxAddress address = new DmxAddress(0, 0, 1);
     private boolean enabled = false;
     private DmxRemoteState state = DmxRemoteState.DISABLED;
     private DmxRemoteState previousState = DmxRemoteState.DISABLED;
 
     @Inject
-    public DmxRemoteModule(EventBus bus, Provider<Worker> worker) {
+    public DmxRemoteModule(EventBus bus, Provider<Worker> worker, DmxUniverseStore store) {
         super(bus);
         this.workerProvider = worker;
+        this.store = store;
         load();
+        store.addListener(this::onUpdate);
     }
 
-    public void handleData(byte[] dmxData) {
+    // only the universe of the remote channel is read, when it's written
+    private void onUpdate(int portAddress) {
+        if (enabled && portAddress == address.portAddress())
+            update();
+    }
+
+    /**
+     * Reads the remote channel from the received DMX data.
+     */
+    public synchronized void update() {
         if (!enabled) {
             state = DmxRemoteState.DISABLED;
             return;
@@ -49,7 +62,7 @@ public class DmxRemoteModule extends Module {
         if (worker == null) {
             worker = workerProvider.get();
         }
-        byte value = dmxData[address.address() - 1];
+        int value = store.get(address.portAddress(), address.address() - 1);
         if (inToleratedRange(25, value)) {
             state = DmxRemoteState.FORCE_IDLE;
             if (state != previousState) {
@@ -91,7 +104,7 @@ public class DmxRemoteModule extends Module {
         }
     }
 
-    private boolean inToleratedRange(int origin, byte value) {
+    private boolean inToleratedRange(int origin, int value) {
         return value <= origin + TOLERANCE && value >= origin - TOLERANCE;
     }
 
@@ -103,6 +116,7 @@ public class DmxRemoteModule extends Module {
         data.addProperty("address", address.address());
         data.addProperty("universe", address.universe());
         data.addProperty("subnet", address.subnet());
+        data.addProperty("net", address.net());
         return data;
     }
 
@@ -110,7 +124,8 @@ public class DmxRemoteModule extends Module {
     public void onLoad(@NotNull JsonElement element) {
         var object = element.getAsJsonObject();
         enabled = object.get("enabled").getAsBoolean();
-        address = new DmxAddress(object.get("address").getAsInt(), object.get("universe").getAsInt(), object.get("subnet").getAsInt());
+        address = new DmxAddress(object.get("universe").getAsInt(), object.get("subnet").getAsInt(),
+                object.has("net") ? object.get("net").getAsInt() : 0, object.get("address").getAsInt());
     }
 
     @Override
@@ -0,0 +1,146 @@
+package me.sunstorm.showmanager.modules.remote;
+
+import com.google.gson.JsonObject;
+import me.sunstorm.showmanager.util.DmxAddress;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Fires an action when a DMX channel enters a level range. <br>
+ * The trigger is re-armed when the level leaves the range by more than the hysteresis, so a fader resting on the
+ * edge of the range doesn't fire over and over. Entering the range again within the debounce time only re-arms it.
+ */
+public class DmxTrigger {
+    private final DmxAddress address;
+    private final int min;
+    private final int max;
+    private final int hysteresis;
+    private final long debounce;
+    private final TriggerAction action;
+    @Nullable
+    private final String argument;
+    // guarded by the universe in the engine
+    private boolean active = false;
+    private boolean fired = false;
+    private long lastFired = 0;
+
+    /**
+     * @param min the lowest level of the range, 0 to 255
+     * @param max the highest level of the range, 0 to 255
+     * @param debounce the minimum time between two firings, in nanoseconds
+     * @param argument the marker label or the scheduled event id, if the action needs one
+     */
+    public DmxTrigger(@NotNull DmxAddress address, int min, int max, int hysteresis, long debounce, @NotNull TriggerAction action, @Nullable String argument) {
+        if (address.address() < 1 || address.address() > 512)
+            throw new IllegalArgumentException("Invalid DMX address: " + address.address());
+        if (address.net() < 0 || address.net() > 127)
+            throw new IllegalArgumentException("Invalid ArtNet net: " + address.net());
+        if (min < 0 || max > 255 || min > max)
+            throw new IllegalArgumentException("Invalid trigger range: " + min + "-" + max);
+        this.address = address;
+        this.min = min;
+        this.max = max;
+        this.hysteresis = Math.max(0, hysteresis);
+        this.debounce = debounce;
+        this.action = action;
+        this.argument = argument;
+    }
+
+    /**
+     * Evaluates a new level of the channel.
+     *
+     * @param now the current nanoTime
+     * @return whether the trigger fires
+     */
+    boolean update(int level, long now) {
+        if (active) {
+            if (level < min - hysteresis || level > max + hysteresis)
+                active = false;
+            return false;
+        }
+        if (level < min || level > max)
+            return false;
+        active = true;
+        if (fired && now - lastFired < debounce)
+            return false;
+        fired = true;
+        lastFired = now;
+        return true;
+    }
+
+    /**
+     * Forgets whether the trigger is in its range and when it last fired.
+     */
+    void reset() {
+        active = false;
+        fired = false;
+        lastFired = 0;
+    }
+
+    /**
+     * @return the channel of the trigger, starting from 0
+     */
+    int channel() {
+        return address.address() - 1;
+    }
+
+    public JsonObject toJson() {
+        JsonObject data = new JsonObject();
+        data.addProperty("universe", address.universe());
+        data.addProperty("subnet", address.subnet());
+        data.addProperty("net", address.net());
+        data.addProperty("address", address.address());
+        data.addProperty("min", min);
+        data.addProperty("max", max);
+        data.addProperty("hysteresis", hysteresis);
+        data.addProperty("debounce", debounce / 1_000_000);
+        data.addProperty("action", action.name());
+        if (argument != null)
+            data.addProperty("argument", argument);
+        return data;
+    }
+
+    public static DmxTrigger fromJson(@NotNull JsonObject data) {
+        return new DmxTrigger(
+                new DmxAddress(data.get("universe").getAsInt(), data.get("subnet").getAsInt(),
+                        data.has("net") ? data.get("net").getAsInt() : 0, data.get("address").getAsInt()),
+                data.get("min").getAsInt(),
+                data.has("max") ? data.get("max").getAsInt() : 255,
+                data.has("hysteresis") ? data.get("hysteresis").getAsInt() : 0,
+                data.has("debounce") ? data.get("debounce").getAsLong() * 1_000_000 : 0,
+                TriggerAction.valueOf(data.get("action").getAsString()),
+                data.has("argument") ? data.get("argument").getAsString() : null
+        );
+    }
+
+    // generated
+
+    public DmxAddress getAddress() {
+        return address;
+    }
+
+    public int getMin() {
+        return min;
+    }
+
+    public int getMax() {
+        return max;
+    }
+
+    public int getHysteresis() {
+        return hysteresis;
+    }
+
+    public long getDebounce() {
+        return debounce;
+    }
+
+    public TriggerAction getAction() {
+        return action;
+    }
+
+    @Nullable
+    public String getArgument() {
+        return argument;
+    }
+}
@@ -0,0 +1,122 @@
+package me.sunstorm.showmanager.modules.remote;
+
+import me.sunstorm.showmanager.dmx.DmxUniverseStore;
+import me.sunstorm.showmanager.dmx.UniverseListener;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Evaluates {@link DmxTrigger}s when their universe is written to the {@link DmxUniverseStore}, instead of polling
+ * every frame. <br>
+ * The watched universes and, per universe, the watched channels are bitmasks: a write to an unwatched universe
+ * costs one bit test, a watched one only reads the watched channels, and the triggers of a channel are only
+ * evaluated when its level changed. Triggers fire on the receiving thread, the action must only queue work.
+ */
+public class DmxTriggerEngine implements UniverseListener {
+    private final DmxUniverseStore store;
+    private final Consumer<DmxTrigger> action;
+    private volatile Table table = new Table(List.of());
+    private final LongAdder fired = new LongAdder();
+
+    /**
+     * @param action called with every fired trigger
+     */
+    public DmxTriggerEngine(@NotNull DmxUniverseStore store, @NotNull Consumer<DmxTrigger> action) {
+        this.store = store;
+        this.action = action;
+    }
+
+    /**
+     * Replaces the triggers, their state starts over.
+     */
+    public synchronized void setTriggers(@NotNull Collection<DmxTrigger> triggers) {
+        Table old = table;
+        for (DmxTrigger trigger : triggers) {
+            // the same instance may still be evaluated by the old table
+            WatchedUniverse universe = old.universes[trigger.getAddress().portAddress()];
+            if (universe == null) {
+                trigger.reset();
+                continue;
+            }
+            synchronized (universe) {
+                trigger.reset();
+            }
+        }
+        table = new Table(triggers);
+    }
+
+    @Override
+    public void onUpdate(int portAddress) {
+        Table table = this.table;
+        if ((table.watched[portAddress >>> 6] & 1L << portAddress) == 0)
+            return;
+        WatchedUniverse universe = table.universes[portAddress];
+        long now = System.nanoTime();
+        synchronized (universe) {
+            for (int word = 0; word < universe.slots.length; word++) {
+                long slots = universe.slots[word];
+                while (slots != 0) {
+                    int channel = word << 6 | Long.numberOfTrailingZeros(slots);
+                    slots &= slots - 1;
+                    int level = store.get(portAddress, channel);
+                    if (level == universe.levels[channel])
+                        continue;
+                    universe.levels[channel] = level;
+                    for (DmxTrigger trigger : universe.triggers[channel]) {
+                        if (trigger.update(level, now)) {
+                            fired.increment();
+                            action.accept(trigger);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the number of fired triggers
+     */
+    public long getFired() {
+        return fired.sum();
+    }
+
+    // immutable after construction, replaced as a whole
+    private static class Table {
+        private final long[] watched = new long[DmxUniverseStore.UNIVERSES >>> 6];
+        private final WatchedUniverse[] universes = new WatchedUniverse[DmxUniverseStore.UNIVERSES];
+
+        private Table(Collection<DmxTrigger> triggers) {
+            for (DmxTrigger trigger : triggers) {
+                int portAddress = trigger.getAddress().portAddress();
+                watched[portAddress >>> 6] |= 1L << portAddress;
+                if (universes[portAddress] == null)
+                    universes[portAddress] = new WatchedUniverse();
+                universes[portAddress].add(trigger);
+            }
+        }
+    }
+
+    private static class WatchedUniverse {
+        private final long[] slots = new long[DmxUniverseStore.CHANNELS >>> 6];
+        private final DmxTrigger[][] triggers = new DmxTrigger[DmxUniverseStore.CHANNELS][];
+        // the last evaluated levels, -1 until the first write
+        private final int[] levels = new int[DmxUniverseStore.CHANNELS];
+
+        private WatchedUniverse() {
+            Arrays.fill(levels, -1);
+        }
+
+        private void add(DmxTrigger trigger) {
+            int channel = trigger.channel();
+            slots[channel >>> 6] |= 1L << channel;
+            DmxTrigger[] current = triggers[channel] == null ? new DmxTrigger[0] : triggers[channel];
+            triggers[channel] = Arrays.copyOf(current, current.length + 1);
+            triggers[channel][current.length] = trigger;
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package me.sunstorm.showmanager.modules.remote;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import me.sunstorm.showmanager.Worker;
+import me.sunstorm.showmanager.dmx.DmxUniverseStore;
+import me.sunstorm.showmanager.eventsystem.EventBus;
+import me.sunstorm.showmanager.modules.ToggleableModule;
+import me.sunstorm.showmanager.modules.audio.AudioModule;
+import me.sunstorm.showmanager.modules.audio.marker.Marker;
+import me.sunstorm.showmanager.modules.scheduler.ScheduledEvent;
+import me.sunstorm.showmanager.modules.scheduler.SchedulerModule;
+import me.sunstorm.showmanager.transport.TransportCommand;
+import org.jetbrains.annotations.NotNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.inject.Inject;
+import javax.inject.Provider;
+import javax.inject.Singleton;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Controls the show from DMX channels: every {@link DmxTrigger} maps a level range of a channel to an action.
+ * The actions are queued to the {@link Worker}, so they are applied by the clock thread.
+ */
+@Singleton
+public class DmxTriggerModule extends ToggleableModule {
+    private static final Logger log = LoggerFactory.getLogger(DmxTriggerModule.class);
+
+    private final List<DmxTrigger> triggers = new CopyOnWriteArrayList<>();
+    private final Worker worker;
+    private final Provider<AudioModule> audioProvider;
+    private final Provider<SchedulerModule> schedulerProvider;
+    private final DmxUniverseStore store;
+    private final DmxTriggerEngine engine;
+
+    @Inject
+    public DmxTriggerModule(EventBus bus, Worker worker, Provider<AudioModule> audioProvider, Provider<SchedulerModule> schedulerProvider, DmxUniverseStore store) {
+        super(bus);
+        this.worker = worker;
+        this.audioProvider = audioProvider;
+        this.schedulerProvider = schedulerProvider;
+        this.store = store;
+        init();
+        engine = new DmxTriggerEngine(store, this::fire);
+        engine.setTriggers(triggers);
+        if (isEnabled())
+            store.addListener(engine);
+    }
+
+    private void fire(DmxTrigger trigger) {
+        log.info("DMX trigger {} at {}", trigger.getAction(), trigger.getAddress());
+        switch (trigger.getAction()) {
+            case PLAY -> worker.play();
+            case PAUSE -> worker.pause();
+            case STOP -> worker.stop();
+            case MARKER -> {
+                var track = audioProvider.get().getCurrent();
+                Marker marker = track == null ? null : track.getMarkers().stream()
+                        .filter(m -> m.getLabel().equals(trigger.getArgument()))
+                        .findFirst()
+                        .orElse(null);
+                if (marker == null) {
+                    log.warn("DMX trigger marker not found: {}", trigger.getArgument());
+                    return;
+                }
+                worker.setTime(marker.getTime());
+            }
+            case CUE -> {
+                ScheduledEvent event = schedulerProvider.get().getScheduledEvents().stream()
+                        .filter(e -> e.getId().toString().equals(trigger.getArgument()))
+                        .findFirst()
+                        .orElse(null);
+                if (event == null) {
+                    log.warn("DMX trigger cue not found: {}", trigger.getArgument());
+                    return;
+                }
+                worker.submit(new TransportCommand.Cue(event));
+            }
+        }
+    }
+
+    public void setTriggers(@NotNull List<DmxTrigger> triggers) {
+        this.triggers.clear();
+        this.triggers.addAll(triggers);
+        engine.setTriggers(this.triggers);
+    }
+
+    @Override
+    public void shutdown() {
+        store.removeListener(engine);
+    }
+
+    @NotNull
+    @Override
+    public JsonObject getData() {
+        JsonObject data = new JsonObject();
+        data.addProperty("enabled", isEnabled());
+        JsonArray array = new JsonArray();
+        triggers.forEach(t -> array.add(t.toJson()));
+        data.add("triggers", array);
+        return data;
+    }
+
+    @Override
+    public void onLoad(@NotNull JsonElement element) {
+        var object = element.getAsJsonObject();
+        setEnabled(object.get("enabled").getAsBoolean());
+        for (JsonElement trigger : object.get("triggers").getAsJsonArray()) {
+            try {
+                triggers.add(DmxTrigger.fromJson(trigger.getAsJsonObject()));
+            } catch (IllegalArgumentException e) {
+                log.error("Failed to load DMX trigger {}", trigger, e);
+            }
+        }
+    }
+
+    @Override
+    public String getName() {
+        return "dmx-triggers";
+    }
+
+    // generated
+
+    public List<DmxTrigger> getTriggers() {
+        return List.copyOf(triggers);
+    }
+
+    public DmxTriggerEngine getEngine() {
+        return engine;
+    }
+}
@@ -0,0 +1,18 @@
+package me.sunstorm.showmanager.modules.remote;
+
+/**
+ * What a {@link DmxTrigger} does when it fires.
+ */
+public enum TriggerAction {
+    PLAY,
+    PAUSE,
+    STOP,
+    /**
+     * Jumps to the marker of the current audio track named by the argument.
+     */
+    MARKER,
+    /**
+     * Executes the scheduled event with the id of the argument.
+     */
+    CUE
+}
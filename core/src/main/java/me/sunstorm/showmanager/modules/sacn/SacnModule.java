@@ -0,0 +1,175 @@
+package me.sunstorm.showmanager.modules.sacn;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import me.sunstorm.showmanager.dmx.DmxMergeEngine;
+import me.sunstorm.showmanager.dmx.DmxUniverseStore;
+import me.sunstorm.showmanager.eventsystem.EventBus;
+import me.sunstorm.showmanager.modules.ToggleableModule;
+import org.jetbrains.annotations.NotNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+
+/**
+ * Receives and sends DMX over sACN (E1.31), the multicast counterpart of the Art-Net module. <br>
+ * The received universes are merged into the {@link DmxUniverseStore} by the {@link DmxMergeEngine}, sACN universe 1
+ * being Port-Address 0, so a universe received over both protocols is merged too.
+ */
+@Singleton
+public class SacnModule extends ToggleableModule {
+    private static final Logger log = LoggerFactory.getLogger(SacnModule.class);
+
+    private InetAddress address;
+    private UUID cid = UUID.randomUUID();
+    private int priority = SacnPacket.DEFAULT_PRIORITY;
+    private long keepAlive = SacnSender.DEFAULT_KEEP_ALIVE;
+    private final Set<Integer> inputs = new TreeSet<>();
+    private final Set<Integer> outputs = new TreeSet<>();
+
+    private final SacnReceiver receiver;
+    private final SacnSender output;
+
+    @Inject
+    public SacnModule(EventBus eventBus, DmxMergeEngine engine) {
+        super(eventBus);
+        init();
+        receiver = new SacnReceiver(engine);
+        output = new SacnSender(cid, "ShowManager");
+        output.setPriority(priority);
+        output.setKeepAlive(keepAlive);
+        try {
+            outputs.forEach(output::addUniverse);
+        } catch (IllegalArgumentException e) {
+            log.error("Failed to load sACN outputs", e);
+        }
+        if (!isEnabled())
+            return;
+        try {
+            for (int universe : inputs) {
+                receiver.join(universe);
+            }
+            receiver.start(address, SacnPacket.PORT);
+        } catch (IOException | IllegalArgumentException e) {
+            log.error("Failed to start sACN receiver", e);
+        }
+        try {
+            output.open(address);
+        } catch (IOException e) {
+            log.error("Failed to open sACN output channel", e);
+        }
+    }
+
+    /**
+     * Sends the DMX output, called by the clock every frame.
+     */
+    public void sendDmx(long now) {
+        if (isEnabled())
+            output.send(now);
+    }
+
+    /**
+     * Starts receiving a universe.
+     *
+     * @param universe the sACN universe, starting from 1
+     */
+    public void addInput(int universe) throws IOException {
+        receiver.join(universe);
+        inputs.add(universe);
+    }
+
+    public void removeInput(int universe) {
+        receiver.leave(universe);
+        inputs.remove(universe);
+    }
+
+    /**
+     * Starts sending a universe, all channels at 0.
+     *
+     * @param universe the sACN universe, starting from 1
+     */
+    public void addOutput(int universe) {
+        output.addUniverse(universe);
+        outputs.add(universe);
+    }
+
+    public void removeOutput(int universe) {
+        output.removeUniverse(universe);
+        outputs.remove(universe);
+    }
+
+    @Override
+    public void shutdown() {
+        log.info("Shutting down sACN...");
+        receiver.stop();
+        try {
+            output.close();
+        } catch (IOException e) {
+            log.error("Failed to close sACN output channel", e);
+        }
+    }
+
+    @NotNull
+    @Override
+    public JsonObject getData() {
+        JsonObject data = new JsonObject();
+        data.addProperty("enabled", isEnabled());
+        data.addProperty("interface", address == null ? "0.0.0.0" : address.getHostAddress());
+        data.addProperty("cid", cid.toString());
+        data.addProperty("priority", priority);
+        data.addProperty("keepAlive", keepAlive / 1_000_000);
+        JsonArray inputArray = new JsonArray();
+        inputs.forEach(inputArray::add);
+        data.add("inputs", inputArray);
+        JsonArray outputArray = new JsonArray();
+        outputs.forEach(outputArray::add);
+        data.add("outputs", outputArray);
+        return data;
+    }
+
+    @Override
+    public void onLoad(@NotNull JsonElement element) {
+        var object = element.getAsJsonObject();
+        setEnabled(object.get("enabled").getAsBoolean());
+        try {
+            address = InetAddress.getByName(object.get("interface").getAsString());
+        } catch (UnknownHostException e) {
+            log.error("Failed to load sACN net interface", e);
+        }
+        // the CID identifies us to the receivers, so it's kept between runs
+        if (object.has("cid"))
+            cid = UUID.fromString(object.get("cid").getAsString());
+        if (object.has("priority"))
+            priority = object.get("priority").getAsInt();
+        if (object.has("keepAlive"))
+            keepAlive = object.get("keepAlive").getAsLong() * 1_000_000;
+        if (object.has("inputs"))
+            object.get("inputs").getAsJsonArray().forEach(e -> inputs.add(e.getAsInt()));
+        if (object.has("outputs"))
+            object.get("outputs").getAsJsonArray().forEach(e -> outputs.add(e.getAsInt()));
+    }
+
+    @Override
+    public String getName() {
+        return "sacn";
+    }
+
+    // generated
+
+    public SacnReceiver getReceiver() {
+        return receiver;
+    }
+
+    public SacnSender getOutput() {
+        return output;
+    }
+}
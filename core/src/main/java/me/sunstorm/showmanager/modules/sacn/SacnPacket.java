@@ -0,0 +1,180 @@
+package me.sunstorm.showmanager.modules.sacn;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+/**
+ * The layout of an E1.31 (sACN) data packet. <br>
+ * The fields are read and written in place by absolute index, so a received packet is never copied into an object.
+ */
+public final class SacnPacket {
+    public static final int PORT = 5568;
+    public static final int MIN_UNIVERSE = 1;
+    public static final int MAX_UNIVERSE = 63999;
+    public static final int DEFAULT_PRIORITY = 100;
+    public static final int MAX_PRIORITY = 200;
+    public static final int DMX_OFFSET = 126;
+    public static final int MAX_LENGTH = DMX_OFFSET + 512;
+
+    private static final byte[] IDENTIFIER = {0x41, 0x53, 0x43, 0x2d, 0x45, 0x31, 0x2e, 0x31, 0x37, 0x00, 0x00, 0x00};
+    private static final int VECTOR_ROOT_E131_DATA = 0x04;
+    private static final int VECTOR_E131_DATA_PACKET = 0x02;
+    private static final int VECTOR_DMP_SET_PROPERTY = 0x02;
+    private static final int CID = 22;
+    private static final int SOURCE_NAME = 44;
+    private static final int PRIORITY = 108;
+    private static final int SEQUENCE = 111;
+    private static final int OPTIONS = 112;
+    private static final int UNIVERSE = 113;
+    private static final int PROPERTY_COUNT = 123;
+    private static final int START_CODE = 125;
+    private static final int OPTION_TERMINATED = 0x40;
+    private static final int OPTION_PREVIEW = 0x80;
+
+    private SacnPacket() {
+    }
+
+    /**
+     * Checks the identifier and the vectors of a received packet.
+     *
+     * @param length the length of the datagram
+     */
+    public static boolean isData(@NotNull ByteBuffer packet, int length) {
+        if (length < DMX_OFFSET || length > MAX_LENGTH)
+            return false;
+        for (int i = 0; i < IDENTIFIER.length; i++) {
+            if (packet.get(4 + i) != IDENTIFIER[i])
+                return false;
+        }
+        return packet.getInt(18) == VECTOR_ROOT_E131_DATA && packet.getInt(40) == VECTOR_E131_DATA_PACKET
+                && packet.get(117) == VECTOR_DMP_SET_PROPERTY && DMX_OFFSET + slots(packet) <= length;
+    }
+
+    public static long cidMost(@NotNull ByteBuffer packet) {
+        return packet.getLong(CID);
+    }
+
+    public static long cidLeast(@NotNull ByteBuffer packet) {
+        return packet.getLong(CID + 8);
+    }
+
+    public static int priority(@NotNull ByteBuffer packet) {
+        return packet.get(PRIORITY) & 0xFF;
+    }
+
+    public static int sequence(@NotNull ByteBuffer packet) {
+        return packet.get(SEQUENCE) & 0xFF;
+    }
+
+    public static boolean isTerminated(@NotNull ByteBuffer packet) {
+        return (packet.get(OPTIONS) & OPTION_TERMINATED) != 0;
+    }
+
+    public static boolean isPreview(@NotNull ByteBuffer packet) {
+        return (packet.get(OPTIONS) & OPTION_PREVIEW) != 0;
+    }
+
+    public static int universe(@NotNull ByteBuffer packet) {
+        return packet.getShort(UNIVERSE) & 0xFFFF;
+    }
+
+    public static int startCode(@NotNull ByteBuffer packet) {
+        return packet.get(START_CODE) & 0xFF;
+    }
+
+    /**
+     * @return the number of DMX slots, without the start code
+     */
+    public static int slots(@NotNull ByteBuffer packet) {
+        return Math.max(0, (packet.getShort(PROPERTY_COUNT) & 0xFFFF) - 1);
+    }
+
+    /**
+     * Writes the whole header of a data packet with 512 slots and start code 0.
+     */
+    public static void writeHeader(@NotNull ByteBuffer packet, @NotNull UUID cid, @NotNull String sourceName, int priority, int universe) {
+        int length = MAX_LENGTH;
+        packet.putShort(0, (short) 0x0010);
+        packet.putShort(2, (short) 0);
+        packet.put(4, IDENTIFIER);
+        packet.putShort(16, flagsAndLength(length - 16));
+        packet.putInt(18, VECTOR_ROOT_E131_DATA);
+        packet.putLong(CID, cid.getMostSignificantBits());
+        packet.putLong(CID + 8, cid.getLeastSignificantBits());
+        packet.putShort(38, flagsAndLength(length - 38));
+        packet.putInt(40, VECTOR_E131_DATA_PACKET);
+        byte[] name = new byte[64];
+        byte[] encoded = sourceName.getBytes(StandardCharsets.UTF_8);
+        // null terminated
+        System.arraycopy(encoded, 0, name, 0, Math.min(encoded.length, 63));
+        packet.put(SOURCE_NAME, name);
+        packet.put(PRIORITY, (byte) priority);
+        packet.putShort(109, (short) 0);
+        packet.put(SEQUENCE, (byte) 0);
+        packet.put(OPTIONS, (byte) 0);
+        packet.putShort(UNIVERSE, (short) universe);
+        packet.putShort(115, flagsAndLength(length - 115));
+        packet.put(117, (byte) VECTOR_DMP_SET_PROPERTY);
+        packet.put(118, (byte) 0xa1);
+        packet.putShort(119, (short) 0);
+        packet.putShort(121, (short) 1);
+        packet.putShort(PROPERTY_COUNT, (short) 513);
+        packet.put(START_CODE, (byte) 0);
+    }
+
+    public static void setPriority(@NotNull ByteBuffer packet, int priority) {
+        packet.put(PRIORITY, (byte) priority);
+    }
+
+    public static void setSequence(@NotNull ByteBuffer packet, int sequence) {
+        packet.put(SEQUENCE, (byte) sequence);
+    }
+
+    public static void setTerminated(@NotNull ByteBuffer packet, boolean terminated) {
+        packet.put(OPTIONS, (byte) (terminated ? OPTION_TERMINATED : 0));
+    }
+
+    private static short flagsAndLength(int length) {
+        return (short) (0x7000 | length);
+    }
+
+    /**
+     * @return the multicast group of a universe, 239.255.hi.lo
+     */
+    public static InetAddress multicastGroup(int universe) {
+        try {
+            return InetAddress.getByAddress(new byte[] {(byte) 239, (byte) 255, (byte) (universe >> 8), (byte) universe});
+        } catch (UnknownHostException e) {
+            // can't happen with 4 bytes
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * sACN universe 1 is Port-Address 0, the usual mapping of consoles.
+     *
+     * @return the Port-Address of the universe in the store, or -1 if it's out of the Art-Net range
+     */
+    public static int portAddress(int universe) {
+        int portAddress = universe - 1;
+        return portAddress < 0 || portAddress >= 1 << 15 ? -1 : portAddress;
+    }
+
+    /**
+     * @return the sACN universe of a Port-Address
+     * @see #portAddress(int)
+     */
+    public static int universeOf(int portAddress) {
+        return portAddress + 1;
+    }
+
+    public static void checkUniverse(int universe) {
+        if (universe < MIN_UNIVERSE || universe > MAX_UNIVERSE)
+            throw new IllegalArgumentException("Invalid sACN universe: " + universe);
+    }
+}
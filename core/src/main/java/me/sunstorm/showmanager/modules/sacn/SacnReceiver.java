@@ -0,0 +1,240 @@
+package me.sunstorm.showmanager.modules.sacn;
+
+import me.sunstorm.showmanager.dmx.DmxMergeEngine;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.NetworkInterface;
+import java.net.SocketException;
+import java.net.StandardProtocolFamily;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.nio.channels.MembershipKey;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Receives sACN on a non-blocking multicast {@link DatagramChannel} and hands the packets to the {@link DmxMergeEngine},
+ * the sources being the CIDs. <br>
+ * Every universe joins its own multicast group, so the network only delivers the universes in use. Every time the
+ * selector wakes up, the queued datagrams are drained in a batch into one direct buffer, which is read in place.
+ */
+public class SacnReceiver implements Runnable {
+    private static final Logger log = LoggerFactory.getLogger(SacnReceiver.class);
+    public static final int DEFAULT_BATCH_SIZE = 64;
+
+    private final DmxMergeEngine engine;
+    private final Set<Integer> universes = new TreeSet<>();
+    // copied on write, read by the receive thread for every packet
+    private volatile boolean[] joined = new boolean[SacnPacket.MAX_UNIVERSE + 1];
+    private final Map<Integer, MembershipKey> memberships = new HashMap<>();
+    private DatagramChannel channel;
+    private Selector selector;
+    private NetworkInterface networkInterface;
+    private int batchSize = DEFAULT_BATCH_SIZE;
+    private volatile boolean running;
+    private long received = 0;
+
+    public SacnReceiver(@NotNull DmxMergeEngine engine) {
+        this.engine = engine;
+    }
+
+    /**
+     * Opens the channel and starts the receive thread, the universes joined before are joined on the network.
+     *
+     * @param address the interface to join the groups on, or null for the first multicast interface
+     * @param port the port, {@link SacnPacket#PORT} or 0 for an ephemeral one
+     */
+    public synchronized void start(@Nullable InetAddress address, int port) throws IOException {
+        if (channel != null)
+            throw new IllegalStateException("sACN receiver is already running");
+        networkInterface = findInterface(address);
+        try {
+            channel = DatagramChannel.open(StandardProtocolFamily.INET);
+            channel.setOption(StandardSocketOptions.SO_REUSEADDR, true);
+            // multicast is only delivered to the wildcard address
+            channel.bind(new InetSocketAddress(port));
+            if (networkInterface != null)
+                channel.setOption(StandardSocketOptions.IP_MULTICAST_IF, networkInterface);
+            channel.configureBlocking(false);
+            selector = Selector.open();
+            channel.register(selector, SelectionKey.OP_READ);
+        } catch (IOException e) {
+            close();
+            channel = null;
+            throw e;
+        }
+        for (int universe : universes) {
+            joinGroup(universe);
+        }
+        running = true;
+        Thread thread = new Thread(this, "sACN Receiver");
+        thread.setDaemon(true);
+        thread.start();
+        log.info("sACN receiver started on port {}", getPort());
+    }
+
+    @Nullable
+    private static NetworkInterface findInterface(@Nullable InetAddress address) throws SocketException {
+        if (address != null && !address.isAnyLocalAddress())
+            return NetworkInterface.getByInetAddress(address);
+        return NetworkInterface.networkInterfaces()
+                .filter(SacnReceiver::isMulticast)
+                .findFirst()
+                .orElse(null);
+    }
+
+    private static boolean isMulticast(NetworkInterface networkInterface) {
+        try {
+            return networkInterface.isUp() && networkInterface.supportsMulticast() && !networkInterface.isLoopback();
+        } catch (SocketException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Starts receiving a universe.
+     *
+     * @throws IllegalArgumentException if the universe is invalid or out of the Port-Address range
+     */
+    public synchronized void join(int universe) throws IOException {
+        SacnPacket.checkUniverse(universe);
+        if (SacnPacket.portAddress(universe) < 0)
+            throw new IllegalArgumentException("sACN universe has no Port-Address: " + universe);
+        setJoined(universe, true);
+        if (universes.add(universe) && channel != null)
+            joinGroup(universe);
+    }
+
+    public synchronized void leave(int universe) {
+        SacnPacket.checkUniverse(universe);
+        setJoined(universe, false);
+        universes.remove(universe);
+        MembershipKey key = memberships.remove(universe);
+        if (key != null)
+            key.drop();
+    }
+
+    private void setJoined(int universe, boolean value) {
+        boolean[] updated = Arrays.copyOf(joined, joined.length);
+        updated[universe] = value;
+        joined = updated;
+    }
+
+    private void joinGroup(int universe) throws IOException {
+        if (networkInterface == null) {
+            log.warn("No multicast interface to join sACN universe {}", universe);
+            return;
+        }
+        memberships.put(universe, channel.join(SacnPacket.multicastGroup(universe), networkInterface));
+    }
+
+    public synchronized Set<Integer> getUniverses() {
+        return Set.copyOf(universes);
+    }
+
+    @Override
+    public void run() {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(1024);
+        try {
+            while (running) {
+                selector.select();
+                selector.selectedKeys().clear();
+                for (int i = 0; i < batchSize && running; i++) {
+                    buffer.clear();
+                    if (channel.receive(buffer) == null)
+                        break;
+                    received++;
+                    onPacket(buffer, buffer.position(), System.nanoTime());
+                }
+            }
+        } catch (IOException e) {
+            if (running)
+                log.error("sACN receive failed", e);
+        } finally {
+            close();
+            log.info("sACN receiver stopped");
+        }
+    }
+
+    /**
+     * Merges a received packet of a joined universe.
+     *
+     * @param packet the datagram, from index 0
+     * @param length the length of the datagram
+     * @param now the nanoTime of the packet
+     * @return whether the packet was accepted
+     */
+    public boolean onPacket(@NotNull ByteBuffer packet, int length, long now) {
+        if (!SacnPacket.isData(packet, length) || SacnPacket.isPreview(packet))
+            return false;
+        int universe = SacnPacket.universe(packet);
+        // per address priority (0xDD) and other alternate start codes aren't supported
+        if (universe > SacnPacket.MAX_UNIVERSE || !joined[universe] || SacnPacket.startCode(packet) != 0)
+            return false;
+        int portAddress = SacnPacket.portAddress(universe);
+        if (SacnPacket.isTerminated(packet)) {
+            engine.removeSource(portAddress, SacnPacket.cidMost(packet), SacnPacket.cidLeast(packet));
+            return true;
+        }
+        return engine.submit(portAddress, SacnPacket.cidMost(packet), SacnPacket.cidLeast(packet), SacnPacket.priority(packet),
+                SacnPacket.sequence(packet), packet, SacnPacket.DMX_OFFSET, SacnPacket.slots(packet), now);
+    }
+
+    public void stop() {
+        running = false;
+        // the receive thread closes the channel
+        if (selector != null)
+            selector.wakeup();
+    }
+
+    private void close() {
+        try {
+            if (selector != null)
+                selector.close();
+            if (channel != null)
+                channel.close();
+        } catch (IOException e) {
+            log.warn("Failed to close sACN channel", e);
+        }
+    }
+
+    /**
+     * @param batchSize the maximum number of datagrams handled per selector wakeup
+     */
+    public void setBatchSize(int batchSize) {
+        this.batchSize = Math.max(1, batchSize);
+    }
+
+    /**
+     * @return the bound port, -1 if not started
+     */
+    public int getPort() {
+        try {
+            return channel == null ? -1 : ((InetSocketAddress) channel.getLocalAddress()).getPort();
+        } catch (IOException e) {
+            return -1;
+        }
+    }
+
+    // generated
+
+    public long getReceived() {
+        return received;
+    }
+
+    public DmxMergeEngine getEngine() {
+        return engine;
+    }
+}
@@ -0,0 +1,276 @@
+package me.sunstorm.showmanager.modules.sacn;
+
+import me.sunstorm.showmanager.dmx.DmxUniverseStore;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.NetworkInterface;
+import java.net.StandardProtocolFamily;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.util.Arrays;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Sends sACN universes to their multicast groups on the show clock. <br>
+ * Works like the Art-Net {@link me.sunstorm.showmanager.modules.artnet.DmxOutputEngine}: levels can be set from any
+ * thread, {@link #send(long)} sends the changed universes every frame and the unchanged ones once per keep-alive
+ * period, from a preallocated packet per universe. Closing terminates the streams, so receivers release the universes
+ * right away instead of waiting for the timeout.
+ */
+public class SacnSender implements Closeable {
+    private static final Logger log = LoggerFactory.getLogger(SacnSender.class);
+    public static final long DEFAULT_KEEP_ALIVE = 1_000_000_000L;
+
+    private final UUID cid;
+    private final String sourceName;
+    private final int port;
+    private volatile OutputUniverse[] universes = new OutputUniverse[0];
+    private volatile int priority = SacnPacket.DEFAULT_PRIORITY;
+    private volatile long keepAlive = DEFAULT_KEEP_ALIVE;
+    private DatagramChannel channel;
+    private long sent = 0;
+    private long dropped = 0;
+    private long errors = 0;
+
+    /**
+     * @param cid the component identifier, it should stay the same between runs
+     */
+    public SacnSender(@NotNull UUID cid, @NotNull String sourceName) {
+        this(cid, sourceName, SacnPacket.PORT);
+    }
+
+    public SacnSender(@NotNull UUID cid, @NotNull String sourceName, int port) {
+        this.cid = cid;
+        this.sourceName = sourceName;
+        this.port = port;
+    }
+
+    /**
+     * Opens the sending channel on an ephemeral port.
+     *
+     * @param address the interface to send the multicast on, or null for the default
+     */
+    public void open(@Nullable InetAddress address) throws IOException {
+        DatagramChannel channel = DatagramChannel.open(StandardProtocolFamily.INET);
+        try {
+            channel.bind(new InetSocketAddress(address, 0));
+            NetworkInterface networkInterface = address == null ? null : NetworkInterface.getByInetAddress(address);
+            if (networkInterface != null)
+                channel.setOption(StandardSocketOptions.IP_MULTICAST_IF, networkInterface);
+            // never stall the clock on a full send buffer
+            channel.configureBlocking(false);
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+        this.channel = channel;
+    }
+
+    /**
+     * Sends the changed universes and the ones due for a keep-alive.
+     *
+     * @param now the current nanoTime
+     */
+    public void send(long now) {
+        if (channel == null)
+            return;
+        for (OutputUniverse universe : universes) {
+            boolean changed = universe.dirty.getAndSet(false);
+            if (!changed && now - universe.lastSent < keepAlive)
+                continue;
+            universe.prepare(changed, priority);
+            universe.lastSent = now;
+            write(universe);
+        }
+    }
+
+    private void write(OutputUniverse universe) {
+        try {
+            if (channel.send(universe.buffer.clear(), universe.target) == 0)
+                dropped++;
+            else
+                sent++;
+        } catch (IOException e) {
+            if (errors++ == 0)
+                log.warn("Failed to send sACN universe {}", universe.universe, e);
+        }
+    }
+
+    /**
+     * Adds a universe to the output, all channels at 0.
+     *
+     * @param universe the sACN universe, starting from 1
+     * @param target where the universe is sent, or null for its multicast group
+     */
+    public synchronized void addUniverse(int universe, @Nullable InetAddress target) {
+        SacnPacket.checkUniverse(universe);
+        if (find(universe) != null)
+            return;
+        OutputUniverse[] current = universes;
+        OutputUniverse[] updated = Arrays.copyOf(current, current.length + 1);
+        updated[current.length] = new OutputUniverse(universe, new InetSocketAddress(target == null ? SacnPacket.multicastGroup(universe) : target, port));
+        universes = updated;
+    }
+
+    public void addUniverse(int universe) {
+        addUniverse(universe, null);
+    }
+
+    public synchronized void removeUniverse(int universe) {
+        OutputUniverse removed = find(universe);
+        if (removed == null)
+            return;
+        universes = Arrays.stream(universes).filter(u -> u != removed).toArray(OutputUniverse[]::new);
+        terminate(removed);
+    }
+
+    /**
+     * Sets the levels of consecutive channels, they are sent on the next frame.
+     *
+     * @param channel the first channel, starting from 0
+     * @throws IllegalArgumentException if the universe isn't output
+     */
+    public void set(int universe, int channel, byte[] values, int offset, int length) {
+        OutputUniverse output = find(universe);
+        if (output == null)
+            throw new IllegalArgumentException("Universe isn't output: " + universe);
+        System.arraycopy(values, offset, output.levels, channel, length);
+        output.dirty.set(true);
+    }
+
+    /**
+     * @see #set(int, int, byte[], int, int)
+     */
+    public void set(int universe, int channel, int value) {
+        OutputUniverse output = find(universe);
+        if (output == null)
+            throw new IllegalArgumentException("Universe isn't output: " + universe);
+        output.levels[channel] = (byte) value;
+        output.dirty.set(true);
+    }
+
+    /**
+     * @return the level set for the channel, starting from 0
+     */
+    public int get(int universe, int channel) {
+        OutputUniverse output = find(universe);
+        if (output == null)
+            throw new IllegalArgumentException("Universe isn't output: " + universe);
+        return output.levels[channel] & 0xFF;
+    }
+
+    public boolean isOutput(int universe) {
+        return find(universe) != null;
+    }
+
+    @Nullable
+    private OutputUniverse find(int universe) {
+        for (OutputUniverse output : universes) {
+            if (output.universe == universe)
+                return output;
+        }
+        return null;
+    }
+
+    // the spec asks for three packets with the stream terminated option
+    private void terminate(OutputUniverse universe) {
+        if (channel == null)
+            return;
+        SacnPacket.setTerminated(universe.buffer, true);
+        for (int i = 0; i < 3; i++) {
+            universe.prepare(false, priority);
+            write(universe);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (channel == null)
+            return;
+        for (OutputUniverse universe : universes) {
+            terminate(universe);
+        }
+        channel.close();
+    }
+
+    /**
+     * @param priority the priority of the sent universes, 0 to 200
+     */
+    public void setPriority(int priority) {
+        if (priority < 0 || priority > SacnPacket.MAX_PRIORITY)
+            throw new IllegalArgumentException("Invalid sACN priority: " + priority);
+        this.priority = priority;
+    }
+
+    public void setKeepAlive(long keepAlive) {
+        this.keepAlive = keepAlive;
+    }
+
+    public int[] getUniverses() {
+        return Arrays.stream(universes).mapToInt(u -> u.universe).toArray();
+    }
+
+    // generated
+
+    public UUID getCid() {
+        return cid;
+    }
+
+    public String getSourceName() {
+        return sourceName;
+    }
+
+    public int getPriority() {
+        return priority;
+    }
+
+    public long getKeepAlive() {
+        return keepAlive;
+    }
+
+    public long getSent() {
+        return sent;
+    }
+
+    public long getDropped() {
+        return dropped;
+    }
+
+    public long getErrors() {
+        return errors;
+    }
+
+    private class OutputUniverse {
+        private final int universe;
+        private final InetSocketAddress target;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(SacnPacket.MAX_LENGTH);
+        // written by the setters, copied into the packet by the clock thread
+        private final byte[] levels = new byte[DmxUniverseStore.CHANNELS];
+        private final AtomicBoolean dirty = new AtomicBoolean(true);
+        private long lastSent = 0;
+        private int sequence = 0;
+
+        private OutputUniverse(int universe, InetSocketAddress target) {
+            this.universe = universe;
+            this.target = target;
+            SacnPacket.writeHeader(buffer, cid, sourceName, priority, universe);
+        }
+
+        private void prepare(boolean changed, int priority) {
+            if (changed)
+                buffer.put(SacnPacket.DMX_OFFSET, levels);
+            SacnPacket.setPriority(buffer, priority);
+            sequence = (sequence + 1) & 0xFF;
+            SacnPacket.setSequence(buffer, sequence);
+        }
+    }
+}
@@ -5,6 +5,8 @@ import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 
 import me.sunstorm.showmanager.Constants;
+import me.sunstorm.showmanager.clock.LatencyCompensator;
+import me.sunstorm.showmanager.clock.Output;
 import me.sunstorm.showmanager.eventsystem.EventBus;
 import me.sunstorm.showmanager.eventsystem.EventCall;
 import me.sunstorm.showmanager.eventsystem.EventPriority;
@@ -14,7 +16,10 @@ import me.sunstorm.showmanager.eventsystem.events.time.TimecodeChangeEvent;
 import me.sunstorm.showmanager.eventsystem.events.time.TimecodeSetEvent;
 import me.sunstorm.showmanager.eventsystem.events.time.TimecodeStopEvent;
 import me.sunstorm.showmanager.modules.ToggleableModule;
-import me.sunstorm.showmanager.util.Timecode;
+import me.sunstorm.showmanager.modules.scheduler.impl.ScheduledDmxEvent;
+import me.sunstorm.showmanager.modules.scheduler.impl.ScheduledOscEvent;
+import me.sunstorm.showmanager.util.Framerate;
+import me.sunstorm.showmanager.util.Frames;
 import org.jetbrains.annotations.NotNull;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -28,6 +33,7 @@ import java.util.concurrent.CopyOnWriteArrayList;
 /**
  * This class handles the scheduled events:<br>
  *  - OSC packet dispatch<br>
+ *  - DMX output levels<br>
  *  - Internal actions (jump, pause, stop)
  */
 @Singleton
@@ -35,11 +41,13 @@ public class SchedulerModule extends ToggleableModule {
     private static final Logger log = LoggerFactory.getLogger(SchedulerModule.class);
 
     private final List<ScheduledEvent> scheduledEvents = new CopyOnWriteArrayList<>();
+    private final LatencyCompensator latency;
     private int lastIndex = -1;
 
     @Inject
-    public SchedulerModule(EventBus bus) {
+    public SchedulerModule(EventBus bus, LatencyCompensator latency) {
         super(bus);
+        this.latency = latency;
         init();
         scheduledEvents.sort(Comparator.comparing(ScheduledEvent::getExecuteTime));
     }
@@ -61,10 +69,15 @@ public class SchedulerModule extends ToggleableModule {
     @EventCall(EventPriority.LOWEST)
     public void onTimeChange(TimecodeChangeEvent e) {
         if (!isEnabled() || scheduledEvents.isEmpty() || lastIndex + 1 == scheduledEvents.size()) return;
-        Timecode current = e.getTime();
+        long current = e.getFrames();
+        Framerate framerate = e.getFramerate();
+        // OSC and DMX are dispatched early by their latency, internal actions run on time
+        long osc = Frames.fromNanos(e.getNanos() + latency.getDelay(Output.OSC), framerate);
+        long dmx = Frames.fromNanos(e.getNanos() + latency.getDelay(Output.ARTNET), framerate);
 
         for (ScheduledEvent event : scheduledEvents) {
-            if (event.getExecuteTime().equals(current)) {
+            long due = event instanceof ScheduledOscEvent ? osc : event instanceof ScheduledDmxEvent ? dmx : current;
+            if (event.getExecuteTime().framesIn(framerate) == due) {
                 log.info("Executing scheduled event: {}", event.getType());
                 new SchedulerExecuteEvent(event).call(eventBus);
                 event.execute();
@@ -0,0 +1,58 @@
+package me.sunstorm.showmanager.modules.scheduler.impl;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import me.sunstorm.showmanager.modules.artnet.ArtNetModule;
+import me.sunstorm.showmanager.modules.sacn.SacnModule;
+import me.sunstorm.showmanager.modules.sacn.SacnPacket;
+import me.sunstorm.showmanager.modules.scheduler.AbstractScheduledEvent;
+import me.sunstorm.showmanager.util.Timecode;
+
+import javax.inject.Inject;
+import java.util.UUID;
+
+/**
+ * Sets the levels of consecutive channels of an output universe, on Art-Net and on sACN if it outputs the universe.
+ */
+public class ScheduledDmxEvent extends AbstractScheduledEvent {
+    private final int universe;
+    private final int channel;
+    private final byte[] values;
+    @Inject private ArtNetModule artNetModule;
+    @Inject private SacnModule sacnModule;
+
+    /**
+     * @param universe the Port-Address
+     * @param channel the first channel, starting from 1
+     */
+    public ScheduledDmxEvent(Timecode executeTime, int universe, int channel, byte[] values, UUID id) {
+        super(executeTime, "dmx", id);
+        this.universe = universe;
+        this.channel = channel;
+        this.values = values;
+    }
+
+    @Override
+    public JsonObject getData() {
+        JsonObject data = super.getData();
+        data.addProperty("universe", universe);
+        data.addProperty("channel", channel);
+        JsonArray array = new JsonArray();
+        for (byte value : values) {
+            array.add(value & 0xFF);
+        }
+        data.add("values", array);
+        return data;
+    }
+
+    @Override
+    public void execute() {
+        int sacnUniverse = SacnPacket.universeOf(universe);
+        boolean sacn = sacnModule.getOutput().isOutput(sacnUniverse);
+        if (sacn)
+            sacnModule.getOutput().set(sacnUniverse, channel - 1, values, 0, values.length);
+        // Art-Net reports the universe if nothing outputs it
+        if (!sacn || artNetModule.getOutput().isOutput(universe))
+            artNetModule.getOutput().set(universe, channel - 1, values, 0, values.length);
+    }
+}
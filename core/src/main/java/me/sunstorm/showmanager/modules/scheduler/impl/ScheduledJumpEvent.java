@@ -27,6 +27,6 @@ public class ScheduledJumpEvent extends AbstractScheduledEvent {
 
     @Override
     public void execute() {
-        worker.setTime(jumpTo.copy());
+        worker.setTime(jumpTo);
     }
 }
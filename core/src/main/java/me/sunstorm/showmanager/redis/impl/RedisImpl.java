@@ -1,7 +1,5 @@
 package me.sunstorm.showmanager.redis.impl;
 
-import me.sunstorm.showmanager.redis.converter.Converter;
-import me.sunstorm.showmanager.redis.converter.GzipConverter;
 import me.sunstorm.showmanager.redis.MessageHandler;
 import me.sunstorm.showmanager.redis.PubSubListener;
 import me.sunstorm.showmanager.redis.Redis;
@@ -98,8 +96,8 @@ public class RedisImpl implements Redis, Terminable {
             log.warn("Tried to send unknown message type: {}", message.getClass().getSimpleName());
             return;
         }
-        Converter<T> converter = new GzipConverter<>(handler.getConverter());
-        byte[] data = converter.encode(message);
+        // compressing is up to the converter, most messages are too small to gain from it
+        byte[] data = handler.getConverter().encode(message);
         sendQueue.offer(new Tuple<>(handler.getChannel().getBytes(StandardCharsets.UTF_8), data));
     }
 
@@ -110,7 +108,7 @@ public class RedisImpl implements Redis, Terminable {
         }
         MessageHandler<T> handler = (MessageHandler<T>) handlers.get(channel);
         try {
-            T data = new GzipConverter<>(handler.getConverter()).decode(message);
+            T data = handler.getConverter().decode(message);
             handler.handleMessage(data);
         } catch (Exception e) {
             log.error("Failed to handle redis message", e);
@@ -0,0 +1,42 @@
+package me.sunstorm.showmanager.settings.config;
+
+public class ArtNetConfig {
+    private int receiveBufferSize = 1 << 20;
+    private int sendBufferSize = 0;
+    private int timecodeDscp = 46;
+    private int receiveThreadPriority = Thread.MAX_PRIORITY;
+    private String affinityCommand = "";
+
+    /**
+     * @return SO_RCVBUF of the ArtNet socket in bytes, 0 for the default of the OS
+     */
+    public int getReceiveBufferSize() {
+        return receiveBufferSize;
+    }
+
+    /**
+     * @return SO_SNDBUF of the ArtNet sockets in bytes, 0 for the default of the OS
+     */
+    public int getSendBufferSize() {
+        return sendBufferSize;
+    }
+
+    /**
+     * @return the DSCP of the timecode packets, 46 (EF) by default, -1 to leave them unmarked
+     */
+    public int getTimecodeDscp() {
+        return timecodeDscp;
+    }
+
+    public int getReceiveThreadPriority() {
+        return receiveThreadPriority;
+    }
+
+    /**
+     * @return the command pinning the receive thread to a CPU, like {@code taskset -p -c 3 {tid}}, empty for none
+     * @see me.sunstorm.showmanager.util.ThreadAffinity
+     */
+    public String getAffinityCommand() {
+        return affinityCommand;
+    }
+}
@@ -0,0 +1,36 @@
+package me.sunstorm.showmanager.settings.config;
+
+import me.sunstorm.showmanager.clock.ChaseSource;
+
+public class ChaseConfig {
+    private ChaseSource source = ChaseSource.NONE;
+    private int freewheelMillis = 1000;
+    private int relockMillis = 100;
+    private int lockThresholdMicros = 4000;
+    private double phaseGain = 0.1;
+    private double frequencyGain = 0.0025;
+
+    public ChaseSource getSource() {
+        return source;
+    }
+
+    public int getFreewheelMillis() {
+        return freewheelMillis;
+    }
+
+    public int getRelockMillis() {
+        return relockMillis;
+    }
+
+    public int getLockThresholdMicros() {
+        return lockThresholdMicros;
+    }
+
+    public double getPhaseGain() {
+        return phaseGain;
+    }
+
+    public double getFrequencyGain() {
+        return frequencyGain;
+    }
+}
@@ -0,0 +1,16 @@
+package me.sunstorm.showmanager.settings.config;
+
+import me.sunstorm.showmanager.clock.WaitStrategyType;
+
+public class ClockConfig {
+    private WaitStrategyType waitStrategy = WaitStrategyType.SPIN_PARK;
+    private int spinThresholdMicros = 500;
+
+    public WaitStrategyType getWaitStrategy() {
+        return waitStrategy;
+    }
+
+    public int getSpinThresholdMicros() {
+        return spinThresholdMicros;
+    }
+}
@@ -1,19 +1,56 @@
 package me.sunstorm.showmanager.settings.config;
 
+import java.util.Map;
+
 public class Config {
     private int framerate = 25;
+    private ClockConfig clockConfig = new ClockConfig();
+    private ChaseConfig chaseConfig = new ChaseConfig();
+    private LatencyConfig latencyConfig = new LatencyConfig();
     private LtcConfig ltcConfig = new LtcConfig();
+    private MergeConfig mergeConfig = new MergeConfig();
+    private ArtNetConfig artNetConfig = new ArtNetConfig();
     private RedisConfig redisConfig = new RedisConfig();
+    private Map<String, LaneConfig> eventLanes = LaneConfig.defaults();
+    private TraceConfig traceConfig = new TraceConfig();
 
     public int getFramerate() {
         return framerate;
     }
 
+    public ClockConfig getClockConfig() {
+        return clockConfig;
+    }
+
+    public ChaseConfig getChaseConfig() {
+        return chaseConfig;
+    }
+
+    public LatencyConfig getLatencyConfig() {
+        return latencyConfig;
+    }
+
     public LtcConfig getLtcConfig() {
         return ltcConfig;
     }
 
+    public MergeConfig getMergeConfig() {
+        return mergeConfig;
+    }
+
+    public ArtNetConfig getArtNetConfig() {
+        return artNetConfig;
+    }
+
     public RedisConfig getRedisConfig() {
         return redisConfig;
     }
+
+    public Map<String, LaneConfig> getEventLanes() {
+        return eventLanes;
+    }
+
+    public TraceConfig getTraceConfig() {
+        return traceConfig;
+    }
 }
@@ -0,0 +1,39 @@
+package me.sunstorm.showmanager.settings.config;
+
+import me.sunstorm.showmanager.eventsystem.LanePolicy;
+
+import java.util.HashMap;
+import java.util.Map;
+
+public class LaneConfig {
+    private int capacity = 1024;
+    private LanePolicy policy = LanePolicy.BLOCK;
+
+    public LaneConfig() {
+    }
+
+    public LaneConfig(int capacity, LanePolicy policy) {
+        this.capacity = capacity;
+        this.policy = policy;
+    }
+
+    /**
+     * @return the lanes of a new config: async for {@code call(true, event)}, realtime, io and ui
+     */
+    public static Map<String, LaneConfig> defaults() {
+        Map<String, LaneConfig> lanes = new HashMap<>();
+        lanes.put("async", new LaneConfig(1024, LanePolicy.BLOCK));
+        lanes.put("realtime", new LaneConfig(256, LanePolicy.DROP_OLDEST));
+        lanes.put("io", new LaneConfig(1024, LanePolicy.BLOCK));
+        lanes.put("ui", new LaneConfig(256, LanePolicy.COALESCE));
+        return lanes;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public LanePolicy getPolicy() {
+        return policy;
+    }
+}
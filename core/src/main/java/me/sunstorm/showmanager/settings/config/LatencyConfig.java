@@ -0,0 +1,24 @@
+package me.sunstorm.showmanager.settings.config;
+
+public class LatencyConfig {
+    private int ltcMicros = 0;
+    private int artNetMicros = 0;
+    private int audioMicros = 0;
+    private int oscMicros = 0;
+
+    public int getLtcMicros() {
+        return ltcMicros;
+    }
+
+    public int getArtNetMicros() {
+        return artNetMicros;
+    }
+
+    public int getAudioMicros() {
+        return audioMicros;
+    }
+
+    public int getOscMicros() {
+        return oscMicros;
+    }
+}
@@ -3,6 +3,7 @@ package me.sunstorm.showmanager.settings.config;
 public class LtcConfig {
     private boolean enabled = false;
     private String ltcOutput = "";
+    private String ltcInput = "";
 
     public boolean isEnabled() {
         return enabled;
@@ -11,4 +12,8 @@ public class LtcConfig {
     public String getLtcOutput() {
         return ltcOutput;
     }
+
+    public String getLtcInput() {
+        return ltcInput;
+    }
 }
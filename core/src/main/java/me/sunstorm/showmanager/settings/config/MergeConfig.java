@@ -0,0 +1,27 @@
+package me.sunstorm.showmanager.settings.config;
+
+import me.sunstorm.showmanager.dmx.MergeMode;
+
+import java.util.HashMap;
+import java.util.Map;
+
+public class MergeConfig {
+    private MergeMode mode = MergeMode.HTP;
+    private Map<Integer, MergeMode> universes = new HashMap<>();
+    private int timeoutMillis = 2500;
+
+    public MergeMode getMode() {
+        return mode;
+    }
+
+    /**
+     * @return the merge mode of the Port-Addresses not merged by the default mode
+     */
+    public Map<Integer, MergeMode> getUniverses() {
+        return universes;
+    }
+
+    public int getTimeoutMillis() {
+        return timeoutMillis;
+    }
+}
@@ -0,0 +1,27 @@
+package me.sunstorm.showmanager.settings.config;
+
+import me.sunstorm.showmanager.eventsystem.EventTracer;
+
+public class TraceConfig {
+    private boolean enabled = false;
+    private double budget = EventTracer.DEFAULT_BUDGET;
+    private int history = EventTracer.DEFAULT_HISTORY;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * @return the fraction of the frame period an event listener may take
+     */
+    public double getBudget() {
+        return budget;
+    }
+
+    /**
+     * @return the number of dispatches kept for post-mortem
+     */
+    public int getHistory() {
+        return history;
+    }
+}
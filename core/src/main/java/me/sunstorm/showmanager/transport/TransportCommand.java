@@ -0,0 +1,42 @@
+package me.sunstorm.showmanager.transport;
+
+import me.sunstorm.showmanager.modules.scheduler.ScheduledEvent;
+import me.sunstorm.showmanager.util.Timecode;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Commands accepted by the transport. They can be submitted from any thread,
+ * but they are only applied by the clock thread, in submission order.
+ */
+public sealed interface TransportCommand {
+    Play PLAY = new Play();
+    Pause PAUSE = new Pause();
+    Stop STOP = new Stop();
+
+    record Play() implements TransportCommand {
+    }
+
+    record Pause() implements TransportCommand {
+    }
+
+    record Stop() implements TransportCommand {
+    }
+
+    /**
+     * Jumps to an absolute time.
+     */
+    record Locate(@NotNull Timecode time) implements TransportCommand {
+    }
+
+    /**
+     * Jumps relative to the time at which the command is applied, so concurrent skips don't get lost.
+     */
+    record Skip(long frames) implements TransportCommand {
+    }
+
+    /**
+     * Executes a scheduled event, in order with the other commands.
+     */
+    record Cue(@NotNull ScheduledEvent event) implements TransportCommand {
+    }
+}
@@ -0,0 +1,43 @@
+package me.sunstorm.showmanager.transport;
+
+import me.sunstorm.showmanager.util.Framerate;
+import me.sunstorm.showmanager.util.Frames;
+import me.sunstorm.showmanager.util.Timecode;
+
+/**
+ * Immutable view of the transport, published by the clock thread after every state change. <br>
+ * While playing, the current frame is derived from {@code start}, so a snapshot stays valid until the next
+ * command and reading it never needs locking.
+ *
+ * @param state the transport state
+ * @param framerate the framerate of the show
+ * @param frames the frame index when the snapshot was taken
+ * @param start the nanoTime of the (virtual) show start, only meaningful while playing
+ * @param version incremented on every change
+ */
+public record TransportSnapshot(TransportState state, Framerate framerate, long frames, long start, long version) {
+
+    public static TransportSnapshot initial(Framerate framerate) {
+        return new TransportSnapshot(TransportState.STOPPED, framerate, 0, 0, 0);
+    }
+
+    /**
+     * @param nanoTime a {@link System#nanoTime()} value
+     * @return the frame index at the given time
+     */
+    public long framesAt(long nanoTime) {
+        return state == TransportState.PLAYING ? Frames.fromNanos(nanoTime - start, framerate) : frames;
+    }
+
+    public long currentFrames() {
+        return framesAt(System.nanoTime());
+    }
+
+    public Timecode currentTime() {
+        return Timecode.ofFrames(currentFrames(), framerate);
+    }
+
+    public boolean isPlaying() {
+        return state == TransportState.PLAYING;
+    }
+}
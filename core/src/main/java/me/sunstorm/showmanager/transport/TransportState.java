@@ -0,0 +1,7 @@
+package me.sunstorm.showmanager.transport;
+
+public enum TransportState {
+    STOPPED,
+    PLAYING,
+    PAUSED
+}
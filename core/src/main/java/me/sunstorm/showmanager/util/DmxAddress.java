@@ -1,4 +1,21 @@
 package me.sunstorm.showmanager.util;
 
-public record DmxAddress(int universe, int subnet, int address) {
+/**
+ * @param net the ArtNet net, 0 to 127
+ */
+public record DmxAddress(int universe, int subnet, int net, int address) {
+
+    /**
+     * An address on net 0, like the ones saved before the net was.
+     */
+    public DmxAddress(int universe, int subnet, int address) {
+        this(universe, subnet, 0, address);
+    }
+
+    /**
+     * @return the ArtNet Port-Address of the universe
+     */
+    public int portAddress() {
+        return (net & 0x7F) << 8 | (subnet & 0x0F) << 4 | universe & 0x0F;
+    }
 }
@@ -1,17 +1,94 @@
 package me.sunstorm.showmanager.util;
 
-import java.util.concurrent.atomic.AtomicInteger;
+import org.jetbrains.annotations.NotNull;
 
-public class Framerate {
-    private static final AtomicInteger framerate = new AtomicInteger(25);
+/**
+ * The supported timecode framerates. <br>
+ * The real rate is {@code rateNum / rateDen} frames per second, a timecode second is always {@link #getNominal()}
+ * frames long. The drop-frame rate skips frame labels 00 and 01 at the start of every minute,
+ * except for every tenth minute.
+ */
+public enum Framerate {
+    FILM(24, 24, 1, false, 0),
+    EBU(25, 25, 1, false, 1),
+    DF(30, 30000, 1001, true, 2),
+    SMPTE(30, 30, 1, false, 3);
 
-    public static void set(int value) {
-        if (value != 24 && value != 25 && value != 30)
-            throw new IllegalArgumentException("Invalid framerate: " + value);
-        framerate.set(value);
+    public static final Framerate DEFAULT = EBU;
+    private static final Framerate[] VALUES = values();
+
+    private final int nominal;
+    private final long rateNum;
+    private final long rateDen;
+    private final boolean dropFrame;
+    private final int artNetType;
+
+    Framerate(int nominal, long rateNum, long rateDen, boolean dropFrame, int artNetType) {
+        this.nominal = nominal;
+        this.rateNum = rateNum;
+        this.rateDen = rateDen;
+        this.dropFrame = dropFrame;
+        this.artNetType = artNetType;
+    }
+
+    /**
+     * @param value the framerate as configured: 24, 25, 29 (for 29.97 drop-frame) or 30
+     * @return the framerate
+     * @throws IllegalArgumentException if the value isn't a supported framerate
+     */
+    @NotNull
+    public static Framerate of(int value) {
+        return switch (value) {
+            case 24 -> FILM;
+            case 25 -> EBU;
+            case 29 -> DF;
+            case 30 -> SMPTE;
+            default -> throw new IllegalArgumentException("Invalid framerate: " + value);
+        };
+    }
+
+    /**
+     * @param type the ArtNet timecode type (0-3)
+     * @return the framerate
+     * @throws IllegalArgumentException if the type is invalid
+     */
+    @NotNull
+    public static Framerate ofArtNetType(int type) {
+        if (type < 0 || type >= VALUES.length)
+            throw new IllegalArgumentException("Invalid ArtNet timecode type: " + type);
+        return VALUES[type];
+    }
+
+    /**
+     * @return the value accepted by {@link #of(int)}
+     */
+    public int getCode() {
+        return dropFrame ? 29 : nominal;
+    }
+
+    public double getFps() {
+        return (double) rateNum / rateDen;
+    }
+
+    // generated
+
+    public int getNominal() {
+        return nominal;
+    }
+
+    public long getRateNum() {
+        return rateNum;
+    }
+
+    public long getRateDen() {
+        return rateDen;
+    }
+
+    public boolean isDropFrame() {
+        return dropFrame;
     }
 
-    public static int get() {
-        return framerate.get();
+    public int getArtNetType() {
+        return artNetType;
     }
 }
@@ -0,0 +1,127 @@
+package me.sunstorm.showmanager.util;
+
+/**
+ * Static arithmetic on the primitive frame index representation of a timecode. <br>
+ * A timecode is a {@code long} frame count since 00:00:00/00 together with its {@link Framerate}, the
+ * hour/min/sec/frame fields are derived from it on demand. The math is exact integer math (including
+ * 29.97 drop-frame) and none of these methods allocate.
+ */
+public final class Frames {
+    private static final long NANOS = 1_000_000_000L;
+    // drop-frame: 2 labels are skipped every minute, except every tenth
+    private static final int DF_DROPPED = 2;
+    private static final int DF_MINUTE = 30 * 60 - DF_DROPPED;
+    private static final int DF_TEN_MINUTES = DF_MINUTE * 10 + DF_DROPPED;
+    // reduced conversion ratios between every pair of framerates, indexed by ordinal
+    private static final long[][] RATIO_NUM;
+    private static final long[][] RATIO_DEN;
+
+    static {
+        Framerate[] rates = Framerate.values();
+        RATIO_NUM = new long[rates.length][rates.length];
+        RATIO_DEN = new long[rates.length][rates.length];
+        for (Framerate from : rates) {
+            for (Framerate to : rates) {
+                long num = to.getRateNum() * from.getRateDen();
+                long den = to.getRateDen() * from.getRateNum();
+                long gcd = gcd(num, den);
+                RATIO_NUM[from.ordinal()][to.ordinal()] = num / gcd;
+                RATIO_DEN[from.ordinal()][to.ordinal()] = den / gcd;
+            }
+        }
+    }
+
+    private Frames() {
+    }
+
+    public static long of(int hour, int min, int sec, int frame, Framerate framerate) {
+        long minutes = hour * 60L + min;
+        long frames = (minutes * 60 + sec) * framerate.getNominal() + frame;
+        if (framerate.isDropFrame())
+            frames -= DF_DROPPED * (minutes - minutes / 10);
+        return frames;
+    }
+
+    public static int hour(long frames, Framerate framerate) {
+        return (int) (label(frames, framerate) / framerate.getNominal() / 3600);
+    }
+
+    public static int min(long frames, Framerate framerate) {
+        return (int) (label(frames, framerate) / framerate.getNominal() / 60 % 60);
+    }
+
+    public static int sec(long frames, Framerate framerate) {
+        return (int) (label(frames, framerate) / framerate.getNominal() % 60);
+    }
+
+    public static int frame(long frames, Framerate framerate) {
+        return (int) (label(frames, framerate) % framerate.getNominal());
+    }
+
+    /**
+     * Converts a frame index to the frame count a non-drop clock with the same nominal rate would show,
+     * so the fields can be split with plain division.
+     */
+    private static long label(long frames, Framerate framerate) {
+        if (!framerate.isDropFrame())
+            return frames;
+        if (frames < 0)
+            return -label(-frames, framerate);
+        long tens = frames / DF_TEN_MINUTES;
+        long remainder = frames % DF_TEN_MINUTES;
+        long dropped = DF_DROPPED * 9 * tens;
+        if (remainder > DF_DROPPED)
+            dropped += DF_DROPPED * ((remainder - DF_DROPPED) / DF_MINUTE);
+        return frames + dropped;
+    }
+
+    /**
+     * Converts a frame index between framerates, keeping the real time (rounded down to a whole frame).
+     */
+    public static long convert(long frames, Framerate from, Framerate to) {
+        if (from == to)
+            return frames;
+        return muldiv(frames, RATIO_NUM[from.ordinal()][to.ordinal()], RATIO_DEN[from.ordinal()][to.ordinal()]);
+    }
+
+    /**
+     * Converts elapsed nanoseconds to the index of the frame running at that time.
+     */
+    public static long fromNanos(long nanos, Framerate framerate) {
+        return fromNanos(nanos, framerate.getRateNum(), framerate.getRateDen());
+    }
+
+    public static long fromNanos(long nanos, long rateNum, long rateDen) {
+        return muldiv(nanos, rateNum, NANOS * rateDen);
+    }
+
+    /**
+     * Converts a frame index to the elapsed nanoseconds at the start of that frame, rounded up
+     * so {@code fromNanos(toNanos(frames))} gives back the same frame.
+     */
+    public static long toNanos(long frames, Framerate framerate) {
+        return toNanos(frames, framerate.getRateNum(), framerate.getRateDen());
+    }
+
+    public static long toNanos(long frames, long rateNum, long rateDen) {
+        long scale = NANOS * rateDen;
+        return frames / rateNum * scale + Math.ceilDiv(frames % rateNum * scale, rateNum);
+    }
+
+    public static long fromMillis(long millis, Framerate framerate) {
+        return muldiv(millis, framerate.getRateNum(), 1000 * framerate.getRateDen());
+    }
+
+    public static long toMillis(long frames, Framerate framerate) {
+        return muldiv(frames, 1000 * framerate.getRateDen(), framerate.getRateNum());
+    }
+
+    // value * num / den without overflowing the intermediate product, as long as the remainder part fits
+    private static long muldiv(long value, long num, long den) {
+        return value / den * num + value % den * num / den;
+    }
+
+    private static long gcd(long a, long b) {
+        return b == 0 ? a : gcd(b, a % b);
+    }
+}
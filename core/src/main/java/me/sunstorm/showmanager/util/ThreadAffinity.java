@@ -0,0 +1,80 @@
+package me.sunstorm.showmanager.util;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pins the calling thread to a CPU with an external command, as Java can't. <br>
+ * The command gets the native id of the thread in place of {@code {tid}}, like {@code taskset -p -c 3 {tid}}.
+ * The native id is only known on Linux.
+ */
+public class ThreadAffinity {
+    private static final Logger log = LoggerFactory.getLogger(ThreadAffinity.class);
+
+    /**
+     * @return a hook pinning the thread it runs on, null if there's no command
+     */
+    @Nullable
+    public static Runnable hook(@Nullable String command) {
+        if (command == null || command.isBlank())
+            return null;
+        return () -> pin(command);
+    }
+
+    /**
+     * Runs the command for the calling thread.
+     *
+     * @return whether the command succeeded
+     */
+    public static boolean pin(@NotNull String command) {
+        long tid = nativeId();
+        if (tid < 0) {
+            log.warn("Can't pin thread {}, its native id is unknown", Thread.currentThread().getName());
+            return false;
+        }
+        String[] args = Arrays.stream(command.trim().split("\\s+"))
+                .map(arg -> arg.replace("{tid}", Long.toString(tid)))
+                .toArray(String[]::new);
+        try {
+            Process process = new ProcessBuilder(args).redirectErrorStream(true).redirectOutput(ProcessBuilder.Redirect.DISCARD).start();
+            if (!process.waitFor(5, TimeUnit.SECONDS)) {
+                process.destroy();
+                log.warn("Pinning thread {} timed out", Thread.currentThread().getName());
+                return false;
+            }
+            if (process.exitValue() != 0) {
+                log.warn("Pinning thread {} failed with exit code {}", Thread.currentThread().getName(), process.exitValue());
+                return false;
+            }
+            log.info("Pinned thread {} ({})", Thread.currentThread().getName(), tid);
+            return true;
+        } catch (IOException e) {
+            log.warn("Failed to pin thread {}", Thread.currentThread().getName(), e);
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * @return the native id of the calling thread, -1 if unknown
+     */
+    public static long nativeId() {
+        try {
+            // links to <pid>/task/<tid>
+            Path link = Files.readSymbolicLink(Path.of("/proc/thread-self"));
+            return Long.parseLong(link.getFileName().toString());
+        } catch (IOException | UnsupportedOperationException | NumberFormatException e) {
+            return -1;
+        }
+    }
+}
@@ -2,107 +2,95 @@ package me.sunstorm.showmanager.util;
 
 import org.jetbrains.annotations.NotNull;
 
-import java.util.Objects;
-
-public class Timecode implements Comparable<Timecode> {
-    public static final Timecode ZERO = new Timecode(0);
-    private long millisecLength;
-    
-    private int hour;
-    private int min;
-    private int sec;
-    private int frame;
-
-    public Timecode(long lengthInMillis) {
-        this.millisecLength = lengthInMillis;
-        syncTo(Framerate.get());
-    }
-    
-    public Timecode(int hour, int min, int sec, int frame) {
-        this.hour = hour;
-        this.min = min;
-        this.sec = sec;
-        this.frame = frame;
-        syncFrom(Framerate.get());
-    }
-
-    public void set(long lengthInMillis) {
-        this.millisecLength = lengthInMillis;
-        syncTo(Framerate.get());
-    }
-
-    private void syncTo(int framerate) {
-        long value = millisecLength;
-        this.hour = (int) (value / 60 / 60 / 1000);
-        value = value - ((long) hour * 60 * 60 * 1000);
-        this.min = (int) (value / 60 / 1000);
-        value = value - ((long) min * 60 * 1000);
-        this.sec = (int) (value / 1000);
-        value = value - (sec * 1000L);
-        this.frame = (int) (value / (1000 / framerate));
-    }
-    
-    private void syncFrom(int framerate) {
-        int hourM = this.hour * 60 * 60 * 1000;
-        int minM = this.min * 60 * 1000;
-        int secM = this.sec * 1000;
-        int frameM = this.frame * (1000 / framerate);
-        this.millisecLength = hourM + minM + secM + frameM;
+/**
+ * Immutable timecode value. It's a facade over the primitive frame index representation, see {@link Frames}. <br>
+ * Every value carries its own {@link Framerate}, operations between different framerates convert the other
+ * operand to the framerate of this instance. Ordering is by the time itself, so it doesn't depend on the operand
+ * order, values at the same instant are ordered by framerate to stay consistent with {@link #equals(Object)}.
+ */
+public final class Timecode implements Comparable<Timecode> {
+    public static final Timecode ZERO = ofFrames(0, Framerate.DEFAULT);
+
+    private final long frames;
+    private final Framerate framerate;
+
+    public Timecode(int hour, int min, int sec, int frame, @NotNull Framerate framerate) {
+        this(Frames.of(hour, min, sec, frame, framerate), framerate);
+    }
+
+    private Timecode(long frames, Framerate framerate) {
+        this.frames = frames;
+        this.framerate = framerate;
+    }
+
+    public static Timecode ofFrames(long frames, @NotNull Framerate framerate) {
+        return new Timecode(frames, framerate);
+    }
+
+    public static Timecode ofMillis(long lengthInMillis, @NotNull Framerate framerate) {
+        return new Timecode(Frames.fromMillis(lengthInMillis, framerate), framerate);
+    }
+
+    /**
+     * @return this timecode converted to the given framerate, rounded down to a whole frame
+     */
+    public Timecode convert(@NotNull Framerate framerate) {
+        return this.framerate == framerate ? this : ofFrames(Frames.convert(frames, this.framerate, framerate), framerate);
+    }
+
+    /**
+     * @return the frame index of this timecode in the given framerate
+     */
+    public long framesIn(@NotNull Framerate framerate) {
+        return Frames.convert(frames, this.framerate, framerate);
     }
 
     public Timecode abs() {
-        return new Timecode(Math.abs(millisecLength));
+        return frames >= 0 ? this : ofFrames(-frames, framerate);
     }
 
     public long millis() {
-        return millisecLength;
+        return Frames.toMillis(frames, framerate);
+    }
+
+    public long nanos() {
+        return Frames.toNanos(frames, framerate);
     }
 
     public Timecode subtract(@NotNull Timecode t) {
-        return new Timecode(this.millisecLength - t.millisecLength);
+        return ofFrames(this.frames - t.framesIn(framerate), framerate);
     }
 
     public Timecode add(@NotNull Timecode t) {
-        long time = this.millisecLength + t.millisecLength;
-        return new Timecode(time);
+        return ofFrames(this.frames + t.framesIn(framerate), framerate);
     }
 
     public boolean isBetween(Timecode start, Timecode end) {
-        return this.compareTo(start) >= 0 && this.compareTo(end) <= 0;
+        return this.frames >= start.framesIn(framerate) && this.frames <= end.framesIn(framerate);
     }
 
     public String guiFormatted(boolean spaced) {
         String spacer = spaced ? " : " : ":";
+        int hour = getHour(), min = getMin(), sec = getSec(), frame = getFrame();
         return (hour < 10 ? "0" + hour : hour) + spacer + (min < 10 ? "0" + min : min) + spacer + (sec < 10 ? "0" + sec : sec) + spacer.replace(':', '/') + (frame < 10 ? "0" + frame : frame);
     }
 
     @Override
     public int compareTo(@NotNull Timecode other) {
-        if (this.equals(other)) {
-            return 0;
-        }
-        if (this.millisecLength > other.millisecLength) {
-            return 1;
-        } else {
-            return -1;
-        }
+        int result = Long.compare(nanos(), other.nanos());
+        return result != 0 ? result : framerate.compareTo(other.framerate);
     }
 
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
-        if (o == null || getClass() != o.getClass()) return false;
-        Timecode timecode = (Timecode) o;
-        return hour == timecode.hour && min == timecode.min && sec == timecode.sec && frame == timecode.frame;
+        if (!(o instanceof Timecode timecode)) return false;
+        return frames == timecode.frames && framerate == timecode.framerate;
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(hour, min, sec, frame);
-    }
-
-    public Timecode copy() {
-        return new Timecode(hour, min, sec, frame);
+        return 31 * Long.hashCode(frames) + framerate.ordinal();
     }
 
     // gemerated
@@ -111,47 +99,40 @@ public class Timecode implements Comparable<Timecode> {
     @Override
     public String toString() {
         return "Timecode{" +
-                "millisecLength=" + millisecLength +
-                ", hour=" + hour +
-                ", min=" + min +
-                ", sec=" + sec +
-                ", frame=" + frame +
+                "frames=" + frames +
+                ", framerate=" + framerate +
+                ", hour=" + getHour() +
+                ", min=" + getMin() +
+                ", sec=" + getSec() +
+                ", frame=" + getFrame() +
                 '}';
     }
 
+    public long getTotalFrames() {
+        return frames;
+    }
+
+    public Framerate getFramerate() {
+        return framerate;
+    }
+
     public int getHour() {
-        return hour;
+        return Frames.hour(frames, framerate);
     }
 
     public int getMin() {
-        return min;
+        return Frames.min(frames, framerate);
     }
 
     public int getSec() {
-        return sec;
+        return Frames.sec(frames, framerate);
     }
 
     public int getFrame() {
-        return frame;
+        return Frames.frame(frames, framerate);
     }
 
     public long getMillisecLength() {
-        return millisecLength;
-    }
-
-    public void setHour(int hour) {
-        this.hour = hour;
-    }
-
-    public void setMin(int min) {
-        this.min = min;
-    }
-
-    public void setSec(int sec) {
-        this.sec = sec;
-    }
-
-    public void setFrame(int frame) {
-        this.frame = frame;
+        return millis();
     }
 }
@@ -0,0 +1,67 @@
+package me.sunstorm.showmanager.util;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * The kernel side of a bound UDP socket, read from {@code /proc/net/udp}, so only available on Linux.
+ *
+ * @param queued the bytes waiting in the receive buffer
+ * @param drops the datagrams dropped, mostly on a full receive buffer
+ */
+public record UdpSocketStats(long queued, long drops) {
+    private static final Path[] TABLES = {Path.of("/proc/net/udp"), Path.of("/proc/net/udp6")};
+
+    /**
+     * @return the stats of the socket bound to the port, null if unavailable
+     */
+    @Nullable
+    public static UdpSocketStats of(int port) {
+        if (port < 0)
+            return null;
+        UdpSocketStats result = null;
+        for (Path table : TABLES) {
+            try {
+                result = sum(result, parse(Files.readAllLines(table), port));
+            } catch (IOException e) {
+                // not Linux, or no IPv6
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Sums the sockets bound to the port in a table. The columns are
+     * {@code sl local_address rem_address st tx_queue:rx_queue tr:tm->when retrnsmt uid timeout inode ref pointer drops},
+     * the addresses and queues in hex.
+     */
+    @Nullable
+    public static UdpSocketStats parse(@NotNull List<String> lines, int port) {
+        UdpSocketStats result = null;
+        for (int i = 1; i < lines.size(); i++) {
+            String[] columns = lines.get(i).trim().split("\\s+");
+            if (columns.length < 13)
+                continue;
+            String local = columns[1];
+            if (Integer.parseInt(local.substring(local.indexOf(':') + 1), 16) != port)
+                continue;
+            String queues = columns[4];
+            long queued = Long.parseLong(queues.substring(queues.indexOf(':') + 1), 16);
+            result = sum(result, new UdpSocketStats(queued, Long.parseLong(columns[12])));
+        }
+        return result;
+    }
+
+    private static UdpSocketStats sum(@Nullable UdpSocketStats a, @Nullable UdpSocketStats b) {
+        if (a == null)
+            return b;
+        if (b == null)
+            return a;
+        return new UdpSocketStats(a.queued + b.queued, a.drops + b.drops);
+    }
+}
@@ -4,6 +4,7 @@ import com.google.gson.*;
 import com.illposed.osc.OSCMessage;
 import me.sunstorm.showmanager.ShowManager;
 import me.sunstorm.showmanager.modules.scheduler.ScheduledEvent;
+import me.sunstorm.showmanager.modules.scheduler.impl.ScheduledDmxEvent;
 import me.sunstorm.showmanager.modules.scheduler.impl.ScheduledJumpEvent;
 import me.sunstorm.showmanager.modules.scheduler.impl.ScheduledOscEvent;
 import me.sunstorm.showmanager.modules.scheduler.impl.ScheduledPauseEvent;
@@ -31,6 +32,7 @@ public class ScheduledEventSerializer implements JsonSerializer<ScheduledEvent>,
             case "osc" -> new ScheduledOscEvent(time, context.deserialize(data.get("packet"), OSCMessage.class), id);
             case "pause" -> new ScheduledPauseEvent(time, id);
             case "stop" -> new ScheduledStopEvent(time, id);
+            case "dmx" -> new ScheduledDmxEvent(time, data.get("universe").getAsInt(), data.get("channel").getAsInt(), values(data.get("values").getAsJsonArray()), id);
             default -> null;
         };
         if (ShowManager.FEATHER != null && instance != null) {
@@ -38,4 +40,12 @@ public class ScheduledEventSerializer implements JsonSerializer<ScheduledEvent>,
         }
         return instance;
     }
+
+    private static byte[] values(JsonArray array) {
+        byte[] values = new byte[array.size()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = (byte) array.get(i).getAsInt();
+        }
+        return values;
+    }
 }
@@ -1,6 +1,7 @@
 package me.sunstorm.showmanager.util.serialize;
 
 import com.google.gson.*;
+import me.sunstorm.showmanager.util.Framerate;
 import me.sunstorm.showmanager.util.Timecode;
 
 import java.lang.reflect.Type;
@@ -14,7 +15,9 @@ public class TimecodeSerializer implements JsonSerializer<Timecode>, JsonDeseria
         int min = data.get("min").getAsInt();
         int sec = data.get("sec").getAsInt();
         int frame = data.get("frame").getAsInt();
-        return new Timecode(hour, min, sec, frame);
+        //projects saved before per-timecode framerates were always 25 fps
+        Framerate framerate = data.has("framerate") ? Framerate.of(data.get("framerate").getAsInt()) : Framerate.DEFAULT;
+        return new Timecode(hour, min, sec, frame, framerate);
     }
 
     @Override
@@ -24,6 +27,7 @@ public class TimecodeSerializer implements JsonSerializer<Timecode>, JsonDeseria
         data.addProperty("min", src.getMin());
         data.addProperty("sec", src.getSec());
         data.addProperty("frame", src.getFrame());
+        data.addProperty("framerate", src.getFramerate().getCode());
         data.addProperty("millisecLength", src.getMillisecLength());
         return data;
     }
@@ -0,0 +1,59 @@
+package me.sunstorm.showmanager;
+
+import ch.bildspur.artnet.packets.ArtTimePacket;
+import me.sunstorm.showmanager.eventsystem.EventBus;
+import me.sunstorm.showmanager.eventsystem.EventCall;
+import me.sunstorm.showmanager.eventsystem.Listener;
+import me.sunstorm.showmanager.eventsystem.events.time.TimecodeChangeEvent;
+import me.sunstorm.showmanager.util.Framerate;
+import me.sunstorm.showmanager.util.Frames;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+
+import static org.assertj.core.api.Assertions.*;
+
+public class AllocationTests {
+    private static final Framerate FRAMERATE = Framerate.DF;
+
+    @Test
+    void testFramePathAllocationFree() {
+        var threadBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        threadBean.setThreadAllocatedMemoryEnabled(true);
+
+        EventBus bus = new EventBus();
+        FrameListener listener = new FrameListener();
+        bus.register(listener);
+        TimecodeChangeEvent event = new TimecodeChangeEvent(FRAMERATE);
+        ArtTimePacket packet = new ArtTimePacket();
+
+        // warm up so the measured loop runs compiled code
+        runFrames(bus, event, packet, 0, 100_000);
+        long before = threadBean.getCurrentThreadAllocatedBytes();
+        runFrames(bus, event, packet, 100_000, 100_000);
+        long allocated = threadBean.getCurrentThreadAllocatedBytes() - before;
+
+        assertThat(listener.last).isEqualTo(199_999);
+        // allow some slack for the measurement itself, one object per frame would be > 1MB
+        assertThat(allocated).isLessThan(1024);
+    }
+
+    // mirrors Worker#onFrame without the modules that need sockets or audio devices
+    private static void runFrames(EventBus bus, TimecodeChangeEvent event, ArtTimePacket packet, long from, int count) {
+        for (long frames = from; frames < from + count; frames++) {
+            long current = Frames.fromNanos(Frames.toNanos(frames, FRAMERATE), FRAMERATE);
+            packet.setTime(Frames.hour(current, FRAMERATE), Frames.min(current, FRAMERATE), Frames.sec(current, FRAMERATE), Frames.frame(current, FRAMERATE));
+            event.setFrames(current);
+            event.call(bus);
+        }
+    }
+
+    public static class FrameListener implements Listener {
+        private long last = -1;
+
+        @EventCall
+        public void onTimeChange(TimecodeChangeEvent e) {
+            last = e.getFrames();
+        }
+    }
+}
@@ -9,6 +9,16 @@ public class FramerateTests {
 
     @Test
     void testValidation() {
-        assertThatThrownBy(() -> Framerate.set(32)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> Framerate.of(32)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> Framerate.ofArtNetType(4)).isInstanceOf(IllegalArgumentException.class);
+        assertThat(Framerate.of(29)).isEqualTo(Framerate.DF);
+    }
+
+    @Test
+    void testArtNetType() {
+        for (Framerate framerate : Framerate.values()) {
+            assertThat(Framerate.ofArtNetType(framerate.getArtNetType())).isEqualTo(framerate);
+            assertThat(Framerate.of(framerate.getCode())).isEqualTo(framerate);
+        }
     }
 }
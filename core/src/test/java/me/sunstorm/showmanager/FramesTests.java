@@ -0,0 +1,69 @@
+package me.sunstorm.showmanager;
+
+import me.sunstorm.showmanager.util.Framerate;
+import me.sunstorm.showmanager.util.Frames;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.*;
+
+public class FramesTests {
+
+    @Test
+    void testFields() {
+        long frames = Frames.of(1, 2, 3, 4, Framerate.EBU);
+        assertThat(frames).isEqualTo(93079);
+        assertThat(Frames.hour(frames, Framerate.EBU)).isEqualTo(1);
+        assertThat(Frames.min(frames, Framerate.EBU)).isEqualTo(2);
+        assertThat(Frames.sec(frames, Framerate.EBU)).isEqualTo(3);
+        assertThat(Frames.frame(frames, Framerate.EBU)).isEqualTo(4);
+    }
+
+    @Test
+    void testDropFrame() {
+        // 00:00:59;29 is followed by 00:01:00;02
+        long frames = Frames.of(0, 0, 59, 29, Framerate.DF);
+        assertThat(Frames.frame(frames + 1, Framerate.DF)).isEqualTo(2);
+        assertThat(Frames.min(frames + 1, Framerate.DF)).isEqualTo(1);
+        // but there is no drop at every tenth minute
+        frames = Frames.of(0, 9, 59, 29, Framerate.DF);
+        assertThat(frames + 1).isEqualTo(17982);
+        assertThat(Frames.frame(frames + 1, Framerate.DF)).isEqualTo(0);
+        assertThat(Frames.min(frames + 1, Framerate.DF)).isEqualTo(10);
+        // an hour of drop-frame is (almost exactly) an hour of real time
+        assertThat(Frames.toMillis(Frames.of(1, 0, 0, 0, Framerate.DF), Framerate.DF)).isEqualTo(3_599_996);
+        for (long i = 0; i < 200_000; i++) {
+            assertThat(Frames.of(Frames.hour(i, Framerate.DF), Frames.min(i, Framerate.DF), Frames.sec(i, Framerate.DF), Frames.frame(i, Framerate.DF), Framerate.DF)).isEqualTo(i);
+        }
+    }
+
+    @Test
+    void testMillis() {
+        assertThat(Frames.toMillis(Frames.of(1, 2, 3, 4, Framerate.FILM), Framerate.FILM)).isEqualTo(3723166);
+        assertThat(Frames.toMillis(Frames.of(1, 2, 3, 4, Framerate.SMPTE), Framerate.SMPTE)).isEqualTo(3723133);
+        assertThat(Frames.fromMillis(3723160, Framerate.EBU)).isEqualTo(Frames.of(1, 2, 3, 4, Framerate.EBU));
+        assertThat(Frames.frame(Frames.fromMillis(999, Framerate.FILM), Framerate.FILM)).isEqualTo(23);
+    }
+
+    @Test
+    void testConvert() {
+        long frames = Frames.of(1, 0, 0, 0, Framerate.FILM);
+        assertThat(Frames.convert(frames, Framerate.FILM, Framerate.EBU)).isEqualTo(Frames.of(1, 0, 0, 0, Framerate.EBU));
+        assertThat(Frames.convert(frames, Framerate.FILM, Framerate.SMPTE)).isEqualTo(Frames.of(1, 0, 0, 0, Framerate.SMPTE));
+        // 29.97 runs slower, so an hour of real time is a bit less than 108000 frames
+        assertThat(Frames.convert(frames, Framerate.FILM, Framerate.DF)).isEqualTo(107892);
+        assertThat(Frames.convert(Frames.convert(frames, Framerate.FILM, Framerate.EBU), Framerate.EBU, Framerate.FILM)).isEqualTo(frames);
+    }
+
+    @Test
+    void testNanos() {
+        assertThat(Frames.fromNanos(0, Framerate.EBU)).isEqualTo(0);
+        assertThat(Frames.fromNanos(39_999_999, Framerate.EBU)).isEqualTo(0);
+        assertThat(Frames.fromNanos(40_000_000, Framerate.EBU)).isEqualTo(1);
+        assertThat(Frames.fromNanos(3_600_000_000_000L, Framerate.DF)).isEqualTo(107892);
+        for (Framerate framerate : Framerate.values()) {
+            for (long frames = 0; frames < 1000; frames++) {
+                assertThat(Frames.fromNanos(Frames.toNanos(frames, framerate), framerate)).isEqualTo(frames);
+            }
+        }
+    }
+}
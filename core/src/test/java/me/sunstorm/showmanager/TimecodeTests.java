@@ -11,49 +11,82 @@ import org.junit.jupiter.api.RepetitionInfo;
 import static org.assertj.core.api.Assertions.*;
 
 public class TimecodeTests {
+    private Framerate framerate;
     
     @BeforeEach
     public void init(@NotNull RepetitionInfo info) {
-        if (info.getCurrentRepetition() == 1)
-            Framerate.set(24);
-        if (info.getCurrentRepetition() == 2)
-            Framerate.set(25);
-        if (info.getCurrentRepetition() == 3)
-            Framerate.set(30);
+        framerate = Framerate.values()[info.getCurrentRepetition() - 1];
     }
     
-    @RepeatedTest(3)
+    @RepeatedTest(4)
     @DisplayName("Equality test")
     public void testEquals() {
-        assertThat(new Timecode(0, 0, 0, 0)).isEqualTo(new Timecode(0, 0, 0, 0));
+        assertThat(new Timecode(0, 0, 0, 0, framerate)).isEqualTo(new Timecode(0, 0, 0, 0, framerate));
     }
     
-    @RepeatedTest(3)
+    @RepeatedTest(4)
     public void testMillis() {
-        assertThat(new Timecode(0, 0, 0, 0).millis()).isEqualTo(0);
-        Timecode time = new Timecode(1, 2, 3, 4);
-        if (Framerate.get() == 24)
-            assertThat(time.millis()).isEqualTo(3723164);
-        if (Framerate.get() == 25)
-            assertThat(time.millis()).isEqualTo(3723160);
-        if (Framerate.get() == 30)
-            assertThat(time.millis()).isEqualTo(3723132);
+        assertThat(new Timecode(0, 0, 0, 0, framerate).millis()).isEqualTo(0);
+        Timecode time = new Timecode(1, 2, 3, 4, framerate);
+        switch (framerate) {
+            case FILM -> assertThat(time.millis()).isEqualTo(3723166);
+            case EBU -> assertThat(time.millis()).isEqualTo(3723160);
+            // 1:02:03;04 is frame 111582, which is 111582 * 1001 / 30 ms
+            case DF -> assertThat(time.millis()).isEqualTo(3723119);
+            case SMPTE -> assertThat(time.millis()).isEqualTo(3723133);
+        }
     }
     
     
-    @RepeatedTest(3)
+    @RepeatedTest(4)
     public void testAdd() {
-        Timecode value = new Timecode(0, 0, 5, 0).add(new Timecode(0, 0, 5, 0));
-        Timecode excepted = new Timecode(0, 0, 10, 0);
+        Timecode value = new Timecode(0, 0, 5, 0, framerate).add(new Timecode(0, 0, 5, 0, framerate));
+        Timecode excepted = new Timecode(0, 0, 10, 0, framerate);
         assertThat(value).isEqualTo(excepted);
         assertThat(value.millis()).isEqualTo(excepted.millis());
     }
     
-    @RepeatedTest(3)
+    @RepeatedTest(4)
     public void testSubtract() {
-        Timecode value = new Timecode(0, 0, 10, 0).subtract(new Timecode(0, 0, 5, 0));
-        Timecode excepted = new Timecode(0, 0, 5, 0);
+        Timecode value = new Timecode(0, 0, 10, 0, framerate).subtract(new Timecode(0, 0, 5, 0, framerate));
+        Timecode excepted = new Timecode(0, 0, 5, 0, framerate);
         assertThat(value).isEqualTo(excepted);
         assertThat(value.millis()).isEqualTo(excepted.millis());
     }
+
+    @RepeatedTest(4)
+    public void testFields() {
+        Timecode time = new Timecode(10, 59, 59, framerate.getNominal() - 1, framerate);
+        assertThat(Timecode.ofFrames(time.getTotalFrames(), framerate)).isEqualTo(time);
+        assertThat(time.getHour()).isEqualTo(10);
+        assertThat(time.getMin()).isEqualTo(59);
+        assertThat(time.getSec()).isEqualTo(59);
+        assertThat(time.getFrame()).isEqualTo(framerate.getNominal() - 1);
+        Timecode next = Timecode.ofFrames(time.getTotalFrames() + 1, framerate);
+        assertThat(next.getHour()).isEqualTo(11);
+        assertThat(next.getMin()).isEqualTo(0);
+        assertThat(next.getFrame()).isEqualTo(0);
+    }
+
+    @RepeatedTest(4)
+    public void testConvert() {
+        Timecode time = new Timecode(0, 10, 0, 0, framerate);
+        for (Framerate other : Framerate.values()) {
+            Timecode converted = time.convert(other);
+            assertThat(converted.getFramerate()).isEqualTo(other);
+            assertThat(Math.abs(converted.millis() - time.millis())).isLessThan(1000 / 24 + 1);
+            assertThat(converted.nanos()).isLessThanOrEqualTo(time.nanos());
+        }
+    }
+
+    @RepeatedTest(4)
+    public void testCompare() {
+        Timecode time = new Timecode(0, 10, 0, 0, framerate);
+        for (Framerate other : Framerate.values()) {
+            Timecode converted = time.convert(other);
+            assertThat(Integer.signum(converted.compareTo(time))).isEqualTo(-Integer.signum(time.compareTo(converted)));
+            assertThat(converted.compareTo(time) == 0).isEqualTo(converted.equals(time));
+        }
+        assertThat(time.compareTo(Timecode.ofFrames(time.getTotalFrames() + 1, framerate))).isLessThan(0);
+    }
 }
@@ -0,0 +1,115 @@
+package me.sunstorm.showmanager;
+
+import me.sunstorm.showmanager.clock.LatencyCompensator;
+import me.sunstorm.showmanager.clock.TimecodeChaser;
+import me.sunstorm.showmanager.eventsystem.EventBus;
+import me.sunstorm.showmanager.eventsystem.EventCall;
+import me.sunstorm.showmanager.eventsystem.Listener;
+import me.sunstorm.showmanager.eventsystem.events.time.TimecodeStartEvent;
+import me.sunstorm.showmanager.modules.artnet.ArtNetModule;
+import me.sunstorm.showmanager.modules.ltc.LtcModule;
+import me.sunstorm.showmanager.modules.sacn.SacnModule;
+import me.sunstorm.showmanager.settings.config.ChaseConfig;
+import me.sunstorm.showmanager.settings.config.ClockConfig;
+import me.sunstorm.showmanager.settings.config.LatencyConfig;
+import me.sunstorm.showmanager.transport.TransportSnapshot;
+import me.sunstorm.showmanager.transport.TransportState;
+import me.sunstorm.showmanager.util.Framerate;
+import me.sunstorm.showmanager.util.Frames;
+import me.sunstorm.showmanager.util.Timecode;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class WorkerTests {
+    private static final long SECOND = 1_000_000_000L;
+    private EventBus bus;
+    private Worker worker;
+
+    @BeforeEach
+    void init() {
+        bus = new EventBus();
+        worker = new Worker(bus, mock(LtcModule.class), mock(ArtNetModule.class), mock(SacnModule.class), new ClockConfig(), new ChaseConfig(), new TimecodeChaser(new ChaseConfig()), new LatencyCompensator(new LatencyConfig()), Framerate.EBU);
+    }
+
+    @Test
+    void testCommandsAppliedOnFrame() {
+        worker.play();
+        assertThat(worker.getSnapshot().state()).isEqualTo(TransportState.STOPPED);
+        worker.onFrame(0, SECOND);
+        TransportSnapshot snapshot = worker.getSnapshot();
+        assertThat(snapshot.state()).isEqualTo(TransportState.PLAYING);
+        assertThat(snapshot.framesAt(2 * SECOND)).isEqualTo(25);
+    }
+
+    @Test
+    void testPauseAndLocate() {
+        worker.play();
+        worker.onFrame(0, SECOND);
+        worker.pause();
+        worker.onFrame(50, 3 * SECOND);
+        assertThat(worker.getSnapshot().state()).isEqualTo(TransportState.PAUSED);
+        assertThat(worker.getSnapshot().currentFrames()).isEqualTo(50);
+
+        worker.setTime(new Timecode(0, 1, 0, 0, Framerate.EBU));
+        worker.onFrame(51, 4 * SECOND);
+        assertThat(worker.getSnapshot().currentFrames()).isEqualTo(1500);
+        assertThat(worker.getSnapshot().state()).isEqualTo(TransportState.PAUSED);
+    }
+
+    @Test
+    void testConcurrentSkips() throws InterruptedException {
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            threads.add(Thread.ofPlatform().start(() -> {
+                for (int j = 0; j < 250; j++)
+                    worker.skip(1);
+            }));
+        }
+        for (Thread thread : threads)
+            thread.join();
+        worker.onFrame(0, SECOND);
+        assertThat(worker.getSnapshot().currentFrames()).isEqualTo(1000);
+        assertThat(worker.getSnapshot().version()).isEqualTo(1000);
+    }
+
+    @Test
+    void testCancelledStart() {
+        bus.register(new CancellingListener());
+        worker.play();
+        worker.onFrame(0, SECOND);
+        assertThat(worker.isPlaying()).isFalse();
+    }
+
+    @Test
+    void testChase() {
+        ChaseConfig config = Constants.GSON.fromJson("{\"source\":\"ARTNET\"}", ChaseConfig.class);
+        TimecodeChaser chaser = new TimecodeChaser(config);
+        Worker chasing = new Worker(bus, mock(LtcModule.class), mock(ArtNetModule.class), mock(SacnModule.class), new ClockConfig(), config, chaser, new LatencyCompensator(new LatencyConfig()), Framerate.EBU);
+
+        long source = 10 * SECOND;
+        for (int i = 0; i < 25; i++, source += SECOND / 25) {
+            chaser.onTimecode(source, source);
+        }
+        chasing.onFrame(0, source);
+        assertThat(chasing.getSnapshot().state()).isEqualTo(TransportState.PLAYING);
+        assertThat(chasing.getSnapshot().framesAt(source)).isEqualTo(Frames.fromNanos(source, Framerate.EBU));
+
+        // the source stops sending, so after the freewheel timeout the transport pauses
+        chasing.onFrame(1, source + 2 * SECOND);
+        assertThat(chasing.getSnapshot().state()).isEqualTo(TransportState.PAUSED);
+    }
+
+    public static class CancellingListener implements Listener {
+
+        @EventCall
+        public void onTimeStart(TimecodeStartEvent e) {
+            e.setCancelled(true);
+        }
+    }
+}
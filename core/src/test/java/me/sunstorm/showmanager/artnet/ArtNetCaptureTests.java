@@ -0,0 +1,151 @@
+package me.sunstorm.showmanager.artnet;
+
+import ch.bildspur.artnet.ArtNetCapture;
+import ch.bildspur.artnet.ArtNetReplay;
+import ch.bildspur.artnet.ArtNetServer;
+import ch.bildspur.artnet.events.ArtNetServerEventAdapter;
+import ch.bildspur.artnet.packets.ArtDmxPacket;
+import ch.bildspur.artnet.packets.ArtNetPacket;
+import ch.bildspur.artnet.packets.PacketType;
+import me.sunstorm.showmanager.modules.artnet.ArtNetModule;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.*;
+
+public class ArtNetCaptureTests {
+    @Test
+    void testCaptureReceived() throws Exception {
+        int port;
+        try (DatagramSocket probe = new DatagramSocket(0, InetAddress.getLoopbackAddress())) {
+            port = probe.getLocalPort();
+        }
+        Path file = temp();
+        ArtNetServer server = new ArtNetServer(port, port);
+        ArtNetCapture capture = new ArtNetCapture(file);
+        server.setCapture(capture);
+        server.start(InetAddress.getLoopbackAddress());
+        try (DatagramSocket socket = new DatagramSocket(0, InetAddress.getLoopbackAddress())) {
+            for (int i = 0; i < 10; i++) {
+                byte[] data = dmx(i).getData();
+                socket.send(new DatagramPacket(data, data.length, InetAddress.getLoopbackAddress(), port));
+            }
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (capture.getRecords() < 10 && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+        } finally {
+            server.stop();
+            capture.close();
+        }
+        assertThat(capture.getRecords()).isEqualTo(10);
+        assertThat(Files.size(file)).isEqualTo(capture.getSize());
+
+        List<Integer> universes = new ArrayList<>();
+        ArtNetServer target = listening(universes);
+        try (ArtNetReplay replay = new ArtNetReplay(file)) {
+            assertThat(replay.replay(target, ArtNetReplay.AS_FAST_AS_POSSIBLE)).isEqualTo(10);
+            replay.rewind();
+            assertThat(replay.next()).isTrue();
+            assertThat(replay.getNanos()).isZero();
+            assertThat(replay.getSource()).isEqualTo(InetAddress.getLoopbackAddress());
+        }
+        assertThat(universes).containsExactly(0, 1, 2, 3, 4, 5, 6, 7, 8, 9);
+    }
+
+    @Test
+    void testWindows() throws IOException {
+        Path file = temp();
+        InetAddress source = InetAddress.getByName("2.0.0.1");
+        // a few records per window
+        try (ArtNetCapture capture = new ArtNetCapture(file, 0)) {
+            for (int i = 0; i < 500; i++) {
+                byte[] data = dmx(i % 16).getData();
+                capture.write(1_000L * i, data, 0, data.length, i % 2 == 0 ? source : null);
+            }
+        }
+        try (ArtNetReplay replay = new ArtNetReplay(file, 0)) {
+            byte[] data = new byte[1024];
+            for (int i = 0; i < 500; i++) {
+                assertThat(replay.next()).isTrue();
+                assertThat(replay.getNanos()).isEqualTo(1_000L * i);
+                assertThat(replay.getSource()).isEqualTo(i % 2 == 0 ? source : null);
+                assertThat(replay.read(data)).isEqualTo(dmx(0).getLength());
+                assertThat(data[14]).isEqualTo((byte) (i % 16));
+            }
+            assertThat(replay.next()).isFalse();
+        }
+    }
+
+    @Test
+    void testPacing() throws IOException {
+        Path file = temp();
+        try (ArtNetCapture capture = new ArtNetCapture(file)) {
+            byte[] data = dmx(1).getData();
+            for (int i = 0; i <= 10; i++) {
+                capture.write(10_000_000L * i, data, 0, data.length, null);
+            }
+        }
+        List<Integer> universes = new ArrayList<>();
+        ArtNetServer target = listening(universes);
+        try (ArtNetReplay replay = new ArtNetReplay(file)) {
+            long start = System.nanoTime();
+            replay.replay(target, 2);
+            // 100ms at twice the speed
+            assertThat(System.nanoTime() - start).isGreaterThanOrEqualTo(50_000_000L);
+        }
+        assertThat(universes).hasSize(11);
+    }
+
+    @Test
+    void testNotCapture() throws IOException {
+        Path file = temp();
+        Files.write(file, new byte[32]);
+        assertThatThrownBy(() -> new ArtNetReplay(file)).isInstanceOf(IOException.class);
+    }
+
+    @Test
+    void testCapturePath() {
+        Path directory = Path.of("captures").toAbsolutePath();
+        assertThat(ArtNetModule.capturePath(directory, "show.capture")).isEqualTo(directory.resolve("show.capture"));
+        assertThat(ArtNetModule.capturePath(directory, "./show.capture")).isEqualTo(directory.resolve("show.capture"));
+        for (String name : new String[] {"", ".", "..", "../show.capture", "sub/show.capture", directory.getRoot().resolve("show.capture").toString()}) {
+            assertThatThrownBy(() -> ArtNetModule.capturePath(directory, name)).isInstanceOf(IllegalArgumentException.class);
+        }
+    }
+
+    private static Path temp() throws IOException {
+        Path path = Files.createTempFile("artnet", ".capture");
+        path.toFile().deleteOnExit();
+        return path;
+    }
+
+    // not started, so only fed by the replay
+    private static ArtNetServer listening(List<Integer> universes) {
+        ArtNetServer server = new ArtNetServer();
+        server.addListener(new ArtNetServerEventAdapter() {
+            @Override
+            public void artNetPacketReceived(ArtNetPacket packet) {
+                if (packet.getType() == PacketType.ART_OUTPUT)
+                    universes.add(((ArtDmxPacket) packet).getUniverseID());
+            }
+        });
+        return server;
+    }
+
+    private static ArtDmxPacket dmx(int universe) {
+        ArtDmxPacket packet = new ArtDmxPacket();
+        packet.setUniverse(0, universe);
+        packet.setDMX(new byte[512], 512);
+        return packet;
+    }
+}
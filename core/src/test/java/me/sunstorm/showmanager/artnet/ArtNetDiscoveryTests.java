@@ -0,0 +1,131 @@
+package me.sunstorm.showmanager.artnet;
+
+import ch.bildspur.artnet.PortDescriptor;
+import ch.bildspur.artnet.PortType;
+import ch.bildspur.artnet.packets.ArtPollReplyPacket;
+import me.sunstorm.showmanager.dmx.DmxUniverseStore;
+import me.sunstorm.showmanager.eventsystem.EventBus;
+import me.sunstorm.showmanager.eventsystem.EventCall;
+import me.sunstorm.showmanager.eventsystem.Listener;
+import me.sunstorm.showmanager.eventsystem.events.artnet.ArtNetNodeAppearEvent;
+import me.sunstorm.showmanager.eventsystem.events.artnet.ArtNetNodeChangeEvent;
+import me.sunstorm.showmanager.eventsystem.events.artnet.ArtNetNodeLostEvent;
+import me.sunstorm.showmanager.modules.artnet.ArtNetDiscovery;
+import me.sunstorm.showmanager.modules.artnet.ArtNetNodeInfo;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+public class ArtNetDiscoveryTests {
+    private static final long SECOND = 1_000_000_000L;
+
+    @Test
+    void testNodeTable() throws Exception {
+        EventBus bus = new EventBus();
+        NodeListener listener = new NodeListener();
+        bus.register(listener);
+        ArtNetDiscovery discovery = new ArtNetDiscovery(bus, () -> {});
+
+        discovery.onReply(reply("10.0.0.1", 1, 0, 5), 0);
+        discovery.onReply(reply("10.0.0.1", 2, 0, 6), 0);
+        discovery.onReply(reply("10.0.0.2", 1, 1, 0), SECOND);
+        assertThat(listener.events).containsExactly("appear 10.0.0.1/1", "appear 10.0.0.1/2", "appear 10.0.0.2/1");
+        assertThat(discovery.getNodes()).hasSize(3);
+
+        // same config, only refreshes
+        discovery.onReply(reply("10.0.0.1", 1, 0, 5), 5 * SECOND);
+        discovery.onReply(reply("10.0.0.1", 2, 0, 7), 5 * SECOND);
+        assertThat(listener.events).hasSize(4);
+        assertThat(listener.events.getLast()).isEqualTo("change 10.0.0.1/2");
+
+        discovery.evict(5 * SECOND + discovery.getTtl() - 1);
+        assertThat(listener.events).hasSize(5);
+        assertThat(listener.events.getLast()).isEqualTo("lost 10.0.0.2/1");
+        discovery.evict(5 * SECOND + discovery.getTtl() + 1);
+        assertThat(listener.events).hasSize(7);
+        assertThat(discovery.getNodes()).isEmpty();
+    }
+
+    @Test
+    void testNodeInfo() throws Exception {
+        ArtNetNodeInfo info = ArtNetNodeInfo.of(reply("10.0.0.1", 3, 0x102, 5));
+        assertThat(info.key()).isEqualTo(new ArtNetNodeInfo.Key(InetAddress.getByName("10.0.0.1"), 3));
+        assertThat(info.shortName()).isEqualTo("node");
+        assertThat(info.outputs()).containsExactly(DmxUniverseStore.portAddress(1, 2, 5));
+        assertThat(info.outputs(DmxUniverseStore.portAddress(1, 2, 5))).isTrue();
+        assertThat(info.toJson().get("outputs").getAsJsonArray().get(0).getAsInt()).isEqualTo(0x125);
+        assertThat(info.isLocal()).isFalse();
+        assertThat(ArtNetNodeInfo.isLocal(InetAddress.getLoopbackAddress())).isTrue();
+        assertThat(ArtNetNodeInfo.isLocal(null)).isFalse();
+    }
+
+    @Test
+    void testBindIndexOffset() throws Exception {
+        // Art-Net 4 layout: style 200, mac 201-206, bind ip 207-210, bind index 211, status2 212
+        byte[] raw = new byte[239];
+        System.arraycopy("Art-Net\0".getBytes(StandardCharsets.US_ASCII), 0, raw, 0, 8);
+        raw[9] = 0x21;
+        raw[10] = 10;
+        raw[13] = 1;
+        raw[211] = 2;
+        raw[212] = 0x0E;
+        ArtPollReplyPacket reply = new ArtPollReplyPacket();
+        assertThat(reply.parse(raw, raw.length)).isTrue();
+        assertThat(reply.getBindIndex()).isEqualTo(2);
+
+        ArtPollReplyPacket own = reply("10.0.0.1", 3, 0, 1);
+        assertThat(own.getData()[211]).isEqualTo((byte) 3);
+        assertThat(own.getData()[212]).isEqualTo((byte) 0);
+    }
+
+    /**
+     * A parsed reply of a node with one output port.
+     */
+    static ArtPollReplyPacket reply(String ip, int bindIndex, int subSwitch, int universe) throws Exception {
+        ArtPollReplyPacket reply = new ArtPollReplyPacket();
+        reply.setIp(InetAddress.getByName(ip));
+        reply.setShortName("node");
+        reply.setLongName("node " + ip);
+        reply.setSubSwitch(subSwitch);
+        reply.setBindIndex(bindIndex);
+        PortDescriptor port = new PortDescriptor();
+        port.setType(PortType.DMX512);
+        port.setCanOutput(true);
+        reply.setPorts(new PortDescriptor[] {port});
+        reply.setNumPorts(1);
+        reply.setDmxOuts(new byte[] {(byte) universe, 0, 0, 0});
+        reply.translateData();
+        ArtPollReplyPacket parsed = new ArtPollReplyPacket();
+        parsed.parse(reply.getData());
+        return parsed;
+    }
+
+    public static class NodeListener implements Listener {
+        private final List<String> events = new ArrayList<>();
+
+        @EventCall
+        public void onAppear(ArtNetNodeAppearEvent e) {
+            events.add("appear " + key(e.getNode()));
+        }
+
+        @EventCall
+        public void onChange(ArtNetNodeChangeEvent e) {
+            assertThat(e.getPrevious().key()).isEqualTo(e.getNode().key());
+            events.add("change " + key(e.getNode()));
+        }
+
+        @EventCall
+        public void onLost(ArtNetNodeLostEvent e) {
+            events.add("lost " + key(e.getNode()));
+        }
+
+        private static String key(ArtNetNodeInfo node) {
+            return node.ip().getHostAddress() + "/" + node.bindIndex();
+        }
+    }
+}
@@ -0,0 +1,225 @@
+package me.sunstorm.showmanager.artnet;
+
+import ch.bildspur.artnet.ArtNetServer;
+import ch.bildspur.artnet.events.ArtNetServerEventAdapter;
+import ch.bildspur.artnet.packets.*;
+import me.sunstorm.showmanager.util.UdpSocketStats;
+import org.junit.jupiter.api.Test;
+
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.*;
+
+public class ArtNetServerTests {
+
+    @Test
+    void testOpCodeLookup() {
+        for (PacketType type : PacketType.values()) {
+            assertThat(PacketType.ofOpCode(type.getOpCode())).isEqualTo(type);
+        }
+        assertThat(PacketType.ofOpCode(0x5001)).isNull();
+        assertThat(PacketType.ofOpCode(0xa030)).isNull();
+    }
+
+    @Test
+    void testParsePooled() {
+        ArtNetPacketParser parser = new ArtNetPacketParser(PacketType.ART_OUTPUT);
+        byte[] raw = dmx(1, 2).getData();
+
+        ArtNetPacket first = parser.parsePooled(raw, raw.length);
+        ArtNetPacket second = parser.parsePooled(raw, raw.length);
+        assertThat(first).isSameAs(second);
+        assertThat(((ArtDmxPacket) first).getUniverseID()).isEqualTo(2);
+        // not pooled
+        byte[] time = new ArtTimePacket().getData();
+        assertThat(parser.parsePooled(time, time.length)).isNotSameAs(parser.parsePooled(time, time.length));
+
+        assertThat(parser.parsePooled(raw, 8)).isNull();
+        raw[0] = 'X';
+        assertThat(parser.parsePooled(raw, raw.length)).isNull();
+    }
+
+    @Test
+    void testShortDmx() {
+        ArtNetServer server = new ArtNetServer();
+        List<Integer> channels = new ArrayList<>();
+        server.addListener(new ArtNetServerEventAdapter() {
+            @Override
+            public void artNetPacketReceived(ArtNetPacket packet) {
+                if (packet instanceof ArtDmxPacket dmx)
+                    channels.add(dmx.getNumChannels());
+            }
+        });
+        byte[] buffer = new byte[2048];
+        ArtDmxPacket full = dmx(0, 1);
+        full.setDMX(filled(512), 512);
+        System.arraycopy(full.getData(), 0, buffer, 0, full.getLength());
+        assertThat(server.dispatch(buffer, full.getLength(), null)).isTrue();
+
+        // the levels of the full packet stay in the buffer after the 2 slots
+        ArtDmxPacket small = dmx(0, 1);
+        small.setDMX(new byte[2], 2);
+        System.arraycopy(small.getData(), 0, buffer, 0, small.getLength());
+        assertThat(server.dispatch(buffer, small.getLength(), null)).isTrue();
+        // a length field claiming more than the datagram
+        buffer[16] = 0x02;
+        buffer[17] = 0x00;
+        assertThat(server.dispatch(buffer, small.getLength(), null)).isTrue();
+        assertThat(channels).containsExactly(512, 2, 2);
+        assertThat(server.dispatch(buffer, ArtDmxPacket.DMX_OFFSET - 1, null)).isFalse();
+    }
+
+    @Test
+    void testShortPollReply() throws Exception {
+        ArtNetServer server = new ArtNetServer();
+        List<Integer> bindIndexes = new ArrayList<>();
+        server.addListener(new ArtNetServerEventAdapter() {
+            @Override
+            public void artNetPacketReceived(ArtNetPacket packet) {
+                if (packet instanceof ArtPollReplyPacket reply)
+                    bindIndexes.add(reply.getBindIndex());
+            }
+        });
+        byte[] buffer = new byte[2048];
+        ArtPollReplyPacket reply = ArtNetDiscoveryTests.reply("10.0.0.1", 3, 0, 1);
+        System.arraycopy(reply.getData(), 0, buffer, 0, reply.getLength());
+        assertThat(server.dispatch(buffer, reply.getLength(), null)).isTrue();
+        // the bind index of the long reply stays in the buffer
+        assertThat(server.dispatch(buffer, ArtPollReplyPacket.MIN_LENGTH, null)).isTrue();
+        assertThat(bindIndexes).containsExactly(3, 0);
+        assertThat(server.dispatch(buffer, ArtPollReplyPacket.MIN_LENGTH - 1, null)).isFalse();
+    }
+
+    @Test
+    void testBatchedReceive() throws Exception {
+        int port;
+        try (DatagramSocket probe = new DatagramSocket(0, InetAddress.getLoopbackAddress())) {
+            port = probe.getLocalPort();
+        }
+        ArtNetServer server = new ArtNetServer(port, port);
+        int count = 200;
+        CountDownLatch latch = new CountDownLatch(count);
+        AtomicInteger universes = new AtomicInteger();
+        Set<ArtNetPacket> instances = Collections.newSetFromMap(new IdentityHashMap<>());
+        server.addListener(new ArtNetServerEventAdapter() {
+            @Override
+            public void artNetPacketReceived(ArtNetPacket packet) {
+                if (packet.getType() != PacketType.ART_OUTPUT)
+                    return;
+                instances.add(packet);
+                universes.addAndGet(((ArtDmxPacket) packet).getUniverseID());
+                latch.countDown();
+            }
+        });
+        server.start(InetAddress.getLoopbackAddress());
+        try (DatagramSocket socket = new DatagramSocket(0, InetAddress.getLoopbackAddress())) {
+            for (int i = 0; i < count; i++) {
+                byte[] data = dmx(0, i % 16).getData();
+                socket.send(new DatagramPacket(data, data.length, InetAddress.getLoopbackAddress(), port));
+            }
+            assertThat(latch.await(5, TimeUnit.SECONDS)).isTrue();
+        } finally {
+            server.stop();
+        }
+        assertThat(universes.get()).isEqualTo(count / 16 * 120 + 28);
+        assertThat(instances).hasSize(1);
+    }
+
+    @Test
+    void testPollReplyRateLimit() throws Exception {
+        int port;
+        try (DatagramSocket probe = new DatagramSocket(0, InetAddress.getLoopbackAddress())) {
+            port = probe.getLocalPort();
+        }
+        ArtNetServer server = new ArtNetServer(port, port);
+        CountDownLatch latch = new CountDownLatch(5);
+        server.addListener(new ArtNetServerEventAdapter() {
+            @Override
+            public void artNetPacketReceived(ArtNetPacket packet) {
+                if (packet.getType() == PacketType.ART_POLL)
+                    latch.countDown();
+            }
+        });
+        server.start(InetAddress.getLoopbackAddress());
+        try (DatagramSocket socket = new DatagramSocket(0, InetAddress.getLoopbackAddress())) {
+            byte[] poll = new ArtPollPacket().getData();
+            for (int i = 0; i < 5; i++) {
+                socket.send(new DatagramPacket(poll, poll.length, InetAddress.getLoopbackAddress(), port));
+            }
+            assertThat(latch.await(5, TimeUnit.SECONDS)).isTrue();
+        } finally {
+            server.stop();
+        }
+        // the first is answered, one reply is pending for the rest
+        assertThat(server.getCoalescedReplies()).isEqualTo(3);
+    }
+
+    @Test
+    void testCounters() throws Exception {
+        int port;
+        try (DatagramSocket probe = new DatagramSocket(0, InetAddress.getLoopbackAddress())) {
+            port = probe.getLocalPort();
+        }
+        ArtNetServer server = new ArtNetServer(port, port);
+        AtomicInteger priority = new AtomicInteger();
+        server.setThreadPriority(Thread.MAX_PRIORITY - 1);
+        server.setThreadHook(() -> priority.set(Thread.currentThread().getPriority()));
+        server.setSocketReceiveBufferSize(1 << 16);
+        server.start(InetAddress.getLoopbackAddress());
+        try (DatagramSocket socket = new DatagramSocket(0, InetAddress.getLoopbackAddress())) {
+            byte[] garbage = new byte[20];
+            byte[] data = dmx(0, 1).getData();
+            for (int i = 0; i < 10; i++) {
+                socket.send(new DatagramPacket(garbage, garbage.length, InetAddress.getLoopbackAddress(), port));
+                socket.send(new DatagramPacket(data, data.length, InetAddress.getLoopbackAddress(), port));
+            }
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (server.getReceived() < 20 && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+            assertThat(server.getLocalPort()).isEqualTo(port);
+        } finally {
+            server.stop();
+        }
+        assertThat(server.getReceived()).isEqualTo(20);
+        assertThat(server.getParseFailures()).isEqualTo(10);
+        assertThat(server.getMaxBatch()).isBetween(1, 20);
+        assertThat(priority.get()).isEqualTo(Thread.MAX_PRIORITY - 1);
+    }
+
+    @Test
+    void testUdpSocketStats() {
+        List<String> table = List.of(
+                "   sl  local_address rem_address   st tx_queue rx_queue tr tm->when retrnsmt   uid  timeout inode ref pointer drops",
+                "  123: 00000000:1936 00000000:0000 07 00000000:00000300 00:00000000 00000000  1000        0 4242 2 0000000000000000 17",
+                "  124: 0100007F:1937 00000000:0000 07 00000000:00000000 00:00000000 00000000  1000        0 4243 2 0000000000000000 0");
+        UdpSocketStats stats = UdpSocketStats.parse(table, 6454);
+        assertThat(stats).isEqualTo(new UdpSocketStats(0x300, 17));
+        assertThat(UdpSocketStats.parse(table, 6455)).isEqualTo(new UdpSocketStats(0, 0));
+        assertThat(UdpSocketStats.parse(table, 1)).isNull();
+    }
+
+    private static byte[] filled(int length) {
+        byte[] levels = new byte[length];
+        Arrays.fill(levels, (byte) 0xFF);
+        return levels;
+    }
+
+    private static ArtDmxPacket dmx(int subnet, int universe) {
+        ArtDmxPacket packet = new ArtDmxPacket();
+        packet.setUniverse(subnet, universe);
+        packet.setDMX(new byte[512], 512);
+        return packet;
+    }
+}
@@ -0,0 +1,102 @@
+package me.sunstorm.showmanager.artnet;
+
+import ch.bildspur.artnet.packets.ArtNetPacketParser;
+import ch.bildspur.artnet.packets.ArtTimePacket;
+import me.sunstorm.showmanager.modules.artnet.ArtTimeSender;
+import me.sunstorm.showmanager.util.Framerate;
+import me.sunstorm.showmanager.util.Frames;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+
+import static org.assertj.core.api.Assertions.*;
+
+public class ArtTimeSenderTests {
+
+    @Test
+    void testPacket() throws Exception {
+        InetAddress loopback = InetAddress.getLoopbackAddress();
+        try (DatagramSocket receiver = new DatagramSocket(new InetSocketAddress(loopback, 0));
+             ArtTimeSender sender = new ArtTimeSender(loopback, new InetSocketAddress(loopback, receiver.getLocalPort()))) {
+            receiver.setSoTimeout(1000);
+            sender.setTime(Frames.of(1, 2, 3, 4, Framerate.DF), Framerate.DF);
+            sender.send();
+
+            DatagramPacket received = new DatagramPacket(new byte[64], 64);
+            receiver.receive(received);
+            assertThat(received.getLength()).isEqualTo(19);
+            ArtTimePacket packet = (ArtTimePacket) ArtNetPacketParser.parse(received);
+            assertThat(packet).isNotNull();
+            assertThat(packet.getHours()).isEqualTo(1);
+            assertThat(packet.getMinutes()).isEqualTo(2);
+            assertThat(packet.getSeconds()).isEqualTo(3);
+            assertThat(packet.getFrames()).isEqualTo(4);
+            assertThat(packet.getFrameType()).isEqualTo(Framerate.DF.getArtNetType());
+        }
+    }
+
+    @Test
+    void testFanOut() throws Exception {
+        InetAddress loopback = InetAddress.getLoopbackAddress();
+        try (DatagramSocket first = new DatagramSocket(new InetSocketAddress(loopback, 0));
+             DatagramSocket second = new DatagramSocket(new InetSocketAddress(loopback, 0));
+             ArtTimeSender sender = new ArtTimeSender(loopback)) {
+            first.setSoTimeout(1000);
+            second.setSoTimeout(1000);
+            InetSocketAddress firstAddress = new InetSocketAddress(loopback, first.getLocalPort());
+            InetSocketAddress secondAddress = new InetSocketAddress(loopback, second.getLocalPort());
+            sender.setTargets(firstAddress, secondAddress, firstAddress);
+            assertThat(sender.getTargets()).hasSize(2);
+            sender.setTime(Frames.of(0, 0, 1, 0, Framerate.EBU), Framerate.EBU);
+            sender.send();
+
+            DatagramPacket received = new DatagramPacket(new byte[64], 64);
+            first.receive(received);
+            assertThat(received.getLength()).isEqualTo(19);
+            second.receive(received);
+            assertThat(received.getLength()).isEqualTo(19);
+            assertThat(sender.getSent()).isEqualTo(2);
+
+            // the statistics of the remaining target are kept
+            sender.setTargets(secondAddress);
+            sender.send();
+            ArtTimeSender.Target[] targets = sender.getTargets();
+            assertThat(targets).hasSize(1);
+            assertThat(targets[0].getAddress()).isEqualTo(secondAddress);
+            assertThat(targets[0].getSent()).isEqualTo(2);
+            assertThat(targets[0].getErrors()).isEqualTo(0);
+
+            sender.setTargets();
+            sender.send();
+            assertThat(sender.getSent()).isEqualTo(3);
+        }
+    }
+
+    @Test
+    void testSendAllocationFree() throws Exception {
+        var threadBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        threadBean.setThreadAllocatedMemoryEnabled(true);
+        InetAddress loopback = InetAddress.getLoopbackAddress();
+        try (DatagramSocket receiver = new DatagramSocket(new InetSocketAddress(loopback, 0));
+             ArtTimeSender sender = new ArtTimeSender(loopback, new InetSocketAddress(loopback, receiver.getLocalPort()))) {
+            send(sender, 0, 10_000);
+            long before = threadBean.getCurrentThreadAllocatedBytes();
+            send(sender, 10_000, 10_000);
+            long allocated = threadBean.getCurrentThreadAllocatedBytes() - before;
+
+            assertThat(sender.getErrors()).isEqualTo(0);
+            assertThat(allocated).isLessThan(1024);
+        }
+    }
+
+    private static void send(ArtTimeSender sender, long from, int count) {
+        for (long frames = from; frames < from + count; frames++) {
+            sender.setTime(frames, Framerate.EBU);
+            sender.send();
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package me.sunstorm.showmanager.artnet;
+
+import ch.bildspur.artnet.packets.ArtDmxPacket;
+import ch.bildspur.artnet.packets.ArtNetPacketParser;
+import ch.bildspur.artnet.packets.PacketType;
+import me.sunstorm.showmanager.dmx.DmxUniverseStore;
+import me.sunstorm.showmanager.modules.artnet.ArtNetNodeInfo;
+import me.sunstorm.showmanager.modules.artnet.DmxOutputEngine;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.net.DatagramPacket;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketTimeoutException;
+import java.nio.channels.DatagramChannel;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+public class DmxOutputEngineTests {
+    private static final long FRAME = 40_000_000L;
+    private static final long START = 10_000_000_000L;
+
+    @Test
+    void testChangeDetection() throws Exception {
+        InetAddress loopback = InetAddress.getLoopbackAddress();
+        try (DatagramChannel receiver = DatagramChannel.open().bind(new InetSocketAddress(loopback, 0));
+             DmxOutputEngine engine = new DmxOutputEngine((InetSocketAddress) receiver.getLocalAddress())) {
+            receiver.socket().setSoTimeout(200);
+            engine.open(loopback);
+            int universe = DmxUniverseStore.portAddress(1, 2, 3);
+            engine.addUniverse(universe);
+
+            // the first frame sends every universe
+            engine.send(START);
+            List<ArtDmxPacket> packets = receive(receiver);
+            assertThat(packets).hasSize(1);
+            assertThat(packets.getFirst().getPortAddress()).isEqualTo(universe);
+            assertThat(packets.getFirst().getSequenceID()).isEqualTo(1);
+
+            // nothing changed
+            engine.send(START + FRAME);
+            assertThat(receive(receiver)).isEmpty();
+
+            engine.set(universe, 9, 255);
+            engine.send(START + 2 * FRAME);
+            packets = receive(receiver);
+            assertThat(packets).hasSize(1);
+            assertThat(packets.getFirst().getDmxData()[9]).isEqualTo((byte) 255);
+            assertThat(packets.getFirst().getSequenceID()).isEqualTo(2);
+
+            // keep-alive
+            engine.send(START + 2 * FRAME + engine.getKeepAlive());
+            packets = receive(receiver);
+            assertThat(packets).hasSize(1);
+            assertThat(packets.getFirst().getDmxData()[9]).isEqualTo((byte) 255);
+            assertThat(engine.getErrors()).isEqualTo(0);
+        }
+    }
+
+    @Test
+    void testTargets() throws Exception {
+        DmxOutputEngine engine = new DmxOutputEngine();
+        int universe = DmxUniverseStore.portAddress(1, 2, 5);
+        engine.addUniverse(universe);
+        engine.addUniverse(universe + 1);
+
+        var node = ArtNetNodeInfo.of(ArtNetDiscoveryTests.reply("10.1.2.3", 1, 1 << 8 | 2, 5));
+        var local = ArtNetNodeInfo.of(ArtNetDiscoveryTests.reply("127.0.0.1", 1, 1 << 8 | 2, 5));
+        engine.updateTargets(List.of(node, local));
+        assertThat(engine.getTargets(universe)).containsExactly(new InetSocketAddress("10.1.2.3", 6454));
+        assertThat(engine.getTargets(universe + 1)).isEmpty();
+        // universes added later are targeted too
+        engine.addUniverse(universe + 2);
+        engine.updateTargets(List.of(ArtNetNodeInfo.of(ArtNetDiscoveryTests.reply("10.1.2.4", 1, 1 << 8 | 2, 7))));
+        assertThat(engine.getTargets(universe)).isEmpty();
+        assertThat(engine.getTargets(universe + 2)).containsExactly(new InetSocketAddress("10.1.2.4", 6454));
+    }
+
+    @Test
+    void testSendAllocationFree() throws Exception {
+        var threadBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        threadBean.setThreadAllocatedMemoryEnabled(true);
+        InetAddress loopback = InetAddress.getLoopbackAddress();
+        try (DatagramChannel receiver = DatagramChannel.open().bind(new InetSocketAddress(loopback, 0));
+             DmxOutputEngine engine = new DmxOutputEngine((InetSocketAddress) receiver.getLocalAddress())) {
+            engine.open(loopback);
+            for (int i = 0; i < 16; i++) {
+                engine.addUniverse(i);
+            }
+            runFrames(engine, 0, 20_000);
+            long before = threadBean.getCurrentThreadAllocatedBytes();
+            runFrames(engine, 20_000, 5_000);
+            long allocated = threadBean.getCurrentThreadAllocatedBytes() - before;
+
+            assertThat(engine.getErrors()).isEqualTo(0);
+            assertThat(allocated).isLessThan(1024);
+        }
+    }
+
+    private static void runFrames(DmxOutputEngine engine, int from, int count) {
+        for (int frame = from; frame < from + count; frame++) {
+            engine.set(frame % 16, 0, frame);
+            engine.send(START + frame * FRAME);
+        }
+    }
+
+    private static List<ArtDmxPacket> receive(DatagramChannel receiver) throws Exception {
+        List<ArtDmxPacket> packets = new ArrayList<>();
+        ArtNetPacketParser parser = new ArtNetPacketParser();
+        while (true) {
+            DatagramPacket datagram = new DatagramPacket(new byte[1024], 1024);
+            try {
+                receiver.socket().receive(datagram);
+                var packet = parser.parsePooled(datagram.getData(), datagram.getLength());
+                if (packet != null && packet.getType() == PacketType.ART_OUTPUT)
+                    packets.add((ArtDmxPacket) packet);
+            } catch (SocketTimeoutException e) {
+                return packets;
+            }
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package me.sunstorm.showmanager.clock;
+
+import me.sunstorm.showmanager.clock.impl.SpinParkWaitStrategy;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+public class MasterClockTests {
+
+    @Test
+    void testFramesAreMonotonic() throws InterruptedException {
+        List<Long> frames = new ArrayList<>();
+        MasterClock[] clock = new MasterClock[1];
+        clock[0] = new MasterClock(100, new SpinParkWaitStrategy(200_000), (frame, now) -> {
+            frames.add(frame);
+            if (frames.size() == 10)
+                clock[0].stop();
+        });
+        Thread t = new Thread(clock[0]);
+        t.start();
+        t.join(5000);
+        assertThat(frames).hasSize(10);
+        for (int i = 1; i < frames.size(); i++) {
+            assertThat(frames.get(i)).isGreaterThan(frames.get(i - 1));
+        }
+        assertThat(clock[0].getJitter().getCount()).isEqualTo(10);
+    }
+
+    @Test
+    void testFrameStartsAfterDeadline() throws InterruptedException {
+        MasterClock[] clock = new MasterClock[1];
+        List<Long> lateness = new ArrayList<>();
+        clock[0] = new MasterClock(50, new SpinParkWaitStrategy(200_000), (frame, now) -> {
+            lateness.add(now - clock[0].deadline(frame));
+            if (lateness.size() == 5)
+                clock[0].stop();
+        });
+        Thread t = new Thread(clock[0]);
+        t.start();
+        t.join(5000);
+        assertThat(lateness).hasSize(5);
+        lateness.forEach(l -> assertThat(l).isGreaterThanOrEqualTo(0));
+    }
+
+    @Test
+    void testAlign() throws InterruptedException {
+        MasterClock[] clock = new MasterClock[1];
+        long[] phase = new long[1];
+        List<Long> offsets = new ArrayList<>();
+        clock[0] = new MasterClock(100, new SpinParkWaitStrategy(200_000), (frame, now) -> {
+            if (frame == 2) {
+                // next frame 3ms from now
+                phase[0] = now - 7_000_000;
+                clock[0].align(phase[0]);
+            } else if (frame > 2) {
+                offsets.add((clock[0].deadline(frame) - phase[0]) % 10_000_000);
+                if (offsets.size() == 5)
+                    clock[0].stop();
+            }
+        });
+        Thread t = new Thread(clock[0]);
+        t.start();
+        t.join(5000);
+        assertThat(offsets).hasSize(5);
+        offsets.forEach(o -> assertThat(o).isBetween(0L, 1L));
+    }
+
+    @Test
+    void testJitterStats() {
+        JitterStats stats = new JitterStats();
+        for (int i = 0; i < 99; i++) {
+            stats.record(5_000);
+        }
+        stats.record(3_000_000);
+        assertThat(stats.getCount()).isEqualTo(100);
+        assertThat(stats.getMax()).isEqualTo(3_000_000);
+        assertThat(stats.percentileMicros(50)).isLessThanOrEqualTo(8);
+        assertThat(stats.percentileMicros(100)).isGreaterThanOrEqualTo(2048);
+    }
+}
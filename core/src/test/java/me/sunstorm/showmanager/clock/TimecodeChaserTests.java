@@ -0,0 +1,97 @@
+package me.sunstorm.showmanager.clock;
+
+import me.sunstorm.showmanager.settings.config.ChaseConfig;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.*;
+
+public class TimecodeChaserTests {
+    private static final long FRAME = 40_000_000L;
+    // the local clock runs 100 ppm faster than the source
+    private static final double DRIFT = 1.0001;
+
+    private final Random random = new Random(42);
+
+    private long arrival(long source) {
+        // 0.2 - 1.2 ms of network latency
+        return (long) (source * DRIFT) + 200_000 + random.nextInt(1_000_000);
+    }
+
+    @Test
+    void testLocksThroughJitter() {
+        TimecodeChaser chaser = new TimecodeChaser(new ChaseConfig());
+        long source = 0;
+        for (int i = 0; i < 500; i++, source += FRAME) {
+            chaser.onTimecode(source, arrival(source));
+        }
+        long now = (long) (source * DRIFT);
+        assertThat(chaser.getState(now)).isEqualTo(ChaseState.LOCKED);
+        assertThat(Math.abs(chaser.sourceAt(now) - source)).isLessThan(2_000_000);
+        assertThat(chaser.getRelocks()).isEqualTo(1);
+        assertThat(chaser.toJson().get("driftPpm").getAsDouble()).isBetween(-150.0, -50.0);
+    }
+
+    @Test
+    void testSmoothOutput() {
+        TimecodeChaser chaser = new TimecodeChaser(new ChaseConfig());
+        long source = 0;
+        long previous = -1;
+        for (int i = 0; i < 500; i++, source += FRAME) {
+            long arrival = arrival(source);
+            chaser.onTimecode(source, arrival);
+            if (i > 50) {
+                // sampled half a frame later, the estimate must never go backwards or skip a frame
+                long chased = chaser.sourceAt(arrival + FRAME / 2);
+                if (previous >= 0)
+                    assertThat(chased - previous).isBetween(FRAME - 2_000_000, FRAME + 2_000_000);
+                previous = chased;
+            }
+        }
+    }
+
+    @Test
+    void testRelockAndHold() {
+        TimecodeChaser chaser = new TimecodeChaser(new ChaseConfig());
+        long source = 0;
+        for (int i = 0; i < 50; i++, source += FRAME) {
+            chaser.onTimecode(source, arrival(source));
+        }
+        // located to one hour
+        long offset = 3_600_000_000_000L;
+        for (int i = 0; i < 10; i++, source += FRAME) {
+            chaser.onTimecode(source + offset, arrival(source));
+        }
+        assertThat(chaser.getRelocks()).isEqualTo(2);
+        // paused: the same frame over and over
+        long held = source + offset;
+        for (int i = 0; i < 5; i++, source += FRAME) {
+            chaser.onTimecode(held, arrival(source));
+        }
+        long now = arrival(source);
+        assertThat(chaser.getState(now)).isEqualTo(ChaseState.HELD);
+        assertThat(chaser.sourceAt(now)).isEqualTo(held);
+        // resuming from the held frame isn't a relock
+        chaser.onTimecode(held + FRAME, arrival(source));
+        assertThat(chaser.getRelocks()).isEqualTo(2);
+        assertThat(chaser.getState(arrival(source))).isEqualTo(ChaseState.LOCKING);
+    }
+
+    @Test
+    void testFreewheel() {
+        TimecodeChaser chaser = new TimecodeChaser(new ChaseConfig());
+        assertThat(chaser.getState(0)).isEqualTo(ChaseState.UNLOCKED);
+        assertThat(chaser.sourceAt(0)).isEqualTo(-1);
+        long source = 0;
+        long last = 0;
+        for (int i = 0; i < 100; i++, source += FRAME) {
+            last = arrival(source);
+            chaser.onTimecode(source, last);
+        }
+        assertThat(chaser.getState(last + 500_000_000L)).isEqualTo(ChaseState.FREEWHEEL);
+        // still running while freewheeling
+        assertThat(chaser.sourceAt(last + 500_000_000L)).isGreaterThan(source);
+        assertThat(chaser.getState(last + 1_500_000_000L)).isEqualTo(ChaseState.UNLOCKED);
+    }
+}
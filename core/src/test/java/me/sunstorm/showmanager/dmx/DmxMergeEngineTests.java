@@ -0,0 +1,134 @@
+package me.sunstorm.showmanager.dmx;
+
+import org.junit.jupiter.api.Test;
+
+import java.net.InetAddress;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.*;
+
+public class DmxMergeEngineTests {
+    private static final int UNIVERSE = 7;
+
+    @Test
+    void testSwar() {
+        Random random = new Random(1);
+        for (int i = 0; i < 100_000; i++) {
+            long x = random.nextLong();
+            long y = i % 3 == 0 ? x ^ 1L << random.nextInt(64) : random.nextLong();
+            long max = DmxMergeEngine.max(x, y);
+            long nonZero = DmxMergeEngine.nonZero(x ^ y);
+            for (int b = 0; b < 64; b += 8) {
+                int xb = (int) (x >>> b) & 0xFF;
+                int yb = (int) (y >>> b) & 0xFF;
+                assertThat((int) (max >>> b) & 0xFF).isEqualTo(Math.max(xb, yb));
+                assertThat((int) (nonZero >>> b) & 0xFF).isEqualTo(xb != yb ? 0xFF : 0);
+            }
+        }
+    }
+
+    @Test
+    void testHtp() {
+        DmxUniverseStore store = new DmxUniverseStore(false);
+        DmxMergeEngine engine = new DmxMergeEngine(store);
+        submit(engine, 1, 100, 1, 0, 100, 0);
+        // a single source is written as is
+        assertThat(store.get(UNIVERSE, 0)).isEqualTo(100);
+        submit(engine, 2, 100, 1, 0, 50, 200);
+        assertThat(engine.getSources(UNIVERSE)).isEqualTo(2);
+        assertThat(store.get(UNIVERSE, 0)).isEqualTo(100);
+        assertThat(store.get(UNIVERSE, 1)).isEqualTo(200);
+        submit(engine, 1, 100, 2, 0, 10, 0);
+        assertThat(store.get(UNIVERSE, 0)).isEqualTo(50);
+        assertThat(store.get(UNIVERSE, 1)).isEqualTo(200);
+
+        // the levels didn't change, the merge isn't recomputed
+        long merges = engine.getMerges();
+        long sequence = store.getSequence(UNIVERSE);
+        submit(engine, 1, 100, 3, 0, 10, 0);
+        submit(engine, 2, 100, 2, 0, 50, 200);
+        assertThat(engine.getMerges()).isEqualTo(merges);
+        assertThat(store.getSequence(UNIVERSE)).isEqualTo(sequence);
+    }
+
+    @Test
+    void testLtp() {
+        DmxUniverseStore store = new DmxUniverseStore(false);
+        DmxMergeEngine engine = new DmxMergeEngine(store);
+        engine.setMode(UNIVERSE, MergeMode.LTP);
+        submit(engine, 1, 100, 1, 0, 100, 100);
+        submit(engine, 2, 100, 1, 0, 50, 50);
+        assertThat(store.get(UNIVERSE, 0)).isEqualTo(50);
+        assertThat(store.get(UNIVERSE, 1)).isEqualTo(50);
+
+        // only the changed channel is taken over
+        submit(engine, 1, 100, 2, 0, 100, 20);
+        assertThat(store.get(UNIVERSE, 0)).isEqualTo(50);
+        assertThat(store.get(UNIVERSE, 1)).isEqualTo(20);
+        // keep-alives don't take anything
+        submit(engine, 2, 100, 2, 0, 50, 50);
+        assertThat(store.get(UNIVERSE, 1)).isEqualTo(20);
+    }
+
+    @Test
+    void testPriority() {
+        DmxUniverseStore store = new DmxUniverseStore(false);
+        DmxMergeEngine engine = new DmxMergeEngine(store);
+        submit(engine, 1, 100, 1, 0, 100);
+        submit(engine, 2, 100, 1, 0, 50);
+        submit(engine, 3, 150, 1, 0, 10);
+        assertThat(store.get(UNIVERSE, 0)).isEqualTo(10);
+        // a lower priority doesn't change the output
+        submit(engine, 1, 100, 2, 0, 255);
+        assertThat(store.get(UNIVERSE, 0)).isEqualTo(10);
+
+        engine.removeSource(UNIVERSE, 0, 3);
+        assertThat(store.get(UNIVERSE, 0)).isEqualTo(255);
+    }
+
+    @Test
+    void testSequence() {
+        DmxUniverseStore store = new DmxUniverseStore(false);
+        DmxMergeEngine engine = new DmxMergeEngine(store);
+        assertThat(submit(engine, 1, 100, 10, 0, 1)).isTrue();
+        // late and repeated packets are discarded
+        assertThat(submit(engine, 1, 100, 9, 0, 2)).isFalse();
+        assertThat(submit(engine, 1, 100, 10, 0, 2)).isFalse();
+        assertThat(store.get(UNIVERSE, 0)).isEqualTo(1);
+        assertThat(engine.getOutOfOrder()).isEqualTo(2);
+        // a jump of 20 or more back is a restarted source
+        assertThat(submit(engine, 1, 100, 245, 0, 3)).isTrue();
+        assertThat(submit(engine, 1, 100, 0, 0, 4)).isTrue();
+        // not sequenced
+        assertThat(submit(engine, 1, 100, -1, 0, 5)).isTrue();
+        assertThat(submit(engine, 1, 100, -1, 0, 6)).isTrue();
+        assertThat(store.get(UNIVERSE, 0)).isEqualTo(6);
+    }
+
+    @Test
+    void testTimeout() {
+        DmxUniverseStore store = new DmxUniverseStore(false);
+        DmxMergeEngine engine = new DmxMergeEngine(store);
+        submit(engine, 1, 100, 1, 0, 100);
+        submit(engine, 2, 100, 1, 1_000_000_000L, 50);
+        assertThat(store.get(UNIVERSE, 0)).isEqualTo(100);
+
+        submit(engine, 2, 100, 2, DmxMergeEngine.DEFAULT_TIMEOUT + 1, 50);
+        assertThat(engine.getSources(UNIVERSE)).isEqualTo(1);
+        assertThat(store.get(UNIVERSE, 0)).isEqualTo(50);
+    }
+
+    @Test
+    void testSourceOf() throws Exception {
+        assertThat(DmxMergeEngine.sourceOf(InetAddress.getByName("10.0.0.255"))).isEqualTo(0x0A0000FFL);
+        assertThat(DmxMergeEngine.sourceOf(InetAddress.getByName("255.255.255.255"))).isEqualTo(0xFFFFFFFFL);
+    }
+
+    private static boolean submit(DmxMergeEngine engine, long source, int priority, int sequence, long now, int... levels) {
+        byte[] data = new byte[levels.length];
+        for (int i = 0; i < levels.length; i++) {
+            data[i] = (byte) levels[i];
+        }
+        return engine.submit(UNIVERSE, 0, source, priority, sequence, data, 0, data.length, now);
+    }
+}
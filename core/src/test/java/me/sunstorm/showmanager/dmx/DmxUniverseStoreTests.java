@@ -0,0 +1,83 @@
+package me.sunstorm.showmanager.dmx;
+
+import ch.bildspur.artnet.packets.ArtDmxPacket;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.*;
+
+public class DmxUniverseStoreTests {
+
+    @Test
+    void testWriteRead() {
+        DmxUniverseStore store = new DmxUniverseStore(false);
+        int portAddress = DmxUniverseStore.portAddress(127, 15, 15);
+        assertThat(portAddress).isEqualTo(DmxUniverseStore.UNIVERSES - 1);
+        assertThat(store.getSequence(portAddress)).isEqualTo(0);
+
+        byte[] packet = new byte[600];
+        Arrays.fill(packet, 18, 18 + 512, (byte) 200);
+        store.write(portAddress, packet, 18, 512);
+        packet[18] = 1;
+        store.write(portAddress, packet, 18, 1);
+
+        byte[] data = new byte[512];
+        assertThat(store.read(portAddress, data)).isEqualTo(4);
+        assertThat(data[0]).isEqualTo((byte) 1);
+        assertThat(data[511]).isEqualTo((byte) 200);
+        assertThat(store.get(portAddress, 511)).isEqualTo(200);
+        assertThat(store.getUpdated(portAddress)).isNotEqualTo(0);
+        // the neighbours are untouched
+        assertThat(store.getSequence(portAddress - 1)).isEqualTo(0);
+        assertThat(store.get(portAddress - 1, 511)).isEqualTo(0);
+
+        assertThatThrownBy(() -> store.get(DmxUniverseStore.UNIVERSES, 0)).isInstanceOf(IndexOutOfBoundsException.class);
+    }
+
+    @Test
+    void testPortAddress() {
+        ArtDmxPacket packet = new ArtDmxPacket();
+        packet.setUniverse(3, 4);
+        packet.setDMX(new byte[] {1, 2, 3}, 3);
+        byte[] raw = packet.getData();
+        raw[15] = 5;
+
+        ArtDmxPacket parsed = new ArtDmxPacket();
+        parsed.parse(raw);
+        assertThat(parsed.getPortAddress()).isEqualTo(DmxUniverseStore.portAddress(5, 3, 4));
+        assertThat(parsed.getDmxData()).isEqualTo(new byte[] {1, 2, 3, 0});
+    }
+
+    @Test
+    void testNoTornReads() throws Exception {
+        DmxUniverseStore store = new DmxUniverseStore(true);
+        AtomicBoolean running = new AtomicBoolean(true);
+        Thread writer = new Thread(() -> {
+            byte[] data = new byte[512];
+            for (int i = 0; running.get(); i++) {
+                Arrays.fill(data, (byte) i);
+                store.write(42, data, 0, data.length);
+            }
+        });
+        writer.start();
+        try {
+            byte[] data = new byte[512];
+            long last = 0;
+            for (int i = 0; i < 100_000; i++) {
+                long sequence = store.read(42, data);
+                assertThat(sequence & 1).isEqualTo(0);
+                assertThat(sequence).isGreaterThanOrEqualTo(last);
+                last = sequence;
+                for (byte b : data) {
+                    if (b != data[0])
+                        fail("Torn read at sequence " + sequence);
+                }
+            }
+        } finally {
+            running.set(false);
+            writer.join();
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package me.sunstorm.showmanager.event;
+
+import me.sunstorm.showmanager.eventsystem.events.Event;
+import me.sunstorm.showmanager.eventsystem.events.audio.AudioVolumeChangeEvent;
+import me.sunstorm.showmanager.eventsystem.events.marker.MarkerCreateEvent;
+import me.sunstorm.showmanager.eventsystem.events.remote.DmxRemoteStateEvent;
+import me.sunstorm.showmanager.eventsystem.events.time.TimecodeChangeEvent;
+import me.sunstorm.showmanager.eventsystem.events.time.TimecodePauseEvent;
+import me.sunstorm.showmanager.eventsystem.events.time.TimecodeStartEvent;
+import me.sunstorm.showmanager.eventsystem.registry.BinaryEventConverter;
+import me.sunstorm.showmanager.eventsystem.registry.EventConverter;
+import me.sunstorm.showmanager.eventsystem.registry.EventWrapper;
+import me.sunstorm.showmanager.modules.audio.marker.Marker;
+import me.sunstorm.showmanager.modules.remote.DmxRemoteState;
+import me.sunstorm.showmanager.redis.converter.GzipConverter;
+import me.sunstorm.showmanager.util.Framerate;
+import me.sunstorm.showmanager.util.Timecode;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.*;
+
+public class BinaryEventConverterTests {
+    private final BinaryEventConverter converter = new BinaryEventConverter();
+
+    @Test
+    void testTimecodeChange() {
+        TimecodeChangeEvent event = new TimecodeChangeEvent(Framerate.DF);
+        event.setPosition(123_456, 4_119_000_000L);
+        byte[] encoded = converter.encode(new EventWrapper(11, true, event));
+        // id, flags, framerate, frames, nanos
+        assertThat(encoded.length).isEqualTo(19);
+        EventWrapper decoded = converter.decode(encoded);
+        assertThat(decoded.id()).isEqualTo(11);
+        assertThat(decoded.async()).isTrue();
+        TimecodeChangeEvent change = (TimecodeChangeEvent) decoded.event();
+        assertThat(change.getFramerate()).isEqualTo(Framerate.DF);
+        assertThat(change.getFrames()).isEqualTo(123_456);
+        assertThat(change.getNanos()).isEqualTo(4_119_000_000L);
+    }
+
+    @Test
+    void testSchemas() {
+        Timecode time = new Timecode(1, 2, 3, 4, Framerate.FILM);
+        TimecodeStartEvent start = (TimecodeStartEvent) roundTrip(14, new TimecodeStartEvent(time));
+        assertThat(start.getTime()).isEqualTo(time);
+        assertThat(((TimecodeStartEvent) roundTrip(14, new TimecodeStartEvent(null))).getTime()).isNull();
+        assertThat(((AudioVolumeChangeEvent) roundTrip(5, new AudioVolumeChangeEvent(-15))).getVolume()).isEqualTo(-15);
+        DmxRemoteStateEvent state = (DmxRemoteStateEvent) roundTrip(10, new DmxRemoteStateEvent(DmxRemoteState.PLAYING, null));
+        assertThat(state.getState()).isEqualTo(DmxRemoteState.PLAYING);
+        assertThat(state.getPrevious()).isNull();
+        assertThat(roundTrip(12, new TimecodePauseEvent())).isInstanceOf(TimecodePauseEvent.class);
+        assertThat(converter.encode(new EventWrapper(5, false, new AudioVolumeChangeEvent(15))).length).isEqualTo(3);
+    }
+
+    // the messages of EventCodecBenchmark
+    @Test
+    void testSmallerThanJson() {
+        GzipConverter<EventWrapper> json = new GzipConverter<>(new EventConverter());
+        TimecodeChangeEvent change = new TimecodeChangeEvent(Framerate.EBU);
+        change.setFrames(90_000);
+        EventWrapper timecode = new EventWrapper(11, false, change);
+        assertThat(converter.encode(timecode).length).isLessThan(json.encode(timecode).length / 4);
+        EventWrapper volume = new EventWrapper(5, false, new AudioVolumeChangeEvent(80));
+        assertThat(converter.encode(volume).length).isLessThan(json.encode(volume).length / 4);
+
+        // a short JSON body isn't deflated, so it's larger than the GZIP one, unless deflating is forced
+        Marker marker = new Marker("Chorus", new Timecode(0, 1, 0, 0, Framerate.EBU));
+        EventWrapper create = new EventWrapper(16, false, new MarkerCreateEvent(marker));
+        assertThat(converter.encode(create).length).isGreaterThan(json.encode(create).length);
+        assertThat(new BinaryEventConverter(0).encode(create).length).isLessThan(json.encode(create).length);
+    }
+
+    @Test
+    void testJsonFallback() {
+        Marker marker = new Marker("Chorus", new Timecode(0, 1, 0, 0, Framerate.EBU));
+        MarkerCreateEvent event = (MarkerCreateEvent) roundTrip(16, new MarkerCreateEvent(marker));
+        assertThat(event.getMarker().getLabel()).isEqualTo("Chorus");
+        assertThat(event.getMarker().getTime()).isEqualTo(marker.getTime());
+    }
+
+    @Test
+    void testDeflate() {
+        Marker marker = new Marker("Verse ".repeat(100), Timecode.ZERO);
+        EventWrapper wrapper = new EventWrapper(16, false, new MarkerCreateEvent(marker));
+        byte[] raw = new BinaryEventConverter(-1).encode(wrapper);
+        byte[] deflated = converter.encode(wrapper);
+        assertThat(deflated.length).isLessThan(raw.length / 4);
+        assertThat(raw[1]).isEqualTo((byte) 0);
+        assertThat(deflated[1]).isEqualTo((byte) 2);
+        MarkerCreateEvent event = (MarkerCreateEvent) converter.decode(deflated).event();
+        assertThat(event.getMarker().getLabel()).isEqualTo(marker.getLabel());
+        // a converter that never deflates still reads deflated messages
+        assertThat(new BinaryEventConverter(-1).decode(deflated).event()).isInstanceOf(MarkerCreateEvent.class);
+    }
+
+    @Test
+    void testCorrupt() {
+        assertThatThrownBy(() -> converter.decode(new byte[] {99, 0})).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> converter.decode(new byte[] {11, 0, 25, 1})).isInstanceOf(IllegalArgumentException.class);
+        byte[] deflated = converter.encode(new EventWrapper(16, false, new MarkerCreateEvent(new Marker("x".repeat(1000), Timecode.ZERO))));
+        deflated[deflated.length / 2] ^= 0x55;
+        assertThatThrownBy(() -> converter.decode(deflated)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private Event roundTrip(int id, Event event) {
+        EventWrapper decoded = converter.decode(converter.encode(new EventWrapper(id, false, event)));
+        assertThat(decoded.id()).isEqualTo(id);
+        assertThat(decoded.async()).isFalse();
+        return decoded.event();
+    }
+}
@@ -2,10 +2,15 @@ package me.sunstorm.showmanager.event;
 
 import me.sunstorm.showmanager.event.impl.DummyEvent;
 import me.sunstorm.showmanager.event.impl.DummyListener;
+import me.sunstorm.showmanager.event.impl.SupertypeListener;
 import me.sunstorm.showmanager.eventsystem.EventBus;
+import me.sunstorm.showmanager.eventsystem.EventCall;
+import me.sunstorm.showmanager.eventsystem.Listener;
+import me.sunstorm.showmanager.eventsystem.events.Event;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.*;
 
 public class EventBusTests {
@@ -32,4 +37,59 @@ public class EventBusTests {
         new DummyEvent().call(bus);
         verifyNoMoreInteractions(dummy);
     }
+
+    @Test
+    void testSupertypes() {
+        EventBus bus = new EventBus();
+        DummyListener dummy = mock(DummyListener.class);
+        SupertypeListener supertype = new SupertypeListener();
+        bus.register(dummy);
+        bus.register(supertype);
+        new DummyEvent().call(bus);
+        verify(dummy).onDummyEvent(any());
+        // lowest first
+        assertThat(supertype.getCalls()).containsExactly("dummy", "any");
+
+        new Event().call(bus);
+        assertThat(supertype.getCalls()).containsExactly("dummy", "any", "any");
+        verifyNoMoreInteractions(dummy);
+        assertThat(bus.getListenerCount(DummyEvent.class)).isEqualTo(3);
+        assertThat(bus.getListenerCount(Event.class)).isEqualTo(1);
+    }
+
+    @Test
+    void testNonPublic() {
+        EventBus bus = new EventBus();
+        HiddenListener first = new HiddenListener();
+        HiddenListener second = new HiddenListener();
+        bus.register(first);
+        bus.register(second);
+        new DummyEvent().call(bus);
+        new DummyEvent().call(bus);
+        // bound to their own instance
+        assertThat(first.calls).isEqualTo(2);
+        assertThat(second.calls).isEqualTo(2);
+    }
+
+    @Test
+    void testRebuild() {
+        EventBus bus = new EventBus();
+        SupertypeListener supertype = new SupertypeListener();
+        bus.register(supertype);
+        assertThat(bus.getListenerCount(DummyEvent.class)).isEqualTo(2);
+        bus.register(mock(DummyListener.class));
+        assertThat(bus.getListenerCount(DummyEvent.class)).isEqualTo(3);
+        bus.unregister(supertype);
+        assertThat(bus.getListenerCount(DummyEvent.class)).isEqualTo(1);
+        assertThat(bus.getListenerCount(Event.class)).isZero();
+    }
+
+    private static class HiddenListener implements Listener {
+        private int calls = 0;
+
+        @EventCall
+        private void onDummyEvent(DummyEvent e) {
+            calls++;
+        }
+    }
 }
@@ -0,0 +1,129 @@
+package me.sunstorm.showmanager.event;
+
+import me.sunstorm.showmanager.event.impl.CoalesceListener;
+import me.sunstorm.showmanager.event.impl.CountedEvent;
+import me.sunstorm.showmanager.event.impl.LaneListener;
+import me.sunstorm.showmanager.eventsystem.EventBus;
+import me.sunstorm.showmanager.eventsystem.EventLane;
+import me.sunstorm.showmanager.eventsystem.LanePolicy;
+import me.sunstorm.showmanager.settings.config.LaneConfig;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.*;
+
+public class EventLaneTests {
+
+    @Test
+    void testDropOldest() throws Exception {
+        EventBus bus = new EventBus(Map.of("slow", new LaneConfig(2, LanePolicy.DROP_OLDEST)));
+        LaneListener listener = new LaneListener();
+        bus.register(listener);
+        EventLane lane = bus.getLane("slow");
+        fill(bus, lane);
+        assertThat(lane.getDropped()).isEqualTo(2);
+        assertThat(lane.getMaxDepth()).isEqualTo(2);
+        listener.open();
+        await(() -> lane.getProcessed() == 3 && listener.getReceived().size() == 3);
+        assertThat(listener.getReceived()).containsExactly(0, 3, 4);
+        assertThat(listener.getThread()).isEqualTo("EventBus slow");
+    }
+
+    @Test
+    void testCoalesce() throws Exception {
+        EventBus bus = new EventBus(Map.of("slow", new LaneConfig(2, LanePolicy.COALESCE)));
+        LaneListener listener = new LaneListener();
+        bus.register(listener);
+        EventLane lane = bus.getLane("slow");
+        fill(bus, lane);
+        assertThat(lane.getCoalesced()).isEqualTo(3);
+        assertThat(lane.getDropped()).isZero();
+        listener.open();
+        await(() -> listener.getReceived().size() == 2);
+        assertThat(listener.getReceived()).containsExactly(0, 4);
+    }
+
+    @Test
+    void testBlock() throws Exception {
+        EventBus bus = new EventBus(Map.of("slow", new LaneConfig(1, LanePolicy.BLOCK)));
+        LaneListener listener = new LaneListener();
+        bus.register(listener);
+        EventLane lane = bus.getLane("slow");
+        new CountedEvent(0).call(bus);
+        await(() -> lane.getProcessed() == 1);
+        new CountedEvent(1).call(bus);
+        Thread producer = new Thread(() -> new CountedEvent(2).call(bus));
+        producer.start();
+        await(() -> producer.getState() == Thread.State.WAITING);
+        assertThat(lane.getDepth()).isEqualTo(1);
+        listener.open();
+        producer.join(5000);
+        await(() -> listener.getReceived().size() == 3);
+        assertThat(listener.getReceived()).containsExactly(0, 1, 2);
+        assertThat(lane.getDropped()).isZero();
+    }
+
+    @Test
+    void testAsyncLane() throws Exception {
+        EventBus bus = new EventBus();
+        assertThat(bus.getLane(EventBus.ASYNC_LANE)).isNotNull();
+        assertThat(bus.getLanes()).hasSize(4);
+        // created on registration
+        LaneListener listener = new LaneListener();
+        bus.register(listener);
+        assertThat(bus.getLane("slow")).isNotNull();
+        listener.open();
+        new CountedEvent(7).call(true, bus);
+        await(() -> listener.getReceived().size() == 1);
+        assertThat(bus.getLane(EventBus.ASYNC_LANE).getProcessed()).isEqualTo(1);
+    }
+
+    @Test
+    void testCoalesced() throws Exception {
+        EventBus bus = new EventBus();
+        CoalesceListener listener = new CoalesceListener();
+        bus.register(listener);
+        new CountedEvent(0).call(bus);
+        await(listener::isWaiting);
+        // the lane thread starts with the first event, it could still be pending
+        await(() -> !listener.getLimited().isEmpty());
+        for (int i = 1; i <= 50; i++) {
+            new CountedEvent(i).call(bus);
+        }
+        listener.open();
+        await(() -> listener.getLatest().size() == 2);
+        assertThat(listener.getLatest()).containsExactly(0, 50);
+        assertThat(bus.getLane("slow").getCoalesced()).isEqualTo(49);
+
+        // the first right away, the latest once the rate allows
+        await(() -> listener.getLimited().contains(50));
+        assertThat(listener.getLimited().get(0)).isZero();
+        assertThat(listener.getLimited().size()).isLessThanOrEqualTo(3);
+        List<Long> times = listener.getTimes();
+        for (int i = 1; i < times.size(); i++) {
+            assertThat(times.get(i) - times.get(i - 1)).isGreaterThanOrEqualTo(45_000_000L);
+        }
+    }
+
+    // the first event is taken by the blocked listener, the next 4 meet a full lane
+    private static void fill(EventBus bus, EventLane lane) throws InterruptedException {
+        new CountedEvent(0).call(bus);
+        await(() -> lane.getProcessed() == 1);
+        for (int i = 1; i <= 4; i++) {
+            new CountedEvent(i).call(bus);
+        }
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline)
+                fail("timed out");
+            Thread.sleep(5);
+        }
+    }
+}
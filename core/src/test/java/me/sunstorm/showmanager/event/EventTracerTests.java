@@ -0,0 +1,92 @@
+package me.sunstorm.showmanager.event;
+
+import me.sunstorm.showmanager.event.impl.CountedEvent;
+import me.sunstorm.showmanager.event.impl.SlowListener;
+import me.sunstorm.showmanager.eventsystem.EventBus;
+import me.sunstorm.showmanager.eventsystem.EventTracer;
+import me.sunstorm.showmanager.eventsystem.LatencyHistogram;
+import me.sunstorm.showmanager.util.Framerate;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+public class EventTracerTests {
+    private static final String METHOD = "SlowListener#onCounted";
+
+    @Test
+    void testDisabled() {
+        EventBus bus = new EventBus();
+        bus.register(new SlowListener());
+        new CountedEvent(0).call(bus);
+        EventTracer tracer = bus.getTracer();
+        assertThat(tracer.getEventHistogram(CountedEvent.class)).isNull();
+        assertThat(tracer.getMethodHistogram(METHOD)).isNull();
+        assertThat(tracer.getHistory()).isEmpty();
+    }
+
+    @Test
+    void testOverrun() {
+        EventBus bus = new EventBus();
+        bus.register(new SlowListener());
+        EventTracer tracer = bus.getTracer();
+        tracer.setFramerate(Framerate.EBU);
+        tracer.setBudget(0.25);
+        assertThat(tracer.getBudgetNanos()).isEqualTo(10_000_000L);
+        tracer.setEnabled(true);
+        new CountedEvent(0).call(bus);
+        new CountedEvent(20).call(bus);
+        new CountedEvent(-1).call(bus);
+
+        assertThat(tracer.getEventHistogram(CountedEvent.class).getCount()).isEqualTo(3);
+        LatencyHistogram method = tracer.getMethodHistogram(METHOD);
+        assertThat(method.getCount()).isEqualTo(3);
+        assertThat(method.getMax()).isGreaterThanOrEqualTo(20_000_000L);
+        assertThat(tracer.getOverruns(METHOD)).isEqualTo(1);
+
+        List<EventTracer.Dispatch> history = tracer.getHistory();
+        assertThat(history).hasSize(3);
+        assertThat(history.get(0).overrun()).isFalse();
+        assertThat(history.get(1).overrun()).isTrue();
+        assertThat(history.get(2).failed()).isTrue();
+        assertThat(history.get(1).method()).isEqualTo(METHOD);
+        assertThat(history.get(1).event()).isEqualTo("CountedEvent");
+        assertThat(history.get(1).lane()).isNull();
+
+        tracer.reset();
+        assertThat(tracer.getMethodHistogram(METHOD)).isNull();
+        assertThat(tracer.getHistory()).isEmpty();
+    }
+
+    @Test
+    void testHistory() {
+        EventBus bus = new EventBus();
+        bus.register(new SlowListener());
+        EventTracer tracer = bus.getTracer();
+        tracer.setHistory(2);
+        tracer.setEnabled(true);
+        for (int i = 0; i < 5; i++) {
+            new CountedEvent(0).call(bus);
+        }
+        assertThat(tracer.getHistory()).hasSize(2);
+        assertThat(tracer.getMethodHistogram(METHOD).getCount()).isEqualTo(5);
+        assertThatThrownBy(() -> tracer.setHistory(0)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> tracer.setBudget(0)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void testPercentile() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 1; i <= 1000; i++) {
+            histogram.record(i * 1000L);
+        }
+        assertThat(histogram.getCount()).isEqualTo(1000);
+        assertThat(histogram.getMax()).isEqualTo(1_000_000L);
+        assertThat(histogram.percentile(50)).isBetween(500_000L, 562_500L);
+        assertThat(histogram.percentile(99)).isBetween(990_000L, 1_000_000L);
+        assertThat(histogram.percentile(100)).isEqualTo(1_000_000L);
+        histogram.reset();
+        assertThat(histogram.percentile(50)).isZero();
+    }
+}
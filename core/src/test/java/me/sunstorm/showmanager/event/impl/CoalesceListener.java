@@ -0,0 +1,49 @@
+package me.sunstorm.showmanager.event.impl;
+
+import me.sunstorm.showmanager.eventsystem.EventCall;
+import me.sunstorm.showmanager.eventsystem.Listener;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+
+public class CoalesceListener implements Listener {
+    private final CountDownLatch gate = new CountDownLatch(1);
+    private final List<Integer> latest = new CopyOnWriteArrayList<>();
+    private final List<Integer> limited = new CopyOnWriteArrayList<>();
+    private final List<Long> times = new CopyOnWriteArrayList<>();
+    private volatile boolean waiting;
+
+    @EventCall(lane = "slow", coalesce = true)
+    public void onLatest(CountedEvent e) throws InterruptedException {
+        waiting = true;
+        gate.await();
+        latest.add(e.getIndex());
+    }
+
+    @EventCall(maxRate = 20)
+    public void onLimited(CountedEvent e) {
+        limited.add(e.getIndex());
+        times.add(System.nanoTime());
+    }
+
+    public void open() {
+        gate.countDown();
+    }
+
+    public boolean isWaiting() {
+        return waiting;
+    }
+
+    public List<Integer> getLatest() {
+        return latest;
+    }
+
+    public List<Integer> getLimited() {
+        return limited;
+    }
+
+    public List<Long> getTimes() {
+        return times;
+    }
+}
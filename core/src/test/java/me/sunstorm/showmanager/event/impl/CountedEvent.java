@@ -0,0 +1,15 @@
+package me.sunstorm.showmanager.event.impl;
+
+import me.sunstorm.showmanager.eventsystem.events.Event;
+
+public class CountedEvent extends Event {
+    private final int index;
+
+    public CountedEvent(int index) {
+        this.index = index;
+    }
+
+    public int getIndex() {
+        return index;
+    }
+}
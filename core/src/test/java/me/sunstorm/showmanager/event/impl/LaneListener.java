@@ -0,0 +1,33 @@
+package me.sunstorm.showmanager.event.impl;
+
+import me.sunstorm.showmanager.eventsystem.EventCall;
+import me.sunstorm.showmanager.eventsystem.Listener;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+
+public class LaneListener implements Listener {
+    private final CountDownLatch gate = new CountDownLatch(1);
+    private final List<Integer> received = new CopyOnWriteArrayList<>();
+    private volatile String thread;
+
+    @EventCall(lane = "slow")
+    public void onCounted(CountedEvent e) throws InterruptedException {
+        thread = Thread.currentThread().getName();
+        gate.await();
+        received.add(e.getIndex());
+    }
+
+    public void open() {
+        gate.countDown();
+    }
+
+    public List<Integer> getReceived() {
+        return received;
+    }
+
+    public String getThread() {
+        return thread;
+    }
+}
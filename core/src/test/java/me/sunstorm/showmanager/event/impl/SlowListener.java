@@ -0,0 +1,19 @@
+package me.sunstorm.showmanager.event.impl;
+
+import me.sunstorm.showmanager.eventsystem.EventCall;
+import me.sunstorm.showmanager.eventsystem.Listener;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Takes as many milliseconds as the index of the event, fails on a negative index.
+ */
+public class SlowListener implements Listener {
+
+    @EventCall
+    public void onCounted(CountedEvent event) {
+        if (event.getIndex() < 0)
+            throw new IllegalStateException("Negative index");
+        LockSupport.parkNanos(event.getIndex() * 1_000_000L);
+    }
+}
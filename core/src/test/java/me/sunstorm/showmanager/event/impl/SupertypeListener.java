@@ -0,0 +1,27 @@
+package me.sunstorm.showmanager.event.impl;
+
+import me.sunstorm.showmanager.eventsystem.EventCall;
+import me.sunstorm.showmanager.eventsystem.EventPriority;
+import me.sunstorm.showmanager.eventsystem.Listener;
+import me.sunstorm.showmanager.eventsystem.events.Event;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class SupertypeListener implements Listener {
+    private final List<String> calls = new ArrayList<>();
+
+    @EventCall(EventPriority.HIGHEST)
+    public void onAnyEvent(Event e) {
+        calls.add("any");
+    }
+
+    @EventCall(EventPriority.LOWEST)
+    public void onDummyEvent(DummyEvent e) {
+        calls.add("dummy");
+    }
+
+    public List<String> getCalls() {
+        return calls;
+    }
+}
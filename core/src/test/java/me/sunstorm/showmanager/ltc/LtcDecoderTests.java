@@ -0,0 +1,155 @@
+package me.sunstorm.showmanager.ltc;
+
+import me.sunstorm.showmanager.modules.ltc.LtcDecoder;
+import me.sunstorm.showmanager.modules.ltc.LtcEncoder;
+import me.sunstorm.showmanager.util.Framerate;
+import me.sunstorm.showmanager.util.Frames;
+import org.junit.jupiter.api.Test;
+
+import javax.sound.sampled.AudioFormat;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+public class LtcDecoderTests {
+    private static final AudioFormat FORMAT = new AudioFormat(48000, 16, 1, true, false);
+
+    @Test
+    void testForward() {
+        long start = Frames.of(1, 2, 3, 4, Framerate.EBU);
+        List<Long> frames = new ArrayList<>();
+        List<Long> samples = new ArrayList<>();
+        LtcDecoder decoder = new LtcDecoder(FORMAT, (d, sample) -> {
+            assertThat(d.isReverse()).isFalse();
+            assertThat(d.getFramerate()).isEqualTo(Framerate.EBU);
+            frames.add(d.getFrames());
+            samples.add(sample);
+        });
+        byte[] data = signal(start, 50, Framerate.EBU, 48000, false);
+        decoder.decode(data, 0, data.length);
+
+        // the first frame is needed to find the sync, the last one never ends
+        assertThat(frames.size()).isGreaterThanOrEqualTo(48);
+        for (int i = 0; i < frames.size(); i++) {
+            long expected = start + 50 - frames.size() - 1 + i;
+            assertThat(frames.get(i)).isEqualTo(expected);
+            // 1920 samples per frame, reported at the end of the frame
+            assertThat(samples.get(i)).isBetween((expected - start + 1) * 1920 - 1, (expected - start + 1) * 1920 + 1);
+        }
+        assertThat(decoder.getErrors()).isEqualTo(0);
+    }
+
+    @Test
+    void testReverse() {
+        long start = Frames.of(0, 10, 0, 0, Framerate.EBU);
+        List<Long> frames = new ArrayList<>();
+        LtcDecoder decoder = new LtcDecoder(FORMAT, (d, sample) -> {
+            assertThat(d.isReverse()).isTrue();
+            frames.add(d.getFrames());
+        });
+        byte[] data = signal(start, 50, Framerate.EBU, 48000, true);
+        decoder.decode(data, 0, data.length);
+
+        assertThat(frames.size()).isGreaterThanOrEqualTo(48);
+        for (int i = 1; i < frames.size(); i++) {
+            assertThat(frames.get(i)).isEqualTo(frames.get(i - 1) - 1);
+        }
+        assertThat(frames.getFirst()).isLessThan(start + 50);
+        assertThat(frames.getLast()).isGreaterThanOrEqualTo(start);
+    }
+
+    @Test
+    void testFramerates() {
+        for (Framerate framerate : Framerate.values()) {
+            // crosses a minute boundary, so the drop-frame labels are skipped
+            long start = Frames.of(0, 0, 59, 0, framerate);
+            List<Long> frames = new ArrayList<>();
+            LtcDecoder decoder = new LtcDecoder(FORMAT, (d, sample) -> {
+                assertThat(d.getFramerate()).isEqualTo(framerate);
+                assertThat(d.isDropFrame()).isEqualTo(framerate.isDropFrame());
+                frames.add(d.getFrames());
+            });
+            byte[] data = signal(start, framerate.getNominal() * 2, framerate, 48000, false);
+            decoder.decode(data, 0, data.length);
+
+            assertThat(frames.size()).isGreaterThanOrEqualTo(framerate.getNominal() * 2 - 2);
+            for (int i = 1; i < frames.size(); i++) {
+                assertThat(frames.get(i)).isEqualTo(frames.get(i - 1) + 1);
+            }
+        }
+    }
+
+    @Test
+    void testStereoBigEndian() {
+        AudioFormat format = new AudioFormat(44100, 16, 2, true, true);
+        byte[] mono = signal(0, 20, Framerate.SMPTE, 44100, false);
+        byte[] data = new byte[mono.length * 2];
+        for (int i = 0; i < mono.length / 2; i++) {
+            data[i * 4] = mono[i * 2 + 1];
+            data[i * 4 + 1] = mono[i * 2];
+        }
+        List<Long> frames = new ArrayList<>();
+        LtcDecoder decoder = new LtcDecoder(format, (d, sample) -> frames.add(d.getFrames()));
+        decoder.decode(data, 0, data.length);
+
+        assertThat(frames.size()).isGreaterThanOrEqualTo(18);
+        assertThat(frames.getLast()).isEqualTo(18);
+    }
+
+    @Test
+    void testVarispeed() {
+        // 25 fps played 3% fast
+        long start = Frames.of(0, 1, 0, 0, Framerate.EBU);
+        byte[] data = signal(start, 50, Framerate.EBU, 48000 / 1.03f, false);
+        List<Long> frames = new ArrayList<>();
+        LtcDecoder decoder = new LtcDecoder(FORMAT, (d, sample) -> frames.add(d.getFrames()));
+        decoder.decode(data, 0, data.length);
+
+        assertThat(frames.size()).isGreaterThanOrEqualTo(48);
+        assertThat(decoder.getFps()).isBetween(25.5, 26.0);
+        assertThat(decoder.getFramerate()).isEqualTo(Framerate.EBU);
+    }
+
+    @Test
+    void testAllocationFree() {
+        var threadBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        threadBean.setThreadAllocatedMemoryEnabled(true);
+        long[] last = new long[1];
+        LtcDecoder decoder = new LtcDecoder(FORMAT, (d, sample) -> last[0] = d.getFrames());
+        byte[] data = signal(0, 250, Framerate.EBU, 48000, false);
+
+        decoder.decode(data, 0, data.length);
+        long before = threadBean.getCurrentThreadAllocatedBytes();
+        for (int i = 0; i < 10; i++) {
+            decoder.decode(data, 0, data.length);
+        }
+        long allocated = threadBean.getCurrentThreadAllocatedBytes() - before;
+
+        assertThat(last[0]).isEqualTo(248);
+        assertThat(allocated).isLessThan(1024);
+    }
+
+    static byte[] signal(long from, int count, Framerate framerate, float sampleRate, boolean reverse) {
+        LtcEncoder encoder = new LtcEncoder(framerate, sampleRate, (short) 16000);
+        byte[] data = new byte[encoder.getMaxFrameBytes() * count];
+        int length = 0;
+        for (int i = 0; i < count; i++) {
+            length += encoder.encode(from + i, data, length);
+        }
+        data = Arrays.copyOf(data, length);
+        if (reverse) {
+            for (int i = 0, j = length / 2 - 1; i < j; i++, j--) {
+                byte lo = data[i * 2];
+                byte hi = data[i * 2 + 1];
+                data[i * 2] = data[j * 2];
+                data[i * 2 + 1] = data[j * 2 + 1];
+                data[j * 2] = lo;
+                data[j * 2 + 1] = hi;
+            }
+        }
+        return data;
+    }
+}
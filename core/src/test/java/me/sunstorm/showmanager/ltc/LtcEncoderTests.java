@@ -0,0 +1,82 @@
+package me.sunstorm.showmanager.ltc;
+
+import me.sunstorm.showmanager.modules.ltc.LtcDecoder;
+import me.sunstorm.showmanager.modules.ltc.LtcEncoder;
+import me.sunstorm.showmanager.util.Framerate;
+import me.sunstorm.showmanager.util.Frames;
+import org.junit.jupiter.api.Test;
+
+import javax.sound.sampled.AudioFormat;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+public class LtcEncoderTests {
+    private static final AudioFormat FORMAT = new AudioFormat(48000, 16, 1, true, false);
+
+    @Test
+    void testRoundTrip() {
+        for (Framerate framerate : Framerate.values()) {
+            LtcEncoder encoder = new LtcEncoder(framerate, 48000, (short) 16384);
+            encoder.setUserBits(0x12345678);
+            List<Long> frames = new ArrayList<>();
+            LtcDecoder decoder = new LtcDecoder(FORMAT, (d, sample) -> {
+                assertThat(d.getUserBits()).isEqualTo(0x12345678);
+                assertThat(d.getFramerate()).isEqualTo(framerate);
+                frames.add(d.getFrames());
+            });
+            byte[] buffer = new byte[encoder.getMaxFrameBytes()];
+            // 23:59:59 -> 00:00:01, and a locate
+            long start = Frames.of(23, 59, 59, 0, framerate);
+            for (long f = start; f < start + framerate.getNominal() * 2L; f++) {
+                decoder.decode(buffer, 0, encoder.encode(f % Frames.of(24, 0, 0, 0, framerate), buffer, 0));
+            }
+            long located = Frames.of(10, 9, 0, 2, framerate);
+            for (long f = located; f < located + 5; f++) {
+                decoder.decode(buffer, 0, encoder.encode(f, buffer, 0));
+            }
+
+            assertThat(frames.getFirst()).isEqualTo(start);
+            assertThat(frames.get(framerate.getNominal())).isEqualTo(0);
+            assertThat(frames.getLast()).isEqualTo(located + 3);
+            assertThat(decoder.getErrors()).isEqualTo(0);
+        }
+    }
+
+    @Test
+    void testPolarity() {
+        LtcEncoder encoder = new LtcEncoder(Framerate.EBU, 48000, (short) 16384);
+        byte[] buffer = new byte[encoder.getMaxFrameBytes()];
+        for (long f = 0; f < 100; f++) {
+            encoder.encode(f * 7919, buffer, 0);
+            // every frame starts high
+            assertThat(buffer[1]).isGreaterThan((byte) 0);
+        }
+    }
+
+    @Test
+    void testStretch() {
+        LtcEncoder encoder = new LtcEncoder(Framerate.EBU, 48000, (short) 16384);
+        byte[] buffer = new byte[encoder.getMaxFrameBytes()];
+        assertThat(encoder.encode(0, buffer, 0)).isEqualTo(1920 * 2);
+        encoder.stretch(10);
+        assertThat(encoder.encode(1, buffer, 0)).isEqualTo(1930 * 2);
+        // limited to 1%
+        encoder.stretch(-1000);
+        assertThat(encoder.encode(2, buffer, 0)).isBetween(1900 * 2, 1901 * 2);
+        assertThat(encoder.encode(3, buffer, 0)).isEqualTo(1920 * 2);
+    }
+
+    @Test
+    void testNoDrift() {
+        LtcEncoder encoder = new LtcEncoder(Framerate.DF, 48000, (short) 16384);
+        byte[] buffer = new byte[encoder.getMaxFrameBytes()];
+        long samples = 0;
+        // 1001 seconds of 29.97
+        for (long f = 0; f < 30000; f++) {
+            samples += encoder.encode(f, buffer, 0) / 2;
+        }
+        assertThat(samples).isBetween(1001 * 48000L - 1, 1001 * 48000L + 1);
+    }
+}
@@ -0,0 +1,145 @@
+package me.sunstorm.showmanager.remote;
+
+import com.google.gson.JsonObject;
+import me.sunstorm.showmanager.dmx.DmxUniverseStore;
+import me.sunstorm.showmanager.modules.remote.DmxTrigger;
+import me.sunstorm.showmanager.modules.remote.DmxTriggerEngine;
+import me.sunstorm.showmanager.modules.remote.TriggerAction;
+import me.sunstorm.showmanager.modules.sacn.SacnPacket;
+import me.sunstorm.showmanager.util.DmxAddress;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+public class DmxTriggerTests {
+    private static final DmxAddress ADDRESS = new DmxAddress(1, 0, 10);
+
+    @Test
+    void testHysteresis() {
+        DmxUniverseStore store = new DmxUniverseStore(false);
+        List<DmxTrigger> fired = new ArrayList<>();
+        DmxTriggerEngine engine = new DmxTriggerEngine(store, fired::add);
+        DmxTrigger play = new DmxTrigger(ADDRESS, 46, 56, 5, 0, TriggerAction.PLAY, null);
+        DmxTrigger pause = new DmxTrigger(ADDRESS, 71, 81, 5, 0, TriggerAction.PAUSE, null);
+        engine.setTriggers(List.of(play, pause));
+        store.addListener(engine);
+
+        write(store, 51);
+        assertThat(fired).containsExactly(play);
+        // jitter around the edge doesn't fire again
+        write(store, 45);
+        write(store, 47);
+        write(store, 42);
+        write(store, 50);
+        assertThat(fired).containsExactly(play);
+        // leaving the range by more than the hysteresis re-arms it
+        write(store, 40);
+        write(store, 50);
+        assertThat(fired).containsExactly(play, play);
+        write(store, 76);
+        assertThat(fired).containsExactly(play, play, pause);
+        assertThat(engine.getFired()).isEqualTo(3);
+    }
+
+    @Test
+    void testDebounce() {
+        DmxUniverseStore store = new DmxUniverseStore(false);
+        List<DmxTrigger> fired = new ArrayList<>();
+        DmxTriggerEngine engine = new DmxTriggerEngine(store, fired::add);
+        engine.setTriggers(List.of(new DmxTrigger(ADDRESS, 128, 255, 0, 60_000_000_000L, TriggerAction.STOP, null)));
+        store.addListener(engine);
+
+        write(store, 255);
+        write(store, 0);
+        write(store, 255);
+        assertThat(fired).hasSize(1);
+    }
+
+    @Test
+    void testSetTriggersResets() {
+        DmxUniverseStore store = new DmxUniverseStore(false);
+        List<DmxTrigger> fired = new ArrayList<>();
+        DmxTriggerEngine engine = new DmxTriggerEngine(store, fired::add);
+        DmxTrigger stop = new DmxTrigger(ADDRESS, 128, 255, 0, 60_000_000_000L, TriggerAction.STOP, null);
+        engine.setTriggers(List.of(stop));
+        store.addListener(engine);
+
+        write(store, 255);
+        // the same instances, as the module passes them back in
+        engine.setTriggers(List.of(stop));
+        write(store, 255);
+        assertThat(fired).hasSize(2);
+    }
+
+    @Test
+    void testWatchedChannels() {
+        DmxUniverseStore store = new DmxUniverseStore(false);
+        List<DmxTrigger> fired = new ArrayList<>();
+        DmxTriggerEngine engine = new DmxTriggerEngine(store, fired::add);
+        engine.setTriggers(List.of(new DmxTrigger(ADDRESS, 1, 255, 0, 0, TriggerAction.PLAY, null)));
+        store.addListener(engine);
+
+        // other channels and universes
+        byte[] data = new byte[512];
+        data[10] = 1;
+        store.write(ADDRESS.portAddress(), data, 0, data.length);
+        data[9] = 1;
+        store.write(ADDRESS.portAddress() + 1, data, 0, data.length);
+        assertThat(fired).isEmpty();
+        store.write(ADDRESS.portAddress(), data, 0, data.length);
+        assertThat(fired).hasSize(1);
+
+        assertThatThrownBy(() -> new DmxTrigger(new DmxAddress(0, 0, 513), 0, 255, 0, 0, TriggerAction.PLAY, null))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new DmxTrigger(ADDRESS, 200, 100, 0, 0, TriggerAction.PLAY, null))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void testJson() {
+        DmxTrigger trigger = new DmxTrigger(ADDRESS, 10, 20, 3, 250_000_000L, TriggerAction.MARKER, "Chorus");
+        DmxTrigger loaded = DmxTrigger.fromJson(trigger.toJson());
+        assertThat(loaded.getAddress()).isEqualTo(ADDRESS);
+        assertThat(loaded.getMin()).isEqualTo(10);
+        assertThat(loaded.getMax()).isEqualTo(20);
+        assertThat(loaded.getHysteresis()).isEqualTo(3);
+        assertThat(loaded.getDebounce()).isEqualTo(250_000_000L);
+        assertThat(loaded.getAction()).isEqualTo(TriggerAction.MARKER);
+        assertThat(loaded.getArgument()).isEqualTo("Chorus");
+
+        // saved before the net was
+        JsonObject old = trigger.toJson();
+        old.remove("net");
+        assertThat(DmxTrigger.fromJson(old).getAddress().net()).isZero();
+    }
+
+    @Test
+    void testNet() {
+        DmxUniverseStore store = new DmxUniverseStore(false);
+        List<DmxTrigger> fired = new ArrayList<>();
+        DmxTriggerEngine engine = new DmxTriggerEngine(store, fired::add);
+        // sACN universe 301
+        DmxAddress address = new DmxAddress(12, 2, 1, 1);
+        assertThat(address.portAddress()).isEqualTo(SacnPacket.portAddress(301));
+        DmxTrigger trigger = new DmxTrigger(address, 1, 255, 0, 0, TriggerAction.PLAY, null);
+        engine.setTriggers(List.of(trigger));
+        store.addListener(engine);
+
+        store.write(address.portAddress() & 0xFF, new byte[] {1}, 0, 1);
+        assertThat(fired).isEmpty();
+        store.write(address.portAddress(), new byte[] {1}, 0, 1);
+        assertThat(fired).containsExactly(trigger);
+        assertThat(DmxTrigger.fromJson(trigger.toJson()).getAddress()).isEqualTo(address);
+        assertThatThrownBy(() -> new DmxTrigger(new DmxAddress(0, 0, 128, 1), 0, 255, 0, 0, TriggerAction.PLAY, null))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static void write(DmxUniverseStore store, int level) {
+        byte[] data = new byte[ADDRESS.address()];
+        data[ADDRESS.address() - 1] = (byte) level;
+        store.write(ADDRESS.portAddress(), data, 0, data.length);
+    }
+}
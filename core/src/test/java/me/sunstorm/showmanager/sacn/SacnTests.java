@@ -0,0 +1,106 @@
+package me.sunstorm.showmanager.sacn;
+
+import me.sunstorm.showmanager.dmx.DmxMergeEngine;
+import me.sunstorm.showmanager.dmx.DmxUniverseStore;
+import me.sunstorm.showmanager.modules.sacn.SacnPacket;
+import me.sunstorm.showmanager.modules.sacn.SacnReceiver;
+import me.sunstorm.showmanager.modules.sacn.SacnSender;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetAddress;
+import java.nio.ByteBuffer;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.*;
+
+public class SacnTests {
+    private static final UUID FIRST = UUID.randomUUID();
+    private static final UUID SECOND = UUID.randomUUID();
+
+    @Test
+    void testPacket() {
+        ByteBuffer packet = packet(FIRST, 150, 7, 42, 10, 20);
+        assertThat(SacnPacket.isData(packet, SacnPacket.MAX_LENGTH)).isTrue();
+        assertThat(SacnPacket.isData(packet, SacnPacket.MAX_LENGTH - 1)).isFalse();
+        assertThat(SacnPacket.universe(packet)).isEqualTo(42);
+        assertThat(SacnPacket.priority(packet)).isEqualTo(150);
+        assertThat(SacnPacket.sequence(packet)).isEqualTo(7);
+        assertThat(SacnPacket.slots(packet)).isEqualTo(512);
+        assertThat(SacnPacket.cidMost(packet)).isEqualTo(FIRST.getMostSignificantBits());
+        assertThat(SacnPacket.isTerminated(packet)).isFalse();
+        assertThat(SacnPacket.multicastGroup(0x1234).getHostAddress()).isEqualTo("239.255.18.52");
+        assertThat(SacnPacket.portAddress(1)).isEqualTo(0);
+        assertThat(SacnPacket.portAddress(40000)).isEqualTo(-1);
+
+        packet.put(4, (byte) 0);
+        assertThat(SacnPacket.isData(packet, SacnPacket.MAX_LENGTH)).isFalse();
+    }
+
+    @Test
+    void testReceive() throws Exception {
+        DmxUniverseStore store = new DmxUniverseStore(false);
+        SacnReceiver receiver = new SacnReceiver(new DmxMergeEngine(store));
+        receiver.join(3);
+        int portAddress = SacnPacket.portAddress(3);
+
+        assertThat(receiver.onPacket(packet(FIRST, 100, 1, 3, 100, 0), SacnPacket.MAX_LENGTH, 0)).isTrue();
+        assertThat(receiver.onPacket(packet(SECOND, 150, 1, 3, 10, 10), SacnPacket.MAX_LENGTH, 0)).isTrue();
+        assertThat(receiver.getEngine().getSources(portAddress)).isEqualTo(2);
+        assertThat(store.get(portAddress, 0)).isEqualTo(10);
+        // late packets are discarded
+        assertThat(receiver.onPacket(packet(SECOND, 150, 1, 3, 20, 20), SacnPacket.MAX_LENGTH, 0)).isFalse();
+
+        // the terminated source gives the universe back right away
+        ByteBuffer terminated = packet(SECOND, 150, 2, 3, 10, 10);
+        SacnPacket.setTerminated(terminated, true);
+        assertThat(receiver.onPacket(terminated, SacnPacket.MAX_LENGTH, 0)).isTrue();
+        assertThat(receiver.getEngine().getSources(portAddress)).isEqualTo(1);
+        assertThat(store.get(portAddress, 0)).isEqualTo(100);
+
+        // not joined
+        assertThat(receiver.onPacket(packet(FIRST, 100, 2, 4, 5), SacnPacket.MAX_LENGTH, 0)).isFalse();
+        receiver.leave(3);
+        assertThat(receiver.onPacket(packet(FIRST, 100, 3, 3, 5), SacnPacket.MAX_LENGTH, 0)).isFalse();
+        assertThat(store.get(portAddress, 0)).isEqualTo(100);
+        assertThatThrownBy(() -> receiver.join(40000)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void testSendReceive() throws Exception {
+        InetAddress loopback = InetAddress.getLoopbackAddress();
+        DmxUniverseStore store = new DmxUniverseStore(false);
+        DmxMergeEngine engine = new DmxMergeEngine(store);
+        SacnReceiver receiver = new SacnReceiver(engine);
+        receiver.start(loopback, 0);
+        receiver.join(5);
+        try (SacnSender sender = new SacnSender(UUID.randomUUID(), "Test", receiver.getPort())) {
+            sender.open(loopback);
+            sender.addUniverse(5, loopback);
+            sender.set(5, 0, 123);
+            sender.set(5, 511, 45);
+            sender.send(System.nanoTime());
+
+            int portAddress = SacnPacket.portAddress(5);
+            long deadline = System.currentTimeMillis() + 2000;
+            while (store.getSequence(portAddress) == 0 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(5);
+            }
+            assertThat(store.get(portAddress, 0)).isEqualTo(123);
+            assertThat(store.get(portAddress, 511)).isEqualTo(45);
+            assertThat(sender.getSent()).isEqualTo(1);
+            assertThat(engine.getPackets()).isEqualTo(1);
+        } finally {
+            receiver.stop();
+        }
+    }
+
+    private static ByteBuffer packet(UUID cid, int priority, int sequence, int universe, int... levels) {
+        ByteBuffer packet = ByteBuffer.allocate(SacnPacket.MAX_LENGTH);
+        SacnPacket.writeHeader(packet, cid, "Test", priority, universe);
+        SacnPacket.setSequence(packet, sequence);
+        for (int i = 0; i < levels.length; i++) {
+            packet.put(SacnPacket.DMX_OFFSET + i, (byte) levels[i]);
+        }
+        return packet;
+    }
+}
@@ -12,8 +12,7 @@ public class TimecodeSerializerTests {
 
     @Test
     void testTimecodeSerialize() {
-        Framerate.set(25);
-        Timecode tc = new Timecode(1, 2, 3, 4);
+        Timecode tc = new Timecode(1, 2, 3, 4, Framerate.EBU);
         JsonObject data = Constants.GSON.toJsonTree(tc).getAsJsonObject();
         assertThat(data.has("hour")).isTrue();
         assertThat(data.has("min")).isTrue();
@@ -25,16 +24,20 @@ public class TimecodeSerializerTests {
         assertThat(data.get("sec").getAsInt()).isEqualTo(3);
         assertThat(data.get("frame").getAsInt()).isEqualTo(4);
         assertThat(data.get("millisecLength").getAsInt()).isEqualTo(3723160);
+        assertThat(data.get("framerate").getAsInt()).isEqualTo(25);
     }
 
     @Test
     void testTimecodeDeserialize() {
-        Framerate.set(25);
         Timecode tc = Constants.GSON.fromJson("{\"hour\":1,\"min\":2,\"sec\":3,\"frame\":4,\"millisecLength\":3723160}", Timecode.class);
         assertThat(tc).isNotNull();
         assertThat(tc.getHour()).isEqualTo(1);
         assertThat(tc.getMin()).isEqualTo(2);
         assertThat(tc.getSec()).isEqualTo(3);
         assertThat(tc.getFrame()).isEqualTo(4);
+        assertThat(tc.getFramerate()).isEqualTo(Framerate.DEFAULT);
+        tc = Constants.GSON.fromJson("{\"hour\":1,\"min\":2,\"sec\":3,\"frame\":4,\"framerate\":29}", Timecode.class);
+        assertThat(tc.getFramerate()).isEqualTo(Framerate.DF);
+        assertThat(tc.getFrame()).isEqualTo(4);
     }
 }